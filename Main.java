@@ -1,14 +1,24 @@
 package gr.aueb.cf.ch18.bankapp;
 
-import gr.aueb.cf.ch18.bankapp.dao.AccountDAOImpl;
 import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.IndexedAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.journal.AccountJournal;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournalDurability;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournaledAccountDAO;
 import gr.aueb.cf.ch18.bankapp.dto.*;
 import gr.aueb.cf.ch18.bankapp.model.Account;
 import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.model.UserView;
 import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
-import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+import gr.aueb.cf.ch18.bankapp.service.InstrumentedAccountService;
 import gr.aueb.cf.ch18.bankapp.service.exceptions.*;
 
+import javax.management.JMException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLOutput;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,15 +38,19 @@ public class Main {
 
     /**
      * DAO layer για διαχείριση δεδομένων λογαριασμών.
-     * Δημιουργείται το AccountDAOImpl και "wired" στο Service.
+     * Δημιουργείται το IndexedAccountDAOImpl και "wired" στο Service.
+     * Αν έχει οριστεί το system property {@code bankapp.journal}, τα δεδομένα
+     * καταγράφονται σε write-ahead journal στο αντίστοιχο αρχείο και σε snapshot
+     * δίπλα του ({@code <journal>.snap}) κατά την έξοδο.
      */
-    private final static IAccountDAO dao = new AccountDAOImpl();
+    private final static IAccountDAO dao = createDao();
 
     /**
      * Service layer που περιέχει επιχειρησιακή λογική.
-     * Το DAO περνάει μέσω constructor injection.
+     * Το DAO περνάει μέσω constructor injection. Το service μετράται από
+     * {@link InstrumentedAccountService} και οι μετρήσεις εκτίθενται και μέσω JMX.
      */
-    private final static IAccountService service = new AccountServiceImpl(dao);
+    private final static InstrumentedAccountService service = createService();
 
     /**
      * Κύρια μέθοδος εκτέλεσης εφαρμογής.
@@ -52,11 +66,12 @@ public class Main {
             choice = getChoice();
 
             if (choice.matches("[qQ]")) {
+                closeDao();
                 System.out.println("Goodbye. Thanks for using our app.");
                 break;
             }
 
-            if (!choice.matches("[1-7]")) {
+            if (!choice.matches("[1-9]")) {
                 System.out.println("Wrong choice.");
                 continue;
             }
@@ -66,6 +81,52 @@ public class Main {
 
     }
 
+    /**
+     * Δημιουργεί το DAO της εφαρμογής: in-memory, ή durable με journal αν έχει
+     * οριστεί το system property {@code bankapp.journal}.
+     */
+    private static IAccountDAO createDao() {
+        String journalPath = System.getProperty("bankapp.journal");
+        if (journalPath == null) return new IndexedAccountDAOImpl();
+
+        try {
+            AccountJournal journal = new AccountJournal(Paths.get(journalPath), JournalDurability.PER_OPERATION);
+            return new JournaledAccountDAO(new IndexedAccountDAOImpl(), journal, snapshotPath(journalPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Δημιουργεί το service της εφαρμογής και καταχωρεί τις μετρήσεις του στο JMX. */
+    private static InstrumentedAccountService createService() {
+        InstrumentedAccountService instrumented = new InstrumentedAccountService(new AccountServiceImpl(dao));
+        try {
+            instrumented.getMetrics().registerMBeans("AccountService");
+        } catch (JMException e) {
+            System.out.println(e.getMessage());
+        }
+        return instrumented;
+    }
+
+    /** Επιστρέφει το αρχείο snapshot που αντιστοιχεί σε ένα αρχείο journal. */
+    private static Path snapshotPath(String journalPath) {
+        return Paths.get(journalPath + ".snap");
+    }
+
+    /** Κλείνει το DAO αν κρατά πόρους (π.χ. αρχείο journal), γράφοντας πρώτα snapshot. */
+    private static void closeDao() {
+        if (!(dao instanceof Closeable)) return;
+
+        try {
+            if (dao instanceof JournaledAccountDAO) {
+                ((JournaledAccountDAO) dao).checkpoint(snapshotPath(System.getProperty("bankapp.journal")));
+            }
+            ((Closeable) dao).close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
     /**
      * Επεξεργάζεται την επιλογή του χρήστη.
      *
@@ -104,8 +165,7 @@ public class Main {
                 }
                 break;
             case "5": // Εκτύπωση όλων των λογαριασμών
-                List<AccountReadOnlyDTO> accounts = getAccounts();
-                printAccounts(accounts);
+                printAccounts();
                 break;
             case "6": // Κατάθεση
                 System.out.println("Δώστε UUID λογαριασμού για κατάθεση");
@@ -123,6 +183,18 @@ public class Main {
                 double withdrawAmount = Double.parseDouble(scanner.nextLine());
                 withdraw(iban, ssn, withdrawAmount);
                 break;
+            case "8": // Μεταφορά
+                System.out.println("Δώστε IBAN λογαριασμού προέλευσης");
+                iban = scanner.nextLine().trim();
+                System.out.println("Δώστε IBAN λογαριασμού προορισμού");
+                String toIban = scanner.nextLine().trim();
+                System.out.println("Δώστε ποσό μεταφοράς");
+                double transferAmount = Double.parseDouble(scanner.nextLine());
+                transfer(iban, toIban, transferAmount);
+                break;
+            case "9": // Στατιστικά
+                System.out.print(service.getMetrics().dump());
+                break;
             default:
                 System.out.println("Generic error.");
                 break;
@@ -164,10 +236,28 @@ public class Main {
         }
     }
 
+    /**
+     * Εκτελεί μεταφορά μεταξύ λογαριασμών.
+     *
+     * @param fromIban IBAN λογαριασμού προέλευσης
+     * @param toIban IBAN λογαριασμού προορισμού
+     * @param amount ποσό μεταφοράς
+     */
+    public static void transfer(String fromIban, String toIban, double amount) {
+        try {
+            Account acc = service.transfer(fromIban, toIban, amount);
+            System.out.println("Επιτυχής μεταφορά. Νέο υπόλοιπο: " + acc.getBalance());
+        } catch (AccountNotFoundException | IllegalArgumentException | NegativeAmountException |
+                 InsufficientBalanceException e) {
+            System.out.println(e.getMessage());
+        }
+    }
 
-    /** Εκτυπώνει λίστα λογαριασμών */
-    private static void printAccounts(List<AccountReadOnlyDTO> accounts) {
-        accounts.forEach(System.out::println);
+    /** Εκτυπώνει όλους τους λογαριασμούς ως stream, χωρίς αντίγραφο ολόκληρης της λίστας */
+    private static void printAccounts() {
+        service.streamAccounts()
+                .map(Main::mapToAccountReadOnlyDto)
+                .forEach(System.out::println);
     }
 
     /** Χρησιμεύει για μετατροπή λίστας {@link Account } → {@link AccountReadOnlyDTO } */
@@ -185,14 +275,14 @@ public class Main {
         return mapToAccountsReadOnlyDto(accounts);
     }
 
-    /** Μετατρέπει {@link User} → {@link UserReadOnlyDTO} */
-    public static UserReadOnlyDTO mapToUserReadOnlyDto(User user) {
+    /** Μετατρέπει {@link UserView} → {@link UserReadOnlyDTO} */
+    public static UserReadOnlyDTO mapToUserReadOnlyDto(UserView user) {
         return new UserReadOnlyDTO(user.getUuid(), user.getFirstname(), user.getLastname(), user.getSsn());
     }
 
     /** Μετατρέπει {@link Account} → {@link AccountReadOnlyDTO} */
     public static AccountReadOnlyDTO mapToAccountReadOnlyDto(Account account) {
-        return new AccountReadOnlyDTO(account.getUuid(), account.getIban(), mapToUserReadOnlyDto(account.getHolder()), account.getBalance());
+        return new AccountReadOnlyDTO(account.getUuid(), account.getIban(), mapToUserReadOnlyDto(account.getHolderView()), account.getBalance());
     }
 
 
@@ -220,14 +310,14 @@ public class Main {
         }
     }
 
-    /** Μετατρέπει {@link User} → {@link UserUpdateDTO} */
-    public static UserUpdateDTO mapToUserUpdateDto(User user) {
+    /** Μετατρέπει {@link UserView} → {@link UserUpdateDTO} */
+    public static UserUpdateDTO mapToUserUpdateDto(UserView user) {
         return new UserUpdateDTO(user.getUuid(), user.getFirstname(), user.getLastname(), user.getSsn());
     }
 
     /** Μετατρέπει {@link Account} → {@link AccountUpdateDTO} */
     public static AccountUpdateDTO mapToAccountUpdateDto(Account account) {
-        return new AccountUpdateDTO(account.getUuid(), account.getIban(), mapToUserUpdateDto(account.getHolder()), account.getBalance());
+        return new AccountUpdateDTO(account.getUuid(), account.getIban(), mapToUserUpdateDto(account.getHolderView()), account.getBalance());
     }
 
     /** Ενημερώνει λογαριασμό βάσει UUID και νέων στοιχείων */
@@ -235,19 +325,20 @@ public class Main {
         try {
             AccountUpdateDTO updateDTO = mapToAccountUpdateDto(account);
             Account acc = service.updateAccount(uuid, updateDTO);
-        } catch (AccountNotFoundException | IbanAlreadyExistsException | DuplicateAccountException e) {
+        } catch (AccountNotFoundException | IbanAlreadyExistsException | DuplicateAccountException |
+                 InvalidIbanException e) {
             System.out.println(e.getMessage());
         }
     }
 
-    /** Μετατρέπει {@link User} → {@link UserInsertDTO} */
-    public static UserInsertDTO mapToUserInsertDto(User user) {
+    /** Μετατρέπει {@link UserView} → {@link UserInsertDTO} */
+    public static UserInsertDTO mapToUserInsertDto(UserView user) {
         return new UserInsertDTO(user.getFirstname(), user.getLastname(), user.getSsn());
     }
 
     /** Μετατρέπει {@link Account} → {@link AccountInsertDTO} */
     public static AccountInsertDTO mapToAccountInsertDto(Account account) {
-        return new AccountInsertDTO(account.getIban(), mapToUserInsertDto(account.getHolder()), account.getBalance());
+        return new AccountInsertDTO(account.getIban(), mapToUserInsertDto(account.getHolderView()), account.getBalance());
     }
 
     /** Εισαγωγή νέου λογαριασμού */
@@ -256,7 +347,7 @@ public class Main {
             AccountInsertDTO insertDTO = mapToAccountInsertDto(account);
             Account acc = service.insertAccount(insertDTO);
             System.out.println("Επιτυχής εισαγωγή: " + acc);
-        } catch (DuplicateAccountException e) {
+        } catch (DuplicateAccountException | IbanAlreadyExistsException | InvalidIbanException e) {
             System.out.println(e.getMessage());
         }
     }
@@ -298,6 +389,8 @@ public class Main {
         System.out.println("5. Εκτύπωση λογαριασμών");
         System.out.println("6. Κατάθεση");
         System.out.println("7. Ανάληψη");
+        System.out.println("8. Μεταφορά");
+        System.out.println("9. Στατιστικά");
         System.out.println("q/Q για έξοδο");
     }
 
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Υλοποίηση του {@link IAccountDAO} που διαχειρίζεται λογαριασμούς σε μνήμη
@@ -18,8 +19,8 @@ import java.util.Optional;
  */
 public class AccountDAOImpl implements IAccountDAO{
 
-    /** Λίστα που αποθηκεύει όλους τους λογαριασμούς. */
-    private final static List<Account> accounts = new ArrayList<>();
+    /** Λίστα που αποθηκεύει όλους τους λογαριασμούς (ανά instance, ώστε να συνυπάρχουν ανεξάρτητα DAOs). */
+    private final List<Account> accounts = new ArrayList<>();
 
     /**
      * Εισάγει νέο λογαριασμό στη λίστα.
@@ -51,14 +52,27 @@ public class AccountDAOImpl implements IAccountDAO{
         if (acc == null) return null;
 
         Account accountToReturn = new Account(acc);
-        acc.setUuid(account.getUuid());
+        acc.setId(account.getId());
         acc.setIban(account.getIban());
-        acc.setBalance(account.getBalance());
-        acc.setHolder(account.getHolder());
+        acc.setHolder(account.getHolderView());
 
         return accountToReturn;
     }
 
+    /**
+     * Ατομική ενημέρωση (compare-and-set) του υπολοίπου ενός λογαριασμού σε λεπτά.
+     * Ο λογαριασμός είναι το ίδιο το αποθηκευμένο αντικείμενο, οπότε το CAS γίνεται απευθείας σε αυτό.
+     *
+     * @param account ο λογαριασμός
+     * @param expectedMinor το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newMinor το νέο υπόλοιπο σε λεπτά
+     * @return true αν η ενημέρωση έγινε, false αν το υπόλοιπο είχε αλλάξει
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        return account.compareAndSetBalanceMinor(expectedMinor, newMinor);
+    }
+
     /**
      * Διαγράφει έναν λογαριασμό βάσει UUID.
      *
@@ -77,11 +91,24 @@ public class AccountDAOImpl implements IAccountDAO{
      */
     @Override
     public Account get(String uuid) {
-        return accounts
-                .stream()
-                .filter(acc -> acc.getUuid().equals(uuid))
-                .findFirst()
-                .orElse(null);
+        for (Account acc : accounts) {
+            if (acc.getUuid().equals(uuid)) return acc;
+        }
+        return null;
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει IBAN.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account getByIban(String iban) {
+        for (Account acc : accounts) {
+            if (acc.getIban().equals(iban)) return acc;
+        }
+        return null;
     }
 
     /**
@@ -94,6 +121,29 @@ public class AccountDAOImpl implements IAccountDAO{
         return new ArrayList<>(accounts);
     }
 
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID.
+     * Η λίστα δεν είναι ταξινομημένη, οπότε κάθε σελίδα σαρώνει όλους τους λογαριασμούς.
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return νέα λίστα ταξινομημένη κατά UUID
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        return AccountPages.firstAfter(accounts.stream(), afterUuid, limit);
+    }
+
+    /**
+     * Επιστρέφει lazy stream όλων των λογαριασμών με σειρά εισαγωγής.
+     *
+     * @return stream των λογαριασμών
+     */
+    @Override
+    public Stream<Account> stream() {
+        return accounts.stream();
+    }
+
     /**
      * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο UUID.
      *
@@ -102,9 +152,7 @@ public class AccountDAOImpl implements IAccountDAO{
      */
     @Override
     public boolean uuidExists(String uuid) {
-        return accounts
-                .stream()
-                .anyMatch(acc -> acc.getUuid().equals(uuid));
+        return get(uuid) != null;
     }
 
     /**
@@ -115,9 +163,10 @@ public class AccountDAOImpl implements IAccountDAO{
      */
     @Override
     public boolean ssnExists(String ssn) {
-        return accounts
-                .stream()
-                .anyMatch(acc -> acc.getHolder().getSsn().equals(ssn));
+        for (Account acc : accounts) {
+            if (acc.getHolderView().getSsn().equals(ssn)) return true;
+        }
+        return false;
     }
 
     /**
@@ -127,8 +176,6 @@ public class AccountDAOImpl implements IAccountDAO{
      * @return true αν υπάρχει, false αλλιώς
      */
     public boolean ibanExists(String iban) {
-        return accounts
-                .stream()
-                .anyMatch(acc -> acc.getIban().equals(iban));
+        return getByIban(iban) != null;
     }
 }
@@ -0,0 +1,56 @@
+package gr.aueb.cf.ch18.bankapp.dao;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Βοηθητική κλάση για keyset pagination λογαριασμών ταξινομημένων κατά UUID,
+ * για DAOs που δεν διατηρούν ταξινομημένο index.
+ *
+ * Η σελίδα υπολογίζεται με μία σάρωση και heap μεγέθους {@code limit}, οπότε η
+ * μνήμη είναι O(limit) ανεξάρτητα από το πλήθος των λογαριασμών.
+ */
+public final class AccountPages {
+    /** Ταξινόμηση λογαριασμών κατά UUID. */
+    public static final Comparator<Account> BY_UUID = Comparator.comparing(Account::getUuid);
+
+    /**
+     * Private Constructor, δεν δημιουργούνται instances.
+     */
+    private AccountPages() {
+
+    }
+
+    /**
+     * Επιστρέφει τους πρώτους {@code limit} λογαριασμούς (κατά UUID) με UUID μεγαλύτερο του {@code afterUuid}.
+     *
+     * @param accounts οι λογαριασμοί, με οποιαδήποτε σειρά
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return νέα λίστα ταξινομημένη κατά UUID
+     */
+    public static List<Account> firstAfter(Stream<Account> accounts, String afterUuid, int limit) {
+        PriorityQueue<Account> page = new PriorityQueue<>(limit, BY_UUID.reversed());
+
+        accounts.forEach(account -> {
+            String uuid = account.getUuid();
+            if (afterUuid != null && uuid.compareTo(afterUuid) <= 0) return;
+
+            if (page.size() < limit) {
+                page.add(account);
+            } else if (uuid.compareTo(page.peek().getUuid()) < 0) {
+                page.poll();
+                page.add(account);
+            }
+        });
+
+        List<Account> result = new ArrayList<>(page);
+        result.sort(BY_UUID);
+        return result;
+    }
+}
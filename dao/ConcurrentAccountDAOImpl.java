@@ -0,0 +1,245 @@
+package gr.aueb.cf.ch18.bankapp.dao;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe υλοποίηση του {@link IAccountDAO} που διαχειρίζεται λογαριασμούς σε μνήμη
+ * χρησιμοποιώντας {@link ConcurrentHashMap} indexes (UUID, IBAN, SSN).
+ *
+ * Οι αναζητήσεις (get, getByIban, exists) γίνονται χωρίς κλείδωμα σε O(1), και οι
+ * σελίδες (getPage) χωρίς κλείδωμα από ένα {@link ConcurrentSkipListMap} ταξινομημένο κατά UUID.
+ * Οι δομικές αλλαγές (insert, update, delete) σειριοποιούνται μεταξύ τους, ώστε
+ * τα indexes να παραμένουν συνεπή όταν αλλάζει UUID ή IBAN.
+ *
+ * Οι αλλαγές υπολοίπου γίνονται ατομικά μέσω {@link #compareAndSetBalance(Account, long, long)},
+ * χωρίς κλείδωμα.
+ */
+public class ConcurrentAccountDAOImpl implements IAccountDAO {
+
+    /** Primary index: UUID → λογαριασμός. */
+    private final Map<String, Account> accountsByUuid = new ConcurrentHashMap<>();
+
+    /** Unique secondary index: IBAN → λογαριασμός. */
+    private final Map<String, Account> accountsByIban = new ConcurrentHashMap<>();
+
+    /** Multi-valued secondary index: SSN κατόχου → UUIDs λογαριασμών. */
+    private final Map<String, Set<String>> uuidsBySsn = new ConcurrentHashMap<>();
+
+    /** Ταξινομημένο index: UUID → λογαριασμός, για keyset pagination. */
+    private final NavigableMap<String, Account> accountsInUuidOrder = new ConcurrentSkipListMap<>();
+
+    /** Lock που σειριοποιεί τις δομικές αλλαγές των indexes. */
+    private final Object writeLock = new Object();
+
+    /**
+     * Εισάγει νέο λογαριασμό και ενημερώνει όλα τα indexes.
+     *
+     * @param account ο λογαριασμός προς εισαγωγή
+     * @return ο λογαριασμός που εισήχθη
+     */
+    @Override
+    public Account insert(Account account) {
+        synchronized (writeLock) {
+            accountsByUuid.put(account.getUuid(), account);
+            accountsInUuidOrder.put(account.getUuid(), account);
+            index(account);
+        }
+        return account;
+    }
+
+    /**
+     * Ενημερώνει έναν υπάρχοντα λογαριασμό βάσει UUID.
+     * Αν αλλάξει το UUID, ο IBAN ή ο κάτοχος, τα indexes ενημερώνονται αντίστοιχα.
+     *
+     * @param uuid το UUID του λογαριασμού προς ενημέρωση
+     * @param account τα νέα δεδομένα του λογαριασμού
+     * @return ο παλιός λογαριασμός πριν την ενημέρωση, ή null αν δεν βρέθηκε
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        synchronized (writeLock) {
+            Account acc = accountsByUuid.get(uuid);
+            if (acc == null) return null;
+
+            Account accountToReturn = new Account(acc);
+
+            unindex(acc);
+            accountsByUuid.remove(uuid);
+            accountsInUuidOrder.remove(uuid);
+
+            acc.setId(account.getId());
+            acc.setIban(account.getIban());
+            acc.setHolder(account.getHolderView());
+
+            accountsByUuid.put(acc.getUuid(), acc);
+            accountsInUuidOrder.put(acc.getUuid(), acc);
+            index(acc);
+
+            return accountToReturn;
+        }
+    }
+
+    /**
+     * Ατομική ενημέρωση (compare-and-set) του υπολοίπου ενός λογαριασμού σε λεπτά.
+     * Ο λογαριασμός είναι το ίδιο το αποθηκευμένο αντικείμενο, οπότε το CAS γίνεται απευθείας σε αυτό.
+     *
+     * @param account ο λογαριασμός
+     * @param expectedMinor το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newMinor το νέο υπόλοιπο σε λεπτά
+     * @return true αν η ενημέρωση έγινε, false αν το υπόλοιπο είχε αλλάξει
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        return account.compareAndSetBalanceMinor(expectedMinor, newMinor);
+    }
+
+    /**
+     * Διαγράφει έναν λογαριασμό βάσει UUID και τον αφαιρεί από όλα τα indexes.
+     *
+     * @param uuid το UUID του λογαριασμού προς διαγραφή
+     */
+    @Override
+    public void delete(String uuid) {
+        synchronized (writeLock) {
+            Account acc = accountsByUuid.remove(uuid);
+            if (acc == null) return;
+
+            accountsInUuidOrder.remove(uuid);
+            unindex(acc);
+        }
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει UUID.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account get(String uuid) {
+        return accountsByUuid.get(uuid);
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει IBAN.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return accountsByIban.get(iban);
+    }
+
+    /**
+     * Επιστρέφει όλους τους λογαριασμούς.
+     * Η λίστα είναι weakly consistent στιγμιότυπο των δεδομένων.
+     *
+     * @return νέα λίστα με όλους τους λογαριασμούς
+     */
+    @Override
+    public List<Account> getAll() {
+        return new ArrayList<>(accountsByUuid.values());
+    }
+
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID από το ταξινομημένο index,
+     * σε O(log n + limit), χωρίς κλείδωμα.
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return νέα λίστα ταξινομημένη κατά UUID
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        Collection<Account> tail = afterUuid == null
+                ? accountsInUuidOrder.values()
+                : accountsInUuidOrder.tailMap(afterUuid, false).values();
+
+        List<Account> page = new ArrayList<>(Math.min(limit, accountsByUuid.size()));
+        for (Account account : tail) {
+            if (page.size() == limit) break;
+            page.add(account);
+        }
+        return page;
+    }
+
+    /**
+     * Επιστρέφει lazy stream όλων των λογαριασμών (weakly consistent).
+     *
+     * @return stream των λογαριασμών
+     */
+    @Override
+    public Stream<Account> stream() {
+        return accountsByUuid.values().stream();
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο UUID.
+     *
+     * @param uuid το UUID προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return accountsByUuid.containsKey(uuid);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο SSN.
+     *
+     * @param ssn ο αριθμός κοινωνικής ασφάλισης προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return uuidsBySsn.containsKey(ssn);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο IBAN.
+     *
+     * @param iban ο IBAN προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return accountsByIban.containsKey(iban);
+    }
+
+    /**
+     * Προσθέτει τον λογαριασμό στα secondary indexes (IBAN, SSN).
+     * Καλείται μόνο κρατώντας το {@link #writeLock}.
+     */
+    private void index(Account account) {
+        accountsByIban.put(account.getIban(), account);
+        uuidsBySsn
+                .computeIfAbsent(account.getHolderView().getSsn(), ssn -> ConcurrentHashMap.newKeySet())
+                .add(account.getUuid());
+    }
+
+    /**
+     * Αφαιρεί τον λογαριασμό από τα secondary indexes (IBAN, SSN).
+     * Καλείται μόνο κρατώντας το {@link #writeLock}, πριν αλλάξουν τα πεδία του λογαριασμού.
+     */
+    private void unindex(Account account) {
+        accountsByIban.remove(account.getIban(), account);
+
+        String ssn = account.getHolderView().getSsn();
+        Set<String> uuids = uuidsBySsn.get(ssn);
+        if (uuids != null) {
+            uuids.remove(account.getUuid());
+            if (uuids.isEmpty()) uuidsBySsn.remove(ssn);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package gr.aueb.cf.ch18.bankapp.dao;
 import gr.aueb.cf.ch18.bankapp.model.Account;
 
 import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Interface για την πρόσβαση και διαχείριση λογαριασμών ({@link Account})
  * στο DAO layer.
@@ -10,7 +12,7 @@ import java.util.List;
  * Παρέχει βασικές CRUD λειτουργίες καθώς και μεθόδους ελέγχου ύπαρξης
  * λογαριασμών βάσει UUID, SSN ή IBAN.
  *
- * Υλοποιείται από την κλάση {@link AccountDAOImpl}.
+ * Υλοποιείται από τις κλάσεις {@link AccountDAOImpl} και {@link IndexedAccountDAOImpl}.
  */
 public interface IAccountDAO {
 
@@ -23,7 +25,10 @@ public interface IAccountDAO {
     Account insert(Account account);
 
     /**
-     * Ενημερώνει έναν υπάρχοντα λογαριασμό.
+     * Ενημερώνει έναν υπάρχοντα λογαριασμό (UUID, IBAN και κάτοχο).
+     *
+     * Το υπόλοιπο δεν αλλάζει: μεταβάλλεται μόνο με {@link #compareAndSetBalance(Account, long, long)},
+     * ώστε μια ενημέρωση να μην αναιρεί μια ταυτόχρονη κατάθεση ή ανάληψη.
      *
      * @param uuid το UUID του λογαριασμού που θα ενημερωθεί
      * @param account τα νέα δεδομένα του λογαριασμού
@@ -32,6 +37,20 @@ public interface IAccountDAO {
     Account update(String uuid, Account account);
 
 
+    /**
+     * Ατομική ενημέρωση (compare-and-set) του υπολοίπου ενός λογαριασμού σε λεπτά.
+     *
+     * Ο λογαριασμός πρέπει να έχει επιστραφεί από αυτό το DAO. Σε περίπτωση αποτυχίας,
+     * το {@link Account#getBalanceMinor()} του δοσμένου λογαριασμού επιστρέφει το
+     * τρέχον υπόλοιπο, ώστε ο καλών να επαναλάβει την προσπάθεια.
+     *
+     * @param account ο λογαριασμός
+     * @param expectedMinor το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newMinor το νέο υπόλοιπο σε λεπτά
+     * @return true αν η ενημέρωση έγινε, false αν το υπόλοιπο είχε αλλάξει
+     */
+    boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor);
+
     /**
      * Διαγράφει έναν λογαριασμό βάσει UUID.
      *
@@ -47,6 +66,14 @@ public interface IAccountDAO {
      */
     Account get(String uuid);
 
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει IBAN.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    Account getByIban(String iban);
+
     /**
      * Επιστρέφει όλους τους λογαριασμούς.
      *
@@ -54,6 +81,26 @@ public interface IAccountDAO {
      */
     List<Account> getAll();
 
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID (keyset pagination).
+     *
+     * Η επόμενη σελίδα ζητείται με το UUID του τελευταίου λογαριασμού της τρέχουσας,
+     * οπότε εισαγωγές και διαγραφές μεταξύ σελίδων δεν προκαλούν διπλές ή χαμένες εγγραφές.
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών (θετικό)
+     * @return λίστα έως {@code limit} λογαριασμών με UUID μεγαλύτερο του {@code afterUuid}
+     */
+    List<Account> getPage(String afterUuid, int limit);
+
+    /**
+     * Επιστρέφει lazy stream όλων των λογαριασμών, χωρίς αντιγραφή ολόκληρης της λίστας.
+     * Η σειρά δεν ορίζεται.
+     *
+     * @return stream των λογαριασμών
+     */
+    Stream<Account> stream();
+
     /**
      * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο UUID.
      *
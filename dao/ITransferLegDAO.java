@@ -0,0 +1,48 @@
+package gr.aueb.cf.ch18.bankapp.dao;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Interface για DAOs που καταγράφουν, μαζί με μια μεταβολή υπολοίπου, το σκέλος (leg)
+ * μεταφοράς στο οποίο ανήκει, ώστε η μεταβολή να εφαρμόζεται το πολύ μία φορά.
+ *
+ * Σκέλος: μία από τις μεταβολές υπολοίπου μιας μεταφοράς (π.χ. χρέωση προέλευσης, πίστωση
+ * προορισμού), με αναγνωριστικό που δίνει ο συντονιστής της μεταφοράς. Η μεταβολή και η
+ * καταγραφή του σκέλους γίνονται ατομικά και με την ίδια ανθεκτικότητα (π.χ. στην ίδια
+ * εγγραφή journal), οπότε μετά από crash το {@link #isLegApplied(String, long)} δείχνει
+ * ακριβώς αν η μεταβολή επιβίωσε.
+ */
+public interface ITransferLegDAO extends IAccountDAO {
+
+    /**
+     * Ατομική ενημέρωση (compare-and-set) του υπολοίπου ενός λογαριασμού, που σε επιτυχία
+     * καταγράφει και το σκέλος μεταφοράς ως εφαρμοσμένο.
+     *
+     * @param account ο λογαριασμός
+     * @param expectedMinor το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newMinor το νέο υπόλοιπο σε λεπτά
+     * @param legId το αναγνωριστικό του σκέλους (μη αρνητικό)
+     * @return true αν η ενημέρωση έγινε, false αν το υπόλοιπο είχε αλλάξει
+     * @see IAccountDAO#compareAndSetBalance(Account, long, long)
+     */
+    boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor, long legId);
+
+    /**
+     * Ελέγχει αν ένα σκέλος μεταφοράς έχει εφαρμοστεί.
+     *
+     * @param iban ο IBAN του λογαριασμού στον οποίο αφορά το σκέλος
+     * @param legId το αναγνωριστικό του σκέλους
+     * @return true αν η μεταβολή του σκέλους έχει εφαρμοστεί
+     */
+    boolean isLegApplied(String iban, long legId);
+
+    /**
+     * Ξεχνά τα σκέλη που δεν χρειάζονται πλέον (π.χ. μεταφορών που ολοκληρώθηκαν), ώστε
+     * να μη μεγαλώνει απεριόριστα η καταγραφή τους.
+     *
+     * @param filter επιλέγει τα αναγνωριστικά σκελών που ξεχνιούνται
+     */
+    void forgetLegs(LongPredicate filter);
+}
@@ -0,0 +1,244 @@
+package gr.aueb.cf.ch18.bankapp.dao;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountDAO} που διαχειρίζεται λογαριασμούς σε μνήμη
+ * χρησιμοποιώντας hash indexes.
+ *
+ * Διατηρεί:
+ * <ul>
+ *   <li>primary index βάσει UUID</li>
+ *   <li>unique secondary index βάσει IBAN</li>
+ *   <li>multi-valued index βάσει SSN κατόχου (ένας κάτοχος μπορεί να έχει πολλούς λογαριασμούς)</li>
+ *   <li>ταξινομημένο index βάσει UUID για keyset pagination</li>
+ * </ul>
+ * Όλες οι αναζητήσεις γίνονται σε σταθερό χρόνο O(1) (οι σελίδες σε O(log n + limit)), ενώ τα indexes
+ * παραμένουν συνεπή σε κάθε insert, update (και σε αλλαγή UUID/IBAN) και delete.
+ *
+ * Σημείωση: Η υλοποίηση δεν είναι thread-safe.
+ */
+public class IndexedAccountDAOImpl implements IAccountDAO {
+
+    /** Primary index: UUID → λογαριασμός. */
+    private final Map<String, Account> accountsByUuid = new HashMap<>();
+
+    /** Unique secondary index: IBAN → λογαριασμός. */
+    private final Map<String, Account> accountsByIban = new HashMap<>();
+
+    /**
+     * Multi-valued secondary index: SSN κατόχου → λογαριασμοί.
+     * Τα sets βασίζονται σε identity, καθώς το {@link Account#equals(Object)}
+     * εξαρτάται από το μεταβλητό υπόλοιπο.
+     */
+    private final Map<String, Set<Account>> accountsBySsn = new HashMap<>();
+
+    /** Ταξινομημένο index: UUID → λογαριασμός, για keyset pagination. */
+    private final NavigableMap<String, Account> accountsInUuidOrder = new TreeMap<>();
+
+    /**
+     * Εισάγει νέο λογαριασμό και ενημερώνει όλα τα indexes.
+     *
+     * @param account ο λογαριασμός προς εισαγωγή
+     * @return ο λογαριασμός που εισήχθη
+     */
+    @Override
+    public Account insert(Account account) {
+        accountsByUuid.put(account.getUuid(), account);
+        accountsInUuidOrder.put(account.getUuid(), account);
+        index(account);
+        return account;
+    }
+
+    /**
+     * Ενημερώνει έναν υπάρχοντα λογαριασμό βάσει UUID.
+     * Αν αλλάξει το UUID, ο IBAN ή ο κάτοχος, τα indexes ενημερώνονται αντίστοιχα.
+     *
+     * @param uuid το UUID του λογαριασμού προς ενημέρωση
+     * @param account τα νέα δεδομένα του λογαριασμού
+     * @return ο παλιός λογαριασμός πριν την ενημέρωση, ή null αν δεν βρέθηκε
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        Account acc = accountsByUuid.get(uuid);
+        if (acc == null) return null;
+
+        Account accountToReturn = new Account(acc);
+
+        unindex(acc);
+        accountsByUuid.remove(uuid);
+        accountsInUuidOrder.remove(uuid);
+
+        acc.setId(account.getId());
+        acc.setIban(account.getIban());
+        acc.setHolder(account.getHolderView());
+
+        accountsByUuid.put(acc.getUuid(), acc);
+        accountsInUuidOrder.put(acc.getUuid(), acc);
+        index(acc);
+
+        return accountToReturn;
+    }
+
+    /**
+     * Ατομική ενημέρωση (compare-and-set) του υπολοίπου ενός λογαριασμού σε λεπτά.
+     * Ο λογαριασμός είναι το ίδιο το αποθηκευμένο αντικείμενο, οπότε το CAS γίνεται απευθείας σε αυτό.
+     *
+     * @param account ο λογαριασμός
+     * @param expectedMinor το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newMinor το νέο υπόλοιπο σε λεπτά
+     * @return true αν η ενημέρωση έγινε, false αν το υπόλοιπο είχε αλλάξει
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        return account.compareAndSetBalanceMinor(expectedMinor, newMinor);
+    }
+
+    /**
+     * Διαγράφει έναν λογαριασμό βάσει UUID και τον αφαιρεί από όλα τα indexes.
+     *
+     * @param uuid το UUID του λογαριασμού προς διαγραφή
+     */
+    @Override
+    public void delete(String uuid) {
+        Account acc = accountsByUuid.remove(uuid);
+        if (acc == null) return;
+
+        accountsInUuidOrder.remove(uuid);
+        unindex(acc);
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει UUID.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account get(String uuid) {
+        return accountsByUuid.get(uuid);
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει IBAN.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return accountsByIban.get(iban);
+    }
+
+    /**
+     * Επιστρέφει όλους τους λογαριασμούς.
+     *
+     * @return νέα λίστα με όλους τους λογαριασμούς
+     */
+    @Override
+    public List<Account> getAll() {
+        return new ArrayList<>(accountsByUuid.values());
+    }
+
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID από το ταξινομημένο index,
+     * σε O(log n + limit).
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return νέα λίστα ταξινομημένη κατά UUID
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        Collection<Account> tail = afterUuid == null
+                ? accountsInUuidOrder.values()
+                : accountsInUuidOrder.tailMap(afterUuid, false).values();
+
+        List<Account> page = new ArrayList<>(Math.min(limit, accountsByUuid.size()));
+        for (Account account : tail) {
+            if (page.size() == limit) break;
+            page.add(account);
+        }
+        return page;
+    }
+
+    /**
+     * Επιστρέφει lazy stream όλων των λογαριασμών.
+     *
+     * @return stream των λογαριασμών
+     */
+    @Override
+    public Stream<Account> stream() {
+        return accountsByUuid.values().stream();
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο UUID.
+     *
+     * @param uuid το UUID προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return accountsByUuid.containsKey(uuid);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο SSN.
+     *
+     * @param ssn ο αριθμός κοινωνικής ασφάλισης προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return accountsBySsn.containsKey(ssn);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο IBAN.
+     *
+     * @param iban ο IBAN προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return accountsByIban.containsKey(iban);
+    }
+
+    /**
+     * Προσθέτει τον λογαριασμό στα secondary indexes (IBAN, SSN).
+     */
+    private void index(Account account) {
+        accountsByIban.put(account.getIban(), account);
+        accountsBySsn
+                .computeIfAbsent(account.getHolderView().getSsn(), ssn -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                .add(account);
+    }
+
+    /**
+     * Αφαιρεί τον λογαριασμό από τα secondary indexes (IBAN, SSN).
+     * Πρέπει να καλείται πριν αλλάξουν τα πεδία του λογαριασμού.
+     */
+    private void unindex(Account account) {
+        accountsByIban.remove(account.getIban(), account);
+
+        String ssn = account.getHolderView().getSsn();
+        Set<Account> ssnAccounts = accountsBySsn.get(ssn);
+        if (ssnAccounts != null) {
+            ssnAccounts.remove(account);
+            if (ssnAccounts.isEmpty()) accountsBySsn.remove(ssn);
+        }
+    }
+}
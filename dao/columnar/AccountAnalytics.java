@@ -0,0 +1,199 @@
+package gr.aueb.cf.ch18.bankapp.dao.columnar;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Παράλληλες αναφορές πάνω στο columnar αντίγραφο ενός {@link ColumnarAccountDAO}:
+ * ομαδοποίηση ανά επώνυμο και ανά κάτοχο, ιστόγραμμα υπολοίπων και top-N λογαριασμοί.
+ *
+ * Κάθε αναφορά χωρίζει τα slots σε partitions και τα εκτελεί σε {@link ForkJoinPool}.
+ * Κάθε partition παράγει ένα μερικό (partial) αποτέλεσμα χωρίς κοινή κατάσταση με τα
+ * υπόλοιπα, και τα μερικά αποτελέσματα συγχωνεύονται ανά δύο καθώς επιστρέφουν τα tasks,
+ * οπότε η κλιμάκωση με τους πυρήνες περιορίζεται μόνο από το εύρος ζώνης της μνήμης.
+ *
+ * Όσο εκτελείται μια αναφορά κρατείται το read lock του DAO: οι δομικές αλλαγές
+ * περιμένουν, ενώ οι αλλαγές υπολοίπων συνεχίζουν (weakly consistent αποτελέσματα).
+ */
+public class AccountAnalytics {
+    /** Το ελάχιστο μέγεθος partition, ώστε το κόστος των tasks να μένει αμελητέο. */
+    private static final int MIN_PARTITION = 1 << 14;
+
+    /** Partitions ανά thread του pool, για εξισορρόπηση φορτίου μέσω work stealing. */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final ColumnarAccountDAO dao;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor που χρησιμοποιεί το common pool.
+     *
+     * @param dao το DAO με το columnar αντίγραφο
+     */
+    public AccountAnalytics(ColumnarAccountDAO dao) {
+        this(dao, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor που δέχεται το DAO και το pool εκτέλεσης (dependency injection).
+     *
+     * @param dao το DAO με το columnar αντίγραφο
+     * @param pool το pool στο οποίο εκτελούνται τα partitions
+     */
+    public AccountAnalytics(ColumnarAccountDAO dao, ForkJoinPool pool) {
+        this.dao = dao;
+        this.pool = pool;
+    }
+
+    /**
+     * Ομαδοποιεί τους λογαριασμούς ανά επώνυμο κατόχου.
+     *
+     * @return επώνυμο → πλήθος και συνολικό υπόλοιπο
+     */
+    public Map<String, BalanceTotal> totalsByLastname() {
+        return dao.query(columns -> {
+            GroupTotals totals = aggregate(columns.size(), (from, to) -> {
+                GroupTotals partial = new GroupTotals();
+                columns.sumByLastname(from, to, partial);
+                return partial;
+            }, GroupTotals::merge, new GroupTotals());
+
+            return toMap(totals, columns::lastname);
+        });
+    }
+
+    /**
+     * Ομαδοποιεί τους λογαριασμούς ανά κάτοχο.
+     *
+     * @return SSN κατόχου → πλήθος και συνολικό υπόλοιπο
+     */
+    public Map<String, BalanceTotal> totalsByHolder() {
+        return dao.query(columns -> {
+            GroupTotals totals = aggregate(columns.size(), (from, to) -> {
+                GroupTotals partial = new GroupTotals();
+                columns.sumByHolder(from, to, partial);
+                return partial;
+            }, GroupTotals::merge, new GroupTotals());
+
+            return toMap(totals, columns::holderSsn);
+        });
+    }
+
+    /**
+     * Επιστρέφει ιστόγραμμα υπολοίπων.
+     * Το {@code counts[k]} είναι το πλήθος των λογαριασμών με
+     * {@code bounds[k-1] <= balance < bounds[k]}· το πρώτο και το τελευταίο bucket είναι ανοιχτά.
+     *
+     * @param bounds αύξοντα όρια σε μονάδες νομίσματος
+     * @return πίνακας μεγέθους {@code bounds.length + 1}
+     * @throws IllegalArgumentException αν τα όρια δεν είναι γνησίως αύξοντα
+     */
+    public long[] balanceHistogram(double... bounds) {
+        long[] boundsMinor = ColumnarAccountDAO.toMinorBounds(bounds);
+
+        return dao.query(columns -> aggregate(columns.size(), (from, to) -> {
+            long[] partial = new long[boundsMinor.length + 1];
+            columns.histogram(boundsMinor, from, to, partial);
+            return partial;
+        }, (left, right) -> {
+            for (int i = 0; i < left.length; i++) {
+                left[i] += right[i];
+            }
+            return left;
+        }, new long[boundsMinor.length + 1]));
+    }
+
+    /**
+     * Επιστρέφει τους {@code n} λογαριασμούς με το μεγαλύτερο υπόλοιπο.
+     *
+     * @param n το πλήθος των λογαριασμών
+     * @return λίστα σε φθίνουσα σειρά υπολοίπου
+     * @throws IllegalArgumentException αν το n είναι αρνητικό
+     */
+    public List<Account> richest(int n) {
+        if (n < 0) throw new IllegalArgumentException("N must not be negative: " + n);
+
+        return dao.query(columns -> {
+            TopBalances top = aggregate(columns.size(), (from, to) -> {
+                TopBalances partial = new TopBalances(n);
+                columns.top(from, to, partial);
+                return partial;
+            }, TopBalances::merge, new TopBalances(n));
+
+            List<Account> accounts = new ArrayList<>(n);
+            for (int slot : top.slotsDescending()) {
+                Account account = dao.get(columns.uuid(slot));
+                if (account != null) accounts.add(account);
+            }
+            return accounts;
+        });
+    }
+
+    /**
+     * Εκτελεί μια συνάθροιση στα slots {@code [0, size)} με fork/join.
+     */
+    private <A> A aggregate(int size, RangeAggregator<A> leaf, BinaryOperator<A> merge, A empty) {
+        if (size == 0) return empty;
+
+        int partition = Math.max(MIN_PARTITION, size / (pool.getParallelism() * PARTITIONS_PER_THREAD));
+        return pool.invoke(new PartitionTask<>(0, size, partition, leaf, merge));
+    }
+
+    private static Map<String, BalanceTotal> toMap(GroupTotals totals, CodeDictionary dictionary) {
+        Map<String, BalanceTotal> result = new HashMap<>(totals.size() * 4 / 3 + 1);
+        totals.forEach((code, sumMinor, count) ->
+                result.put(dictionary.value(code), new BalanceTotal(count, sumMinor)));
+        return result;
+    }
+
+    /** Υπολογίζει το μερικό αποτέλεσμα ενός partition {@code [from, to)}. */
+    private interface RangeAggregator<A> {
+        A aggregate(int from, int to);
+    }
+
+    /** Αντιστοιχεί κωδικό ομάδας σε τιμή (SSN, επώνυμο). */
+    private interface CodeDictionary {
+        String value(int code);
+    }
+
+    /**
+     * Task που χωρίζει αναδρομικά το εύρος στα δύο μέχρι το μέγεθος partition και
+     * συγχωνεύει τα μερικά αποτελέσματα.
+     */
+    private static final class PartitionTask<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int partition;
+        private final RangeAggregator<A> leaf;
+        private final BinaryOperator<A> merge;
+
+        PartitionTask(int from, int to, int partition, RangeAggregator<A> leaf, BinaryOperator<A> merge) {
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+            this.leaf = leaf;
+            this.merge = merge;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= partition) return leaf.aggregate(from, to);
+
+            int middle = (from + to) >>> 1;
+            PartitionTask<A> left = new PartitionTask<>(from, middle, partition, leaf, merge);
+            PartitionTask<A> right = new PartitionTask<>(middle, to, partition, leaf, merge);
+            left.fork();
+            A rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package gr.aueb.cf.ch18.bankapp.dao.columnar;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.EntityHandles;
+import gr.aueb.cf.ch18.bankapp.model.EntityId;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar (struct-of-arrays) αντίγραφο των λογαριασμών: κάθε πεδίο σε δικό του
+ * primitive πίνακα, με πυκνό αριθμό slot ανά λογαριασμό (0 έως {@link #size()} - 1).
+ *
+ * <ul>
+ *     <li>{@code balances}: υπόλοιπα σε λεπτά</li>
+ *     <li>{@code ibans}: IBAN σε ASCII, {@link #IBAN_WIDTH} bytes ανά slot (συμπληρωμένα με 0)</li>
+ *     <li>{@code holders}: κωδικός κατόχου από λεξικό SSN</li>
+ *     <li>{@code lastnames}: κωδικός επωνύμου κατόχου από λεξικό επωνύμων</li>
+ * </ul>
+ * Το slot ενός λογαριασμού βρίσκεται από το UUID του, ή, στην ενημέρωση υπολοίπου, από το
+ * handle του αναγνωριστικού του με απλή πρόσβαση σε πίνακα. Τα handles δίνονται από δική
+ * τους {@link EntityHandles} και ελευθερώνονται στη διαγραφή, οπότε ο πίνακας των handles
+ * δεν μεγαλώνει πέρα από το μέγιστο πλήθος λογαριασμών.
+ * Η διαγραφή μεταφέρει τον τελευταίο λογαριασμό στο slot που ελευθερώθηκε, ώστε οι
+ * στήλες να μένουν πυκνές και οι σαρώσεις να είναι απλοί βρόχοι χωρίς κενά.
+ *
+ * Η κλάση δεν συγχρονίζει η ίδια· ο συγχρονισμός γίνεται από το {@link ColumnarAccountDAO}.
+ */
+final class AccountColumns {
+    /** Μέγιστο μήκος IBAN (ISO 13616). */
+    static final int IBAN_WIDTH = 34;
+
+    /** VarHandle για ατομική πρόσθεση στη στήλη των υπολοίπων. */
+    private static final VarHandle BALANCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private long[] balances = new long[16];
+    private byte[] ibans = new byte[16 * IBAN_WIDTH];
+    private int[] holders = new int[16];
+    private int[] lastnames = new int[16];
+    private EntityId[] ids = new EntityId[16];
+    private int size;
+
+    /** UUID → slot. */
+    private final Map<String, Integer> slotsByUuid = new HashMap<>();
+
+    /** Τα handles των αναγνωριστικών των λογαριασμών. */
+    private final EntityHandles handles = new EntityHandles();
+
+    /** Handle αναγνωριστικού → slot + 1 (0 αν δεν αντιστοιχεί σε slot). */
+    private int[] slotsByHandle = new int[16];
+
+    /** Λεξικό κατόχων: SSN → κωδικός, και αντίστροφα κωδικός → SSN. */
+    private final Map<String, Integer> holderCodes = new HashMap<>();
+    private final List<String> holderSsns = new ArrayList<>();
+
+    /** Λεξικό επωνύμων: επώνυμο → κωδικός, και αντίστροφα κωδικός → επώνυμο. */
+    private final Map<String, Integer> lastnameCodes = new HashMap<>();
+    private final List<String> lastnameValues = new ArrayList<>();
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Προσθέτει έναν λογαριασμό στο τέλος των στηλών.
+     */
+    void add(Account account) {
+        if (size == balances.length) grow();
+
+        slotsByUuid.put(account.getUuid(), size);
+        set(size, account);
+        size++;
+    }
+
+    /**
+     * Αντικαθιστά τα δεδομένα του λογαριασμού με το δοσμένο UUID.
+     *
+     * @return false αν δεν υπάρχει λογαριασμός με αυτό το UUID
+     */
+    boolean replace(String uuid, Account account) {
+        Integer slot = slotsByUuid.remove(uuid);
+        if (slot == null) return false;
+
+        unmapHandle(slot);
+        slotsByUuid.put(account.getUuid(), slot);
+        set(slot, account);
+        return true;
+    }
+
+    /**
+     * Αφαιρεί τον λογαριασμό με το δοσμένο UUID, μεταφέροντας τον τελευταίο στη θέση του.
+     */
+    void remove(String uuid) {
+        Integer slot = slotsByUuid.remove(uuid);
+        if (slot == null) return;
+
+        unmapHandle(slot);
+        int last = --size;
+        if (slot != last) {
+            balances[slot] = balances[last];
+            System.arraycopy(ibans, last * IBAN_WIDTH, ibans, slot * IBAN_WIDTH, IBAN_WIDTH);
+            holders[slot] = holders[last];
+            lastnames[slot] = lastnames[last];
+            ids[slot] = ids[last];
+            slotsByUuid.put(ids[slot].toString(), slot);
+            mapHandle(slot);
+        }
+        ids[last] = null;
+    }
+
+    /**
+     * Προσθέτει ατομικά μια διαφορά στο υπόλοιπο του λογαριασμού.
+     * Αν το αναγνωριστικό του λογαριασμού έχει handle που αντιστοιχεί σε slot, το slot
+     * βρίσκεται χωρίς hashing· αλλιώς αναζητείται με το UUID.
+     * Μπορεί να καλείται ταυτόχρονα από πολλά threads, αρκεί να μην αλλάζει η δομή.
+     */
+    void addToBalance(Account account, long deltaMinor) {
+        EntityId id = account.getId();
+        int handle = handles.handleOf(id);
+        int slot = handle >= 0 && handle < slotsByHandle.length ? slotsByHandle[handle] - 1 : -1;
+
+        if (slot < 0 || !id.equals(ids[slot])) {
+            Integer found = slotsByUuid.get(id.toString());
+            if (found == null) return;
+            slot = found;
+        }
+        BALANCES.getAndAdd(balances, slot, deltaMinor);
+    }
+
+    /**
+     * Άθροισμα όλων των υπολοίπων σε λεπτά.
+     */
+    long sum() {
+        long[] balances = this.balances;
+        long sum = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            sum += balances[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Άθροισμα των υπολοίπων των λογαριασμών ενός κατόχου σε λεπτά.
+     */
+    long sumOfHolder(String ssn) {
+        Integer code = holderCodes.get(ssn);
+        if (code == null) return 0;
+
+        long[] balances = this.balances;
+        int[] holders = this.holders;
+        int holder = code;
+        long sum = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            if (holders[i] == holder) sum += balances[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Πλήθος λογαριασμών με υπόλοιπο μεγαλύτερο από το όριο.
+     */
+    int countAbove(long thresholdMinor) {
+        long[] balances = this.balances;
+        int count = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            count += balances[i] > thresholdMinor ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * IBAN των λογαριασμών με υπόλοιπο μεγαλύτερο από το όριο.
+     */
+    List<String> ibansAbove(long thresholdMinor) {
+        long[] balances = this.balances;
+        List<String> result = new ArrayList<>();
+        for (int i = 0, n = size; i < n; i++) {
+            if (balances[i] > thresholdMinor) result.add(iban(i));
+        }
+        return result;
+    }
+
+    /**
+     * Ιστόγραμμα υπολοίπων: το {@code counts[k]} είναι το πλήθος των λογαριασμών με
+     * {@code bounds[k-1] <= balance < bounds[k]} (με το πρώτο και το τελευταίο bucket ανοιχτά).
+     *
+     * @param bounds αύξοντα όρια σε λεπτά
+     * @return πίνακας μεγέθους {@code bounds.length + 1}
+     */
+    long[] histogram(long[] bounds) {
+        long[] counts = new long[bounds.length + 1];
+        histogram(bounds, 0, size, counts);
+        return counts;
+    }
+
+    /**
+     * Προσθέτει στο {@code counts} το ιστόγραμμα των slots {@code [from, to)}.
+     *
+     * @see #histogram(long[])
+     */
+    void histogram(long[] bounds, int from, int to, long[] counts) {
+        long[] balances = this.balances;
+
+        if (bounds.length > 16) {
+            for (int i = from; i < to; i++) {
+                int bucket = Arrays.binarySearch(bounds, balances[i]);
+                counts[bucket >= 0 ? bucket + 1 : -bucket - 1]++;
+            }
+            return;
+        }
+
+        // Για λίγα όρια, ο γραμμικός έλεγχος χωρίς διακλαδώσεις είναι ταχύτερος από δυαδική αναζήτηση.
+        for (int i = from; i < to; i++) {
+            long balance = balances[i];
+            int bucket = 0;
+            for (long bound : bounds) {
+                bucket += balance >= bound ? 1 : 0;
+            }
+            counts[bucket]++;
+        }
+    }
+
+    /**
+     * Προσθέτει στο {@code totals} τα υπόλοιπα των slots {@code [from, to)} ανά κωδικό κατόχου.
+     */
+    void sumByHolder(int from, int to, GroupTotals totals) {
+        long[] balances = this.balances;
+        int[] holders = this.holders;
+        for (int i = from; i < to; i++) {
+            totals.add(holders[i], balances[i]);
+        }
+    }
+
+    /**
+     * Προσθέτει στο {@code totals} τα υπόλοιπα των slots {@code [from, to)} ανά κωδικό επωνύμου.
+     */
+    void sumByLastname(int from, int to, GroupTotals totals) {
+        long[] balances = this.balances;
+        int[] lastnames = this.lastnames;
+        for (int i = from; i < to; i++) {
+            totals.add(lastnames[i], balances[i]);
+        }
+    }
+
+    /**
+     * Προσθέτει στο {@code top} τα slots {@code [from, to)}.
+     */
+    void top(int from, int to, TopBalances top) {
+        long[] balances = this.balances;
+        for (int i = from; i < to; i++) {
+            top.offer(i, balances[i]);
+        }
+    }
+
+    /** Το UUID του λογαριασμού στο slot. */
+    String uuid(int slot) {
+        return ids[slot].toString();
+    }
+
+    /** Το SSN του κατόχου με τον δοσμένο κωδικό. */
+    String holderSsn(int code) {
+        return holderSsns.get(code);
+    }
+
+    /** Το επώνυμο με τον δοσμένο κωδικό. */
+    String lastname(int code) {
+        return lastnameValues.get(code);
+    }
+
+    /**
+     * Ελέγχει ότι ο IBAN χωράει στη στήλη (ASCII, έως {@link #IBAN_WIDTH} χαρακτήρες).
+     *
+     * @throws IllegalArgumentException αν ο IBAN δεν χωράει
+     */
+    static void checkIban(String iban) {
+        if (iban == null) return;
+
+        boolean ascii = iban.length() <= IBAN_WIDTH;
+        for (int i = 0; ascii && i < iban.length(); i++) {
+            char c = iban.charAt(i);
+            ascii = c > 0 && c < 0x80;
+        }
+        if (!ascii) {
+            throw new IllegalArgumentException("IBAN must be up to " + IBAN_WIDTH + " ASCII characters: " + iban);
+        }
+    }
+
+    private void set(int slot, Account account) {
+        balances[slot] = account.getBalanceMinor();
+        ids[slot] = account.getId();
+        mapHandle(slot);
+        holders[slot] = code(holderCodes, holderSsns, account.getHolderView().getSsn());
+        lastnames[slot] = code(lastnameCodes, lastnameValues, account.getHolderView().getLastname());
+
+        String iban = account.getIban();
+        int base = slot * IBAN_WIDTH;
+        int length = iban == null ? 0 : iban.length();
+        for (int i = 0; i < IBAN_WIDTH; i++) {
+            ibans[base + i] = i < length ? (byte) iban.charAt(i) : 0;
+        }
+    }
+
+    /**
+     * Αντιστοιχίζει το handle του αναγνωριστικού του slot στο slot. Αν το αναγνωριστικό
+     * έχει handle από άλλη αποθήκη, το slot βρίσκεται μόνο από το UUID.
+     */
+    private void mapHandle(int slot) {
+        int handle = handles.acquire(ids[slot]);
+        if (handle < 0) return;
+        if (handle >= slotsByHandle.length) {
+            slotsByHandle = Arrays.copyOf(slotsByHandle, Math.max(handle + 1, slotsByHandle.length * 2));
+        }
+        slotsByHandle[handle] = slot + 1;
+    }
+
+    /** Αφαιρεί την αντιστοίχιση του handle του αναγνωριστικού του slot και το ελευθερώνει. */
+    private void unmapHandle(int slot) {
+        int handle = handles.handleOf(ids[slot]);
+        if (handle >= 0 && handle < slotsByHandle.length && slotsByHandle[handle] == slot + 1) {
+            slotsByHandle[handle] = 0;
+            handles.release(ids[slot]);
+        }
+    }
+
+    private static int code(Map<String, Integer> codes, List<String> values, String value) {
+        return codes.computeIfAbsent(value, v -> {
+            values.add(v);
+            return values.size() - 1;
+        });
+    }
+
+    private String iban(int slot) {
+        int base = slot * IBAN_WIDTH;
+        int length = 0;
+        while (length < IBAN_WIDTH && ibans[base + length] != 0) {
+            length++;
+        }
+        return new String(ibans, base, length, StandardCharsets.US_ASCII);
+    }
+
+    private void grow() {
+        int capacity = balances.length * 2;
+        balances = Arrays.copyOf(balances, capacity);
+        ibans = Arrays.copyOf(ibans, capacity * IBAN_WIDTH);
+        holders = Arrays.copyOf(holders, capacity);
+        lastnames = Arrays.copyOf(lastnames, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+}
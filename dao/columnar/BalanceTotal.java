@@ -0,0 +1,62 @@
+package gr.aueb.cf.ch18.bankapp.dao.columnar;
+
+import gr.aueb.cf.ch18.bankapp.model.Money;
+
+/**
+ * Αποτέλεσμα ομαδοποίησης υπολοίπων: πλήθος λογαριασμών και συνολικό υπόλοιπο μιας ομάδας.
+ */
+public final class BalanceTotal {
+    private final long count;
+    private final long totalMinor;
+
+    /**
+     * @param count το πλήθος των λογαριασμών
+     * @param totalMinor το συνολικό υπόλοιπο σε λεπτά
+     */
+    public BalanceTotal(long count, long totalMinor) {
+        this.count = count;
+        this.totalMinor = totalMinor;
+    }
+
+    /** Επιστρέφει το πλήθος των λογαριασμών. */
+    public long getCount() {
+        return count;
+    }
+
+    /** Επιστρέφει το συνολικό υπόλοιπο σε μονάδες νομίσματος. */
+    public double getTotal() {
+        return Money.toMajor(totalMinor);
+    }
+
+    /** Επιστρέφει το συνολικό υπόλοιπο σε λεπτά. */
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    /** Επιστρέφει το μέσο υπόλοιπο σε μονάδες νομίσματος, ή 0 αν δεν υπάρχουν λογαριασμοί. */
+    public double getAverage() {
+        return count == 0 ? 0 : Money.toMajor(totalMinor) / count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BalanceTotal)) return false;
+
+        BalanceTotal that = (BalanceTotal) o;
+        return count == that.count && totalMinor == that.totalMinor;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(count) + Long.hashCode(totalMinor);
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceTotal{" +
+                "count=" + count +
+                ", total=" + getTotal() +
+                '}';
+    }
+}
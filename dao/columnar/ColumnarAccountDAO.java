@@ -0,0 +1,321 @@
+package gr.aueb.cf.ch18.bankapp.dao.columnar;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.Money;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountDAO} (decorator) που διατηρεί, δίπλα στο delegate DAO,
+ * columnar αντίγραφο των λογαριασμών ({@link AccountColumns}) για γρήγορες
+ * αναφορές υπολοίπων: σύνολα, ιστογράμματα, λογαριασμοί πάνω από όριο.
+ *
+ * Οι αναφορές σαρώνουν primitive πίνακες σε απλούς βρόχους, χωρίς αντιγραφή λίστας
+ * και χωρίς ένα pointer ανά {@link Account} όπως το {@code getAll()}.
+ *
+ * Οι δομικές αλλαγές κρατούν το write lock. Τα CAS του υπολοίπου και οι αναφορές
+ * κρατούν το read lock, οπότε τρέχουν παράλληλα· οι αναφορές είναι weakly consistent
+ * ως προς ταυτόχρονες μεταβολές υπολοίπων, όπως και το {@code getAll()}.
+ * Οι αναγνώσεις λογαριασμών εξυπηρετούνται απευθείας από το delegate.
+ *
+ * Για παράλληλες αναφορές (ομαδοποιήσεις, top-N) βλ. {@link AccountAnalytics}.
+ */
+public class ColumnarAccountDAO implements IAccountDAO {
+    /** Το DAO που κρατά τα δεδομένα. */
+    private final IAccountDAO delegate;
+
+    private final AccountColumns columns = new AccountColumns();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor που χτίζει τις στήλες από τους λογαριασμούς που ήδη υπάρχουν στο delegate.
+     *
+     * @param delegate το DAO που κρατά τα δεδομένα
+     * @throws IllegalArgumentException αν κάποιος IBAN δεν χωράει στη στήλη
+     */
+    public ColumnarAccountDAO(IAccountDAO delegate) {
+        this.delegate = delegate;
+
+        delegate.stream().forEach(account -> {
+            AccountColumns.checkIban(account.getIban());
+            columns.add(account);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException αν ο IBAN δεν είναι ASCII έως 34 χαρακτήρων
+     */
+    @Override
+    public Account insert(Account account) {
+        AccountColumns.checkIban(account.getIban());
+
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Account inserted = delegate.insert(account);
+            columns.remove(inserted.getUuid());
+            columns.add(inserted);
+            return inserted;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException αν ο IBAN δεν είναι ASCII έως 34 χαρακτήρων
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        AccountColumns.checkIban(account.getIban());
+
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Account oldAccount = delegate.update(uuid, account);
+            if (oldAccount != null) columns.replace(uuid, delegate.get(account.getUuid()));
+            return oldAccount;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Σε επιτυχία, η διαφορά του υπολοίπου προστίθεται ατομικά και στη στήλη.
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (!delegate.compareAndSetBalance(account, expectedMinor, newMinor)) return false;
+
+            columns.addToBalance(account, newMinor - expectedMinor);
+            return true;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(String uuid) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            delegate.delete(uuid);
+            columns.remove(uuid);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account get(String uuid) {
+        return delegate.get(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return delegate.getByIban(iban);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAll() {
+        return delegate.getAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        return delegate.getPage(afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Account> stream() {
+        return delegate.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return delegate.uuidExists(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return delegate.ssnExists(ssn);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return delegate.ibanExists(iban);
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των λογαριασμών.
+     *
+     * @return το πλήθος των λογαριασμών
+     */
+    public int count() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return columns.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει το συνολικό υπόλοιπο όλων των λογαριασμών.
+     *
+     * @return το συνολικό υπόλοιπο σε μονάδες νομίσματος
+     */
+    public double totalBalance() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return Money.toMajor(columns.sum());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει το συνολικό υπόλοιπο των λογαριασμών ενός κατόχου.
+     *
+     * @param ssn ο αριθμός κοινωνικής ασφάλισης του κατόχου
+     * @return το συνολικό υπόλοιπο σε μονάδες νομίσματος
+     */
+    public double totalBalanceOfHolder(String ssn) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return Money.toMajor(columns.sumOfHolder(ssn));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των λογαριασμών με υπόλοιπο μεγαλύτερο από το όριο.
+     *
+     * @param threshold το όριο σε μονάδες νομίσματος
+     * @return το πλήθος των λογαριασμών
+     */
+    public int countAbove(double threshold) {
+        long thresholdMinor = Money.toMinor(threshold);
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return columns.countAbove(thresholdMinor);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει τους IBAN των λογαριασμών με υπόλοιπο μεγαλύτερο από το όριο.
+     *
+     * @param threshold το όριο σε μονάδες νομίσματος
+     * @return νέα λίστα με τους IBAN
+     */
+    public List<String> ibansAbove(double threshold) {
+        long thresholdMinor = Money.toMinor(threshold);
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return columns.ibansAbove(thresholdMinor);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει ιστόγραμμα υπολοίπων.
+     * Το {@code counts[k]} είναι το πλήθος των λογαριασμών με
+     * {@code bounds[k-1] <= balance < bounds[k]}· το πρώτο και το τελευταίο bucket είναι ανοιχτά.
+     *
+     * @param bounds αύξοντα όρια σε μονάδες νομίσματος
+     * @return πίνακας μεγέθους {@code bounds.length + 1}
+     */
+    public long[] balanceHistogram(double... bounds) {
+        long[] boundsMinor = toMinorBounds(bounds);
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return columns.histogram(boundsMinor);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Εκτελεί ένα query στις στήλες κρατώντας το read lock, ώστε η δομή να μην αλλάζει
+     * κατά τη διάρκειά του (και από άλλα threads που ξεκινά το query).
+     */
+    <T> T query(Function<AccountColumns, T> query) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return query.apply(columns);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Μετατρέπει όρια ιστογράμματος σε λεπτά, ελέγχοντας ότι είναι αύξοντα.
+     *
+     * @throws IllegalArgumentException αν τα όρια δεν είναι γνησίως αύξοντα
+     */
+    static long[] toMinorBounds(double[] bounds) {
+        long[] boundsMinor = new long[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            boundsMinor[i] = Money.toMinor(bounds[i]);
+            if (i > 0 && boundsMinor[i] <= boundsMinor[i - 1]) {
+                throw new IllegalArgumentException("Histogram bounds must be strictly increasing.");
+            }
+        }
+        return boundsMinor;
+    }
+}
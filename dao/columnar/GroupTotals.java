@@ -0,0 +1,109 @@
+package gr.aueb.cf.ch18.bankapp.dao.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Μερικό (partial) άθροισμα υπολοίπων ανά κωδικό ομάδας (κάτοχος, επώνυμο), για
+ * παράλληλες αναφορές: κάθε partition γεμίζει το δικό του και τα αποτελέσματα
+ * συγχωνεύονται με {@link #merge(GroupTotals)}.
+ *
+ * Open-addressing πίνακας με primitive κλειδιά και τιμές, ώστε η συνάθροιση να μη
+ * δημιουργεί αντικείμενα ανά λογαριασμό.
+ */
+final class GroupTotals {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private long[] sums;
+    private long[] counts;
+    private int size;
+
+    GroupTotals() {
+        allocate(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Προσθέτει ένα υπόλοιπο στην ομάδα.
+     *
+     * @param key ο κωδικός της ομάδας (μη αρνητικός)
+     * @param amountMinor το υπόλοιπο σε λεπτά
+     */
+    void add(int key, long amountMinor) {
+        add(key, amountMinor, 1);
+    }
+
+    /**
+     * Συγχωνεύει δύο μερικά αθροίσματα. Το μικρότερο προστίθεται στο μεγαλύτερο,
+     * το οποίο και επιστρέφεται.
+     */
+    GroupTotals merge(GroupTotals other) {
+        if (other.size > size) return other.merge(this);
+
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) add(other.keys[i], other.sums[i], other.counts[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Διατρέχει τις ομάδες.
+     */
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) visitor.visit(keys[i], sums[i], counts[i]);
+        }
+    }
+
+    /** Δέχεται μία ομάδα του {@link #forEach(Visitor)}. */
+    interface Visitor {
+        void visit(int key, long sumMinor, long count);
+    }
+
+    private void add(int key, long sumMinor, long count) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+
+        if (keys[i] == EMPTY) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash();
+                add(key, sumMinor, count);
+                return;
+            }
+            keys[i] = key;
+            size++;
+        }
+        sums[i] += sumMinor;
+        counts[i] += count;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        long[] oldSums = sums;
+        long[] oldCounts = counts;
+
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) add(oldKeys[i], oldSums[i], oldCounts[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        sums = new long[capacity];
+        counts = new long[capacity];
+    }
+
+    /** Οι κωδικοί είναι διαδοχικοί ακέραιοι· το mixing τους διασκορπίζει στον πίνακα. */
+    private static int mix(int key) {
+        return key * 0x9E3779B9;
+    }
+}
@@ -0,0 +1,96 @@
+package gr.aueb.cf.ch18.bankapp.dao.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Μερικό (partial) αποτέλεσμα top-N: τα {@code n} slots με το μεγαλύτερο υπόλοιπο,
+ * σε primitive min-heap. Κάθε partition γεμίζει το δικό του και τα αποτελέσματα
+ * συγχωνεύονται με {@link #merge(TopBalances)}.
+ */
+final class TopBalances {
+    private final int[] slots;
+    private final long[] balances;
+    private int size;
+
+    /**
+     * @param n το πλήθος των slots που κρατούνται
+     */
+    TopBalances(int n) {
+        slots = new int[n];
+        balances = new long[n];
+    }
+
+    /**
+     * Προσθέτει ένα slot αν το υπόλοιπό του είναι μεταξύ των {@code n} μεγαλύτερων.
+     */
+    void offer(int slot, long balance) {
+        if (size < slots.length) {
+            slots[size] = slot;
+            balances[size] = balance;
+            siftUp(size++);
+        } else if (size > 0 && balance > balances[0]) {
+            slots[0] = slot;
+            balances[0] = balance;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Συγχωνεύει το {@code other} σε αυτό και το επιστρέφει.
+     */
+    TopBalances merge(TopBalances other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.slots[i], other.balances[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Επιστρέφει τα slots σε φθίνουσα σειρά υπολοίπου.
+     */
+    int[] slotsDescending() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(balances[b], balances[a]));
+
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = slots[order[i]];
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (balances[parent] <= balances[i]) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && balances[left] < balances[smallest]) smallest = left;
+            if (right < size && balances[right] < balances[smallest]) smallest = right;
+            if (smallest == i) return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+
+        long balance = balances[i];
+        balances[i] = balances[j];
+        balances[j] = balance;
+    }
+}
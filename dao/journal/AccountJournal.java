@@ -0,0 +1,665 @@
+package gr.aueb.cf.ch18.bankapp.dao.journal;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.ImmutableUser;
+import gr.aueb.cf.ch18.bankapp.model.UserView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal για τις μεταβολές του account store, σε δυαδικό αρχείο
+ * μέσω {@link FileChannel}.
+ *
+ * Κάθε μεταβολή (insert, update, delete, αλλαγή υπολοίπου) γράφεται ως εγγραφή
+ * της μορφής {@code [int length][byte type][payload][int crc32]}. Μια αλλαγή υπολοίπου
+ * που ανήκει σε σκέλος μεταφοράς γράφεται μαζί με το αναγνωριστικό του σκέλους στην ίδια
+ * εγγραφή, ώστε η αναπαραγωγή να δίνει ακριβώς τα σκέλη των οποίων η μεταβολή επιβίωσε. Οι εγγραφές
+ * συσσωρεύονται σε buffer μνήμης και γράφονται στο αρχείο με ένα write και ένα fsync
+ * για όλους τους writers που περιμένουν εκείνη τη στιγμή (group commit). Το πότε
+ * γίνεται fsync καθορίζεται από το {@link JournalDurability}.
+ *
+ * Κατά την εκκίνηση, το {@link #replay(IAccountDAO)} ξαναχτίζει το store από το journal
+ * (ή μόνο το τμήμα μετά από ένα snapshot, μέσω {@link #replay(IAccountDAO, long)}).
+ * Μια ημιτελής ή κατεστραμμένη εγγραφή στο τέλος του αρχείου (π.χ. από crash κατά
+ * την εγγραφή) αγνοείται και το αρχείο περικόπτεται στην τελευταία έγκυρη εγγραφή.
+ *
+ * Αν αποτύχει ένα write ή fsync, το αρχείο περικόπτεται πίσω στο τέλος της τελευταίας
+ * επιτυχημένης εγγραφής, οι εγγραφές που δεν γράφτηκαν κρατιούνται στη μνήμη και το journal
+ * μένει σε κατάσταση αποτυχίας: κάθε επόμενο append ή commit που δεν έχει ήδη γίνει durable
+ * αποτυγχάνει με {@link UncheckedIOException}, ώστε καμία εγγραφή να μη δηλωθεί durable
+ * χωρίς να είναι.
+ */
+public class AccountJournal implements Closeable {
+    /** Προεπιλεγμένο πλήθος εγγραφών ανά fsync για {@link JournalDurability#PER_BATCH}. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** Προεπιλεγμένο διάστημα fsync για {@link JournalDurability#INTERVAL}. */
+    public static final long DEFAULT_INTERVAL_MILLIS = 10L;
+
+    private static final int MAGIC = 0x424B4A31;  // "BKJ1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_RECORD_SIZE = 1 << 19;
+
+    private static final byte INSERT = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+    private static final byte BALANCE = 4;
+    private static final byte TRANSFER_LEG = 5;
+    private static final byte LEG = 6;
+
+    private final FileChannel channel;
+    private final JournalDurability durability;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+
+    /** Σειριοποιεί την προσθήκη εγγραφών στο {@link #active} buffer. */
+    private final Object appendLock = new Object();
+
+    /** Σειριοποιεί τα writes/fsyncs στο αρχείο. Σειρά κλειδώματος: syncLock → appendLock. */
+    private final Object syncLock = new Object();
+
+    /** Buffer με εγγραφές που δεν έχουν γραφτεί ακόμα στο αρχείο (φρουρείται από appendLock). */
+    private ByteBuffer active = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Δεύτερος buffer για εναλλαγή κατά το write (φρουρείται από syncLock). */
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Αύξων αριθμός της τελευταίας εγγραφής που προστέθηκε (φρουρείται από appendLock). */
+    private long appendedSeq;
+
+    /** Αύξων αριθμός της τελευταίας εγγραφής που έγινε durable. */
+    private volatile long durableSeq;
+
+    /** Θέση στο αρχείο μετά την τελευταία εγγραφή που γράφτηκε επιτυχώς (φρουρείται από syncLock). */
+    private long writtenPosition;
+
+    /** Το σφάλμα που έθεσε το journal σε κατάσταση αποτυχίας, ή null. */
+    private volatile IOException failure;
+
+    private volatile boolean closed;
+
+    /**
+     * Overloaded Constructor με προεπιλεγμένες παραμέτρους batch και interval.
+     *
+     * @param path το αρχείο του journal (δημιουργείται αν δεν υπάρχει)
+     * @param durability η πολιτική ανθεκτικότητας
+     * @throws IOException αν αποτύχει το άνοιγμα του αρχείου ή το header δεν είναι έγκυρο
+     */
+    public AccountJournal(Path path, JournalDurability durability) throws IOException {
+        this(path, durability, DEFAULT_BATCH_SIZE, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param path το αρχείο του journal (δημιουργείται αν δεν υπάρχει)
+     * @param durability η πολιτική ανθεκτικότητας
+     * @param batchSize πλήθος εγγραφών ανά fsync για {@link JournalDurability#PER_BATCH}
+     * @param intervalMillis διάστημα fsync για {@link JournalDurability#INTERVAL}
+     * @throws IOException αν αποτύχει το άνοιγμα του αρχείου ή το header δεν είναι έγκυρο
+     */
+    public AccountJournal(Path path, JournalDurability durability, int batchSize, long intervalMillis)
+            throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                path, durability, batchSize, intervalMillis);
+    }
+
+    /**
+     * Constructor πάνω σε ήδη ανοιχτό channel (π.χ. για έλεγχο της συμπεριφοράς σε σφάλματα I/O).
+     *
+     * @param channel το channel του αρχείου του journal
+     * @param path το αρχείο του journal, για τα μηνύματα σφάλματος
+     * @param durability η πολιτική ανθεκτικότητας
+     * @param batchSize πλήθος εγγραφών ανά fsync για {@link JournalDurability#PER_BATCH}
+     * @param intervalMillis διάστημα fsync για {@link JournalDurability#INTERVAL}
+     * @throws IOException αν το header δεν είναι έγκυρο
+     */
+    AccountJournal(FileChannel channel, Path path, JournalDurability durability, int batchSize, long intervalMillis)
+            throws IOException {
+        this.durability = durability;
+        this.batchSize = Math.max(1, batchSize);
+        this.channel = channel;
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+                header.flip();
+                while (header.hasRemaining()) channel.write(header, header.position());
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getShort() != VERSION) {
+                    throw new IOException("Not a valid account journal: " + path);
+                }
+            }
+            writtenPosition = channel.size();
+            channel.position(writtenPosition);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (durability == JournalDurability.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "account-journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /** Επιστρέφει την πολιτική ανθεκτικότητας του journal. */
+    public JournalDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Προσθέτει εγγραφή εισαγωγής λογαριασμού.
+     *
+     * @param account ο λογαριασμός που εισήχθη
+     * @return ο αύξων αριθμός της εγγραφής, για χρήση στο {@link #commit(long)}
+     */
+    public long appendInsert(Account account) {
+        UserView holder = account.getHolderView();
+        return append(encode(INSERT, account.getBalanceMinor(), account.getUuid(), account.getIban(),
+                holder.getUuid(), holder.getFirstname(), holder.getLastname(), holder.getSsn()));
+    }
+
+    /**
+     * Προσθέτει εγγραφή ενημέρωσης λογαριασμού. Το υπόλοιπο γράφεται για πληροφόρηση· κατά
+     * την αναπαραγωγή δεν εφαρμόζεται, αφού το update δεν αλλάζει το υπόλοιπο
+     * ({@link IAccountDAO#update(String, Account)}).
+     *
+     * @param uuid το UUID του λογαριασμού πριν την ενημέρωση
+     * @param account τα νέα δεδομένα του λογαριασμού
+     * @return ο αύξων αριθμός της εγγραφής, για χρήση στο {@link #commit(long)}
+     */
+    public long appendUpdate(String uuid, Account account) {
+        UserView holder = account.getHolderView();
+        return append(encode(UPDATE, account.getBalanceMinor(), uuid, account.getUuid(), account.getIban(),
+                holder.getUuid(), holder.getFirstname(), holder.getLastname(), holder.getSsn()));
+    }
+
+    /**
+     * Προσθέτει εγγραφή διαγραφής λογαριασμού.
+     *
+     * @param uuid το UUID του λογαριασμού που διαγράφηκε
+     * @return ο αύξων αριθμός της εγγραφής, για χρήση στο {@link #commit(long)}
+     */
+    public long appendDelete(String uuid) {
+        return append(encode(DELETE, 0L, uuid));
+    }
+
+    /**
+     * Προσθέτει εγγραφή μεταβολής υπολοίπου. Καταγράφεται η διαφορά (delta) και όχι
+     * το νέο υπόλοιπο, ώστε ταυτόχρονες μεταβολές να αναπαράγονται σωστά ανεξαρτήτως σειράς.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param deltaMinor η μεταβολή του υπολοίπου σε λεπτά
+     * @return ο αύξων αριθμός της εγγραφής, για χρήση στο {@link #commit(long)}
+     */
+    public long appendBalance(String uuid, long deltaMinor) {
+        return append(encode(BALANCE, deltaMinor, uuid));
+    }
+
+    /**
+     * Προσθέτει εγγραφή μεταβολής υπολοίπου που ανήκει σε σκέλος μεταφοράς: η διαφορά και
+     * το αναγνωριστικό του σκέλους γράφονται στην ίδια εγγραφή.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param deltaMinor η μεταβολή του υπολοίπου σε λεπτά
+     * @param legId το αναγνωριστικό του σκέλους
+     * @return ο αύξων αριθμός της εγγραφής, για χρήση στο {@link #commit(long)}
+     */
+    public long appendBalance(String uuid, long deltaMinor, long legId) {
+        byte[] key = uuid.getBytes(StandardCharsets.UTF_8);
+        if (key.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal field too long: " + key.length + " bytes");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(1 + 8 + 8 + 2 + key.length);
+        record.put(TRANSFER_LEG).putLong(deltaMinor).putLong(legId).putShort((short) key.length).put(key);
+        return append(record.array());
+    }
+
+    /**
+     * Προσθέτει εγγραφή που σημειώνει ένα σκέλος μεταφοράς ως εφαρμοσμένο, χωρίς μεταβολή
+     * υπολοίπου (π.χ. για σκέλη που πρέπει να επιβιώσουν ενός snapshot).
+     *
+     * @param legId το αναγνωριστικό του σκέλους
+     * @return ο αύξων αριθμός της εγγραφής, για χρήση στο {@link #commit(long)}
+     */
+    public long appendLeg(long legId) {
+        return append(encode(LEG, legId));
+    }
+
+    /**
+     * Εφαρμόζει την πολιτική ανθεκτικότητας για μια εγγραφή που προστέθηκε.
+     * Με {@link JournalDurability#PER_OPERATION} επιστρέφει μόνο αφού η εγγραφή γίνει durable.
+     *
+     * @param seq ο αύξων αριθμός της εγγραφής
+     */
+    public void commit(long seq) {
+        switch (durability) {
+            case PER_OPERATION:
+                awaitDurable(seq);
+                break;
+            case PER_BATCH:
+                if (seq - durableSeq >= batchSize) awaitDurable(seq);
+                break;
+            case INTERVAL:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Γράφει και κάνει fsync όλες τις εγγραφές που έχουν προστεθεί μέχρι τώρα.
+     */
+    public void sync() {
+        long seq;
+        synchronized (appendLock) {
+            seq = appendedSeq;
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Κάνει durable όλες τις εγγραφές και επιστρέφει τη θέση του τέλους του journal.
+     * Χρησιμοποιείται ως σημείο αναφοράς (checkpoint) για snapshots· ο καλών πρέπει
+     * να εμποδίζει νέες εγγραφές μέχρι να πάρει αντίγραφο των δεδομένων.
+     *
+     * @return η θέση στο αρχείο μετά την τελευταία εγγραφή
+     */
+    public long checkpointPosition() {
+        sync();
+        synchronized (syncLock) {
+            try {
+                return channel.position();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Αναπαράγει ολόκληρο το journal στο δοσμένο DAO, το οποίο πρέπει να είναι άδειο.
+     * Πρέπει να καλείται πριν προστεθούν νέες εγγραφές.
+     *
+     * @param target το DAO στο οποίο εφαρμόζονται οι εγγραφές
+     * @return το πλήθος των εγγραφών που εφαρμόστηκαν
+     * @throws IOException αν αποτύχει η ανάγνωση του αρχείου
+     */
+    public long replay(IAccountDAO target) throws IOException {
+        return replay(target, HEADER_SIZE, legId -> { });
+    }
+
+    /**
+     * Αναπαράγει ολόκληρο το journal στο δοσμένο (άδειο) DAO, αναφέροντας και τα σκέλη
+     * μεταφορών που καταγράφηκαν ως εφαρμοσμένα.
+     * Πρέπει να καλείται πριν προστεθούν νέες εγγραφές.
+     *
+     * @param target το DAO στο οποίο εφαρμόζονται οι εγγραφές
+     * @param legs δέχεται το αναγνωριστικό κάθε εφαρμοσμένου σκέλους μεταφοράς
+     * @return το πλήθος των εγγραφών που εφαρμόστηκαν
+     * @throws IOException αν αποτύχει η ανάγνωση του αρχείου
+     */
+    public long replay(IAccountDAO target, LongConsumer legs) throws IOException {
+        return replay(target, HEADER_SIZE, legs);
+    }
+
+    /**
+     * Αναπαράγει το journal από τη δοσμένη θέση και μετά (π.χ. μετά τη φόρτωση snapshot).
+     * Πρέπει να καλείται πριν προστεθούν νέες εγγραφές.
+     *
+     * @param target το DAO στο οποίο εφαρμόζονται οι εγγραφές
+     * @param fromPosition η θέση στο αρχείο από την οποία ξεκινά η αναπαραγωγή
+     * @return το πλήθος των εγγραφών που εφαρμόστηκαν
+     * @throws IOException αν αποτύχει η ανάγνωση του αρχείου ή η θέση είναι εκτός αρχείου
+     */
+    public long replay(IAccountDAO target, long fromPosition) throws IOException {
+        return replay(target, fromPosition, legId -> { });
+    }
+
+    /**
+     * Αναπαράγει το journal από τη δοσμένη θέση και μετά, αναφέροντας και τα σκέλη
+     * μεταφορών που καταγράφηκαν ως εφαρμοσμένα.
+     * Πρέπει να καλείται πριν προστεθούν νέες εγγραφές.
+     *
+     * @param target το DAO στο οποίο εφαρμόζονται οι εγγραφές
+     * @param fromPosition η θέση στο αρχείο από την οποία ξεκινά η αναπαραγωγή
+     * @param legs δέχεται το αναγνωριστικό κάθε εφαρμοσμένου σκέλους μεταφοράς
+     * @return το πλήθος των εγγραφών που εφαρμόστηκαν
+     * @throws IOException αν αποτύχει η ανάγνωση του αρχείου ή η θέση είναι εκτός αρχείου
+     */
+    public long replay(IAccountDAO target, long fromPosition, LongConsumer legs) throws IOException {
+        synchronized (syncLock) {
+            if (fromPosition < HEADER_SIZE || fromPosition > channel.size()) {
+                throw new IOException("Journal position out of range: " + fromPosition);
+            }
+
+            synchronized (appendLock) {
+                if (appendedSeq > 0) {
+                    throw new IllegalStateException("Journal replay must run before any append.");
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            buffer.flip();
+            long readPosition = fromPosition;
+            long recordPosition = fromPosition;
+            long count = 0;
+            CRC32 crc = new CRC32();
+
+            while (true) {
+                readPosition = fill(buffer, readPosition, 4);
+                if (buffer.remaining() < 4) break;
+
+                int length = buffer.getInt(buffer.position());
+                if (length <= 0 || length > MAX_RECORD_SIZE) break;
+
+                readPosition = fill(buffer, readPosition, 4 + length + 4);
+                if (buffer.remaining() < 4 + length + 4) break;
+
+                buffer.getInt();
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+                buffer.position(buffer.position() + length);
+
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != buffer.getInt()) break;
+
+                apply(record, target, legs);
+                recordPosition += 4 + length + 4;
+                count++;
+            }
+
+            if (recordPosition < channel.size()) {
+                channel.truncate(recordPosition);
+            }
+            channel.position(recordPosition);
+            writtenPosition = recordPosition;
+            return count;
+        }
+    }
+
+    /**
+     * Σταματά το background flushing, κάνει fsync ό,τι εκκρεμεί και κλείνει το αρχείο.
+     *
+     * @throws IOException αν αποτύχει το τελικό fsync ή το κλείσιμο
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        if (flusher != null) flusher.shutdownNow();
+
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Ελέγχει ότι το journal δέχεται νέες εγγραφές, ώστε ο καλών να μην εφαρμόσει μια
+     * μεταβολή που δεν θα μπορεί να καταγραφεί.
+     *
+     * @throws UncheckedIOException αν το journal είναι σε κατάσταση αποτυχίας
+     * @throws IllegalStateException αν το journal έχει κλείσει
+     */
+    void ensureWritable() {
+        if (failure != null) throw failed();
+        if (closed) throw new IllegalStateException("Journal is closed.");
+    }
+
+    /**
+     * Προσθέτει μια κωδικοποιημένη εγγραφή στον buffer.
+     *
+     * @return ο αύξων αριθμός της εγγραφής
+     */
+    private long append(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        int checksum = (int) crc.getValue();
+
+        synchronized (appendLock) {
+            ensureWritable();
+
+            int needed = 4 + record.length + 4;
+            if (active.remaining() < needed) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + needed));
+                active.flip();
+                grown.put(active);
+                active = grown;
+            }
+            active.putInt(record.length).put(record).putInt(checksum);
+            return ++appendedSeq;
+        }
+    }
+
+    /**
+     * Περιμένει μέχρι η εγγραφή με τον δοσμένο αύξοντα αριθμό να γίνει durable.
+     * Αν δεν την έχει καλύψει ήδη άλλο fsync, γράφει και κάνει fsync όλες τις
+     * εκκρεμείς εγγραφές (και των υπόλοιπων writers).
+     *
+     * @throws UncheckedIOException αν η εγγραφή δεν έγινε durable επειδή απέτυχε
+     *         (τώρα ή νωρίτερα) ένα write ή fsync
+     */
+    private void awaitDurable(long seq) {
+        if (durableSeq >= seq) return;
+
+        synchronized (syncLock) {
+            if (durableSeq >= seq) return;
+            if (failure != null) throw failed();
+
+            ByteBuffer toWrite;
+            long target;
+            synchronized (appendLock) {
+                toWrite = active;
+                active = spare;
+                target = appendedSeq;
+            }
+
+            toWrite.flip();
+            try {
+                while (toWrite.hasRemaining()) channel.write(toWrite);
+                channel.force(false);
+            } catch (IOException e) {
+                fail(e, toWrite);
+                throw failed();
+            }
+            writtenPosition += toWrite.limit();
+            toWrite.clear();
+            spare = toWrite;
+            durableSeq = target;
+        }
+    }
+
+    /**
+     * Θέτει το journal σε κατάσταση αποτυχίας μετά από σφάλμα write ή fsync: περικόπτει το
+     * αρχείο στο τέλος της τελευταίας επιτυχημένης εγγραφής (ώστε να μη μείνει ημιτελής
+     * εγγραφή) και κρατά τις εγγραφές που δεν γράφτηκαν μπροστά από όσες προστέθηκαν στο μεταξύ.
+     * Καλείται κρατώντας το syncLock.
+     */
+    private void fail(IOException cause, ByteBuffer unwritten) {
+        try {
+            channel.truncate(writtenPosition);
+            channel.position(writtenPosition);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+
+        unwritten.rewind();
+        synchronized (appendLock) {
+            failure = cause;
+            active.flip();
+            ByteBuffer kept = ByteBuffer.allocate(unwritten.remaining() + active.remaining());
+            kept.put(unwritten).put(active);
+            active = kept;
+        }
+        spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Δημιουργεί την εξαίρεση για λειτουργίες μετά από αποτυχία του journal.
+     */
+    private UncheckedIOException failed() {
+        return new UncheckedIOException("Journal write failed; no further records are accepted.", failure);
+    }
+
+    /** Περιοδικό fsync για {@link JournalDurability#INTERVAL}. */
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // Θα επαναληφθεί στο επόμενο interval ή στο close()
+        }
+    }
+
+    /**
+     * Γεμίζει τον buffer ανάγνωσης ώστε να έχει τουλάχιστον {@code needed} bytes, αν υπάρχουν.
+     *
+     * @return η νέα θέση ανάγνωσης στο αρχείο
+     */
+    private long fill(ByteBuffer buffer, long readPosition, int needed) throws IOException {
+        if (buffer.remaining() >= needed) return readPosition;
+
+        buffer.compact();
+        int read;
+        while (buffer.position() < needed && (read = channel.read(buffer, readPosition)) > 0) {
+            readPosition += read;
+        }
+        buffer.flip();
+        return readPosition;
+    }
+
+    /**
+     * Εφαρμόζει μία εγγραφή στο DAO.
+     */
+    private static void apply(ByteBuffer record, IAccountDAO target, LongConsumer legs) {
+        byte type = record.get();
+        long value = record.getLong();
+
+        switch (type) {
+            case INSERT: {
+                target.insert(readAccount(record, readString(record), value));
+                break;
+            }
+            case UPDATE: {
+                String uuid = readString(record);
+                target.update(uuid, readAccount(record, readString(record), value));
+                break;
+            }
+            case DELETE:
+                target.delete(readString(record));
+                break;
+            case BALANCE:
+                applyBalance(target, readString(record), value);
+                break;
+            case TRANSFER_LEG: {
+                long legId = record.getLong();
+                applyBalance(target, readString(record), value);
+                legs.accept(legId);
+                break;
+            }
+            case LEG:
+                legs.accept(value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Εφαρμόζει μια μεταβολή υπολοίπου στον λογαριασμό, αν υπάρχει.
+     */
+    private static void applyBalance(IAccountDAO target, String uuid, long deltaMinor) {
+        Account account = target.get(uuid);
+        if (account == null) return;
+
+        long current;
+        do {
+            current = account.getBalanceMinor();
+        } while (!target.compareAndSetBalance(account, current, current + deltaMinor));
+    }
+
+    /**
+     * Διαβάζει τα πεδία λογαριασμού (IBAN και κάτοχο) μιας εγγραφής.
+     */
+    private static Account readAccount(ByteBuffer record, String uuid, long balanceMinor) {
+        Account account = new Account();
+        account.setUuid(uuid);
+        account.setIban(readString(record));
+
+        String holderUuid = readString(record);
+        String firstname = readString(record);
+        String lastname = readString(record);
+        account.setHolder(new ImmutableUser(holderUuid, firstname, lastname, readString(record)));
+        account.setBalanceMinor(balanceMinor);
+        return account;
+    }
+
+    /**
+     * Κωδικοποιεί μια εγγραφή ως {@code [byte type][long value][strings...]}.
+     * Κάθε string γράφεται ως {@code [short length][UTF-8 bytes]}, με length -1 για null.
+     */
+    private static byte[] encode(byte type, long value, String... strings) {
+        byte[][] encoded = new byte[strings.length][];
+        int size = 1 + 8;
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i] == null ? null : strings[i].getBytes(StandardCharsets.UTF_8);
+            if (encoded[i] != null && encoded[i].length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Journal field too long: " + encoded[i].length + " bytes");
+            }
+            size += 2 + (encoded[i] == null ? 0 : encoded[i].length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(type).putLong(value);
+        for (byte[] bytes : encoded) {
+            if (bytes == null) {
+                buffer.putShort((short) -1);
+            } else {
+                buffer.putShort((short) bytes.length).put(bytes);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Διαβάζει ένα string της μορφής {@code [short length][UTF-8 bytes]}.
+     */
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) return null;
+
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
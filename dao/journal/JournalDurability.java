@@ -0,0 +1,25 @@
+package gr.aueb.cf.ch18.bankapp.dao.journal;
+
+/**
+ * Πολιτική ανθεκτικότητας (durability) του {@link AccountJournal}.
+ *
+ * Καθορίζει πότε οι εγγραφές του journal γίνονται fsync στον δίσκο.
+ */
+public enum JournalDurability {
+    /**
+     * Κάθε μεταβολή επιστρέφει μόνο αφού γίνει durable. Ταυτόχρονοι writers
+     * μοιράζονται το ίδιο fsync (group commit).
+     */
+    PER_OPERATION,
+
+    /**
+     * Γίνεται fsync κάθε φορά που συσσωρεύονται {@code batchSize} εγγραφές,
+     * καθώς και σε ρητή κλήση {@link AccountJournal#sync()}.
+     */
+    PER_BATCH,
+
+    /**
+     * Γίνεται fsync περιοδικά από background thread, κάθε {@code intervalMillis}.
+     */
+    INTERVAL
+}
@@ -0,0 +1,385 @@
+package gr.aueb.cf.ch18.bankapp.dao.journal;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.ITransferLegDAO;
+import gr.aueb.cf.ch18.bankapp.dao.snapshot.AccountSnapshot;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Durable υλοποίηση του {@link IAccountDAO} (decorator) που καταγράφει κάθε μεταβολή
+ * ενός in-memory DAO σε {@link AccountJournal} πριν επιστρέψει στον καλούντα,
+ * σύμφωνα με την πολιτική {@link JournalDurability} του journal.
+ *
+ * Κατά τη δημιουργία, το journal αναπαράγεται στο (άδειο) delegate DAO, ώστε
+ * μετά από επανεκκίνηση να ανακτώνται όλοι οι λογαριασμοί και τα υπόλοιπα.
+ * Αν δοθεί {@link AccountSnapshot}, φορτώνεται πρώτα αυτό και αναπαράγεται μόνο
+ * το τμήμα του journal μετά το snapshot. Νέο snapshot παράγεται με
+ * {@link #checkpoint(Path)} ενώ το service συνεχίζει να λειτουργεί.
+ *
+ * Μεταβολές υπολοίπου που ανήκουν σε σκέλος μεταφοράς ({@link ITransferLegDAO}) γράφονται
+ * στο journal μαζί με το αναγνωριστικό του σκέλους, οπότε μετά την αναπαραγωγή το
+ * {@link #isLegApplied(String, long)} δείχνει ακριβώς ποια σκέλη επιβίωσαν.
+ * Οι αναγνώσεις εξυπηρετούνται απευθείας από το delegate.
+ *
+ * Αν το journal αποτύχει (σφάλμα write ή fsync), κάθε επόμενη μεταβολή απορρίπτεται πριν
+ * εφαρμοστεί στο delegate, οπότε καμία νέα μεταβολή δεν χτίζεται πάνω σε όσες δεν έγιναν durable.
+ */
+public class JournaledAccountDAO implements ITransferLegDAO, Closeable {
+    /** Πλήθος των locks ανά UUID (δύναμη του 2). */
+    private static final int UUID_STRIPES = 64;
+
+    /** Σημαία για μεταβολή υπολοίπου που δεν ανήκει σε σκέλος μεταφοράς. */
+    private static final long NO_LEG = -1;
+
+    /** Το in-memory DAO που κρατά τα δεδομένα. */
+    private final IAccountDAO delegate;
+
+    /** Το journal όπου καταγράφονται οι μεταβολές. */
+    private final AccountJournal journal;
+
+    /**
+     * Lock που διατηρεί ίδια σειρά εφαρμογής και καταγραφής για τις δομικές αλλαγές.
+     * Το fsync γίνεται εκτός lock ώστε ταυτόχρονοι writers να μοιράζονται το ίδιο fsync.
+     */
+    private final Object structureLock = new Object();
+
+    /**
+     * Locks ανά UUID (striping) που σειριοποιούν την εφαρμογή και καταγραφή μιας αλλαγής
+     * υπολοίπου με τις δομικές αλλαγές του ίδιου λογαριασμού. Έτσι η διαφορά ενός CAS δεν
+     * καταγράφεται με το παλιό UUID μετά από ένα update που το άλλαξε, ούτε πριν από το
+     * insert του λογαριασμού. Όποιος κρατά περισσότερα από ένα κρατά
+     * πρώτα το {@link #structureLock}, οπότε η σειρά απόκτησής τους δεν έχει σημασία.
+     */
+    private final Object[] uuidLocks = new Object[UUID_STRIPES];
+
+    /** Τα σκέλη μεταφορών που έχουν εφαρμοστεί και δεν έχουν ξεχαστεί. */
+    private final Set<Long> appliedLegs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Όλες οι μεταβολές κρατούν το read lock· το {@link #checkpoint(Path)} κρατά
+     * στιγμιαία το write lock ώστε snapshot και θέση journal να είναι συνεπή.
+     */
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor που αναπαράγει ολόκληρο το journal στο delegate DAO.
+     *
+     * @param delegate το (άδειο) in-memory DAO
+     * @param journal το journal των μεταβολών
+     * @throws UncheckedIOException αν αποτύχει η ανάγνωση του journal
+     */
+    public JournaledAccountDAO(IAccountDAO delegate, AccountJournal journal) {
+        this(delegate, journal, null);
+    }
+
+    /**
+     * Constructor που φορτώνει το snapshot (αν υπάρχει) και αναπαράγει το υπόλοιπο
+     * του journal στο delegate DAO.
+     *
+     * @param delegate το (άδειο) in-memory DAO
+     * @param journal το journal των μεταβολών
+     * @param snapshot το αρχείο του snapshot, ή null
+     * @throws UncheckedIOException αν αποτύχει η ανάγνωση του snapshot ή του journal
+     */
+    public JournaledAccountDAO(IAccountDAO delegate, AccountJournal journal, Path snapshot) {
+        this.delegate = delegate;
+        this.journal = journal;
+        for (int i = 0; i < UUID_STRIPES; i++) {
+            uuidLocks[i] = new Object();
+        }
+
+        try {
+            if (snapshot != null && Files.exists(snapshot)) {
+                journal.replay(delegate, AccountSnapshot.load(snapshot, delegate), appliedLegs::add);
+            } else {
+                journal.replay(delegate, appliedLegs::add);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account insert(Account account) {
+        long seq;
+        Account inserted;
+
+        Lock lock = checkpointLock.readLock();
+        lock.lock();
+        try {
+            synchronized (structureLock) {
+                synchronized (uuidLock(account.getUuid())) {
+                    journal.ensureWritable();
+                    inserted = delegate.insert(account);
+                    seq = journal.appendInsert(inserted);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.commit(seq);
+        return inserted;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        long seq;
+        Account oldAccount;
+
+        Lock lock = checkpointLock.readLock();
+        lock.lock();
+        try {
+            synchronized (structureLock) {
+                synchronized (uuidLock(uuid)) {
+                    synchronized (uuidLock(account.getUuid())) {
+                        journal.ensureWritable();
+                        oldAccount = delegate.update(uuid, account);
+                        if (oldAccount == null) return null;
+
+                        seq = journal.appendUpdate(uuid, account);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.commit(seq);
+        return oldAccount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Καταγράφεται η διαφορά του υπολοίπου, μόνο αν η ενημέρωση πέτυχε. Η ενημέρωση και
+     * η καταγραφή γίνονται κρατώντας το lock του UUID, ώστε να μην παρεμβάλλεται update
+     * ή delete του ίδιου λογαριασμού· αν το UUID αλλάξει πριν αποκτηθεί το lock, η
+     * απόκτηση επαναλαμβάνεται με το νέο UUID.
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        return compareAndSetBalance(account, expectedMinor, newMinor, NO_LEG);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Η διαφορά του υπολοίπου και το σκέλος καταγράφονται στην ίδια εγγραφή του journal.
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor, long legId) {
+        long seq;
+
+        Lock lock = checkpointLock.readLock();
+        lock.lock();
+        try {
+            while (true) {
+                String uuid = account.getUuid();
+                synchronized (uuidLock(uuid)) {
+                    if (!uuid.equals(account.getUuid())) continue;
+                    journal.ensureWritable();
+                    if (!delegate.compareAndSetBalance(account, expectedMinor, newMinor)) return false;
+
+                    if (legId == NO_LEG) {
+                        seq = journal.appendBalance(uuid, newMinor - expectedMinor);
+                    } else {
+                        seq = journal.appendBalance(uuid, newMinor - expectedMinor, legId);
+                        appliedLegs.add(legId);
+                    }
+                    break;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.commit(seq);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Όλα τα σκέλη καταγράφονται στο ίδιο journal, οπότε ο IBAN δεν χρησιμοποιείται.
+     */
+    @Override
+    public boolean isLegApplied(String iban, long legId) {
+        return appliedLegs.contains(legId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forgetLegs(LongPredicate filter) {
+        appliedLegs.removeIf(filter::test);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(String uuid) {
+        long seq;
+
+        Lock lock = checkpointLock.readLock();
+        lock.lock();
+        try {
+            synchronized (structureLock) {
+                synchronized (uuidLock(uuid)) {
+                    if (!delegate.uuidExists(uuid)) return;
+
+                    journal.ensureWritable();
+                    delegate.delete(uuid);
+                    seq = journal.appendDelete(uuid);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.commit(seq);
+    }
+
+    /**
+     * Επιστρέφει το lock του stripe ενός UUID.
+     */
+    private Object uuidLock(String uuid) {
+        int hash = uuid == null ? 0 : uuid.hashCode();
+        return uuidLocks[(hash ^ hash >>> 16) & (UUID_STRIPES - 1)];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account get(String uuid) {
+        return delegate.get(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return delegate.getByIban(iban);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAll() {
+        return delegate.getAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        return delegate.getPage(afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Account> stream() {
+        return delegate.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return delegate.uuidExists(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return delegate.ssnExists(ssn);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return delegate.ibanExists(iban);
+    }
+
+    /**
+     * Παράγει snapshot του store ενώ το service συνεχίζει να λειτουργεί.
+     *
+     * Οι μεταβολές σταματούν μόνο όσο διαρκεί η αντιγραφή των λογαριασμών στη μνήμη·
+     * η εγγραφή του αρχείου γίνεται μετά, παράλληλα με νέες μεταβολές. Το snapshot
+     * καταγράφει τη θέση του journal, ώστε κατά την εκκίνηση να αναπαράγεται μόνο
+     * ό,τι ακολούθησε· τα σκέλη μεταφορών που δεν έχουν ξεχαστεί ξαναγράφονται αμέσως μετά
+     * από αυτή τη θέση, αφού το snapshot κρατά μόνο τα υπόλοιπα.
+     *
+     * @param snapshot το αρχείο του snapshot
+     * @throws IOException αν αποτύχει η εγγραφή του snapshot
+     */
+    public void checkpoint(Path snapshot) throws IOException {
+        List<Account> copy;
+        long position;
+
+        Lock lock = checkpointLock.writeLock();
+        lock.lock();
+        try {
+            position = journal.checkpointPosition();
+
+            List<Account> accounts = delegate.getAll();
+            copy = new ArrayList<>(accounts.size());
+            for (Account account : accounts) {
+                copy.add(new Account(account));
+            }
+            for (long legId : appliedLegs) {
+                journal.appendLeg(legId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.sync();
+
+        AccountSnapshot.write(snapshot, copy, position);
+    }
+
+    /**
+     * Κάνει durable όλες τις μεταβολές που έχουν καταγραφεί μέχρι τώρα
+     * (π.χ. στο τέλος ενός batch με {@link JournalDurability#PER_BATCH}).
+     */
+    public void sync() {
+        journal.sync();
+    }
+
+    /**
+     * Κάνει fsync ό,τι εκκρεμεί και κλείνει το journal.
+     *
+     * @throws IOException αν αποτύχει το κλείσιμο του journal
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,313 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only ledger ενός λογαριασμού, σε τμήματα (chunks) από primitive πίνακες
+ * (αύξων αριθμός, χρόνος, ποσό, υπόλοιπο μετά, τύπος) και τον IBAN του λογαριασμού.
+ *
+ * Η προσθήκη εγγραφής είναι O(1) και δεν δημιουργεί αντικείμενα· νέο τμήμα δεσμεύεται μόνο
+ * όταν γεμίσει το τελευταίο. Τα τμήματα ξεκινούν μικρά ({@value #FIRST_CHUNK_SIZE} εγγραφές)
+ * και διπλασιάζονται έως {@value #MAX_CHUNK_SIZE}, ώστε λογαριασμοί με λίγες κινήσεις να
+ * καταλαμβάνουν λίγη μνήμη, ενώ τα γεμάτα τμήματα δεν αντιγράφονται ποτέ.
+ *
+ * Οι χρόνοι των εγγραφών είναι μη φθίνοντες, οπότε τα ερωτήματα χρονικού διαστήματος
+ * εντοπίζουν την αρχή τους με δυαδική αναζήτηση: πρώτα στον τελευταίο χρόνο κάθε τμήματος
+ * (αραιό χρονικό index) και μετά μέσα στο τμήμα. Κάθε εγγραφή κρατά το υπόλοιπο μετά τη
+ * μεταβολή, οπότε λειτουργεί και ως checkpoint: το υπόλοιπο σε μια παλαιότερη στιγμή
+ * ({@link #balanceAt(long, long)}) βρίσκεται χωρίς επανάληψη (replay) εγγραφών.
+ * Ομοίως κάθε εγγραφή κρατά τον IBAN που ίσχυε μετά από αυτήν (αναφορά στο ίδιο
+ * {@code String}, χωρίς αντίγραφο), οπότε ο IBAN σε μια παλαιότερη στιγμή
+ * ({@link #ibanAt(long)}) βρίσκεται με την ίδια αναζήτηση.
+ * Οι {@link LedgerEntry} δημιουργούνται μόνο για τις εγγραφές που επιστρέφει ένα ερώτημα.
+ * Όλες οι μέθοδοι συγχρονίζονται στο ίδιο το ledger.
+ */
+public class AccountLedger {
+    /** Μέγεθος του πρώτου τμήματος. */
+    static final int FIRST_CHUNK_SIZE = 8;
+
+    /** Μέγιστο μέγεθος τμήματος. */
+    static final int MAX_CHUNK_SIZE = 1024;
+
+    private static final PostingType[] TYPES = PostingType.values();
+
+    private Chunk[] chunks = new Chunk[4];
+    private int chunkCount;
+    private long size;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private String lastIban;
+
+    /**
+     * Προσθέτει μια εγγραφή. Αν ο χρόνος είναι μικρότερος από της τελευταίας εγγραφής
+     * (π.χ. μετά από διόρθωση του ρολογιού), χρησιμοποιείται ο χρόνος της τελευταίας.
+     *
+     * @param sequence ο αύξων αριθμός της εγγραφής
+     * @param timestampMillis η χρονική στιγμή της εγγραφής
+     * @param amountMinor η μεταβολή του υπολοίπου σε λεπτά
+     * @param balanceAfterMinor το υπόλοιπο μετά τη μεταβολή, σε λεπτά
+     * @param type ο τύπος της εγγραφής
+     * @param iban ο IBAN του λογαριασμού μετά την εγγραφή, ή null αν δεν άλλαξε
+     */
+    synchronized void append(long sequence, long timestampMillis, long amountMinor, long balanceAfterMinor,
+                             PostingType type, String iban) {
+        Chunk chunk = chunkCount == 0 ? null : chunks[chunkCount - 1];
+        if (chunk == null || chunk.size == chunk.capacity()) {
+            int capacity = chunk == null ? FIRST_CHUNK_SIZE : Math.min(chunk.capacity() * 2, MAX_CHUNK_SIZE);
+            chunk = new Chunk(size, capacity);
+            if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            chunks[chunkCount++] = chunk;
+        }
+
+        lastTimestamp = Math.max(lastTimestamp, timestampMillis);
+        if (iban != null) lastIban = iban;
+
+        int i = chunk.size++;
+        chunk.sequences[i] = sequence;
+        chunk.timestamps[i] = lastTimestamp;
+        chunk.amounts[i] = amountMinor;
+        chunk.balances[i] = balanceAfterMinor;
+        chunk.types[i] = (byte) type.ordinal();
+        chunk.ibans[i] = lastIban;
+        size++;
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των εγγραφών.
+     *
+     * @return το πλήθος των εγγραφών
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Επιστρέφει την εγγραφή στη δοσμένη θέση (0 η παλαιότερη).
+     *
+     * @param index η θέση της εγγραφής
+     * @return η εγγραφή
+     * @throws IndexOutOfBoundsException αν η θέση είναι εκτός ορίων
+     */
+    public synchronized LedgerEntry get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Ledger index: " + index + ", size: " + size);
+        }
+
+        Chunk chunk = chunks[chunkOf(index)];
+        return chunk.entry((int) (index - chunk.first));
+    }
+
+    /**
+     * Επιστρέφει τις εγγραφές με χρόνο στο διάστημα [fromMillis, toMillis), από την παλαιότερη.
+     *
+     * @param fromMillis η αρχή του διαστήματος (συμπεριλαμβάνεται)
+     * @param toMillis το τέλος του διαστήματος (δεν συμπεριλαμβάνεται)
+     * @return νέα λίστα με τις εγγραφές
+     */
+    public synchronized List<LedgerEntry> range(long fromMillis, long toMillis) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        if (fromMillis >= toMillis) return entries;
+
+        long index = firstAtOrAfter(fromMillis);
+        if (index == size) return entries;
+
+        for (int c = chunkOf(index); c < chunkCount; c++) {
+            Chunk chunk = chunks[c];
+            for (int i = (int) Math.max(0, index - chunk.first); i < chunk.size; i++) {
+                if (chunk.timestamps[i] >= toMillis) return entries;
+                entries.add(chunk.entry(i));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Επιστρέφει την τελευταία εγγραφή με χρόνο έως και {@code asOfMillis}.
+     *
+     * @param asOfMillis η χρονική στιγμή
+     * @return η εγγραφή, ή null αν δεν υπάρχει εγγραφή έως τότε
+     */
+    public synchronized LedgerEntry entryAt(long asOfMillis) {
+        long index = firstAfter(asOfMillis) - 1;
+        if (index < 0) return null;
+
+        Chunk chunk = chunks[chunkOf(index)];
+        return chunk.entry((int) (index - chunk.first));
+    }
+
+    /**
+     * Επιστρέφει το υπόλοιπο τη χρονική στιγμή {@code asOfMillis}, δηλαδή το υπόλοιπο μετά
+     * την τελευταία εγγραφή με χρόνο έως και {@code asOfMillis}. Δεν δημιουργεί αντικείμενα.
+     *
+     * @param asOfMillis η χρονική στιγμή
+     * @param absentMinor η τιμή που επιστρέφεται αν δεν υπάρχει εγγραφή έως τότε
+     * @return το υπόλοιπο σε λεπτά, ή {@code absentMinor}
+     */
+    public synchronized long balanceAt(long asOfMillis, long absentMinor) {
+        long index = firstAfter(asOfMillis) - 1;
+        if (index < 0) return absentMinor;
+
+        Chunk chunk = chunks[chunkOf(index)];
+        return chunk.balances[(int) (index - chunk.first)];
+    }
+
+    /**
+     * Όπως το {@link #balanceAt(long, long)}, αλλά επιστρέφει {@code absentMinor} και όταν
+     * η τελευταία εγγραφή έως τότε είναι {@link PostingType#CLOSING} (κλειστός λογαριασμός).
+     */
+    synchronized long openBalanceAt(long asOfMillis, long absentMinor) {
+        long index = firstAfter(asOfMillis) - 1;
+        if (index < 0) return absentMinor;
+
+        Chunk chunk = chunks[chunkOf(index)];
+        int i = (int) (index - chunk.first);
+        return chunk.types[i] == PostingType.CLOSING.ordinal() ? absentMinor : chunk.balances[i];
+    }
+
+    /**
+     * Επιστρέφει τον IBAN του λογαριασμού τη χρονική στιγμή {@code asOfMillis}, δηλαδή
+     * τον IBAN μετά την τελευταία εγγραφή με χρόνο έως και {@code asOfMillis}.
+     *
+     * @param asOfMillis η χρονική στιγμή
+     * @return ο IBAN, ή null αν δεν υπάρχει εγγραφή έως τότε
+     */
+    public synchronized String ibanAt(long asOfMillis) {
+        long index = firstAfter(asOfMillis) - 1;
+        if (index < 0) return null;
+
+        Chunk chunk = chunks[chunkOf(index)];
+        return chunk.ibans[(int) (index - chunk.first)];
+    }
+
+    /**
+     * Επιστρέφει τον τρέχοντα IBAN, δηλαδή τον IBAN μετά την τελευταία εγγραφή.
+     *
+     * @return ο IBAN, ή null αν το ledger είναι κενό
+     */
+    synchronized String lastIban() {
+        return lastIban;
+    }
+
+    /**
+     * Αν το ledger έχει εγγραφές και η τελευταία δεν είναι {@link PostingType#CLOSING}.
+     */
+    synchronized boolean isOpen() {
+        if (size == 0) return false;
+
+        Chunk chunk = chunks[chunkCount - 1];
+        return chunk.types[chunk.size - 1] != PostingType.CLOSING.ordinal();
+    }
+
+    /**
+     * Επιστρέφει τις {@code n} πιο πρόσφατες εγγραφές, από την παλαιότερη.
+     *
+     * @param n το μέγιστο πλήθος εγγραφών
+     * @return νέα λίστα με έως {@code n} εγγραφές
+     */
+    public synchronized List<LedgerEntry> last(int n) {
+        int count = (int) Math.min(Math.max(n, 0), size);
+        List<LedgerEntry> entries = new ArrayList<>(count);
+        if (count == 0) return entries;
+
+        long index = size - count;
+        for (int c = chunkOf(index); c < chunkCount; c++) {
+            Chunk chunk = chunks[c];
+            for (int i = (int) Math.max(0, index - chunk.first); i < chunk.size; i++) {
+                entries.add(chunk.entry(i));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Η θέση της πρώτης εγγραφής με χρόνο τουλάχιστον {@code timestampMillis}, ή {@link #size}
+     * αν δεν υπάρχει.
+     */
+    private long firstAtOrAfter(long timestampMillis) {
+        // Το πρώτο τμήμα του οποίου η τελευταία εγγραφή δεν είναι παλαιότερη από τον χρόνο
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Chunk chunk = chunks[mid];
+            if (chunk.timestamps[chunk.size - 1] < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == chunkCount) return size;
+
+        Chunk chunk = chunks[low];
+        int from = 0;
+        int to = chunk.size - 1;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (chunk.timestamps[mid] < timestampMillis) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return chunk.first + from;
+    }
+
+    /**
+     * Η θέση της πρώτης εγγραφής με χρόνο μεταγενέστερο του {@code timestampMillis}, ή {@link #size}
+     * αν δεν υπάρχει.
+     */
+    private long firstAfter(long timestampMillis) {
+        return timestampMillis == Long.MAX_VALUE ? size : firstAtOrAfter(timestampMillis + 1);
+    }
+
+    /**
+     * Το τμήμα που περιέχει τη θέση {@code index}.
+     */
+    private int chunkOf(long index) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks[mid].first <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ένα τμήμα του ledger: στήλες σταθερής χωρητικότητας.
+     */
+    private static final class Chunk {
+        /** Η θέση της πρώτης εγγραφής του τμήματος στο ledger. */
+        private final long first;
+        private final long[] sequences;
+        private final long[] timestamps;
+        private final long[] amounts;
+        private final long[] balances;
+        private final byte[] types;
+        private final String[] ibans;
+        private int size;
+
+        private Chunk(long first, int capacity) {
+            this.first = first;
+            this.sequences = new long[capacity];
+            this.timestamps = new long[capacity];
+            this.amounts = new long[capacity];
+            this.balances = new long[capacity];
+            this.types = new byte[capacity];
+            this.ibans = new String[capacity];
+        }
+
+        private int capacity() {
+            return types.length;
+        }
+
+        private LedgerEntry entry(int i) {
+            return new LedgerEntry(sequences[i], timestamps[i], amounts[i], balances[i], TYPES[types[i]], ibans[i]);
+        }
+    }
+}
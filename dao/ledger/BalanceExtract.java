@@ -0,0 +1,87 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import gr.aueb.cf.ch18.bankapp.model.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Αμετάβλητη κατάσταση υπολοίπων όλων των λογαριασμών σε μια χρονική στιγμή, όπως την
+ * παράγει το {@link LedgerReports}. Οι γραμμές κρατιούνται σε παράλληλους πίνακες
+ * (UUID, IBAN, υπόλοιπο), χωρίς ένα αντικείμενο ανά λογαριασμό, και δεν έχουν συγκεκριμένη σειρά.
+ */
+public final class BalanceExtract {
+    private final long asOfMillis;
+    private final String[] uuids;
+    private final String[] ibans;
+    private final long[] balancesMinor;
+
+    /**
+     * Overloaded Constructor. Οι πίνακες δεν αντιγράφονται.
+     *
+     * @param asOfMillis η χρονική στιγμή της κατάστασης
+     * @param uuids τα UUIDs των λογαριασμών
+     * @param ibans οι IBAN των λογαριασμών τη στιγμή της κατάστασης
+     * @param balancesMinor τα υπόλοιπα σε λεπτά
+     */
+    BalanceExtract(long asOfMillis, String[] uuids, String[] ibans, long[] balancesMinor) {
+        this.asOfMillis = asOfMillis;
+        this.uuids = uuids;
+        this.ibans = ibans;
+        this.balancesMinor = balancesMinor;
+    }
+
+    public long getAsOfMillis() {
+        return asOfMillis;
+    }
+
+    /** Επιστρέφει το πλήθος των λογαριασμών (γραμμών). */
+    public int size() {
+        return uuids.length;
+    }
+
+    public String getUuid(int row) {
+        return uuids[row];
+    }
+
+    /** Επιστρέφει τον IBAN που είχε ο λογαριασμός της γραμμής τη στιγμή της κατάστασης. */
+    public String getIban(int row) {
+        return ibans[row];
+    }
+
+    public long getBalanceMinor(int row) {
+        return balancesMinor[row];
+    }
+
+    public double getBalance(int row) {
+        return Money.toMajor(balancesMinor[row]);
+    }
+
+    /**
+     * Άθροισμα των υπολοίπων όλων των γραμμών.
+     *
+     * @return το σύνολο σε λεπτά
+     */
+    public long totalMinor() {
+        long total = 0;
+        for (long balance : balancesMinor) {
+            total += balance;
+        }
+        return total;
+    }
+
+    /**
+     * Γράφει την κατάσταση σε CSV ({@code uuid,iban,balance}), μία γραμμή ανά λογαριασμό.
+     *
+     * @param out ο προορισμός
+     * @throws IOException αν αποτύχει η εγγραφή
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("uuid,iban,balance\n");
+        for (int row = 0; row < uuids.length; row++) {
+            out.append(uuids[row]).append(',')
+                    .append(ibans[row] == null ? "" : ibans[row]).append(',')
+                    .append(BigDecimal.valueOf(balancesMinor[row], 2).toPlainString()).append('\n');
+        }
+    }
+}
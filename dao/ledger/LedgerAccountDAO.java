@@ -0,0 +1,421 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountDAO} (decorator) που καταγράφει κάθε μεταβολή υπολοίπου
+ * σε append-only ledger ανά λογαριασμό ({@link AccountLedger}): αύξων αριθμός, χρόνος,
+ * ποσό, υπόλοιπο μετά, τύπος εγγραφής και IBAN του λογαριασμού.
+ *
+ * Καταγράφονται το αρχικό υπόλοιπο κατά την εισαγωγή ({@link PostingType#OPENING}), κάθε
+ * επιτυχημένο CAS του υπολοίπου ({@link PostingType#CREDIT}/{@link PostingType#DEBIT}) και
+ * κάθε αλλαγή IBAN μέσω update ({@link PostingType#ADJUSTMENT}, με ποσό μηδέν) και η διαγραφή
+ * ({@link PostingType#CLOSING}), οπότε το άθροισμα των ποσών του ledger ισούται πάντα με
+ * το υπόλοιπο του λογαριασμού. Οι εγγραφές {@link PostingType#OPENING} και
+ * {@link PostingType#ADJUSTMENT} καταγράφουν και τον IBAN, ώστε οι αναφορές να δίνουν τον
+ * IBAN που ίσχυε τη στιγμή που ζητούν. Η μεταβολή και η
+ * καταγραφή της γίνονται υπό το lock του ledger του λογαριασμού, ώστε οι εγγραφές να έχουν
+ * τη σειρά των μεταβολών· λογαριασμοί με διαφορετικό ledger δεν ανταγωνίζονται.
+ *
+ * Το ledger ενός λογαριασμού διατηρείται και μετά τη διαγραφή του (για αντιγραφές κίνησης
+ * και συμφωνίες)· αν ο λογαριασμός εισαχθεί ξανά, οι νέες εγγραφές συνεχίζουν το ίδιο ledger.
+ *
+ * Αν δοθεί {@link LedgerJournal}, κάθε εγγραφή καταγράφεται και εκεί με τον χρόνο της, και
+ * κατά τη δημιουργία τα ledgers ξαναχτίζονται από το journal, ώστε το ιστορικό να επιβιώνει
+ * της επανεκκίνησης. Στη συνέχεια τα ledgers συμφωνούνται με τους λογαριασμούς του delegate:
+ * νέος λογαριασμός παίρνει {@link PostingType#OPENING}, διαφορά υπολοίπου
+ * {@link PostingType#ADJUSTMENT} και λογαριασμός που δεν υπάρχει πια {@link PostingType#CLOSING}.
+ * Χωρίς journal τα ledgers κρατιούνται μόνο στη μνήμη. Υπόλοιπα σε παλαιότερες στιγμές δίνουν το {@link #getEntryAt(String, long)}
+ * και, για όλους τους λογαριασμούς, το {@link LedgerReports}.
+ * Οι αναγνώσεις λογαριασμών εξυπηρετούνται απευθείας από το delegate.
+ */
+public class LedgerAccountDAO implements IAccountDAO, Closeable {
+    /** Το DAO που κρατά τα δεδομένα. */
+    private final IAccountDAO delegate;
+
+    /** Το journal όπου καταγράφονται οι εγγραφές, ή null για ledger μόνο στη μνήμη. */
+    private final LedgerJournal journal;
+
+    /** Το ρολόι των εγγραφών (epoch millis). */
+    private final LongSupplier clock;
+
+    /** Ledger ανά UUID λογαριασμού. */
+    private final Map<String, AccountLedger> ledgers = new ConcurrentHashMap<>();
+
+    /** Ο αύξων αριθμός της τελευταίας εγγραφής, σε όλα τα ledgers. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructor με το ρολόι του συστήματος και ledger μόνο στη μνήμη.
+     *
+     * @param delegate το DAO που κρατά τα δεδομένα
+     */
+    public LedgerAccountDAO(IAccountDAO delegate) {
+        this(delegate, null, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor με ledger μόνο στη μνήμη.
+     *
+     * @param delegate το DAO που κρατά τα δεδομένα
+     * @param clock το ρολόι των εγγραφών (epoch millis)
+     */
+    public LedgerAccountDAO(IAccountDAO delegate, LongSupplier clock) {
+        this(delegate, null, clock);
+    }
+
+    /**
+     * Constructor με το ρολόι του συστήματος, που ξαναχτίζει τα ledgers από το journal.
+     *
+     * @param delegate το DAO που κρατά τα δεδομένα
+     * @param journal το journal των εγγραφών
+     * @throws UncheckedIOException αν αποτύχει η ανάγνωση του journal
+     */
+    public LedgerAccountDAO(IAccountDAO delegate, LedgerJournal journal) {
+        this(delegate, journal, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor που ξαναχτίζει τα ledgers από το journal (αν δοθεί) και τα συμφωνεί με
+     * τους λογαριασμούς που ήδη υπάρχουν στο delegate.
+     *
+     * @param delegate το DAO που κρατά τα δεδομένα
+     * @param journal το journal των εγγραφών, ή null για ledger μόνο στη μνήμη
+     * @param clock το ρολόι των εγγραφών (epoch millis)
+     * @throws UncheckedIOException αν αποτύχει η ανάγνωση του journal
+     */
+    public LedgerAccountDAO(IAccountDAO delegate, LedgerJournal journal, LongSupplier clock) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.clock = clock;
+
+        if (journal != null) {
+            try {
+                sequence.set(journal.replay(ledgers));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        reconcile();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Το αρχικό υπόλοιπο καταγράφεται ως {@link PostingType#OPENING}, στο ledger που τυχόν
+     * υπάρχει ήδη για το UUID (π.χ. από προηγούμενη διαγραφή) ή σε νέο.
+     */
+    @Override
+    public Account insert(Account account) {
+        AccountLedger ledger = ledgerFor(account.getUuid());
+        Account inserted;
+        long seq;
+
+        synchronized (ledger) {
+            inserted = delegate.insert(account);
+            seq = open(ledger, inserted);
+        }
+        commit(seq);
+        return inserted;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Αλλαγή του IBAN καταγράφεται ως {@link PostingType#ADJUSTMENT} με ποσό μηδέν (το
+     * υπόλοιπο δεν αλλάζει με update)· αλλαγή του UUID μεταφέρει το ledger στο νέο UUID.
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        AccountLedger ledger = ledgerFor(uuid);
+        Account oldAccount;
+        long seq = 0;
+
+        synchronized (ledger) {
+            oldAccount = delegate.update(uuid, account);
+            if (oldAccount == null) return null;
+
+            if (!uuid.equals(account.getUuid())) {
+                ledgers.put(account.getUuid(), ledger);
+                ledgers.remove(uuid, ledger);
+                if (journal != null) seq = journal.appendMove(uuid, account.getUuid());
+            }
+
+            if (!Objects.equals(account.getIban(), oldAccount.getIban())) {
+                seq = post(account.getUuid(), ledger, 0, oldAccount.getBalanceMinor(), PostingType.ADJUSTMENT,
+                        account.getIban());
+            }
+        }
+        commit(seq);
+        return oldAccount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Σε επιτυχία, η μεταβολή καταγράφεται ως {@link PostingType#CREDIT} ή {@link PostingType#DEBIT}.
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        AccountLedger ledger = ledgerFor(account.getUuid());
+        long seq;
+
+        synchronized (ledger) {
+            if (!delegate.compareAndSetBalance(account, expectedMinor, newMinor)) return false;
+
+            long delta = newMinor - expectedMinor;
+            seq = post(account.getUuid(), ledger, delta, newMinor,
+                    delta < 0 ? PostingType.DEBIT : PostingType.CREDIT, null);
+        }
+        commit(seq);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Το ledger του λογαριασμού διατηρείται, με εγγραφή {@link PostingType#CLOSING} που
+     * μηδενίζει το υπόλοιπο.
+     */
+    @Override
+    public void delete(String uuid) {
+        AccountLedger ledger = ledgers.get(uuid);
+        if (ledger == null) {
+            delegate.delete(uuid);
+            return;
+        }
+
+        long seq = 0;
+        synchronized (ledger) {
+            Account account = delegate.get(uuid);
+            delegate.delete(uuid);
+            if (account != null) seq = post(uuid, ledger, -account.getBalanceMinor(), 0, PostingType.CLOSING, null);
+        }
+        commit(seq);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account get(String uuid) {
+        return delegate.get(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return delegate.getByIban(iban);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAll() {
+        return delegate.getAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        return delegate.getPage(afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Account> stream() {
+        return delegate.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return delegate.uuidExists(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return delegate.ssnExists(ssn);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return delegate.ibanExists(iban);
+    }
+
+    /**
+     * Επιστρέφει το ledger ενός λογαριασμού.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @return το ledger, ή null αν δεν έχει καταγραφεί ποτέ ο λογαριασμός
+     */
+    public AccountLedger getLedger(String uuid) {
+        return ledgers.get(uuid);
+    }
+
+    /**
+     * Επιστρέφει τις εγγραφές ενός λογαριασμού με χρόνο στο διάστημα [fromMillis, toMillis),
+     * από την παλαιότερη (π.χ. για αντίγραφο κίνησης περιόδου).
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param fromMillis η αρχή του διαστήματος (συμπεριλαμβάνεται)
+     * @param toMillis το τέλος του διαστήματος (δεν συμπεριλαμβάνεται)
+     * @return νέα λίστα με τις εγγραφές, κενή αν δεν υπάρχει ledger
+     */
+    public List<LedgerEntry> getEntries(String uuid, long fromMillis, long toMillis) {
+        AccountLedger ledger = ledgers.get(uuid);
+        return ledger == null ? new ArrayList<>() : ledger.range(fromMillis, toMillis);
+    }
+
+    /**
+     * Επιστρέφει τις {@code n} πιο πρόσφατες εγγραφές ενός λογαριασμού, από την παλαιότερη.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param n το μέγιστο πλήθος εγγραφών
+     * @return νέα λίστα με έως {@code n} εγγραφές, κενή αν δεν υπάρχει ledger
+     */
+    public List<LedgerEntry> getLastEntries(String uuid, int n) {
+        AccountLedger ledger = ledgers.get(uuid);
+        return ledger == null ? new ArrayList<>() : ledger.last(n);
+    }
+
+    /**
+     * Επιστρέφει την τελευταία εγγραφή ενός λογαριασμού έως τη στιγμή {@code asOfMillis}·
+     * το {@link LedgerEntry#getBalanceAfter()} της είναι το υπόλοιπο εκείνη τη στιγμή.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param asOfMillis η χρονική στιγμή
+     * @return η εγγραφή, ή null αν ο λογαριασμός δεν είχε εγγραφές έως τότε
+     */
+    public LedgerEntry getEntryAt(String uuid, long asOfMillis) {
+        AccountLedger ledger = ledgers.get(uuid);
+        return ledger == null ? null : ledger.entryAt(asOfMillis);
+    }
+
+    /**
+     * Επιστρέφει τα ledgers ανά UUID λογαριασμού (όχι αντίγραφο).
+     */
+    Map<String, AccountLedger> ledgers() {
+        return ledgers;
+    }
+
+    /**
+     * Κλείνει το journal (αν υπάρχει), αφού κάνει fsync ό,τι εκκρεμεί.
+     *
+     * @throws IOException αν αποτύχει το τελικό fsync ή το κλείσιμο
+     */
+    @Override
+    public void close() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    /**
+     * Συμφωνεί τα ledgers με τους λογαριασμούς του delegate: ανοίγει ledger για όσους δεν
+     * έχουν ανοιχτό, καταγράφει τις διαφορές υπολοίπου ή IBAN και κλείνει τα ledgers λογαριασμών
+     * που δεν υπάρχουν πια.
+     */
+    private void reconcile() {
+        Set<String> present = new HashSet<>();
+
+        delegate.stream().forEach(account -> {
+            present.add(account.getUuid());
+            AccountLedger ledger = ledgerFor(account.getUuid());
+            synchronized (ledger) {
+                if (!ledger.isOpen()) {
+                    open(ledger, account);
+                    return;
+                }
+
+                long balance = account.getBalanceMinor();
+                long delta = balance - ledger.openBalanceAt(Long.MAX_VALUE, 0);
+                if (delta != 0 || !Objects.equals(account.getIban(), ledger.lastIban())) {
+                    post(account.getUuid(), ledger, delta, balance, PostingType.ADJUSTMENT, account.getIban());
+                }
+            }
+        });
+
+        ledgers.forEach((uuid, ledger) -> {
+            if (present.contains(uuid)) return;
+            synchronized (ledger) {
+                if (!ledger.isOpen()) return;
+                long balance = ledger.openBalanceAt(Long.MAX_VALUE, 0);
+                post(uuid, ledger, -balance, 0, PostingType.CLOSING, null);
+            }
+        });
+
+        if (journal != null) journal.sync();
+    }
+
+    /**
+     * Καταγράφει το αρχικό υπόλοιπο και τον IBAN ενός λογαριασμού ως {@link PostingType#OPENING}.
+     * Το ποσό είναι η διαφορά από το υπόλοιπο που ήδη δείχνει το ledger (μηδέν αν είναι
+     * κενό ή κλειστό), ώστε το άθροισμα των ποσών να ισούται με το υπόλοιπο.
+     * Καλείται με το lock του ledger.
+     *
+     * @return ο αύξων αριθμός της εγγραφής στο journal, ή 0 χωρίς journal
+     */
+    private long open(AccountLedger ledger, Account account) {
+        long balance = account.getBalanceMinor();
+        long previous = ledger.openBalanceAt(Long.MAX_VALUE, 0);
+        return post(account.getUuid(), ledger, balance - previous, balance, PostingType.OPENING, account.getIban());
+    }
+
+    /**
+     * Το ledger ενός λογαριασμού, δημιουργώντας το αν δεν υπάρχει (π.χ. για λογαριασμό
+     * που δεν εισήχθη μέσω αυτού του DAO).
+     */
+    private AccountLedger ledgerFor(String uuid) {
+        AccountLedger ledger = ledgers.get(uuid);
+        return ledger != null ? ledger : ledgers.computeIfAbsent(uuid, key -> new AccountLedger());
+    }
+
+    /**
+     * Προσθέτει μια εγγραφή στο ledger και στο journal (αν υπάρχει). Καλείται με το lock
+     * του ledger, ώστε οι εγγραφές ενός λογαριασμού να έχουν και στο journal τη σειρά τους.
+     *
+     * @param iban ο IBAN του λογαριασμού, ή null αν δεν καταγράφεται με αυτή την εγγραφή
+     * @return ο αύξων αριθμός της εγγραφής στο journal, ή 0 χωρίς journal
+     */
+    private long post(String uuid, AccountLedger ledger, long amountMinor, long balanceAfterMinor, PostingType type,
+                      String iban) {
+        long seq = sequence.incrementAndGet();
+        long timestampMillis = clock.getAsLong();
+        ledger.append(seq, timestampMillis, amountMinor, balanceAfterMinor, type, iban);
+        return journal == null ? 0 : journal.appendPosting(uuid, seq, timestampMillis, amountMinor,
+                balanceAfterMinor, type, iban);
+    }
+
+    /**
+     * Εφαρμόζει την πολιτική ανθεκτικότητας του journal, εκτός του lock του ledger ώστε
+     * ταυτόχρονοι writers να μοιράζονται το ίδιο fsync.
+     */
+    private void commit(long seq) {
+        if (journal != null && seq > 0) journal.commit(seq);
+    }
+}
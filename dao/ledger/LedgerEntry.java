@@ -0,0 +1,82 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import gr.aueb.cf.ch18.bankapp.model.Money;
+
+/**
+ * Αμετάβλητη εγγραφή του ledger ενός λογαριασμού: μία μεταβολή του υπολοίπου.
+ */
+public final class LedgerEntry {
+    private final long sequence;
+    private final long timestampMillis;
+    private final long amountMinor;
+    private final long balanceAfterMinor;
+    private final PostingType type;
+    private final String iban;
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param sequence ο αύξων αριθμός της εγγραφής (μοναδικός σε όλο το ledger)
+     * @param timestampMillis η χρονική στιγμή της εγγραφής (epoch millis)
+     * @param amountMinor η μεταβολή του υπολοίπου σε λεπτά (αρνητική για χρέωση)
+     * @param balanceAfterMinor το υπόλοιπο μετά τη μεταβολή, σε λεπτά
+     * @param type ο τύπος της εγγραφής
+     * @param iban ο IBAN του λογαριασμού μετά την εγγραφή
+     */
+    public LedgerEntry(long sequence, long timestampMillis, long amountMinor, long balanceAfterMinor, PostingType type,
+                       String iban) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.amountMinor = amountMinor;
+        this.balanceAfterMinor = balanceAfterMinor;
+        this.type = type;
+        this.iban = iban;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
+    }
+
+    public PostingType getType() {
+        return type;
+    }
+
+    /** Επιστρέφει τον IBAN του λογαριασμού μετά την εγγραφή. */
+    public String getIban() {
+        return iban;
+    }
+
+    /** Επιστρέφει τη μεταβολή του υπολοίπου σε μονάδες νομίσματος. */
+    public double getAmount() {
+        return Money.toMajor(amountMinor);
+    }
+
+    /** Επιστρέφει το υπόλοιπο μετά τη μεταβολή σε μονάδες νομίσματος. */
+    public double getBalanceAfter() {
+        return Money.toMajor(balanceAfterMinor);
+    }
+
+    @Override
+    public String toString() {
+        return "LedgerEntry{" +
+                "sequence=" + sequence +
+                ", timestampMillis=" + timestampMillis +
+                ", amount=" + getAmount() +
+                ", balanceAfter=" + getBalanceAfter() +
+                ", type=" + type +
+                ", iban='" + iban + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,422 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournalDurability;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal των εγγραφών του ledger, σε δυαδικό αρχείο μέσω {@link FileChannel}, με την ίδια
+ * μορφή εγγραφών με το {@code AccountJournal}: {@code [int length][byte kind][payload][int crc32]}.
+ *
+ * Κάθε εγγραφή του ledger (posting) γράφεται με τον αύξοντα αριθμό και τη χρονική στιγμή
+ * της, και ο IBAN μόνο στις εγγραφές που τον ορίζουν ({@link PostingType#OPENING},
+ * {@link PostingType#ADJUSTMENT}), οπότε μετά από επανεκκίνηση τα ledgers ξαναχτίζονται ακριβώς όπως ήταν
+ * ({@link #replay(Map)}), με τους αρχικούς χρόνους. Η αλλαγή UUID ενός λογαριασμού
+ * γράφεται ως εγγραφή μετακίνησης του ledger στο νέο UUID.
+ *
+ * Οι εγγραφές γράφονται με group commit και πολιτική {@link JournalDurability}, όπως στο
+ * {@code AccountJournal}. Μια ημιτελής ή κατεστραμμένη εγγραφή στο τέλος του αρχείου
+ * αγνοείται και το αρχείο περικόπτεται στην τελευταία έγκυρη εγγραφή.
+ */
+public class LedgerJournal implements Closeable {
+    /** Προεπιλεγμένο πλήθος εγγραφών ανά fsync για {@link JournalDurability#PER_BATCH}. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** Προεπιλεγμένο διάστημα fsync για {@link JournalDurability#INTERVAL}. */
+    public static final long DEFAULT_INTERVAL_MILLIS = 10L;
+
+    private static final int MAGIC = 0x424B4C31;  // "BKL1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_RECORD_SIZE = 1 << 17;
+
+    private static final byte POSTING = 1;
+    private static final byte MOVE = 2;
+
+    private static final PostingType[] TYPES = PostingType.values();
+
+    private final FileChannel channel;
+    private final JournalDurability durability;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+
+    /** Σειριοποιεί την προσθήκη εγγραφών στο {@link #active} buffer. */
+    private final Object appendLock = new Object();
+
+    /** Σειριοποιεί τα writes/fsyncs στο αρχείο. Σειρά κλειδώματος: syncLock → appendLock. */
+    private final Object syncLock = new Object();
+
+    /** Buffer με εγγραφές που δεν έχουν γραφτεί ακόμα στο αρχείο (φρουρείται από appendLock). */
+    private ByteBuffer active = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Δεύτερος buffer για εναλλαγή κατά το write (φρουρείται από syncLock). */
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Αύξων αριθμός της τελευταίας εγγραφής που προστέθηκε (φρουρείται από appendLock). */
+    private long appendedSeq;
+
+    /** Αύξων αριθμός της τελευταίας εγγραφής που έγινε durable. */
+    private volatile long durableSeq;
+
+    private volatile boolean closed;
+
+    /**
+     * Overloaded Constructor με προεπιλεγμένες παραμέτρους batch και interval.
+     *
+     * @param path το αρχείο του journal (δημιουργείται αν δεν υπάρχει)
+     * @param durability η πολιτική ανθεκτικότητας
+     * @throws IOException αν αποτύχει το άνοιγμα του αρχείου ή το header δεν είναι έγκυρο
+     */
+    public LedgerJournal(Path path, JournalDurability durability) throws IOException {
+        this(path, durability, DEFAULT_BATCH_SIZE, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param path το αρχείο του journal (δημιουργείται αν δεν υπάρχει)
+     * @param durability η πολιτική ανθεκτικότητας
+     * @param batchSize πλήθος εγγραφών ανά fsync για {@link JournalDurability#PER_BATCH}
+     * @param intervalMillis διάστημα fsync για {@link JournalDurability#INTERVAL}
+     * @throws IOException αν αποτύχει το άνοιγμα του αρχείου ή το header δεν είναι έγκυρο
+     */
+    public LedgerJournal(Path path, JournalDurability durability, int batchSize, long intervalMillis)
+            throws IOException {
+        this.durability = durability;
+        this.batchSize = Math.max(1, batchSize);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+                header.flip();
+                while (header.hasRemaining()) channel.write(header, header.position());
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getShort() != VERSION) {
+                    throw new IOException("Not a valid ledger journal: " + path);
+                }
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (durability == JournalDurability.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ledger-journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /** Επιστρέφει την πολιτική ανθεκτικότητας του journal. */
+    public JournalDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Προσθέτει μια εγγραφή του ledger ενός λογαριασμού.
+     *
+     * @return ο αύξων αριθμός της εγγραφής στο journal, για χρήση στο {@link #commit(long)}
+     */
+    long appendPosting(String uuid, long sequence, long timestampMillis, long amountMinor,
+                       long balanceAfterMinor, PostingType type, String iban) {
+        byte[] key = encode(uuid);
+        byte[] ibanBytes = iban == null ? null : encode(iban);
+        ByteBuffer record = ByteBuffer.allocate(1 + 1 + 4 * 8 + 2 + key.length + 2
+                + (ibanBytes == null ? 0 : ibanBytes.length));
+        record.put(POSTING).put((byte) type.ordinal())
+                .putLong(sequence).putLong(timestampMillis).putLong(amountMinor).putLong(balanceAfterMinor)
+                .putShort((short) key.length).put(key);
+        if (ibanBytes == null) {
+            record.putShort((short) -1);
+        } else {
+            record.putShort((short) ibanBytes.length).put(ibanBytes);
+        }
+        return append(record.array());
+    }
+
+    /**
+     * Προσθέτει εγγραφή μετακίνησης του ledger ενός λογαριασμού σε νέο UUID.
+     *
+     * @return ο αύξων αριθμός της εγγραφής στο journal, για χρήση στο {@link #commit(long)}
+     */
+    long appendMove(String fromUuid, String toUuid) {
+        byte[] from = encode(fromUuid);
+        byte[] to = encode(toUuid);
+        ByteBuffer record = ByteBuffer.allocate(1 + 2 + from.length + 2 + to.length);
+        record.put(MOVE).putShort((short) from.length).put(from).putShort((short) to.length).put(to);
+        return append(record.array());
+    }
+
+    /**
+     * Εφαρμόζει την πολιτική ανθεκτικότητας για μια εγγραφή που προστέθηκε.
+     * Με {@link JournalDurability#PER_OPERATION} επιστρέφει μόνο αφού η εγγραφή γίνει durable.
+     *
+     * @param seq ο αύξων αριθμός της εγγραφής στο journal
+     */
+    void commit(long seq) {
+        switch (durability) {
+            case PER_OPERATION:
+                awaitDurable(seq);
+                break;
+            case PER_BATCH:
+                if (seq - durableSeq >= batchSize) awaitDurable(seq);
+                break;
+            case INTERVAL:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Γράφει και κάνει fsync όλες τις εγγραφές που έχουν προστεθεί μέχρι τώρα.
+     */
+    public void sync() {
+        long seq;
+        synchronized (appendLock) {
+            seq = appendedSeq;
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Ξαναχτίζει τα ledgers από το journal. Πρέπει να καλείται πριν προστεθούν νέες εγγραφές.
+     *
+     * @param ledgers τα ledgers ανά UUID λογαριασμού, στα οποία προστίθενται οι εγγραφές
+     * @return ο μεγαλύτερος αύξων αριθμός εγγραφής ledger, ή 0 αν το journal είναι άδειο
+     * @throws IOException αν αποτύχει η ανάγνωση του αρχείου
+     */
+    long replay(Map<String, AccountLedger> ledgers) throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                if (appendedSeq > 0) {
+                    throw new IllegalStateException("Ledger journal replay must run before any append.");
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            buffer.flip();
+            long readPosition = HEADER_SIZE;
+            long recordPosition = HEADER_SIZE;
+            long maxSequence = 0;
+            CRC32 crc = new CRC32();
+
+            while (true) {
+                readPosition = fill(buffer, readPosition, 4);
+                if (buffer.remaining() < 4) break;
+
+                int length = buffer.getInt(buffer.position());
+                if (length <= 0 || length > MAX_RECORD_SIZE) break;
+
+                readPosition = fill(buffer, readPosition, 4 + length + 4);
+                if (buffer.remaining() < 4 + length + 4) break;
+
+                buffer.getInt();
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+                buffer.position(buffer.position() + length);
+
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != buffer.getInt()) break;
+
+                maxSequence = Math.max(maxSequence, apply(record, ledgers));
+                recordPosition += 4 + length + 4;
+            }
+
+            if (recordPosition < channel.size()) {
+                channel.truncate(recordPosition);
+            }
+            channel.position(recordPosition);
+            return maxSequence;
+        }
+    }
+
+    /**
+     * Σταματά το background flushing, κάνει fsync ό,τι εκκρεμεί και κλείνει το αρχείο.
+     *
+     * @throws IOException αν αποτύχει το τελικό fsync ή το κλείσιμο
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        if (flusher != null) flusher.shutdownNow();
+
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Προσθέτει μια κωδικοποιημένη εγγραφή στον buffer.
+     *
+     * @return ο αύξων αριθμός της εγγραφής
+     */
+    private long append(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        int checksum = (int) crc.getValue();
+
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Ledger journal is closed.");
+            }
+
+            int needed = 4 + record.length + 4;
+            if (active.remaining() < needed) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + needed));
+                active.flip();
+                grown.put(active);
+                active = grown;
+            }
+            active.putInt(record.length).put(record).putInt(checksum);
+            return ++appendedSeq;
+        }
+    }
+
+    /**
+     * Περιμένει μέχρι η εγγραφή με τον δοσμένο αύξοντα αριθμό να γίνει durable.
+     * Αν δεν την έχει καλύψει ήδη άλλο fsync, γράφει και κάνει fsync όλες τις
+     * εκκρεμείς εγγραφές (και των υπόλοιπων writers).
+     */
+    private void awaitDurable(long seq) {
+        if (durableSeq >= seq) return;
+
+        synchronized (syncLock) {
+            if (durableSeq >= seq) return;
+
+            ByteBuffer toWrite;
+            long target;
+            synchronized (appendLock) {
+                toWrite = active;
+                active = spare;
+                target = appendedSeq;
+            }
+
+            try {
+                toWrite.flip();
+                while (toWrite.hasRemaining()) channel.write(toWrite);
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                toWrite.clear();
+                spare = toWrite;
+            }
+            durableSeq = target;
+        }
+    }
+
+    /** Περιοδικό fsync για {@link JournalDurability#INTERVAL}. */
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // Θα επαναληφθεί στο επόμενο interval ή στο close()
+        }
+    }
+
+    /**
+     * Γεμίζει τον buffer ανάγνωσης ώστε να έχει τουλάχιστον {@code needed} bytes, αν υπάρχουν.
+     *
+     * @return η νέα θέση ανάγνωσης στο αρχείο
+     */
+    private long fill(ByteBuffer buffer, long readPosition, int needed) throws IOException {
+        if (buffer.remaining() >= needed) return readPosition;
+
+        buffer.compact();
+        int read;
+        while (buffer.position() < needed && (read = channel.read(buffer, readPosition)) > 0) {
+            readPosition += read;
+        }
+        buffer.flip();
+        return readPosition;
+    }
+
+    /**
+     * Εφαρμόζει μία εγγραφή στα ledgers.
+     *
+     * @return ο αύξων αριθμός της εγγραφής ledger, ή 0 για εγγραφή μετακίνησης
+     */
+    private static long apply(ByteBuffer record, Map<String, AccountLedger> ledgers) {
+        byte kind = record.get();
+
+        switch (kind) {
+            case POSTING: {
+                PostingType type = TYPES[record.get()];
+                long sequence = record.getLong();
+                long timestampMillis = record.getLong();
+                long amountMinor = record.getLong();
+                long balanceAfterMinor = record.getLong();
+                String uuid = readString(record);
+                String iban = readString(record);
+
+                ledgers.computeIfAbsent(uuid, key -> new AccountLedger())
+                        .append(sequence, timestampMillis, amountMinor, balanceAfterMinor, type, iban);
+                return sequence;
+            }
+            case MOVE: {
+                String fromUuid = readString(record);
+                String toUuid = readString(record);
+
+                AccountLedger ledger = ledgers.remove(fromUuid);
+                if (ledger != null) ledgers.put(toUuid, ledger);
+                return 0;
+            }
+            default:
+                throw new IllegalStateException("Unknown ledger journal record kind: " + kind);
+        }
+    }
+
+    /**
+     * Κωδικοποιεί ένα UUID ή IBAN σε UTF-8.
+     */
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger journal field too long: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Διαβάζει ένα string της μορφής {@code [short length][UTF-8 bytes]} (μήκος -1 για null).
+     */
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) return null;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
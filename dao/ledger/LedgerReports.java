@@ -0,0 +1,157 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Παράλληλες αναφορές πάνω στα ledgers ενός {@link LedgerAccountDAO}: κατάσταση υπολοίπων
+ * όλων των λογαριασμών σε μια χρονική στιγμή (π.χ. στο τέλος της ημέρας).
+ *
+ * Τα ledgers χωρίζονται σε partitions που εκτελούνται σε {@link ForkJoinPool}. Κάθε
+ * λογαριασμός απαντάται με δυαδική αναζήτηση στο δικό του ledger, χωρίς replay εγγραφών,
+ * και κάθε partition γράφει σε δικό του τμήμα των πινάκων του αποτελέσματος, χωρίς κοινή
+ * κατάσταση με τα υπόλοιπα. Οι λογαριασμοί που δεν είχαν ανοίξει ή είχαν ήδη κλείσει τη
+ * δοσμένη στιγμή παραλείπονται. Ο IBAN κάθε γραμμής είναι αυτός που ίσχυε τη δοσμένη
+ * στιγμή, όπως τον κατέγραψε το ledger, και όχι ο σημερινός.
+ *
+ * Οι αναφορές δεν σταματούν τις μεταβολές: εγγραφές μεταγενέστερες της στιγμής της
+ * αναφοράς δεν την επηρεάζουν, οπότε μια κατάσταση για στιγμή του παρελθόντος είναι
+ * ακριβής ακόμη κι αν συνεχίζονται οι κινήσεις.
+ */
+public class LedgerReports {
+    /** Το ελάχιστο μέγεθος partition, ώστε το κόστος των tasks να μένει αμελητέο. */
+    private static final int MIN_PARTITION = 1 << 12;
+
+    /** Partitions ανά thread του pool, για εξισορρόπηση φορτίου μέσω work stealing. */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    /** Σημαία για λογαριασμούς που δεν υπήρχαν τη στιγμή της αναφοράς. */
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final LedgerAccountDAO dao;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor που χρησιμοποιεί το common pool.
+     *
+     * @param dao το DAO με τα ledgers
+     */
+    public LedgerReports(LedgerAccountDAO dao) {
+        this(dao, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor που δέχεται το DAO και το pool εκτέλεσης (dependency injection).
+     *
+     * @param dao το DAO με τα ledgers
+     * @param pool το pool στο οποίο εκτελούνται τα partitions
+     */
+    public LedgerReports(LedgerAccountDAO dao, ForkJoinPool pool) {
+        this.dao = dao;
+        this.pool = pool;
+    }
+
+    /**
+     * Κατάσταση υπολοίπων στο τέλος μιας ημέρας: το υπόλοιπο κάθε λογαριασμού μετά την
+     * τελευταία εγγραφή πριν από τα μεσάνυχτα της επόμενης ημέρας.
+     *
+     * @param day η ημέρα
+     * @param zone η ζώνη ώρας που ορίζει τα όρια της ημέρας
+     * @return η κατάσταση υπολοίπων
+     */
+    public BalanceExtract endOfDayBalances(LocalDate day, ZoneId zone) {
+        long nextDay = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return balancesAt(nextDay - 1);
+    }
+
+    /**
+     * Κατάσταση υπολοίπων τη στιγμή {@code asOfMillis}: για κάθε λογαριασμό που ήταν ανοιχτός
+     * τότε, το υπόλοιπο μετά την τελευταία εγγραφή έως και αυτή τη στιγμή.
+     *
+     * @param asOfMillis η χρονική στιγμή (epoch millis)
+     * @return η κατάσταση υπολοίπων
+     */
+    public BalanceExtract balancesAt(long asOfMillis) {
+        Map<String, AccountLedger> ledgers = dao.ledgers();
+        int capacity = ledgers.size();
+        String[] uuids = new String[capacity];
+        AccountLedger[] accountLedgers = new AccountLedger[capacity];
+
+        int size = 0;
+        for (Map.Entry<String, AccountLedger> entry : ledgers.entrySet()) {
+            if (size == uuids.length) {
+                uuids = Arrays.copyOf(uuids, size * 2 + 1);
+                accountLedgers = Arrays.copyOf(accountLedgers, uuids.length);
+            }
+            uuids[size] = entry.getKey();
+            accountLedgers[size++] = entry.getValue();
+        }
+
+        String[] ibans = new String[size];
+        long[] balances = new long[size];
+        if (size > 0) {
+            int partition = Math.max(MIN_PARTITION, size / (pool.getParallelism() * PARTITIONS_PER_THREAD));
+            pool.invoke(new ExtractTask(0, size, partition, asOfMillis, uuids, accountLedgers, ibans, balances));
+        }
+
+        // Συμπίεση: αφαιρούνται οι λογαριασμοί που δεν ήταν ανοιχτοί εκείνη τη στιγμή
+        int rows = 0;
+        for (int i = 0; i < size; i++) {
+            if (balances[i] == ABSENT) continue;
+
+            uuids[rows] = uuids[i];
+            ibans[rows] = ibans[i];
+            balances[rows++] = balances[i];
+        }
+        return new BalanceExtract(asOfMillis, Arrays.copyOf(uuids, rows), Arrays.copyOf(ibans, rows),
+                Arrays.copyOf(balances, rows));
+    }
+
+    /**
+     * Task που χωρίζει αναδρομικά το εύρος στα δύο μέχρι το μέγεθος partition και
+     * συμπληρώνει υπόλοιπο και IBAN για κάθε ledger του.
+     */
+    private static final class ExtractTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int partition;
+        private final long asOfMillis;
+        private final String[] uuids;
+        private final AccountLedger[] ledgers;
+        private final String[] ibans;
+        private final long[] balances;
+
+        ExtractTask(int from, int to, int partition, long asOfMillis, String[] uuids, AccountLedger[] ledgers,
+                    String[] ibans, long[] balances) {
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+            this.asOfMillis = asOfMillis;
+            this.uuids = uuids;
+            this.ledgers = ledgers;
+            this.ibans = ibans;
+            this.balances = balances;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= partition) {
+                for (int i = from; i < to; i++) {
+                    balances[i] = ledgers[i].openBalanceAt(asOfMillis, ABSENT);
+                    if (balances[i] != ABSENT) ibans[i] = ledgers[i].ibanAt(asOfMillis);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ExtractTask(from, middle, partition, asOfMillis, uuids, ledgers, ibans, balances),
+                    new ExtractTask(middle, to, partition, asOfMillis, uuids, ledgers, ibans, balances));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+/**
+ * Τύπος εγγραφής (posting) του ledger ενός λογαριασμού.
+ */
+public enum PostingType {
+    /** Το αρχικό υπόλοιπο του λογαριασμού κατά την εισαγωγή του. */
+    OPENING,
+
+    /** Πίστωση (κατάθεση ή εισερχόμενη μεταφορά). */
+    CREDIT,
+
+    /** Χρέωση (ανάληψη ή εξερχόμενη μεταφορά). */
+    DEBIT,
+
+    /** Διόρθωση του υπολοίπου μέσω ενημέρωσης του λογαριασμού. */
+    ADJUSTMENT,
+
+    /** Κλείσιμο (διαγραφή) του λογαριασμού· το υπόλοιπο μετά είναι 0. */
+    CLOSING
+}
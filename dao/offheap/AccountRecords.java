@@ -0,0 +1,199 @@
+package gr.aueb.cf.ch18.bankapp.dao.offheap;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.ImmutableUser;
+import gr.aueb.cf.ch18.bankapp.model.UserView;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Αποθήκη λογαριασμών ως εγγραφές σταθερού μεγέθους σε off-heap μνήμη
+ * ({@link ByteBuffer#allocateDirect(int)}), οργανωμένες σε chunks.
+ *
+ * Μορφή εγγραφής ({@link #RECORD_SIZE} bytes):
+ * <pre>
+ * [long balanceMinor][uuid][iban][holderUuid][firstname][lastname][ssn]
+ * string: [byte length][UTF-8 bytes, συμπληρωμένα μέχρι το πλάτος του πεδίου]  (length -1 για null)
+ * </pre>
+ * Το υπόλοιπο βρίσκεται στην αρχή της εγγραφής (ευθυγραμμισμένο σε 8 bytes), ώστε
+ * να ενημερώνεται ατομικά με CAS μέσω {@link VarHandle}.
+ *
+ * Η κλάση δεν συγχρονίζει η ίδια· ο συγχρονισμός γίνεται από το {@link OffHeapAccountDAOImpl}.
+ */
+final class AccountRecords {
+    /** Μέγιστο πλάτος (σε bytes UTF-8) των πεδίων UUID. */
+    static final int UUID_WIDTH = 36;
+
+    /** Μέγιστο πλάτος του IBAN (34 χαρακτήρες κατά ISO 13616). */
+    static final int IBAN_WIDTH = 34;
+
+    /** Μέγιστο πλάτος ονόματος και επωνύμου. */
+    static final int NAME_WIDTH = 48;
+
+    /** Μέγιστο πλάτος του SSN. */
+    static final int SSN_WIDTH = 16;
+
+    static final int BALANCE = 0;
+    static final int UUID = BALANCE + 8;
+    static final int IBAN = UUID + 1 + UUID_WIDTH;
+    static final int HOLDER_UUID = IBAN + 1 + IBAN_WIDTH;
+    static final int FIRSTNAME = HOLDER_UUID + 1 + UUID_WIDTH;
+    static final int LASTNAME = FIRSTNAME + 1 + NAME_WIDTH;
+    static final int SSN = LASTNAME + 1 + NAME_WIDTH;
+
+    /** Μέγεθος εγγραφής, στρογγυλοποιημένο σε πολλαπλάσιο του 8 για ευθυγράμμιση του υπολοίπου. */
+    static final int RECORD_SIZE = (SSN + 1 + SSN_WIDTH + 7) & ~7;
+
+    private static final byte NULL_LENGTH = -1;
+
+    /** Εγγραφές ανά chunk (2^14, περίπου 3,6MB ανά chunk). */
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    /** VarHandle για ατομική πρόσβαση στο υπόλοιπο μέσα στο direct buffer. */
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+
+    /**
+     * Εξασφαλίζει χώρο για εγγραφές με αριθμούς slot μικρότερους του {@code slots}.
+     * Καλείται μόνο από τον writer.
+     */
+    void ensureCapacity(int slots) {
+        int needed = (slots + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (needed <= chunks.length) return;
+
+        ByteBuffer[] grown = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+        for (int i = chunks.length; i < grown.length; i++) {
+            grown[i] = ByteBuffer.allocateDirect(RECORD_SIZE << CHUNK_SHIFT).order(ByteOrder.nativeOrder());
+        }
+        chunks = grown;
+    }
+
+    /** Επιστρέφει το υπόλοιπο (σε λεπτά) της εγγραφής. */
+    long balance(int slot) {
+        return (long) LONGS.getVolatile(chunk(slot), offset(slot) + BALANCE);
+    }
+
+    /** Ατομική ενημέρωση (compare-and-set) του υπολοίπου της εγγραφής. */
+    boolean compareAndSetBalance(int slot, long expectedMinor, long newMinor) {
+        return LONGS.compareAndSet(chunk(slot), offset(slot) + BALANCE, expectedMinor, newMinor);
+    }
+
+    /**
+     * Γράφει τα πεδία ενός λογαριασμού στην εγγραφή.
+     * Όλα τα πεδία ελέγχονται πριν γραφτεί οτιδήποτε, οπότε σε αποτυχία η εγγραφή μένει ανέπαφη.
+     *
+     * @throws IllegalArgumentException αν κάποιο πεδίο δεν χωράει στο πλάτος του
+     */
+    void write(int slot, Account account) {
+        UserView holder = account.getHolderView();
+        byte[] uuid = encode(account.getUuid(), UUID_WIDTH, "uuid");
+        byte[] iban = encode(account.getIban(), IBAN_WIDTH, "iban");
+        byte[] holderUuid = encode(holder.getUuid(), UUID_WIDTH, "holder uuid");
+        byte[] firstname = encode(holder.getFirstname(), NAME_WIDTH, "firstname");
+        byte[] lastname = encode(holder.getLastname(), NAME_WIDTH, "lastname");
+        byte[] ssn = encode(holder.getSsn(), SSN_WIDTH, "ssn");
+
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        putString(chunk, base + UUID, uuid);
+        putString(chunk, base + IBAN, iban);
+        putString(chunk, base + HOLDER_UUID, holderUuid);
+        putString(chunk, base + FIRSTNAME, firstname);
+        putString(chunk, base + LASTNAME, lastname);
+        putString(chunk, base + SSN, ssn);
+        LONGS.setVolatile(chunk, base + BALANCE, account.getBalanceMinor());
+    }
+
+    /**
+     * Δημιουργεί (materialize) ένα {@link Account} από την εγγραφή.
+     */
+    Account read(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        byte[] scratch = new byte[NAME_WIDTH];
+
+        Account account = new Account();
+        account.setUuid(getString(chunk, base + UUID, scratch));
+        account.setIban(getString(chunk, base + IBAN, scratch));
+        account.setBalanceMinor((long) LONGS.getVolatile(chunk, base + BALANCE));
+
+        account.setHolder(new ImmutableUser(
+                getString(chunk, base + HOLDER_UUID, scratch),
+                getString(chunk, base + FIRSTNAME, scratch),
+                getString(chunk, base + LASTNAME, scratch),
+                getString(chunk, base + SSN, scratch)));
+
+        return account;
+    }
+
+    /**
+     * Επιστρέφει μόνο το UUID της εγγραφής, χωρίς materialize ολόκληρου του λογαριασμού.
+     */
+    String uuid(int slot) {
+        return getString(chunk(slot), offset(slot) + UUID, new byte[UUID_WIDTH]);
+    }
+
+    /**
+     * Ελέγχει αν ένα πεδίο της εγγραφής ισούται με το δοσμένο string.
+     * Για ASCII κλειδιά η σύγκριση γίνεται χωρίς δημιουργία αντικειμένων.
+     */
+    boolean matches(int slot, int field, String key) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot) + field;
+        int length = chunk.get(base);
+
+        if (key == null) return length == NULL_LENGTH;
+        if (length < key.length()) return false;
+
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 0x80) return key.equals(getString(chunk, base, new byte[length]));
+            if (chunk.get(base + 1 + i) != c) return false;
+        }
+        return length == key.length();
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot) {
+        return (slot & CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    private static byte[] encode(String value, int width, String field) {
+        if (value == null) return null;
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > width) {
+            throw new IllegalArgumentException("Field " + field + " exceeds " + width + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer chunk, int position, byte[] bytes) {
+        if (bytes == null) {
+            chunk.put(position, NULL_LENGTH);
+            return;
+        }
+
+        chunk.put(position, (byte) bytes.length);
+        chunk.put(position + 1, bytes);
+    }
+
+    private static String getString(ByteBuffer chunk, int position, byte[] scratch) {
+        int length = chunk.get(position);
+        if (length == NULL_LENGTH) return null;
+
+        chunk.get(position + 1, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,408 @@
+package gr.aueb.cf.ch18.bankapp.dao.offheap;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Thread-safe υλοποίηση του {@link IAccountDAO} που κρατά τους λογαριασμούς ως εγγραφές
+ * σταθερού μεγέθους σε off-heap μνήμη ({@link AccountRecords}), με hash indexes
+ * (UUID, IBAN, SSN) από primitive πίνακες στο heap ({@link SlotIndex}).
+ *
+ * Στο heap μένουν μόνο λίγα bytes ανά λογαριασμό, οπότε ο garbage collector δεν
+ * σαρώνει εκατομμύρια {@link Account}/{@link gr.aueb.cf.ch18.bankapp.model.User}/String.
+ * Τα {@link Account} δημιουργούνται (materialize) μόνο όταν ζητηθούν και είναι αντίγραφα·
+ * αλλαγές σε αυτά αποθηκεύονται μόνο μέσω {@link #update(String, Account)} ή
+ * {@link #compareAndSetBalance(Account, long, long)}.
+ *
+ * Τα πεδία έχουν μέγιστο πλάτος (π.χ. IBAN 34 bytes, ονοματεπώνυμο 48 bytes UTF-8)·
+ * μεγαλύτερες τιμές απορρίπτονται με {@link IllegalArgumentException}.
+ *
+ * Οι δομικές αλλαγές κρατούν το write lock, οι αναγνώσεις και τα CAS του υπολοίπου το read lock.
+ */
+public class OffHeapAccountDAOImpl implements IAccountDAO {
+    private final AccountRecords records = new AccountRecords();
+
+    /** Primary index: UUID → slot. */
+    private final SlotIndex slotsByUuid = new SlotIndex(records, AccountRecords.UUID);
+
+    /** Unique secondary index: IBAN → slot. */
+    private final SlotIndex slotsByIban = new SlotIndex(records, AccountRecords.IBAN);
+
+    /** Multi-valued secondary index: SSN κατόχου → slots. */
+    private final SlotIndex slotsBySsn = new SlotIndex(records, AccountRecords.SSN);
+
+    /** Τα slots που περιέχουν λογαριασμό. */
+    private final BitSet live = new BitSet();
+
+    /** Slots που ελευθερώθηκαν από διαγραφές και επαναχρησιμοποιούνται. */
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Εισάγει νέο λογαριασμό και ενημερώνει όλα τα indexes.
+     * Αν υπάρχει ήδη λογαριασμός με το ίδιο UUID, αντικαθίσταται.
+     *
+     * @param account ο λογαριασμός προς εισαγωγή
+     * @return ο λογαριασμός που εισήχθη
+     * @throws IllegalArgumentException αν κάποιο πεδίο υπερβαίνει το μέγιστο πλάτος
+     */
+    @Override
+    public Account insert(Account account) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = allocate();
+            try {
+                records.write(slot, account);
+            } catch (IllegalArgumentException e) {
+                release(slot);
+                throw e;
+            }
+
+            int existing = slotsByUuid.find(account.getUuid());
+            if (existing >= 0) {
+                unindex(existing);
+                release(existing);
+            }
+            index(slot, account);
+            return account;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ενημερώνει έναν υπάρχοντα λογαριασμό βάσει UUID.
+     * Αν αλλάξει το UUID, ο IBAN ή ο κάτοχος, τα indexes ενημερώνονται αντίστοιχα.
+     *
+     * @param uuid το UUID του λογαριασμού προς ενημέρωση
+     * @param account τα νέα δεδομένα του λογαριασμού
+     * @return ο παλιός λογαριασμός πριν την ενημέρωση, ή null αν δεν βρέθηκε
+     * @throws IllegalArgumentException αν κάποιο πεδίο υπερβαίνει το μέγιστο πλάτος
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = slotsByUuid.find(uuid);
+            if (slot < 0) return null;
+
+            Account accountToReturn = records.read(slot);
+            Account updated = new Account(account);
+            updated.setBalanceMinor(accountToReturn.getBalanceMinor());
+            records.write(slot, updated);
+
+            unindex(slot);
+            index(slot, updated);
+            return accountToReturn;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ατομική ενημέρωση (compare-and-set) του υπολοίπου ενός λογαριασμού σε λεπτά,
+     * απευθείας στην off-heap εγγραφή.
+     *
+     * Το υπόλοιπο του δοσμένου λογαριασμού ενημερώνεται με τη νέα τιμή σε επιτυχία
+     * ή με την τρέχουσα τιμή σε αποτυχία. Αν ο λογαριασμός έχει διαγραφεί, η ενημέρωση
+     * γίνεται μόνο στο δοσμένο αντικείμενο, όπως στις in-memory υλοποιήσεις.
+     *
+     * @param account ο λογαριασμός
+     * @param expectedMinor το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newMinor το νέο υπόλοιπο σε λεπτά
+     * @return true αν η ενημέρωση έγινε, false αν το υπόλοιπο είχε αλλάξει
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = slotsByUuid.find(account.getUuid());
+            if (slot < 0) return account.compareAndSetBalanceMinor(expectedMinor, newMinor);
+
+            if (records.compareAndSetBalance(slot, expectedMinor, newMinor)) {
+                account.setBalanceMinor(newMinor);
+                return true;
+            }
+            account.setBalanceMinor(records.balance(slot));
+            return false;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Διαγράφει έναν λογαριασμό βάσει UUID και τον αφαιρεί από όλα τα indexes.
+     *
+     * @param uuid το UUID του λογαριασμού προς διαγραφή
+     */
+    @Override
+    public void delete(String uuid) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = slotsByUuid.find(uuid);
+            if (slot < 0) return;
+
+            unindex(slot);
+            release(slot);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει αντίγραφο ενός λογαριασμού βάσει UUID.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account get(String uuid) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = slotsByUuid.find(uuid);
+            return slot < 0 ? null : records.read(slot);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει αντίγραφο ενός λογαριασμού βάσει IBAN.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @return ο λογαριασμός αν υπάρχει, αλλιώς null
+     */
+    @Override
+    public Account getByIban(String iban) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = slotsByIban.find(iban);
+            return slot < 0 ? null : records.read(slot);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει αντίγραφα όλων των λογαριασμών.
+     *
+     * @return νέα λίστα με όλους τους λογαριασμούς
+     */
+    @Override
+    public List<Account> getAll() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<Account> accounts = new ArrayList<>(live.cardinality());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                accounts.add(records.read(slot));
+            }
+            return accounts;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID.
+     * Σαρώνονται μόνο τα UUID των εγγραφών (heap μεγέθους {@code limit}) και
+     * γίνονται materialize μόνο οι λογαριασμοί της σελίδας.
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return νέα λίστα ταξινομημένη κατά UUID
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            PriorityQueue<String> uuids = new PriorityQueue<>(limit, Collections.reverseOrder());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                String uuid = records.uuid(slot);
+                if (afterUuid != null && uuid.compareTo(afterUuid) <= 0) continue;
+
+                if (uuids.size() < limit) {
+                    uuids.add(uuid);
+                } else if (uuid.compareTo(uuids.peek()) < 0) {
+                    uuids.poll();
+                    uuids.add(uuid);
+                }
+            }
+
+            List<String> ordered = new ArrayList<>(uuids);
+            Collections.sort(ordered);
+
+            List<Account> page = new ArrayList<>(ordered.size());
+            for (String uuid : ordered) {
+                page.add(records.read(slotsByUuid.find(uuid)));
+            }
+            return page;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει lazy stream όλων των λογαριασμών με σειρά slot.
+     * Κάθε λογαριασμός γίνεται materialize όταν ζητηθεί, κρατώντας το read lock μόνο
+     * για εκείνο το βήμα, οπότε το stream είναι weakly consistent.
+     *
+     * @return stream των λογαριασμών
+     */
+    @Override
+    public Stream<Account> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new SlotIterator(), Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο UUID.
+     *
+     * @param uuid το UUID προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return exists(slotsByUuid, uuid);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο SSN.
+     *
+     * @param ssn ο αριθμός κοινωνικής ασφάλισης προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return exists(slotsBySsn, ssn);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο IBAN.
+     *
+     * @param iban ο IBAN προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return exists(slotsByIban, iban);
+    }
+
+    private boolean exists(SlotIndex index, String key) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return index.find(key) >= 0;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Δεσμεύει ένα slot, προτιμώντας όσα ελευθερώθηκαν από διαγραφές.
+     * Καλείται μόνο κρατώντας το write lock.
+     */
+    private int allocate() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+
+        records.ensureCapacity(nextSlot + 1);
+        return nextSlot++;
+    }
+
+    /**
+     * Επιστρέφει ένα slot στα ελεύθερα. Καλείται μόνο κρατώντας το write lock.
+     */
+    private void release(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Προσθέτει το slot σε όλα τα indexes. Καλείται μόνο κρατώντας το write lock.
+     */
+    private void index(int slot, Account account) {
+        slotsByUuid.add(slot, account.getUuid());
+        slotsByIban.add(slot, account.getIban());
+        slotsBySsn.add(slot, account.getHolderView().getSsn());
+        live.set(slot);
+    }
+
+    /**
+     * Αφαιρεί το slot από όλα τα indexes. Καλείται μόνο κρατώντας το write lock.
+     */
+    private void unindex(int slot) {
+        slotsByUuid.remove(slot);
+        slotsByIban.remove(slot);
+        slotsBySsn.remove(slot);
+        live.clear(slot);
+    }
+
+    /**
+     * Iterator που διατρέχει τα live slots και κάνει materialize έναν λογαριασμό ανά βήμα.
+     */
+    private class SlotIterator implements Iterator<Account> {
+        private int slot = -1;
+        private Account next;
+
+        /** Αν διατρέχθηκαν όλα τα slots· τότε το {@link #hasNext()} επιστρέφει πάντα false. */
+        private boolean exhausted;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (exhausted) return false;
+
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                int found = live.nextSetBit(slot + 1);
+                if (found < 0) {
+                    exhausted = true;
+                } else {
+                    slot = found;
+                    next = records.read(slot);
+                }
+            } finally {
+                readLock.unlock();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Account next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            Account account = next;
+            next = null;
+            return account;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package gr.aueb.cf.ch18.bankapp.dao.offheap;
+
+import java.util.Arrays;
+
+/**
+ * Hash index (open addressing, linear probing) από ένα πεδίο-κλειδί προς τα slots
+ * των εγγραφών του {@link AccountRecords}.
+ *
+ * Ο πίνακας κρατά μόνο αριθμούς slot ({@code int}) και το hash κάθε slot· τα κλειδιά
+ * δεν αποθηκεύονται στο heap αλλά συγκρίνονται απευθείας με την off-heap εγγραφή.
+ * Επιτρέπονται διπλά κλειδιά (π.χ. SSN), οπότε το {@link #find(String)} επιστρέφει
+ * οποιοδήποτε slot με το δοσμένο κλειδί.
+ *
+ * Η κλάση δεν συγχρονίζει η ίδια· ο συγχρονισμός γίνεται από το {@link OffHeapAccountDAOImpl}.
+ */
+final class SlotIndex {
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+
+    private final AccountRecords records;
+    private final int field;
+
+    /** Θέσεις του πίνακα: slot + 1, {@link #FREE} ή {@link #DELETED}. */
+    private int[] table = new int[16];
+
+    /** Hash του κλειδιού ανά slot, για διαγραφή και rehash χωρίς ανάγνωση της εγγραφής. */
+    private int[] hashes = new int[16];
+
+    private int size;
+    private int occupied;
+
+    /**
+     * @param records οι εγγραφές
+     * @param field η θέση του πεδίου-κλειδιού μέσα στην εγγραφή
+     */
+    SlotIndex(AccountRecords records, int field) {
+        this.records = records;
+        this.field = field;
+    }
+
+    /**
+     * Επιστρέφει ένα slot με το δοσμένο κλειδί.
+     *
+     * @param key το κλειδί
+     * @return το slot, ή -1 αν δεν υπάρχει
+     */
+    int find(String key) {
+        int hash = hash(key);
+        int mask = table.length - 1;
+
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == FREE) return -1;
+            if (entry == DELETED) continue;
+
+            int slot = entry - 1;
+            if (hashes[slot] == hash && records.matches(slot, field, key)) return slot;
+        }
+    }
+
+    /**
+     * Προσθέτει ένα slot με το δοσμένο κλειδί.
+     */
+    void add(int slot, String key) {
+        if ((occupied + 1) * 2 > table.length) {
+            rehash();
+        }
+        if (slot >= hashes.length) {
+            hashes = Arrays.copyOf(hashes, Math.max(slot + 1, hashes.length * 2));
+        }
+
+        int hash = hash(key);
+        hashes[slot] = hash;
+        if (place(table, hash, slot)) occupied++;
+        size++;
+    }
+
+    /**
+     * Αφαιρεί ένα slot από το index.
+     */
+    void remove(int slot) {
+        int mask = table.length - 1;
+
+        for (int i = hashes[slot] & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == FREE) return;
+            if (entry == slot + 1) {
+                table[i] = DELETED;
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ξαναχτίζει τον πίνακα χωρίς τις διαγραμμένες θέσεις, διπλασιάζοντάς τον αν χρειάζεται.
+     */
+    private void rehash() {
+        int capacity = table.length;
+        while ((size + 1) * 4 > capacity) {
+            capacity *= 2;
+        }
+
+        int[] rehashed = new int[capacity];
+        for (int entry : table) {
+            if (entry > 0) place(rehashed, hashes[entry - 1], entry - 1);
+        }
+        table = rehashed;
+        occupied = size;
+    }
+
+    /**
+     * Τοποθετεί ένα slot στην πρώτη ελεύθερη ή διαγραμμένη θέση.
+     *
+     * @return true αν χρησιμοποιήθηκε θέση που ήταν {@link #FREE}
+     */
+    private static boolean place(int[] table, int hash, int slot) {
+        int mask = table.length - 1;
+
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            if (table[i] <= FREE) {
+                boolean wasFree = table[i] == FREE;
+                table[i] = slot + 1;
+                return wasFree;
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
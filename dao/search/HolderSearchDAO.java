@@ -0,0 +1,242 @@
+package gr.aueb.cf.ch18.bankapp.dao.search;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountDAO} (decorator) που διατηρεί, δίπλα στο delegate DAO,
+ * index αναζήτησης βάσει ονόματος και επωνύμου κατόχου ({@link HolderSearchIndex}):
+ * αναζήτηση με prefix και αναζήτηση με ανοχή σε τυπογραφικά λάθη (trigrams).
+ *
+ * Το index ενημερώνεται σταδιακά σε κάθε insert, update και delete, οπότε οι
+ * αναζητήσεις δεν σαρώνουν τους λογαριασμούς. Η σύγκριση αγνοεί πεζά/κεφαλαία και τόνους.
+ *
+ * Οι δομικές αλλαγές κρατούν το write lock και οι αναζητήσεις το read lock.
+ * Οι υπόλοιπες λειτουργίες εξυπηρετούνται απευθείας από το delegate.
+ */
+public class HolderSearchDAO implements IAccountDAO {
+    /** Η προεπιλεγμένη ελάχιστη ομοιότητα (Jaccard trigrams) για {@link #searchFuzzy(String, int)}. */
+    public static final double DEFAULT_SIMILARITY = 0.3;
+
+    /** Το DAO που κρατά τα δεδομένα. */
+    private final IAccountDAO delegate;
+
+    private final HolderSearchIndex index = new HolderSearchIndex();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor που χτίζει το index από τους λογαριασμούς που ήδη υπάρχουν στο delegate.
+     *
+     * @param delegate το DAO που κρατά τα δεδομένα
+     */
+    public HolderSearchDAO(IAccountDAO delegate) {
+        this.delegate = delegate;
+
+        delegate.stream().forEach(account -> index.add(account.getUuid(), account.getHolderView()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account insert(Account account) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Account inserted = delegate.insert(account);
+            index.remove(inserted.getUuid());
+            index.add(inserted.getUuid(), inserted.getHolderView());
+            return inserted;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Account oldAccount = delegate.update(uuid, account);
+            if (oldAccount != null) {
+                index.remove(uuid);
+                index.add(account.getUuid(), account.getHolderView());
+            }
+            return oldAccount;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        return delegate.compareAndSetBalance(account, expectedMinor, newMinor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(String uuid) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            delegate.delete(uuid);
+            index.remove(uuid);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account get(String uuid) {
+        return delegate.get(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return delegate.getByIban(iban);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAll() {
+        return delegate.getAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        return delegate.getPage(afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Account> stream() {
+        return delegate.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return delegate.uuidExists(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        return delegate.ssnExists(ssn);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return delegate.ibanExists(iban);
+    }
+
+    /**
+     * Επιστρέφει λογαριασμούς με όνομα ή επώνυμο κατόχου που ξεκινά από το prefix,
+     * ταξινομημένους αλφαβητικά κατά τον όρο που ταίριαξε.
+     *
+     * @param prefix το prefix (π.χ. "παπαδ")
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return λίστα έως {@code limit} λογαριασμών
+     * @throws IllegalArgumentException αν το limit δεν είναι θετικό
+     */
+    public List<Account> searchByPrefix(String prefix, int limit) {
+        checkLimit(limit);
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return accounts(index.prefix(prefix, limit));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει λογαριασμούς με όνομα ή επώνυμο κατόχου παρόμοιο με το query,
+     * με ελάχιστη ομοιότητα {@link #DEFAULT_SIMILARITY}.
+     *
+     * @param query το όνομα προς αναζήτηση, πιθανώς με λάθη
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return λίστα έως {@code limit} λογαριασμών με φθίνουσα ομοιότητα
+     * @throws IllegalArgumentException αν το limit δεν είναι θετικό
+     */
+    public List<Account> searchFuzzy(String query, int limit) {
+        return searchFuzzy(query, DEFAULT_SIMILARITY, limit);
+    }
+
+    /**
+     * Επιστρέφει λογαριασμούς με όνομα ή επώνυμο κατόχου παρόμοιο με το query.
+     *
+     * @param query το όνομα προς αναζήτηση, πιθανώς με λάθη
+     * @param minSimilarity η ελάχιστη ομοιότητα trigrams (0 έως 1, αποκλειστικά του 0)
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return λίστα έως {@code limit} λογαριασμών με φθίνουσα ομοιότητα
+     * @throws IllegalArgumentException αν το limit δεν είναι θετικό ή η ομοιότητα εκτός ορίων
+     */
+    public List<Account> searchFuzzy(String query, double minSimilarity, int limit) {
+        checkLimit(limit);
+        if (!(minSimilarity > 0 && minSimilarity <= 1)) {
+            throw new IllegalArgumentException("Similarity must be in (0, 1]: " + minSimilarity);
+        }
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return accounts(index.fuzzy(query, minSimilarity, limit));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει τους λογαριασμούς των UUIDs από το delegate. Καλείται κρατώντας το read lock.
+     */
+    private List<Account> accounts(List<String> uuids) {
+        List<Account> accounts = new ArrayList<>(uuids.size());
+        for (String uuid : uuids) {
+            Account account = delegate.get(uuid);
+            if (account != null) accounts.add(account);
+        }
+        return accounts;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+}
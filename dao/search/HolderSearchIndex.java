@@ -0,0 +1,326 @@
+package gr.aueb.cf.ch18.bankapp.dao.search;
+
+import gr.aueb.cf.ch18.bankapp.model.UserView;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Index αναζήτησης λογαριασμών βάσει ονόματος και επωνύμου κατόχου.
+ *
+ * <ul>
+ *     <li>Όροι: το όνομα και το επώνυμο κανονικοποιούνται (πεζά, χωρίς τόνους) και
+ *     κρατούνται ταξινομημένοι ({@link TreeMap}), οπότε μια αναζήτηση prefix είναι
+ *     O(log n + k).</li>
+ *     <li>Trigrams: κάθε διαφορετικός όρος παίρνει πυκνό αριθμό (id) και αναλύεται σε
+ *     trigrams, με posting lists trigram → ids σε primitive πίνακες, για αναζήτηση με
+ *     ανοχή σε τυπογραφικά λάθη (ομοιότητα Jaccard των trigrams).</li>
+ * </ul>
+ * Τα trigrams αφορούν τους διαφορετικούς όρους και όχι τους λογαριασμούς, οπότε το
+ * κόστος της αναζήτησης εξαρτάται από το πλήθος των διαφορετικών ονομάτων.
+ * Το index ενημερώνεται σταδιακά σε κάθε προσθήκη/αφαίρεση λογαριασμού.
+ *
+ * Η κλάση δεν συγχρονίζει η ίδια· ο συγχρονισμός γίνεται από το {@link HolderSearchDAO}.
+ */
+final class HolderSearchIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    /** Όρος → UUIDs λογαριασμών. */
+    private final NavigableMap<String, Set<String>> uuidsByTerm = new TreeMap<>();
+
+    /** UUID λογαριασμού → οι όροι του, για την αφαίρεσή του. */
+    private final Map<String, String[]> termsByUuid = new HashMap<>();
+
+    /** Όρος → id, και αντίστροφα id → όρος και id → ταξινομημένα trigrams του όρου. */
+    private final Map<String, Integer> idsByTerm = new HashMap<>();
+    private String[] termsById = new String[16];
+    private long[][] gramsById = new long[16][];
+
+    /** Ids που ελευθερώθηκαν από όρους που αφαιρέθηκαν και επαναχρησιμοποιούνται. */
+    private final IntList freeIds = new IntList();
+    private int nextId;
+
+    /** Trigram → ids των όρων που το περιέχουν. */
+    private final Map<Long, IntList> idsByGram = new HashMap<>();
+
+    /**
+     * Προσθέτει τον λογαριασμό με το όνομα και το επώνυμο του κατόχου του.
+     */
+    void add(String uuid, UserView holder) {
+        String firstname = normalize(holder.getFirstname());
+        String lastname = normalize(holder.getLastname());
+
+        String[] terms;
+        if (firstname.isEmpty()) {
+            terms = lastname.isEmpty() ? new String[0] : new String[] {lastname};
+        } else {
+            terms = lastname.isEmpty() || lastname.equals(firstname)
+                    ? new String[] {firstname}
+                    : new String[] {firstname, lastname};
+        }
+
+        termsByUuid.put(uuid, terms);
+        for (String term : terms) {
+            uuidsByTerm.computeIfAbsent(term, this::addTerm).add(uuid);
+        }
+    }
+
+    /**
+     * Αφαιρεί τον λογαριασμό με το δοσμένο UUID, αν υπάρχει.
+     */
+    void remove(String uuid) {
+        String[] terms = termsByUuid.remove(uuid);
+        if (terms == null) return;
+
+        for (String term : terms) {
+            Set<String> uuids = uuidsByTerm.get(term);
+            uuids.remove(uuid);
+            if (uuids.isEmpty()) {
+                uuidsByTerm.remove(term);
+                removeTerm(term);
+            }
+        }
+    }
+
+    /**
+     * Επιστρέφει UUIDs λογαριασμών με όνομα ή επώνυμο κατόχου που ξεκινά από το prefix,
+     * με σειρά όρου.
+     */
+    List<String> prefix(String prefix, int limit) {
+        String start = normalize(prefix);
+
+        Set<String> result = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<String>> entry : uuidsByTerm.tailMap(start, true).entrySet()) {
+            if (!entry.getKey().startsWith(start)) break;
+
+            for (String uuid : entry.getValue()) {
+                result.add(uuid);
+                if (result.size() == limit) return new ArrayList<>(result);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Επιστρέφει UUIDs λογαριασμών με όνομα ή επώνυμο κατόχου παρόμοιο με το query,
+     * με φθίνουσα ομοιότητα.
+     *
+     * Ένας όρος με ομοιότητα τουλάχιστον {@code threshold} μοιράζεται τουλάχιστον
+     * {@code m = ceil(threshold * q)} από τα {@code q} trigrams του query, άρα περιέχει
+     * τουλάχιστον ένα από τα {@code q - m + 1} σπανιότερα (prefix filtering). Μόνο αυτές οι
+     * posting lists σαρώνονται· τα συχνότερα trigrams ελέγχονται ανά υποψήφιο με δυαδική
+     * αναζήτηση στα trigrams του. Οι εμφανίσεις μετρώνται μόνο για τους υποψήφιους
+     * ({@link IntCounter}), οπότε η μνήμη ανά αναζήτηση εξαρτάται από το μήκος των posting
+     * lists που σαρώνονται και όχι από το πλήθος των όρων.
+     */
+    List<String> fuzzy(String query, double threshold, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) return Collections.emptyList();
+
+        long[] grams = trigrams(normalized);
+        int q = grams.length;
+
+        IntList[] postings = new IntList[q];
+        for (int i = 0; i < q; i++) {
+            postings[i] = idsByGram.getOrDefault(grams[i], IntList.EMPTY);
+        }
+        Integer[] order = new Integer[q];
+        for (int i = 0; i < q; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(postings[a].size, postings[b].size));
+
+        int required = Math.max(1, (int) Math.ceil(threshold * q));
+        int scanned = q - required + 1;
+
+        int hits = 0;
+        for (int i = 0; i < scanned; i++) {
+            hits += postings[order[i]].size;
+        }
+        if (hits == 0) return Collections.emptyList();
+
+        IntCounter counts = new IntCounter(hits);
+        IntList candidates = new IntList();
+        for (int i = 0; i < scanned; i++) {
+            IntList posting = postings[order[i]];
+            for (int j = 0; j < posting.size; j++) {
+                int id = posting.values[j];
+                if (counts.increment(id) == 1) candidates.add(id);
+            }
+        }
+
+        List<long[]> matches = new ArrayList<>();
+        for (int c = 0; c < candidates.size; c++) {
+            int id = candidates.values[c];
+            long[] termGrams = gramsById[id];
+
+            int shared = counts.get(id);
+            for (int i = scanned; i < q; i++) {
+                if (Arrays.binarySearch(termGrams, grams[order[i]]) >= 0) shared++;
+            }
+
+            double similarity = (double) shared / (q + termGrams.length - shared);
+            if (similarity >= threshold) {
+                matches.add(new long[] {Double.doubleToLongBits(similarity), id});
+            }
+        }
+        matches.sort((a, b) -> {
+            int bySimilarity = Double.compare(Double.longBitsToDouble(b[0]), Double.longBitsToDouble(a[0]));
+            return bySimilarity != 0 ? bySimilarity : termsById[(int) a[1]].compareTo(termsById[(int) b[1]]);
+        });
+
+        Set<String> result = new LinkedHashSet<>();
+        for (long[] match : matches) {
+            for (String uuid : uuidsByTerm.get(termsById[(int) match[1]])) {
+                result.add(uuid);
+                if (result.size() == limit) return new ArrayList<>(result);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Κανονικοποιεί ένα όνομα για σύγκριση: χωρίς τόνους/διακριτικά, πεζά, τελικό σίγμα ως σ.
+     */
+    static String normalize(String name) {
+        if (name == null) return "";
+
+        String stripped = MARKS.matcher(Normalizer.normalize(name.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(Locale.ROOT).replace('ς', 'σ');
+    }
+
+    /**
+     * Τα διαφορετικά trigrams ενός κανονικοποιημένου όρου, ταξινομημένα, με τους τρεις
+     * χαρακτήρες κωδικοποιημένους σε ένα {@code long}. Ο όρος συμπληρώνεται με δύο κενά
+     * στην αρχή και ένα στο τέλος, ώστε να βαραίνουν τα αρχικά γράμματα.
+     */
+    static long[] trigrams(String term) {
+        String padded = "  " + term + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Δίνει id σε νέο όρο και τον προσθέτει στις posting lists των trigrams του.
+     *
+     * @return νέο (κενό) σύνολο UUIDs για τον όρο
+     */
+    private Set<String> addTerm(String term) {
+        int id = freeIds.size > 0 ? freeIds.values[--freeIds.size] : nextId++;
+        if (id == termsById.length) {
+            termsById = Arrays.copyOf(termsById, id * 2);
+            gramsById = Arrays.copyOf(gramsById, id * 2);
+        }
+
+        long[] grams = trigrams(term);
+        idsByTerm.put(term, id);
+        termsById[id] = term;
+        gramsById[id] = grams;
+        for (long gram : grams) {
+            idsByGram.computeIfAbsent(gram, g -> new IntList()).add(id);
+        }
+        return new HashSet<>();
+    }
+
+    /**
+     * Αφαιρεί όρο που δεν έχει πλέον λογαριασμούς από τις posting lists και ελευθερώνει το id του.
+     */
+    private void removeTerm(String term) {
+        int id = idsByTerm.remove(term);
+        for (long gram : gramsById[id]) {
+            IntList ids = idsByGram.get(gram);
+            ids.remove(id);
+            if (ids.size == 0) idsByGram.remove(gram);
+        }
+
+        termsById[id] = null;
+        gramsById[id] = null;
+        freeIds.add(id);
+    }
+
+    /**
+     * Μετρητές ανά id με ανοιχτή διευθυνσιοδότηση (linear probing) σε primitive πίνακες,
+     * για έως {@code expected} διαφορετικά ids.
+     */
+    private static final class IntCounter {
+        private final int[] ids;
+        private final int[] counts;
+        private final int mask;
+
+        IntCounter(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            ids = new int[capacity];
+            counts = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        /**
+         * Αυξάνει τον μετρητή του id.
+         *
+         * @return ο μετρητής μετά την αύξηση
+         */
+        int increment(int id) {
+            int slot = slot(id);
+            ids[slot] = id;
+            return ++counts[slot];
+        }
+
+        int get(int id) {
+            return counts[slot(id)];
+        }
+
+        /** Το slot του id, ή το κενό slot όπου θα μπει. */
+        private int slot(int id) {
+            int slot = (id * 0x9E3779B9) & mask;
+            while (counts[slot] != 0 && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Δυναμικός πίνακας {@code int} χωρίς σειρά (η αφαίρεση μεταφέρει το τελευταίο στοιχείο).
+     */
+    private static final class IntList {
+        static final IntList EMPTY = new IntList();
+
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package gr.aueb.cf.ch18.bankapp.dao.sharded;
+
+import gr.aueb.cf.ch18.bankapp.dao.AccountPages;
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.ITransferLegDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.Money;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountDAO} που μοιράζει τους λογαριασμούς σε N ανεξάρτητα shards
+ * βάσει hash του IBAN. Κάθε shard είναι ξεχωριστό DAO (προεπιλογή {@link ConcurrentAccountDAOImpl})
+ * με δικά του indexes και δικό του lock, οπότε οι εγγραφές σε διαφορετικά shards δεν
+ * ανταγωνίζονται μεταξύ τους.
+ *
+ * <ul>
+ *     <li>Οι λειτουργίες με IBAN (getByIban, ibanExists, compareAndSetBalance) πηγαίνουν
+ *     απευθείας στο shard του IBAN.</li>
+ *     <li>Οι λειτουργίες με UUID βρίσκουν το shard από έναν κατάλογο UUID → shard.</li>
+ *     <li>Οι σαρώσεις (getAll, getPage, {@link #totalBalance()}, {@link #scanShards(Function)})
+ *     εκτελούνται παράλληλα σε όλα τα shards σε ένα {@link ForkJoinPool}.</li>
+ * </ul>
+ * Αλλαγή IBAN μπορεί να μετακινήσει τον λογαριασμό σε άλλο shard· οι μετακινήσεις
+ * σειριοποιούνται μεταξύ τους και με τις διαγραφές, και για λίγο ο λογαριασμός μπορεί
+ * να βρίσκεται και στα δύο shards.
+ *
+ * Τα σκέλη μεταφορών ({@link ITransferLegDAO}) καταγράφονται στο shard του λογαριασμού,
+ * αν το shard τα υποστηρίζει (π.χ. {@code JournaledAccountDAO}). Shards χωρίς αυτή τη
+ * δυνατότητα (π.χ. in-memory) εφαρμόζουν απλό compare-and-set και δεν θυμούνται σκέλη·
+ * αφού χάνουν και τα υπόλοιπα σε επανεκκίνηση, δεν υπάρχει κάτι να ανακτηθεί από αυτά.
+ */
+public class ShardedAccountDAO implements ITransferLegDAO {
+    private final IAccountDAO[] shards;
+    private final ForkJoinPool pool;
+
+    /** Κατάλογος: UUID → αριθμός shard. */
+    private final Map<String, Integer> shardsByUuid = new ConcurrentHashMap<>();
+
+    /** Lock που σειριοποιεί τις μετακινήσεις λογαριασμών μεταξύ shards και τις διαγραφές. */
+    private final Object moveLock = new Object();
+
+    /**
+     * Constructor με ένα {@link ConcurrentAccountDAOImpl} ανά shard και το common pool για τις σαρώσεις.
+     *
+     * @param shardCount το πλήθος των shards
+     */
+    public ShardedAccountDAO(int shardCount) {
+        this(shardCount, ConcurrentAccountDAOImpl::new, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param shardCount το πλήθος των shards
+     * @param shardFactory δημιουργεί το DAO κάθε shard (πρέπει να είναι thread-safe)
+     * @param pool το pool των παράλληλων σαρώσεων
+     */
+    public ShardedAccountDAO(int shardCount, Supplier<? extends IAccountDAO> shardFactory, ForkJoinPool pool) {
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+
+        this.shards = new IAccountDAO[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = shardFactory.get();
+        }
+        this.pool = pool;
+    }
+
+    /** Επιστρέφει το πλήθος των shards. */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Επιστρέφει το shard ενός IBAN: hash του IBAN, με ανάμειξη των bits ώστε IBANs με κοινό
+     * πρόθεμα να μοιράζονται ομοιόμορφα. Ο null IBAN αντιστοιχεί στο shard 0.
+     *
+     * @param iban ο IBAN
+     * @return ο αριθμός του shard, από 0 έως {@link #getShardCount()} - 1
+     */
+    public int shardIndexOf(String iban) {
+        if (iban == null) return 0;
+
+        int hash = iban.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ hash >>> 16, shards.length);
+    }
+
+    /**
+     * Εισάγει τον λογαριασμό στο shard του IBAN του.
+     *
+     * @param account ο λογαριασμός προς εισαγωγή
+     * @return ο λογαριασμός που εισήχθη
+     */
+    @Override
+    public Account insert(Account account) {
+        int shard = shardIndexOf(account.getIban());
+        shards[shard].insert(account);
+
+        Integer previous = shardsByUuid.put(account.getUuid(), shard);
+        if (previous != null && previous != shard) {
+            shards[previous].delete(account.getUuid());
+        }
+        return account;
+    }
+
+    /**
+     * Ενημερώνει έναν υπάρχοντα λογαριασμό βάσει UUID. Αν αλλάξει ο IBAN και αντιστοιχεί
+     * σε άλλο shard, ο λογαριασμός μετακινείται.
+     *
+     * @param uuid το UUID του λογαριασμού προς ενημέρωση
+     * @param account τα νέα δεδομένα του λογαριασμού
+     * @return ο παλιός λογαριασμός πριν την ενημέρωση, ή null αν δεν βρέθηκε
+     */
+    @Override
+    public Account update(String uuid, Account account) {
+        Integer shard = shardsByUuid.get(uuid);
+        if (shard == null) return null;
+
+        int target = shardIndexOf(account.getIban());
+        if (target == shard) {
+            Account oldAccount = shards[shard].update(uuid, account);
+            if (oldAccount != null && !uuid.equals(account.getUuid())) {
+                shardsByUuid.put(account.getUuid(), shard);
+                shardsByUuid.remove(uuid, shard);
+            }
+            return oldAccount;
+        }
+
+        synchronized (moveLock) {
+            Account oldAccount = shards[shard].get(uuid);
+            if (oldAccount == null) return null;
+
+            Account moved = new Account(account);
+            moved.setBalanceMinor(oldAccount.getBalanceMinor());
+            shards[target].insert(moved);
+            shardsByUuid.put(account.getUuid(), target);
+            if (!uuid.equals(account.getUuid())) shardsByUuid.remove(uuid, shard);
+            shards[shard].delete(uuid);
+            return oldAccount;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Το shard βρίσκεται από τον IBAN του λογαριασμού, χωρίς αναζήτηση στον κατάλογο.
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+        return shards[shardIndexOf(account.getIban())].compareAndSetBalance(account, expectedMinor, newMinor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Το shard βρίσκεται από τον IBAN του λογαριασμού.
+     */
+    @Override
+    public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor, long legId) {
+        IAccountDAO shard = shards[shardIndexOf(account.getIban())];
+        return shard instanceof ITransferLegDAO
+                ? ((ITransferLegDAO) shard).compareAndSetBalance(account, expectedMinor, newMinor, legId)
+                : shard.compareAndSetBalance(account, expectedMinor, newMinor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Το σκέλος αναζητείται στο shard του IBAN· για shards που δεν καταγράφουν σκέλη
+     * επιστρέφει false.
+     */
+    @Override
+    public boolean isLegApplied(String iban, long legId) {
+        IAccountDAO shard = shards[shardIndexOf(iban)];
+        return shard instanceof ITransferLegDAO && ((ITransferLegDAO) shard).isLegApplied(iban, legId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forgetLegs(LongPredicate filter) {
+        for (IAccountDAO shard : shards) {
+            if (shard instanceof ITransferLegDAO) ((ITransferLegDAO) shard).forgetLegs(filter);
+        }
+    }
+
+    /**
+     * Διαγράφει έναν λογαριασμό βάσει UUID από το shard του.
+     *
+     * Η διαγραφή παίρνει το lock των μετακινήσεων, ώστε μια ταυτόχρονη μετακίνηση του ίδιου
+     * λογαριασμού να μην τον επαναφέρει στο νέο shard αφού διαγραφεί από το παλιό.
+     *
+     * @param uuid το UUID του λογαριασμού προς διαγραφή
+     */
+    @Override
+    public void delete(String uuid) {
+        synchronized (moveLock) {
+            Integer shard = shardsByUuid.remove(uuid);
+            if (shard != null) shards[shard].delete(uuid);
+        }
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει UUID από το shard του.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @return ο λογαριασμός, ή null αν δεν βρέθηκε
+     */
+    @Override
+    public Account get(String uuid) {
+        Integer shard = shardsByUuid.get(uuid);
+        return shard == null ? null : shards[shard].get(uuid);
+    }
+
+    /**
+     * Επιστρέφει έναν λογαριασμό βάσει IBAN από το shard του IBAN.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @return ο λογαριασμός, ή null αν δεν βρέθηκε
+     */
+    @Override
+    public Account getByIban(String iban) {
+        return shards[shardIndexOf(iban)].getByIban(iban);
+    }
+
+    /**
+     * Επιστρέφει όλους τους λογαριασμούς, συλλέγοντας παράλληλα τα shards.
+     *
+     * @return νέα λίστα με όλους τους λογαριασμούς
+     */
+    @Override
+    public List<Account> getAll() {
+        List<List<Account>> shardAccountLists = scanShards(IAccountDAO::getAll);
+
+        int size = 0;
+        for (List<Account> shardAccounts : shardAccountLists) {
+            size += shardAccounts.size();
+        }
+        List<Account> accounts = new ArrayList<>(size);
+        for (List<Account> shardAccounts : shardAccountLists) {
+            accounts.addAll(shardAccounts);
+        }
+        return accounts;
+    }
+
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID. Κάθε shard δίνει
+     * παράλληλα τη δική του σελίδα και κρατιούνται οι {@code limit} πρώτοι συνολικά.
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return νέα λίστα ταξινομημένη κατά UUID
+     */
+    @Override
+    public List<Account> getPage(String afterUuid, int limit) {
+        List<List<Account>> pages = scanShards(shard -> shard.getPage(afterUuid, limit));
+        return AccountPages.firstAfter(pages.stream().flatMap(List::stream), afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Τα shards διαβάζονται διαδοχικά.
+     */
+    @Override
+    public Stream<Account> stream() {
+        return Arrays.stream(shards).flatMap(IAccountDAO::stream);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο UUID (από τον κατάλογο).
+     *
+     * @param uuid το UUID προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean uuidExists(String uuid) {
+        return shardsByUuid.containsKey(uuid);
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο SSN, σε οποιοδήποτε shard.
+     *
+     * @param ssn το SSN προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ssnExists(String ssn) {
+        for (IAccountDAO shard : shards) {
+            if (shard.ssnExists(ssn)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει λογαριασμός με συγκεκριμένο IBAN, στο shard του IBAN.
+     *
+     * @param iban ο IBAN προς έλεγχο
+     * @return true αν υπάρχει, false αλλιώς
+     */
+    @Override
+    public boolean ibanExists(String iban) {
+        return shards[shardIndexOf(iban)].ibanExists(iban);
+    }
+
+    /**
+     * Άθροισμα όλων των υπολοίπων, με παράλληλη σάρωση των shards.
+     *
+     * @return το συνολικό υπόλοιπο σε μονάδες νομίσματος
+     */
+    public double totalBalance() {
+        long total = 0;
+        for (long shardTotal : scanShards(shard -> shard.stream().mapToLong(Account::getBalanceMinor).sum())) {
+            total += shardTotal;
+        }
+        return Money.toMajor(total);
+    }
+
+    /**
+     * Εκτελεί μια σάρωση σε κάθε shard παράλληλα και επιστρέφει τα αποτελέσματα με τη σειρά
+     * των shards. Το τρέχον thread σαρώνει το πρώτο shard, και τα υπόλοιπα το pool.
+     *
+     * @param scan η σάρωση ενός shard
+     * @param <R> ο τύπος του αποτελέσματος ανά shard
+     * @return τα αποτελέσματα ανά shard
+     */
+    public <R> List<R> scanShards(Function<? super IAccountDAO, ? extends R> scan) {
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            IAccountDAO shard = shards[i];
+            tasks.add(pool.submit(() -> scan.apply(shard)));
+        }
+
+        List<R> results = new ArrayList<>(shards.length);
+        results.add(scan.apply(shards[0]));
+        for (ForkJoinTask<R> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,273 @@
+package gr.aueb.cf.ch18.bankapp.dao.snapshot;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.ImmutableUser;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.model.UserView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * Συμπαγές, versioned δυαδικό snapshot λογαριασμών ({@link Account}/{@link User}),
+ * που γράφεται και διαβάζεται μέσω {@link MappedByteBuffer}.
+ *
+ * Μορφή αρχείου:
+ * <pre>
+ * header:  [int magic "BKS1"][short version][short reserved][long count][long journalPosition][int crc32]
+ * record:  [int length][long balanceMinor][uuid][iban][holderUuid][firstname][lastname][ssn]
+ * string:  [short length][UTF-8 bytes]  (length -1 για null)
+ * </pre>
+ * Το {@code journalPosition} είναι η θέση του write-ahead journal στην οποία αντιστοιχεί
+ * το snapshot, ώστε κατά την εκκίνηση να αναπαράγεται μόνο το υπόλοιπο του journal.
+ *
+ * Το αρχείο γράφεται πρώτα ως προσωρινό και μετονομάζεται ατομικά, οπότε ένα crash
+ * κατά την εγγραφή δεν αφήνει ημιτελές snapshot.
+ */
+public final class AccountSnapshot {
+    private static final int MAGIC = 0x424B5331;  // "BKS1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 8 + 4;
+    private static final int CRC_OFFSET = HEADER_SIZE - 4;
+
+    /** Ελάχιστο μέγεθος εγγραφής (μήκος, υπόλοιπο και έξι strings null). */
+    private static final int MIN_RECORD_SIZE = 4 + 8 + 6 * 2;
+
+    /** Μέγεθος κάθε mapped παραθύρου κατά την εγγραφή/ανάγνωση. */
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Private Constructor, δεν δημιουργούνται instances.
+     */
+    private AccountSnapshot() {
+
+    }
+
+    /**
+     * Γράφει snapshot των δοσμένων λογαριασμών.
+     *
+     * Οι λογαριασμοί πρέπει να είναι σταθερό αντίγραφο (να μην αλλάζουν κατά την εγγραφή).
+     *
+     * @param path το αρχείο του snapshot
+     * @param accounts οι λογαριασμοί
+     * @param journalPosition η θέση του journal στην οποία αντιστοιχεί το snapshot
+     * @throws IOException αν αποτύχει η εγγραφή
+     */
+    public static void write(Path path, Collection<Account> accounts, long journalPosition) throws IOException {
+        long size = HEADER_SIZE;
+        for (Account account : accounts) {
+            size += recordLength(account);
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            long position = HEADER_SIZE;
+            MappedByteBuffer window = map(channel, FileChannel.MapMode.READ_WRITE, position, size);
+
+            for (Account account : accounts) {
+                int length = recordLength(account);
+                if (window.remaining() < length) {
+                    update(crc, window);
+                    window.force();
+                    window = map(channel, FileChannel.MapMode.READ_WRITE, position, size);
+                }
+
+                UserView holder = account.getHolderView();
+                window.putInt(length).putLong(account.getBalanceMinor());
+                putString(window, account.getUuid());
+                putString(window, account.getIban());
+                putString(window, holder.getUuid());
+                putString(window, holder.getFirstname());
+                putString(window, holder.getLastname());
+                putString(window, holder.getSsn());
+                position += length;
+            }
+            update(crc, window);
+            window.force();
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putLong(accounts.size()).putLong(journalPosition).putInt((int) crc.getValue());
+            header.force();
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Φορτώνει ένα snapshot στο δοσμένο (άδειο) DAO.
+     *
+     * Το CRC ελέγχεται πριν από την αποκωδικοποίηση, και οι λογαριασμοί εισάγονται στο DAO
+     * μόνο αφού αποκωδικοποιηθούν όλοι χωρίς σφάλμα, οπότε ένα κατεστραμμένο snapshot
+     * αφήνει το DAO ανέγγιχτο.
+     *
+     * @param path το αρχείο του snapshot
+     * @param target το DAO στο οποίο εισάγονται οι λογαριασμοί
+     * @return η θέση του journal στην οποία αντιστοιχεί το snapshot
+     * @throws IOException αν το αρχείο δεν είναι έγκυρο snapshot ή αποτύχει η ανάγνωση
+     */
+    public static long load(Path path, IAccountDAO target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a valid account snapshot: " + path);
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a valid account snapshot: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported account snapshot version: " + version);
+            }
+            header.getShort();
+            long count = header.getLong();
+            long journalPosition = header.getLong();
+            int expectedCrc = header.getInt(CRC_OFFSET);
+
+            // Έλεγχος CRC όλων των εγγραφών πριν από οποιαδήποτε αποκωδικοποίηση
+            CRC32 crc = new CRC32();
+            for (long position = HEADER_SIZE; position < size; position += WINDOW_SIZE) {
+                crc.update(map(channel, FileChannel.MapMode.READ_ONLY, position, size));
+            }
+            if ((int) crc.getValue() != expectedCrc || count < 0 || count > Integer.MAX_VALUE - 8
+                    || count > (size - HEADER_SIZE) / MIN_RECORD_SIZE) {
+                throw new IOException("Corrupted account snapshot: " + path);
+            }
+
+            Account[] accounts = new Account[(int) count];
+            byte[] scratch = new byte[256];
+            long position = HEADER_SIZE;
+            MappedByteBuffer window = map(channel, FileChannel.MapMode.READ_ONLY, position, size);
+
+            for (int i = 0; i < accounts.length; i++) {
+                if (window.remaining() < 4 || window.remaining() < window.getInt(window.position())) {
+                    window = map(channel, FileChannel.MapMode.READ_ONLY, position, size);
+                    if (window.remaining() < 4 || window.remaining() < window.getInt(window.position())) {
+                        throw new IOException("Truncated account snapshot: " + path);
+                    }
+                }
+
+                int length = window.getInt();
+                Account account = new Account();
+                account.setBalanceMinor(window.getLong());
+                account.setUuid(getString(window, scratch));
+                account.setIban(getString(window, scratch));
+
+                String holderUuid = getString(window, scratch);
+                String firstname = getString(window, scratch);
+                String lastname = getString(window, scratch);
+                account.setHolder(new ImmutableUser(holderUuid, firstname, lastname, getString(window, scratch)));
+
+                accounts[i] = account;
+                position += length;
+            }
+            if (position != size) {
+                throw new IOException("Corrupted account snapshot: " + path);
+            }
+
+            for (Account account : accounts) {
+                target.insert(account);
+            }
+            return journalPosition;
+        }
+    }
+
+    /**
+     * Κάνει map ένα παράθυρο του αρχείου ξεκινώντας από τη δοσμένη θέση.
+     */
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size)
+            throws IOException {
+        return channel.map(mode, position, Math.min(WINDOW_SIZE, size - position));
+    }
+
+    /**
+     * Ενημερώνει το CRC με τα bytes του παραθύρου μέχρι την τρέχουσα θέση του.
+     */
+    private static void update(CRC32 crc, ByteBuffer window) {
+        ByteBuffer done = window.duplicate();
+        done.flip();
+        crc.update(done);
+    }
+
+    /**
+     * Υπολογίζει το μέγεθος της εγγραφής ενός λογαριασμού χωρίς να κωδικοποιήσει τα strings.
+     */
+    private static int recordLength(Account account) {
+        UserView holder = account.getHolderView();
+        return 4 + 8
+                + stringLength(account.getUuid())
+                + stringLength(account.getIban())
+                + stringLength(holder.getUuid())
+                + stringLength(holder.getFirstname())
+                + stringLength(holder.getLastname())
+                + stringLength(holder.getSsn());
+    }
+
+    /**
+     * Υπολογίζει το μέγεθος ενός string σε UTF-8 μαζί με το πρόθεμα μήκους.
+     */
+    private static int stringLength(String value) {
+        if (value == null) return 2;
+
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;  // ο encoder αντικαθιστά μεμονωμένα surrogates με '?'
+            } else {
+                bytes += 3;
+            }
+        }
+        if (bytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot field too long: " + bytes + " bytes");
+        }
+        return 2 + bytes;
+    }
+
+    /**
+     * Γράφει ένα string ως {@code [short length][UTF-8 bytes]}.
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Διαβάζει ένα string της μορφής {@code [short length][UTF-8 bytes]}.
+     */
+    private static String getString(ByteBuffer buffer, byte[] scratch) {
+        short length = buffer.getShort();
+        if (length < 0) return null;
+
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package gr.aueb.cf.ch18.bankapp.dto;
+
+/**
+ * Data Transfer Object (DTO) για μία κίνηση (κατάθεση ή ανάληψη) μέσα σε batch.
+ *
+ * Περιέχει τον τύπο της κίνησης, τον IBAN του λογαριασμού, το SSN του κατόχου
+ * (απαιτείται μόνο για αναλήψεις) και το ποσό.
+ * Χρησιμοποιείται από το service layer στην εκτέλεση batch κινήσεων.
+ */
+public class TransactionCommand {
+    private TransactionType type;
+    private String iban;
+    private String ssn;
+    private double amount;
+
+    /**
+     * Default Constructor.
+     */
+    public TransactionCommand() {
+
+    }
+
+    /**
+     * Overloaded Constructor.
+     * @param type  ο τύπος της κίνησης
+     * @param iban  ο IBAN του λογαριασμού
+     * @param ssn   το SSN του κατόχου (null για καταθέσεις)
+     * @param amount    το ποσό της κίνησης
+     */
+    public TransactionCommand(TransactionType type, String iban, String ssn, double amount) {
+        this.type = type;
+        this.iban = iban;
+        this.ssn = ssn;
+        this.amount = amount;
+    }
+
+    /** Επιστρέφει τον τύπο της κίνησης. */
+    public TransactionType getType() {
+        return type;
+    }
+
+    /** Θέτει τον τύπο της κίνησης. */
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    /** Επιστρέφει τον IBAN του λογαριασμού. */
+    public String getIban() {
+        return iban;
+    }
+
+    /** Θέτει τον IBAN του λογαριασμού. */
+    public void setIban(String iban) {
+        this.iban = iban;
+    }
+
+    /** Επιστρέφει το SSN του κατόχου. */
+    public String getSsn() {
+        return ssn;
+    }
+
+    /** Θέτει το SSN του κατόχου. */
+    public void setSsn(String ssn) {
+        this.ssn = ssn;
+    }
+
+    /** Επιστρέφει το ποσό της κίνησης. */
+    public double getAmount() {
+        return amount;
+    }
+
+    /** Θέτει το ποσό της κίνησης. */
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,73 @@
+package gr.aueb.cf.ch18.bankapp.dto;
+
+/**
+ * Data Transfer Object (DTO) μόνο για ανάγνωση με το αποτέλεσμα μιας κίνησης.
+ *
+ * Περιέχει το {@link TransactionStatus} και το υπόλοιπο του λογαριασμού μετά την
+ * κίνηση (ή το τρέχον υπόλοιπο αν η κίνηση απορρίφθηκε).
+ * Δεν παρέχει setters ώστε να διατηρείται η αμεταβλητότητα των δεδομένων.
+ *
+ * Για απορρίψεις χωρίς υπόλοιπο ({@link #rejected(TransactionStatus)}) χρησιμοποιούνται
+ * κοινά, προκατασκευασμένα αντικείμενα.
+ */
+public class TransactionResult {
+    private static final TransactionResult[] REJECTED = new TransactionResult[TransactionStatus.values().length];
+
+    static {
+        for (TransactionStatus status : TransactionStatus.values()) {
+            REJECTED[status.ordinal()] = new TransactionResult(status, 0);
+        }
+    }
+
+    private final TransactionStatus status;
+    private final double balance;
+
+    /**
+     * Overloaded Constructor.
+     * @param status    το αποτέλεσμα της κίνησης
+     * @param balance   το υπόλοιπο του λογαριασμού μετά την κίνηση
+     */
+    public TransactionResult(TransactionStatus status, double balance) {
+        this.status = status;
+        this.balance = balance;
+    }
+
+    /**
+     * Επιστρέφει το κοινό αποτέλεσμα μιας κίνησης που απορρίφθηκε χωρίς να αναφέρεται υπόλοιπο
+     * (υπόλοιπο 0), χωρίς δημιουργία νέου αντικειμένου.
+     *
+     * @param status το αποτέλεσμα της κίνησης
+     * @return το κοινό αποτέλεσμα
+     */
+    public static TransactionResult rejected(TransactionStatus status) {
+        return REJECTED[status.ordinal()];
+    }
+
+    /** Επιστρέφει το αποτέλεσμα της κίνησης. */
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    /** Επιστρέφει το υπόλοιπο του λογαριασμού μετά την κίνηση. */
+    public double getBalance() {
+        return balance;
+    }
+
+    /** Επιστρέφει true αν η κίνηση εκτελέστηκε επιτυχώς. */
+    public boolean isOk() {
+        return status == TransactionStatus.OK;
+    }
+
+    /**
+     * Επιστρέφει αναπαράσταση του αντικειμένου ως String.
+     *
+     * @return {@link String} με status και balance
+     */
+    @Override
+    public String toString() {
+        return "TransactionResult{" +
+                "status=" + status +
+                ", balance=" + balance +
+                '}';
+    }
+}
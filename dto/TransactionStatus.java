@@ -0,0 +1,27 @@
+package gr.aueb.cf.ch18.bankapp.dto;
+
+/**
+ * Αποτέλεσμα εκτέλεσης μιας κίνησης ({@link TransactionCommand}).
+ *
+ * Κάθε τιμή εκτός από {@link #OK} αντιστοιχεί σε μία από τις εξαιρέσεις
+ * του service layer, χωρίς όμως να δημιουργείται exception.
+ */
+public enum TransactionStatus {
+    /** Η κίνηση εκτελέστηκε επιτυχώς. */
+    OK,
+
+    /** Δεν βρέθηκε ο λογαριασμός (βλ. AccountNotFoundException). */
+    ACCOUNT_NOT_FOUND,
+
+    /** Το ποσό είναι αρνητικό (βλ. NegativeAmountException). */
+    NEGATIVE_AMOUNT,
+
+    /** Το ποσό δεν είναι έγκυρο χρηματικό ποσό ή προκαλεί υπερχείλιση υπολοίπου. */
+    INVALID_AMOUNT,
+
+    /** Το υπόλοιπο δεν επαρκεί (βλ. InsufficientBalanceException). */
+    INSUFFICIENT_BALANCE,
+
+    /** Το SSN δεν αντιστοιχεί στον κάτοχο (βλ. SsnNotValidException). */
+    SSN_NOT_VALID
+}
@@ -0,0 +1,12 @@
+package gr.aueb.cf.ch18.bankapp.dto;
+
+/**
+ * Τύπος κίνησης (posting) σε ένα {@link TransactionCommand}.
+ */
+public enum TransactionType {
+    /** Κατάθεση χρημάτων. */
+    DEPOSIT,
+
+    /** Ανάληψη χρημάτων (απαιτεί SSN κατόχου). */
+    WITHDRAW
+}
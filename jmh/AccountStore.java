@@ -0,0 +1,113 @@
+package gr.aueb.cf.ch18.bankapp.jmh;
+
+import gr.aueb.cf.ch18.bankapp.dao.AccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.IndexedAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.columnar.ColumnarAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.sharded.ShardedAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Κοινή κατάσταση των benchmarks: ένα DAO (και το service πάνω του) γεμάτο με {@link #size}
+ * λογαριασμούς, κοινό για όλα τα threads της μέτρησης.
+ *
+ * Το store χτίζεται μία φορά ανά fork· ξαναχτίζεται πριν από ένα iteration μόνο αν το
+ * προηγούμενο πρόσθεσε λογαριασμούς ({@link DaoBenchmark#insert}), ώστε κάθε iteration
+ * να ξεκινά με {@link #size} λογαριασμούς.
+ *
+ * Τα {@code list} και {@code indexed} δεν είναι thread-safe και μετρώνται μόνο με 1 thread
+ * (το {@link BenchmarkRunner} τα παραλείπει αυτόματα για περισσότερα threads).
+ */
+@State(Scope.Benchmark)
+public class AccountStore {
+    /** Όλες οι υλοποιήσεις DAO που μπορούν να μετρηθούν. */
+    static final List<String> DAOS = List.of("list", "indexed", "concurrent", "offheap", "columnar", "sharded");
+
+    /** Οι υλοποιήσεις DAO που δεν είναι thread-safe. */
+    static final List<String> SINGLE_THREADED_DAOS = List.of("list", "indexed");
+
+    /** Αρχικό υπόλοιπο, αρκετό ώστε οι αναλήψεις να μην αποτυγχάνουν. */
+    private static final double INITIAL_BALANCE = 1_000_000_000;
+
+    @Param({"list", "indexed", "concurrent", "offheap", "columnar", "sharded"})
+    public String dao;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    IAccountDAO accounts;
+    IAccountService service;
+    String[] uuids;
+    String[] ibans;
+    String[] ssns;
+
+    /** Ο αριθμός του επόμενου IBAN για εισαγωγή. */
+    AtomicInteger nextIban;
+
+    /**
+     * Χτίζει το store αν δεν υπάρχει ή αν το προηγούμενο iteration πρόσθεσε λογαριασμούς.
+     */
+    @Setup(Level.Iteration)
+    public void fill() {
+        if (accounts != null && nextIban.get() == size) return;
+
+        accounts = null;
+        IAccountDAO target = createDao(dao);
+        uuids = new String[size];
+        ibans = new String[size];
+        ssns = new String[size];
+        for (int i = 0; i < size; i++) {
+            ibans[i] = iban(i);
+            ssns[i] = "SSN" + i;
+            uuids[i] = target.insert(new Account(ibans[i], new User("First" + i, "Last" + i, ssns[i]),
+                    INITIAL_BALANCE)).getUuid();
+        }
+        accounts = target;
+        service = new AccountServiceImpl(target);
+        nextIban = new AtomicInteger(size);
+    }
+
+    /**
+     * Τυχαία θέση λογαριασμού του store.
+     */
+    int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    static String iban(int i) {
+        return "GR" + i;
+    }
+
+    static IAccountDAO createDao(String name) {
+        switch (name) {
+            case "list":
+                return new AccountDAOImpl();
+            case "indexed":
+                return new IndexedAccountDAOImpl();
+            case "concurrent":
+                return new ConcurrentAccountDAOImpl();
+            case "offheap":
+                return new OffHeapAccountDAOImpl();
+            case "columnar":
+                return new ColumnarAccountDAO(new ConcurrentAccountDAOImpl());
+            case "sharded":
+                return new ShardedAccountDAO(Runtime.getRuntime().availableProcessors());
+            default:
+                throw new IllegalArgumentException("Unknown DAO: " + name);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package gr.aueb.cf.ch18.bankapp.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Εκτελεί τα benchmarks για κάθε πλήθος threads, με τον GC profiler του JMH
+ * ({@code -prof gc}: bytes ανά λειτουργία, πλήθος και χρόνος GC), και γράφει όλα τα
+ * αποτελέσματα σε ένα αρχείο (CSV, ή JSON αν το όνομα τελειώνει σε {@code .json}) για
+ * σύγκριση των υλοποιήσεων DAO μεταξύ τους.
+ *
+ * Για περισσότερα από 1 threads παραλείπονται τα DAOs που δεν είναι thread-safe.
+ * Οι υπόλοιπες παράμετροι περνούν στο JMH, π.χ. {@code -p size=1000,100000} ή ένα regex
+ * benchmarks. Για store 10M λογαριασμών χρειάζεται μεγάλο heap ({@code -jvmArgsAppend -Xmx16g}).
+ *
+ * Χρήση: {@code BenchmarkRunner [threads] [output] [jmh options...]}
+ * π.χ. {@code BenchmarkRunner 1,4 results.csv -p dao=concurrent,offheap -p size=1000,1000000}
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String threads = args.length > 0 ? args[0] : "1," + Runtime.getRuntime().availableProcessors();
+        String output = args.length > 1 ? args[1] : "jmh-results.csv";
+        CommandLineOptions jmhOptions = new CommandLineOptions(Arrays.copyOfRange(args, Math.min(2, args.length), args.length));
+
+        Collection<String> daos = jmhOptions.getParameter("dao").orElse(AccountStore.DAOS);
+        List<RunResult> results = new ArrayList<>();
+
+        for (String value : threads.split(",")) {
+            int threadCount = Integer.parseInt(value.trim());
+            List<String> threadDaos = new ArrayList<>(daos);
+            if (threadCount > 1) threadDaos.removeAll(AccountStore.SINGLE_THREADED_DAOS);
+            if (threadDaos.isEmpty()) continue;
+
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(jmhOptions)
+                    .threads(threadCount)
+                    .param("dao", threadDaos.toArray(new String[0]))
+                    .addProfiler(GCProfiler.class);
+            if (jmhOptions.getIncludes().isEmpty()) {
+                options.include(DaoBenchmark.class.getSimpleName()).include(ServiceBenchmark.class.getSimpleName());
+            }
+            results.addAll(new Runner(options.build()).run());
+        }
+
+        ResultFormatType format = output.endsWith(".json") ? ResultFormatType.JSON : ResultFormatType.CSV;
+        ResultFormatFactory.getInstance(format, output).writeOut(results);
+        System.out.println("Results written to " + output);
+    }
+}
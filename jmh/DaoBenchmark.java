@@ -0,0 +1,40 @@
+package gr.aueb.cf.ch18.bankapp.jmh;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Λειτουργίες του DAO: {@code insert}, {@code get} και {@code ibanExists}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Benchmark
+    public Account insert(AccountStore store) {
+        int i = store.nextIban.getAndIncrement();
+        return store.accounts.insert(new Account(AccountStore.iban(i), new User("First", "Last", "SSN" + i), 0));
+    }
+
+    @Benchmark
+    public Account get(AccountStore store) {
+        return store.accounts.get(store.uuids[store.randomIndex()]);
+    }
+
+    @Benchmark
+    public boolean ibanExists(AccountStore store) {
+        return store.accounts.ibanExists(store.ibans[store.randomIndex()]);
+    }
+}
@@ -0,0 +1,51 @@
+package gr.aueb.cf.ch18.bankapp.jmh;
+
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.AccountNotFoundException;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.InsufficientBalanceException;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.NegativeAmountException;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.SsnNotValidException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Λειτουργίες του service: {@code getAccountByIban}, {@code deposit}, {@code withdraw} και
+ * {@code getAllAccounts}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Benchmark
+    public Account getAccountByIban(AccountStore store) throws AccountNotFoundException {
+        return store.service.getAccountByIban(store.ibans[store.randomIndex()]);
+    }
+
+    @Benchmark
+    public Account deposit(AccountStore store) throws AccountNotFoundException, NegativeAmountException {
+        return store.service.deposit(store.uuids[store.randomIndex()], 1);
+    }
+
+    @Benchmark
+    public Account withdraw(AccountStore store)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException, SsnNotValidException {
+        int i = store.randomIndex();
+        return store.service.withdraw(store.ibans[i], store.ssns[i], 1);
+    }
+
+    @Benchmark
+    public List<Account> getAllAccounts(AccountStore store) {
+        return store.service.getAllAccounts();
+    }
+}
@@ -0,0 +1,127 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.AccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.IndexedAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Μέτρηση bytes που δεσμεύονται ανά κλήση στο hot path ανάγνωσης:
+ * αναζητήσεις, έλεγχος SSN κατόχου, κατάθεση/ανάληψη και αντιγραφή λογαριασμού.
+ *
+ * Χρησιμοποιεί το {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}
+ * του τρέχοντος thread, μετά από warm-up ώστε να έχει γίνει JIT compilation. Ορισμένα
+ * προσωρινά αντικείμενα (π.χ. το {@code TransactionResult} της κατάθεσης/ανάληψης)
+ * εξαλείφονται μόνο από τον C2 (scalar replacement), οπότε το warm-up διαρκεί τουλάχιστον
+ * {@value #MIN_WARMUP_MILLIS} ms ανεξάρτητα από το πλήθος επαναλήψεων, και η μέτρηση
+ * επαναλαμβάνεται έως {@value #MAX_ROUNDS} φορές πριν μια λειτουργία θεωρηθεί ότι δεσμεύει.
+ * Οι αναζητήσεις και οι έλεγχοι πρέπει να μη δεσμεύουν τίποτα· αν κάποιος δεσμεύει,
+ * το πρόγραμμα τερματίζει με κωδικό 1.
+ *
+ * Χρήση: {@code AllocationBenchmark [accounts] [iterations]}
+ */
+public class AllocationBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Ελάχιστη διάρκεια warm-up ανά λειτουργία, ώστε να προλάβει ο C2. */
+    private static final long MIN_WARMUP_MILLIS = 1_000;
+
+    /** Μέγιστο πλήθος μετρήσεων ανά λειτουργία, για λειτουργίες που κάνουν recompile αργότερα. */
+    private static final int MAX_ROUNDS = 5;
+
+    /** Μια μετρούμενη λειτουργία. */
+    private interface Operation {
+        void run(int i) throws Exception;
+    }
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        IAccountDAO listDao = new AccountDAOImpl();
+        IAccountDAO indexedDao = new IndexedAccountDAOImpl();
+        IAccountDAO concurrentDao = new ConcurrentAccountDAOImpl();
+        String[] ibans = new String[accountCount];
+        String[] ssns = new String[accountCount];
+        String[] uuids = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            ibans[i] = "GR" + i;
+            ssns[i] = "SSN" + i;
+            Account account = new Account(ibans[i], new User("First" + i, "Last" + i, ssns[i]), 1_000_000);
+            uuids[i] = account.getUuid();
+            listDao.insert(new Account(account));
+            indexedDao.insert(new Account(account));
+            concurrentDao.insert(new Account(account));
+        }
+        IAccountService service = new AccountServiceImpl(concurrentDao);
+        Account sample = concurrentDao.getByIban(ibans[0]);
+
+        System.out.println("operation,bytes_per_op,allocation_free");
+        boolean ok = true;
+        ok &= measure("list.ssnExists", true, iterations / 100,
+                i -> sink = listDao.ssnExists(ssns[accountCount - 1]));
+        ok &= measure("indexed.ssnExists", true, iterations,
+                i -> sink = indexedDao.ssnExists(ssns[i % accountCount]));
+        ok &= measure("concurrent.getByIban", true, iterations,
+                i -> sink = concurrentDao.getByIban(ibans[i % accountCount]));
+        ok &= measure("holder.ssnCheck", true, iterations,
+                i -> sink = concurrentDao.getByIban(ibans[i % accountCount]).getHolderView().getSsn().equals(ssns[i % accountCount]));
+        ok &= measure("service.deposit", true, iterations,
+                i -> sink = service.deposit(uuids[i % accountCount], 1));
+        ok &= measure("service.withdraw", true, iterations,
+                i -> sink = service.withdraw(ibans[i % accountCount], ssns[i % accountCount], 1));
+        measure("account.copy", false, iterations,
+                i -> sink = new Account(sample));
+        measure("account.getHolder", false, iterations,
+                i -> sink = sample.getHolder());
+
+        if (!ok) {
+            System.err.println("Allocations detected on the read path.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Εκτελεί warm-up και μέτρηση μιας λειτουργίας και τυπώνει bytes ανά κλήση.
+     *
+     * @param expectZero αν η λειτουργία πρέπει να μη δεσμεύει μνήμη
+     * @return false αν αναμενόταν μηδενική δέσμευση και δεν ισχύει
+     */
+    private static boolean measure(String name, boolean expectZero, int iterations, Operation operation)
+            throws Exception {
+        long warmupEnd = System.nanoTime() + MIN_WARMUP_MILLIS * 1_000_000;
+        do {
+            for (int i = 0; i < iterations; i++) {
+                operation.run(i);
+            }
+        } while (System.nanoTime() < warmupEnd);
+
+        long threadId = Thread.currentThread().getId();
+        double perOp;
+        boolean free;
+        int round = 0;
+        do {
+            long before = THREADS.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterations; i++) {
+                operation.run(i);
+            }
+            long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+
+            perOp = (double) allocated / iterations;
+            // Ανοχή για δεσμεύσεις του ίδιου του MXBean κατά την ανάγνωση του μετρητή.
+            free = perOp < 0.01;
+        } while (expectZero && !free && ++round < MAX_ROUNDS);
+
+        System.out.printf("%s,%.2f,%b%n", name, perOp, free);
+        return !expectZero || free;
+    }
+}
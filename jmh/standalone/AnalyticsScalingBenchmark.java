@@ -0,0 +1,72 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.columnar.AccountAnalytics;
+import gr.aueb.cf.ch18.bankapp.dao.columnar.ColumnarAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Κλιμάκωση των παράλληλων αναφορών του {@link AccountAnalytics} με το πλήθος των threads:
+ * ομαδοποίηση ανά επώνυμο και ανά κάτοχο, ιστόγραμμα υπολοίπων και top-N.
+ *
+ * Οι λογαριασμοί κρατούνται στο {@link OffHeapAccountDAOImpl}, ώστε μεγάλα σύνολα
+ * (π.χ. 10.000.000) να χωρούν στο heap μαζί με τις στήλες. Για κάθε αναφορά και πλήθος
+ * threads τυπώνει τον μέσο χρόνο και την επιτάχυνση ως προς το 1 thread.
+ *
+ * Χρήση: {@code AnalyticsScalingBenchmark [accounts] [iterations] [maxThreads]}
+ */
+public class AnalyticsScalingBenchmark {
+
+    public static void main(String[] args) {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ColumnarAccountDAO dao = new ColumnarAccountDAO(new OffHeapAccountDAOImpl());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < accountCount; i++) {
+            dao.insert(new Account("GR" + i,
+                    new User("First" + i, "Last" + (i % 5_000), "SSN" + (i % (accountCount / 2 + 1))),
+                    random.nextInt(1_000_000) / 100.0));
+        }
+
+        Map<String, Function<AccountAnalytics, Object>> queries = new LinkedHashMap<>();
+        queries.put("by_lastname", analytics -> analytics.totalsByLastname().size());
+        queries.put("by_holder", analytics -> analytics.totalsByHolder().size());
+        queries.put("histogram", analytics -> analytics.balanceHistogram(100, 1_000, 5_000, 9_000)[2]);
+        queries.put("top_100", analytics -> analytics.richest(100).get(0).getBalance());
+
+        System.out.println("query,threads,ms_per_query,speedup,result");
+        for (Map.Entry<String, Function<AccountAnalytics, Object>> query : queries.entrySet()) {
+            double baseline = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    AccountAnalytics analytics = new AccountAnalytics(dao, pool);
+                    Object result = null;
+                    for (int i = 0; i < Math.max(3, iterations / 5); i++) {
+                        result = query.getValue().apply(analytics);
+                    }
+
+                    long begin = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        result = query.getValue().apply(analytics);
+                    }
+                    double millis = (System.nanoTime() - begin) / 1e6 / iterations;
+                    if (threads == 1) baseline = millis;
+
+                    System.out.printf("%s,%d,%.3f,%.2f,%s%n", query.getKey(), threads, millis, baseline / millis, result);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+}
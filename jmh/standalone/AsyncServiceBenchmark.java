@@ -0,0 +1,103 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.IndexedAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.AsyncAccountService;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+import gr.aueb.cf.ch18.bankapp.service.StripedLocks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput του {@link AsyncAccountService} με λειτουργίες που μπλοκάρουν, ανά executor
+ * και πλήθος ταυτόχρονων αιτημάτων (in flight).
+ *
+ * Κάθε κλήση του service καθυστερεί κατά {@code blockMillis} (όπως ένα fsync ή ένα
+ * round-trip σε βάση) πριν εκτελέσει μια κατάθεση. Συγκρίνονται ο προεπιλεγμένος executor
+ * (virtual thread ανά task, όπου υποστηρίζεται) και pools σταθερού μεγέθους από platform threads.
+ *
+ * Χρήση: {@code AsyncServiceBenchmark [inFlight,...] [operations] [blockMillis]}
+ */
+public class AsyncServiceBenchmark {
+    private static final int ACCOUNTS = 10_000;
+    private static final int[] POOL_SIZES = {64, 256, 1_024};
+
+    public static void main(String[] args) throws Exception {
+        String[] inFlightLevels = (args.length > 0 ? args[0] : "100,1000,10000").split(",");
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long blockMillis = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        IndexedAccountDAOImpl dao = new IndexedAccountDAOImpl();
+        List<String> uuids = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 0);
+            dao.insert(account);
+            uuids.add(account.getUuid());
+        }
+        IAccountService service = blocking(new AccountServiceImpl(dao, new StripedLocks(1_024)), blockMillis);
+
+        System.out.println("executor,in_flight,operations,ops_per_sec");
+        for (String level : inFlightLevels) {
+            int inFlight = Integer.parseInt(level.trim());
+
+            ExecutorService executor = AsyncAccountService.newTaskExecutor();
+            String name = executor.getClass().getSimpleName().contains("ThreadPerTask") ? "virtual" : "default-pool";
+            run(name, new AsyncAccountService(service, executor), executor, uuids, inFlight, operations);
+
+            for (int poolSize : POOL_SIZES) {
+                ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+                run("platform-" + poolSize, new AsyncAccountService(service, pool), pool, uuids, inFlight, operations);
+            }
+        }
+    }
+
+    /**
+     * Εκτελεί {@code operations} καταθέσεις κρατώντας έως {@code inFlight} σε εξέλιξη.
+     */
+    private static void run(String name, AsyncAccountService async, ExecutorService executor, List<String> uuids,
+                            int inFlight, int operations) throws InterruptedException {
+        Semaphore permits = new Semaphore(inFlight);
+        AtomicLong failures = new AtomicLong();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            permits.acquire();
+            async.deposit(uuids.get(random.nextInt(uuids.size())), 1).whenComplete((account, e) -> {
+                if (e != null) failures.incrementAndGet();
+                permits.release();
+            });
+        }
+        permits.acquire(inFlight);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        executor.shutdown();
+        if (failures.get() > 0) System.err.println(name + ": " + failures.get() + " failed operations");
+        System.out.printf("%s,%d,%d,%.0f%n", name, inFlight, operations, operations / seconds);
+    }
+
+    /**
+     * Service που καθυστερεί κάθε κλήση, σαν να περιμένει I/O.
+     */
+    private static IAccountService blocking(IAccountService service, long blockMillis) {
+        return (IAccountService) Proxy.newProxyInstance(IAccountService.class.getClassLoader(),
+                new Class<?>[] {IAccountService.class}, (proxy, method, methodArgs) -> {
+                    Thread.sleep(blockMillis);
+                    try {
+                        return method.invoke(service, methodArgs);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,69 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionType;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Σύγκριση throughput μεταξύ εκτέλεσης κινήσεων μία-μία (deposit/withdraw ανά κίνηση)
+ * και {@link IAccountService#applyBatch(List)} για το ίδιο σύνολο κινήσεων.
+ *
+ * Χρήση: {@code BatchThroughputBenchmark [accounts] [commands] [rounds]}
+ */
+public class BatchThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int commandCount = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        IAccountDAO dao = new ConcurrentAccountDAOImpl();
+        IAccountService service = new AccountServiceImpl(dao);
+        List<String> uuids = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            uuids.add(dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 1_000_000)).getUuid());
+        }
+
+        Random random = new Random(42);
+        List<TransactionCommand> commands = new ArrayList<>(commandCount);
+        int[] targets = new int[commandCount];
+        for (int c = 0; c < commandCount; c++) {
+            int i = random.nextInt(accountCount);
+            targets[c] = i;
+            TransactionType type = random.nextBoolean() ? TransactionType.DEPOSIT : TransactionType.WITHDRAW;
+            commands.add(new TransactionCommand(type, "GR" + i, "SSN" + i, 1 + random.nextInt(100)));
+        }
+
+        System.out.println("mode,round,postings_per_sec");
+        for (int r = 0; r < rounds; r++) {
+            long begin = System.nanoTime();
+            for (int c = 0; c < commandCount; c++) {
+                TransactionCommand command = commands.get(c);
+                if (command.getType() == TransactionType.DEPOSIT) {
+                    service.deposit(uuids.get(targets[c]), command.getAmount());
+                } else {
+                    service.withdraw(command.getIban(), command.getSsn(), command.getAmount());
+                }
+            }
+            report("single", r, commandCount, begin);
+
+            begin = System.nanoTime();
+            service.applyBatch(commands);
+            report("batch", r, commandCount, begin);
+        }
+    }
+
+    private static void report(String mode, int round, int commandCount, long begin) {
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%s,%d,%.0f%n", mode, round, commandCount / elapsed);
+    }
+}
@@ -0,0 +1,85 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.columnar.ColumnarAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Σύγκριση αναφορών υπολοίπων μέσω {@code getAll()} και μέσω των στηλών του
+ * {@link ColumnarAccountDAO}: συνολικό υπόλοιπο, πλήθος πάνω από όριο, ιστόγραμμα.
+ *
+ * Για κάθε αναφορά τυπώνει τον μέσο χρόνο και το ρυθμό σάρωσης της στήλης
+ * υπολοίπων (8 bytes ανά λογαριασμό), μαζί με το αποτέλεσμα για σύγκριση.
+ *
+ * Χρήση: {@code ColumnarScanBenchmark [accounts] [iterations]}
+ */
+public class ColumnarScanBenchmark {
+
+    public static void main(String[] args) {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        ColumnarAccountDAO dao = new ColumnarAccountDAO(new ConcurrentAccountDAOImpl());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < accountCount; i++) {
+            dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + (i % 1000)),
+                    random.nextInt(1_000_000) / 100.0));
+        }
+        double[] bounds = {100, 1_000, 5_000, 9_000};
+
+        System.out.println("query,source,ms_per_scan,gb_per_sec,result");
+        long bytes = 8L * accountCount;
+
+        report("total", "getAll", bytes, iterations, () -> {
+            double total = 0;
+            for (Account account : dao.getAll()) {
+                total += account.getBalance();
+            }
+            return total;
+        });
+        report("total", "columns", bytes, iterations, dao::totalBalance);
+
+        report("count_above", "getAll", bytes, iterations, () -> {
+            int count = 0;
+            for (Account account : dao.getAll()) {
+                if (account.getBalance() > 5_000) count++;
+            }
+            return count;
+        });
+        report("count_above", "columns", bytes, iterations, () -> dao.countAbove(5_000));
+
+        report("histogram", "getAll", bytes, iterations, () -> {
+            long[] counts = new long[bounds.length + 1];
+            for (Account account : dao.getAll()) {
+                int bucket = 0;
+                while (bucket < bounds.length && account.getBalance() >= bounds[bucket]) bucket++;
+                counts[bucket]++;
+            }
+            return counts[2];
+        });
+        report("histogram", "columns", bytes, iterations, () -> dao.balanceHistogram(bounds)[2]);
+    }
+
+    /**
+     * Εκτελεί μια αναφορά επανειλημμένα και τυπώνει τον μέσο χρόνο.
+     */
+    private static void report(String query, String source, long bytes, int iterations,
+                               Supplier<Object> scan) {
+        Object result = null;
+        for (int i = 0; i < Math.max(5, iterations / 5); i++) {
+            result = scan.get();
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            result = scan.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9 / iterations;
+
+        System.out.printf("%s,%s,%.3f,%.2f,%s%n", query, source, seconds * 1e3, bytes / seconds / 1e9, result);
+    }
+}
@@ -0,0 +1,111 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.InsufficientBalanceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded έλεγχος throughput και ορθότητας για deposit/withdraw
+ * πάνω στο {@link ConcurrentAccountDAOImpl}.
+ *
+ * Για κάθε πλήθος threads (1, 2, 4, ... έως τον αριθμό των πυρήνων) εκτελεί
+ * τυχαίες καταθέσεις και αναλήψεις για σταθερό χρόνο, τυπώνει ops/sec και
+ * ελέγχει ότι το συνολικό υπόλοιπο είναι ακριβώς το αναμενόμενο (καμία χαμένη ενημέρωση).
+ *
+ * Χρήση: {@code ConcurrentThroughputBenchmark [accounts] [secondsPerRun]}
+ */
+public class ConcurrentThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("threads,ops_per_sec,declines,balance_ok");
+        boolean allOk = true;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            allOk &= run(accountCount, threads, seconds);
+        }
+
+        if (!allOk) {
+            System.err.println("Lost updates detected.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Εκτελεί ένα run με συγκεκριμένο αριθμό threads.
+     *
+     * @return true αν το τελικό συνολικό υπόλοιπο είναι το αναμενόμενο
+     */
+    private static boolean run(int accountCount, int threads, int seconds) throws InterruptedException {
+        IAccountDAO dao = new ConcurrentAccountDAOImpl();
+        IAccountService service = new AccountServiceImpl(dao);
+
+        List<Account> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 100)));
+        }
+        double initialTotal = 100.0 * accountCount;
+
+        LongAdder ops = new LongAdder();
+        LongAdder declines = new LongAdder();
+        LongAdder netAmount = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        int i = random.nextInt(accountCount);
+                        Account account = accounts.get(i);
+                        try {
+                            if (random.nextBoolean()) {
+                                service.deposit(account.getUuid(), 1);
+                                netAmount.add(1);
+                            } else {
+                                service.withdraw("GR" + i, "SSN" + i, 1);
+                                netAmount.add(-1);
+                            }
+                        } catch (InsufficientBalanceException e) {
+                            declines.increment();
+                        }
+                        ops.increment();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        double total = 0;
+        for (Account account : dao.getAll()) {
+            total += account.getBalance();
+        }
+        boolean ok = total == initialTotal + netAmount.sum();
+
+        System.out.printf("%d,%.0f,%d,%b%n", threads, ops.sum() / elapsed, declines.sum(), ok);
+        return ok;
+    }
+}
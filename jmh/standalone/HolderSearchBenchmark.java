@@ -0,0 +1,96 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.search.HolderSearchDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.metrics.LatencyHistogram;
+
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Καθυστέρηση των αναζητήσεων του {@link HolderSearchDAO} (prefix και fuzzy) σε μεγάλο
+ * πλήθος κατόχων με συνθετικά ονόματα από συλλαβές.
+ *
+ * Το κόστος των αναζητήσεων εξαρτάται από το πλήθος των διαφορετικών ονομάτων και όχι
+ * από το πλήθος των κατόχων, οπότε, όπως στα πραγματικά δεδομένα, τα επώνυμα επιλέγονται
+ * με ανισοκατανομή από ένα σύνολο διαφορετικών επωνύμων (ένα ανά 50 κατόχους).
+ *
+ * Για κάθε είδος αναζήτησης τυπώνει p50/p99/max σε μικροδευτερόλεπτα και το μέσο
+ * πλήθος αποτελεσμάτων.
+ *
+ * Χρήση: {@code HolderSearchBenchmark [holders] [queries]}
+ */
+public class HolderSearchBenchmark {
+    private static final String[] SYLLABLES = {
+            "pa", "pa", "do", "pou", "los", "ni", "ko", "ge", "or", "gi", "ou", "ma", "ri", "el", "ka",
+            "ra", "the", "o", "dor", "vla", "chos", "lia", "kos", "sta", "mi", "tsi", "zis", "an", "dre"
+    };
+
+    public static void main(String[] args) {
+        int holderCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Random random = new Random(42);
+        HolderSearchDAO dao = new HolderSearchDAO(new OffHeapAccountDAOImpl());
+        String[] lastnames = new String[Math.max(1_000, holderCount / 50)];
+        for (int i = 0; i < lastnames.length; i++) {
+            lastnames[i] = name(random, 3 + random.nextInt(3));
+        }
+        String[] firstnames = new String[2_000];
+        for (int i = 0; i < firstnames.length; i++) {
+            firstnames[i] = name(random, 2 + random.nextInt(2));
+        }
+
+        for (int i = 0; i < holderCount; i++) {
+            double skew = random.nextDouble();
+            String lastname = lastnames[(int) (skew * skew * lastnames.length)];
+            String firstname = firstnames[random.nextInt(firstnames.length)];
+            dao.insert(new Account("GR" + i, new User(firstname, lastname, "SSN" + i), 0));
+        }
+
+        System.out.println("query,p50_us,p99_us,max_us,avg_results");
+        report("prefix", queryCount, i -> {
+            String lastname = lastnames[random.nextInt(lastnames.length)];
+            return dao.searchByPrefix(lastname.substring(0, Math.min(5, lastname.length())), 20).size();
+        });
+        report("fuzzy", queryCount, i -> dao.searchFuzzy(typo(random, lastnames[random.nextInt(lastnames.length)]), 20).size());
+    }
+
+    /**
+     * Εκτελεί τις αναζητήσεις και τυπώνει τα percentiles της καθυστέρησης.
+     */
+    private static void report(String query, int queryCount, IntFunction<Integer> search) {
+        for (int i = 0; i < queryCount / 5; i++) {
+            search.apply(i);
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long results = 0;
+        for (int i = 0; i < queryCount; i++) {
+            long start = System.nanoTime();
+            results += search.apply(i);
+            latency.record(System.nanoTime() - start);
+        }
+
+        System.out.printf("%s,%.1f,%.1f,%.1f,%.1f%n", query, latency.valueAtPercentile(50) / 1e3,
+                latency.valueAtPercentile(99) / 1e3, latency.max() / 1e3, (double) results / queryCount);
+    }
+
+    private static String name(Random random, int syllables) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    /** Αντικαθιστά ένα τυχαίο γράμμα, όπως ένα τυπογραφικό λάθος. */
+    private static String typo(Random random, String name) {
+        char[] chars = name.toCharArray();
+        chars[1 + random.nextInt(chars.length - 1)] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+}
@@ -0,0 +1,85 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IdempotentAccountService;
+import gr.aueb.cf.ch18.bankapp.service.idempotency.IdempotencyCache;
+
+/**
+ * Μέτρηση του κόστους του {@link IdempotentAccountService}: throughput καταθέσεων χωρίς κλειδί,
+ * με νέο κλειδί ανά κατάθεση και με επανάληψη (replay) κλειδιών που έχουν ήδη εκτελεστεί,
+ * για διάφορα πλήθη threads.
+ *
+ * Χρήση: {@code IdempotencyBenchmark [accounts] [depositsPerThread] [maxThreads]}
+ */
+public class IdempotencyBenchmark {
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int depositsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        IAccountDAO dao = new ConcurrentAccountDAOImpl();
+        String[] uuids = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            uuids[i] = dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 0)).getUuid();
+        }
+
+        System.out.println("mode,threads,deposits_per_sec,cached_keys");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (int run = 0; run < 2; run++) {
+                // Όριο πλήθους με περιθώριο για την άνιση κατανομή στα segments, ώστε να μη μετρά η απομάκρυνση
+                IdempotencyCache cache = new IdempotencyCache((int) Math.min(Integer.MAX_VALUE,
+                        2L * threads * depositsPerThread), IdempotencyCache.DEFAULT_TTL_MILLIS,
+                        IdempotencyCache.DEFAULT_SEGMENTS, System::nanoTime);
+                IdempotentAccountService service = new IdempotentAccountService(new AccountServiceImpl(dao), cache);
+
+                run("none", threads, depositsPerThread, cache, (t, i) ->
+                        sink = service.deposit(null, uuids[i % accountCount], 1));
+                run("key", threads, depositsPerThread, cache, (t, i) ->
+                        sink = service.deposit(t + "-" + i, uuids[i % accountCount], 1));
+                run("replay", threads, depositsPerThread, cache, (t, i) ->
+                        sink = service.deposit(t + "-" + i, uuids[i % accountCount], 1));
+            }
+        }
+    }
+
+    /**
+     * Εκτελεί {@code depositsPerThread} καταθέσεις σε κάθε thread και τυπώνει το συνολικό throughput.
+     */
+    private static void run(String mode, int threads, int depositsPerThread, IdempotencyCache cache, Deposit deposit)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        deposit.run(thread, i);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        System.out.printf("%s,%d,%.0f,%d%n", mode, threads, (long) threads * depositsPerThread / elapsed, cache.size());
+    }
+
+    /**
+     * Η κατάθεση που εκτελεί το thread {@code thread} στην επανάληψη {@code i}.
+     */
+    @FunctionalInterface
+    private interface Deposit {
+        void run(int thread, int i) throws Exception;
+    }
+}
@@ -0,0 +1,65 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+import gr.aueb.cf.ch18.bankapp.service.InstrumentedAccountService;
+import gr.aueb.cf.ch18.bankapp.service.metrics.LatencyHistogram;
+
+/**
+ * Μέτρηση του κόστους του {@link InstrumentedAccountService}: χρόνος ανά κατάθεση
+ * με και χωρίς instrumentation, και κόστος μιας καταγραφής στο {@link LatencyHistogram}.
+ *
+ * Στο τέλος τυπώνει τις μετρήσεις του instrumented service σε μορφή κειμένου.
+ *
+ * Χρήση: {@code InstrumentationOverheadBenchmark [accounts] [iterations]}
+ */
+public class InstrumentationOverheadBenchmark {
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+
+        IAccountDAO dao = new ConcurrentAccountDAOImpl();
+        String[] uuids = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            uuids[i] = dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 0)).getUuid();
+        }
+        IAccountService plain = new AccountServiceImpl(dao);
+        InstrumentedAccountService instrumented = new InstrumentedAccountService(plain);
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        System.out.println("run,plain_ns,instrumented_ns,overhead_ns,histogram_record_ns");
+        for (int run = 1; run <= 5; run++) {
+            double plainNs = deposits(plain, uuids, iterations);
+            double instrumentedNs = deposits(instrumented, uuids, iterations);
+
+            long begin = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                histogram.record(i & 0xFFFF);
+            }
+            double recordNs = (double) (System.nanoTime() - begin) / iterations;
+
+            System.out.printf("%d,%.1f,%.1f,%.1f,%.1f%n", run, plainNs, instrumentedNs,
+                    instrumentedNs - plainNs, recordNs);
+        }
+
+        System.out.print(instrumented.getMetrics().dump());
+    }
+
+    /**
+     * Εκτελεί καταθέσεις και επιστρέφει τον μέσο χρόνο ανά κατάθεση σε nanoseconds.
+     */
+    private static double deposits(IAccountService service, String[] uuids, int iterations) throws Exception {
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = service.deposit(uuids[i % uuids.length], 1);
+        }
+        return (double) (System.nanoTime() - begin) / iterations;
+    }
+}
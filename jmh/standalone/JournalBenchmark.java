@@ -0,0 +1,103 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.journal.AccountJournal;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournalDurability;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournaledAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Μέτρηση commit latency και replay throughput του {@link AccountJournal}.
+ *
+ * Για κάθε {@link JournalDurability} και πλήθος threads εκτελεί καταθέσεις μέσω ενός
+ * {@link JournaledAccountDAO} και τυπώνει throughput και latency ανά κατάθεση (p50/p99/max).
+ * Στη συνέχεια αναπαράγει το journal σε νέο store και τυπώνει εγγραφές/sec.
+ *
+ * Χρήση: {@code JournalBenchmark [accounts] [opsPerThread] [maxThreads]}
+ */
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        System.out.println("durability,threads,ops_per_sec,p50_us,p99_us,max_us,replay_records_per_sec");
+        for (JournalDurability durability : JournalDurability.values()) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                run(durability, accountCount, threads, opsPerThread);
+            }
+        }
+    }
+
+    private static void run(JournalDurability durability, int accountCount, int threads, int opsPerThread)
+            throws Exception {
+        Path file = Files.createTempFile("account-journal", ".bin");
+        try {
+            List<String> uuids = new ArrayList<>(accountCount);
+            long[][] latencies = new long[threads][opsPerThread];
+            double elapsed;
+
+            try (JournaledAccountDAO dao = new JournaledAccountDAO(new ConcurrentAccountDAOImpl(),
+                    new AccountJournal(file, durability))) {
+                IAccountService service = new AccountServiceImpl(dao);
+                for (int i = 0; i < accountCount; i++) {
+                    uuids.add(dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 0)).getUuid());
+                }
+                dao.sync();
+
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    long[] samples = latencies[t];
+                    workers[t] = new Thread(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        try {
+                            for (int op = 0; op < opsPerThread; op++) {
+                                String uuid = uuids.get(random.nextInt(accountCount));
+                                long begin = System.nanoTime();
+                                service.deposit(uuid, 1);
+                                samples[op] = System.nanoTime() - begin;
+                            }
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    });
+                }
+
+                long begin = System.nanoTime();
+                for (Thread worker : workers) worker.start();
+                for (Thread worker : workers) worker.join();
+                dao.sync();
+                elapsed = (System.nanoTime() - begin) / 1e9;
+            }
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+
+            long replayBegin = System.nanoTime();
+            long records;
+            try (AccountJournal journal = new AccountJournal(file, JournalDurability.PER_BATCH)) {
+                records = journal.replay(new ConcurrentAccountDAOImpl());
+            }
+            double replayElapsed = (System.nanoTime() - replayBegin) / 1e9;
+
+            System.out.printf("%s,%d,%.0f,%.1f,%.1f,%.1f,%.0f%n", durability, threads,
+                    all.length / elapsed,
+                    all[all.length / 2] / 1e3,
+                    all[(int) (all.length * 0.99)] / 1e3,
+                    all[all.length - 1] / 1e3,
+                    records / replayElapsed);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.ledger.BalanceExtract;
+import gr.aueb.cf.ch18.bankapp.dao.ledger.LedgerAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.ledger.LedgerReports;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Μέτρηση του κόστους του {@link LedgerAccountDAO}: throughput και bytes ανά κατάθεση με
+ * και χωρίς ledger, καθυστέρηση των ερωτημάτων χρονικού διαστήματος, τελευταίων N εγγραφών
+ * και υπολοίπου σε παλαιότερη στιγμή σε λογαριασμούς με πολλές εγγραφές, και διάρκεια της
+ * παράλληλης κατάστασης υπολοίπων ({@link LedgerReports}) για όλους τους λογαριασμούς.
+ *
+ * Το ρολόι του ledger προχωρά 1 ms ανά εγγραφή, ώστε τα χρονικά διαστήματα να αντιστοιχούν
+ * σε γνωστό πλήθος εγγραφών.
+ *
+ * Χρήση: {@code LedgerBenchmark [accounts] [depositsPerAccount] [queries]}
+ */
+public class LedgerBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int depositsPerAccount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        System.out.println("dao,deposits_per_sec,bytes_per_deposit");
+        deposits("plain", new ConcurrentAccountDAOImpl(), accountCount, depositsPerAccount);
+
+        long[] now = {0};
+        LedgerAccountDAO ledgerDao = new LedgerAccountDAO(new ConcurrentAccountDAOImpl(), () -> now[0]++);
+        String[] uuids = deposits("ledger", ledgerDao, accountCount, depositsPerAccount);
+
+        System.out.println("query,entries,micros_per_query");
+        long span = now[0];
+        for (int window : new int[] {10, 100, 1_000}) {
+            int entries = 0;
+            long begin = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                long from = (i * 7919L) % Math.max(1, span - window * (long) accountCount);
+                // Κάθε λογαριασμός γράφει μία εγγραφή ανά accountCount ms
+                entries += ledgerDao.getEntries(uuids[i % accountCount], from, from + window * (long) accountCount).size();
+            }
+            System.out.printf("range,%.1f,%.3f%n", (double) entries / queries,
+                    (System.nanoTime() - begin) / 1e3 / queries);
+        }
+        for (int n : new int[] {10, 100}) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink = ledgerDao.getLastEntries(uuids[i % accountCount], n);
+            }
+            System.out.printf("last,%d,%.3f%n", n, (System.nanoTime() - begin) / 1e3 / queries);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            sink = ledgerDao.getEntryAt(uuids[i % accountCount], (i * 7919L) % span);
+        }
+        System.out.printf("asOf,1,%.3f%n", (System.nanoTime() - begin) / 1e3 / queries);
+
+        LedgerReports reports = new LedgerReports(ledgerDao);
+        System.out.println("extract,accounts,millis");
+        for (int run = 0; run < 3; run++) {
+            begin = System.nanoTime();
+            BalanceExtract extract = reports.balancesAt(span / 2);
+            System.out.printf("extract,%d,%.1f%n", extract.size(), (System.nanoTime() - begin) / 1e6);
+        }
+    }
+
+    /**
+     * Εκτελεί καταθέσεις κυκλικά σε όλους τους λογαριασμούς και τυπώνει throughput και bytes ανά κατάθεση.
+     *
+     * @return τα UUIDs των λογαριασμών
+     */
+    private static String[] deposits(String name, IAccountDAO dao, int accountCount, int depositsPerAccount)
+            throws Exception {
+        String[] uuids = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            uuids[i] = dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 0)).getUuid();
+        }
+        IAccountService service = new AccountServiceImpl(dao);
+
+        long total = (long) accountCount * depositsPerAccount;
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long begin = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            sink = service.deposit(uuids[(int) (i % accountCount)], 1);
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%s,%.0f,%.1f%n", name, total / elapsed, (double) allocated / total);
+        return uuids;
+    }
+}
@@ -0,0 +1,108 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Σύγκριση heap footprint και χρόνου GC μεταξύ {@link ConcurrentAccountDAOImpl}
+ * (λογαριασμοί ως αντικείμενα στο heap) και {@link OffHeapAccountDAOImpl}.
+ *
+ * Για κάθε DAO εισάγει τους λογαριασμούς, μετρά heap και direct μνήμη μετά από GC,
+ * και στη συνέχεια εκτελεί τυχαίες αναζητήσεις βάσει IBAN και καταθέσεις για σταθερό
+ * χρόνο, μετρώντας ops/sec, πλήθος και συνολικό χρόνο των GC, και τον χρόνο ενός full GC.
+ *
+ * Για καθαρές μετρήσεις κάθε DAO καλό είναι να τρέχει σε ξεχωριστό JVM.
+ *
+ * Χρήση: {@code OffHeapFootprintBenchmark [heap|offheap|both] [accounts] [seconds]}
+ */
+public class OffHeapFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String which = args.length > 0 ? args[0] : "both";
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.println("dao,accounts,heap_mb,direct_mb,ops_per_sec,gc_count,gc_ms,full_gc_ms");
+        if (!which.equals("offheap")) run("heap", new ConcurrentAccountDAOImpl(), accountCount, seconds);
+        if (!which.equals("heap")) run("offheap", new OffHeapAccountDAOImpl(), accountCount, seconds);
+    }
+
+    /**
+     * Εκτελεί τις μετρήσεις για ένα DAO.
+     */
+    private static void run(String name, IAccountDAO dao, int accountCount, int seconds) throws Exception {
+        IAccountService service = new AccountServiceImpl(dao);
+        for (int i = 0; i < accountCount; i++) {
+            dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 100));
+        }
+
+        long heap = usedHeapAfterGc();
+        long direct = directMemory();
+
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long ops = 0;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long begin = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Account account = service.getAccountByIban("GR" + random.nextInt(accountCount));
+            service.deposit(account.getUuid(), 1);
+            ops++;
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+
+        long fullGcStart = System.nanoTime();
+        System.gc();
+        double fullGcMs = (System.nanoTime() - fullGcStart) / 1e6;
+
+        System.out.printf("%s,%d,%.1f,%.1f,%.0f,%d,%d,%.1f%n", name, accountCount,
+                heap / 1048576.0, direct / 1048576.0, ops / elapsed, gcCount, gcTime, fullGcMs);
+        Reference.reachabilityFence(dao);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) used += pool.getMemoryUsed();
+        }
+        return used;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
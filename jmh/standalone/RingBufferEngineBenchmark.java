@@ -0,0 +1,127 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionType;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.StripedLocks;
+import gr.aueb.cf.ch18.bankapp.service.engine.RingBufferTransactionEngine;
+import gr.aueb.cf.ch18.bankapp.service.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput και καθυστέρηση κινήσεων (καταθέσεις και αναλήψεις) σε λίγους "hot" λογαριασμούς,
+ * με πολλούς producers ταυτόχρονα:
+ * <ul>
+ *     <li>{@code locked}: {@code AccountServiceImpl.applyBatch} με μία κίνηση, που κλειδώνει
+ *     το stripe του λογαριασμού</li>
+ *     <li>{@code cas}: {@code AccountServiceImpl.tryDeposit}/{@code tryWithdraw} (CAS χωρίς lock)</li>
+ *     <li>{@code ring}: {@link RingBufferTransactionEngine}, με έως {@code window} κινήσεις
+ *     σε εξέλιξη ανά producer</li>
+ * </ul>
+ * Τυπώνει κινήσεις ανά δευτερόλεπτο και p50/p99/max της καθυστέρησης ανά κίνηση σε μικροδευτερόλεπτα.
+ *
+ * Χρήση: {@code RingBufferEngineBenchmark [producers] [postingsPerProducer] [hotAccounts] [partitions] [window]}
+ */
+public class RingBufferEngineBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int postings = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int hotAccounts = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int partitions = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int window = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        IAccountDAO dao = new ConcurrentAccountDAOImpl();
+        String[] uuids = new String[hotAccounts];
+        String[] ibans = new String[hotAccounts];
+        for (int i = 0; i < hotAccounts; i++) {
+            Account account = new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 1_000_000);
+            dao.insert(account);
+            uuids[i] = account.getUuid();
+            ibans[i] = account.getIban();
+        }
+        AccountServiceImpl service = new AccountServiceImpl(dao, new StripedLocks());
+
+        System.out.println("engine,producers,postings,postings_per_sec,p50_us,p99_us,max_us");
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+
+            run("locked", producers, postings, print, (i, latency) -> {
+                int account = ThreadLocalRandom.current().nextInt(hotAccounts);
+                TransactionType type = i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW;
+                long start = System.nanoTime();
+                service.applyBatch(Collections.singletonList(new TransactionCommand(type, ibans[account], "SSN" + account, 1)));
+                latency.record(System.nanoTime() - start);
+            });
+
+            run("cas", producers, postings, print, (i, latency) -> {
+                int account = ThreadLocalRandom.current().nextInt(hotAccounts);
+                long start = System.nanoTime();
+                if (i % 2 == 0) {
+                    service.tryDeposit(uuids[account], 1);
+                } else {
+                    service.tryWithdraw(ibans[account], "SSN" + account, 1);
+                }
+                latency.record(System.nanoTime() - start);
+            });
+
+            RingBufferTransactionEngine engine = new RingBufferTransactionEngine(dao, partitions, RingBufferTransactionEngine.DEFAULT_RING_SIZE);
+            ThreadLocal<Semaphore> windows = ThreadLocal.withInitial(() -> new Semaphore(window));
+            run("ring", producers, postings, print, (i, latency) -> {
+                Semaphore inFlight = windows.get();
+                inFlight.acquireUninterruptibly();
+
+                int account = ThreadLocalRandom.current().nextInt(hotAccounts);
+                long start = System.nanoTime();
+                (i % 2 == 0 ? engine.deposit(uuids[account], 1) : engine.withdraw(ibans[account], "SSN" + account, 1))
+                        .whenComplete((result, e) -> {
+                            latency.record(System.nanoTime() - start);
+                            inFlight.release();
+                        });
+                if (i == postings - 1) inFlight.acquireUninterruptibly(window);
+            });
+            engine.close();
+        }
+    }
+
+    /**
+     * Εκτελεί {@code postings} κινήσεις από κάθε producer και τυπώνει τα αποτελέσματα.
+     */
+    private static void run(String engine, int producers, int postings, boolean print, Posting posting)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        CountDownLatch done = new CountDownLatch(producers);
+
+        long begin = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < postings; i++) {
+                    posting.post(i, latency);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        if (print) {
+            System.out.printf("%s,%d,%d,%.0f,%.1f,%.1f,%.1f%n", engine, producers, (long) producers * postings,
+                    producers * postings / seconds, latency.valueAtPercentile(50) / 1e3,
+                    latency.valueAtPercentile(99) / 1e3, latency.max() / 1e3);
+        }
+    }
+
+    /** Μία κίνηση ενός producer. */
+    @FunctionalInterface
+    private interface Posting {
+        void post(int index, LatencyHistogram latency);
+    }
+}
@@ -0,0 +1,144 @@
+package gr.aueb.cf.ch18.bankapp.jmh.standalone;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.sharded.ShardedAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.AccountServiceImpl;
+import gr.aueb.cf.ch18.bankapp.service.IAccountService;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.InsufficientBalanceException;
+import gr.aueb.cf.ch18.bankapp.service.transfer.CrossShardTransferCoordinator;
+import gr.aueb.cf.ch18.bankapp.service.transfer.TransferIntentLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded έλεγχος throughput για {@link IAccountService#transfer(String, String, double)}.
+ *
+ * Τα threads μεταφέρουν χρήματα μεταξύ τυχαίων λογαριασμών ενός μικρού, κοινού συνόλου
+ * (ώστε να υπάρχει επικάλυψη και ανταγωνισμός για τα ίδια locks). Στο τέλος ελέγχεται
+ * ότι το συνολικό υπόλοιπο διατηρήθηκε και ότι κανένα υπόλοιπο δεν είναι αρνητικό.
+ *
+ * Με {@code sharded}, οι λογαριασμοί μοιράζονται σε {@code shards} shards και οι μεταφορές
+ * εκτελούνται από τον {@link CrossShardTransferCoordinator} (δύο φάσεις με fsync του intent log
+ * για μεταφορές μεταξύ shards, απευθείας εκτέλεση μέσα στο ίδιο shard).
+ *
+ * Χρήση: {@code TransferThroughputBenchmark [accounts] [secondsPerRun] [service|sharded] [shards]}
+ */
+public class TransferThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        boolean sharded = args.length > 2 && args[2].equals("sharded");
+        int shards = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("threads,transfers_per_sec,declines,balance_ok");
+        boolean allOk = true;
+        for (int threads = 1; threads <= Math.max(cores, 2); threads *= 2) {
+            allOk &= run(accountCount, threads, seconds, sharded ? shards : 0);
+        }
+
+        if (!allOk) {
+            System.err.println("Balance invariant violated.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Εκτελεί ένα run με συγκεκριμένο αριθμό threads.
+     *
+     * @param shards το πλήθος των shards, ή 0 για {@link AccountServiceImpl} χωρίς shards
+     * @return true αν το συνολικό υπόλοιπο διατηρήθηκε
+     */
+    private static boolean run(int accountCount, int threads, int seconds, int shards)
+            throws InterruptedException, IOException {
+        IAccountDAO dao;
+        Transfers service;
+        Path logFile = null;
+        TransferIntentLog log = null;
+
+        if (shards > 0) {
+            ShardedAccountDAO shardedDao = new ShardedAccountDAO(shards);
+            logFile = Files.createTempFile("transfer-intents", ".log");
+            log = new TransferIntentLog(logFile);
+            dao = shardedDao;
+            service = new CrossShardTransferCoordinator(shardedDao, log)::transfer;
+        } else {
+            dao = new ConcurrentAccountDAOImpl();
+            service = new AccountServiceImpl(dao)::transfer;
+        }
+
+        for (int i = 0; i < accountCount; i++) {
+            dao.insert(new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), 1000));
+        }
+        long initialTotal = 1000L * 100 * accountCount;
+
+        LongAdder transfers = new LongAdder();
+        LongAdder declines = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        int from = random.nextInt(accountCount);
+                        int to = random.nextInt(accountCount - 1);
+                        if (to >= from) to++;
+                        try {
+                            service.transfer("GR" + from, "GR" + to, random.nextInt(1, 50));
+                        } catch (InsufficientBalanceException e) {
+                            declines.increment();
+                        }
+                        transfers.increment();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        long total = 0;
+        boolean nonNegative = true;
+        for (Account account : dao.getAll()) {
+            total += account.getBalanceMinor();
+            nonNegative &= account.getBalanceMinor() >= 0;
+        }
+        boolean ok = nonNegative && total == initialTotal;
+
+        System.out.printf("%d,%.0f,%d,%b%n", threads, transfers.sum() / elapsed, declines.sum(), ok);
+
+        if (log != null) {
+            log.close();
+            Files.deleteIfExists(logFile);
+        }
+        return ok;
+    }
+
+    /**
+     * Η μεταφορά που μετράται ({@link IAccountService#transfer} ή
+     * {@link CrossShardTransferCoordinator#transfer}).
+     */
+    @FunctionalInterface
+    private interface Transfers {
+        void transfer(String fromIban, String toIban, double amount) throws Exception;
+    }
+}
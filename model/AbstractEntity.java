@@ -1,20 +1,81 @@
 package gr.aueb.cf.ch18.bankapp.model;
 
-import java.util.UUID;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
 
 /**
  *  Abstract κλάση που παρέχει βασική υλοποίηση του {@link IdentifiableEntity}.
  *
  *  Παρέχει βασικές μεθόδους για την πρόσβαση και τροποποίηση του UUID.
+ *
+ *  Το αναγνωριστικό ({@link EntityId}) δημιουργείται από τον {@link IdGenerator} μόνο την
+ *  πρώτη φορά που ζητηθεί, οπότε entities που παίρνουν αμέσως UUID με {@link #setUuid(String)}
+ *  ή μέσω copy constructor δεν δημιουργούν αναγνωριστικό που θα πεταχτεί.
  */
 public abstract class AbstractEntity implements IdentifiableEntity {
-    private String uuid;
+    /** VarHandle για την ατομική δημιουργία του αναγνωριστικού. */
+    private static final VarHandle ID;
+
+    static {
+        try {
+            ID = MethodHandles.lookup().findVarHandle(AbstractEntity.class, "id", EntityId.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static volatile IdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+    private EntityId id;
 
     /**
      *Default Constructor
      */
     public AbstractEntity() {
-        uuid = UUID.randomUUID().toString();
+
+    }
+
+    /**
+     * Copy constructor.
+     * Το αντίγραφο μοιράζεται το (αμετάβλητο) αναγνωριστικό του entity.
+     *
+     * @param entity το entity προς αντιγραφή
+     */
+    protected AbstractEntity(AbstractEntity entity) {
+        this.id = entity.getId();
+    }
+
+    /**
+     * Ορίζει τον generator των αναγνωριστικών για τα νέα entities.
+     *
+     * @param generator ο generator
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = Objects.requireNonNull(generator);
+    }
+
+    /**
+     * Επιστρέφει το αναγνωριστικό του entity, δημιουργώντας το αν δεν υπάρχει ακόμη.
+     *
+     * @return το αναγνωριστικό
+     */
+    public EntityId getId() {
+        EntityId current = id;
+        if (current != null) return current;
+
+        EntityId generated = idGenerator.next();
+        EntityId witness = (EntityId) ID.compareAndExchange(this, null, generated);
+        return witness == null ? generated : witness;
+    }
+
+    /**
+     * Θέτει το αναγνωριστικό του entity.
+     *
+     * @param id το νέο αναγνωριστικό
+     */
+    public void setId(EntityId id) {
+        this.id = id;
     }
 
     /**
@@ -24,7 +85,7 @@ public abstract class AbstractEntity implements IdentifiableEntity {
      */
     @Override
     public String getUuid() {
-        return uuid;
+        return getId().toString();
     }
 
     /**
@@ -32,6 +93,6 @@ public abstract class AbstractEntity implements IdentifiableEntity {
      * @param uuid το νεο UUID ως String
      */
     public void setUuid(String uuid) {
-        this.uuid = uuid;
+        this.id = uuid == null ? null : EntityId.of(uuid);
     }
 }
@@ -1,5 +1,7 @@
 package gr.aueb.cf.ch18.bankapp.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -11,12 +13,33 @@ import java.util.Optional;
  * Περιέχει IBAN, τον κάτοχο του λογαριασμού ({@link User}) και
  * υπόλοιπο.
  *
+ * Το υπόλοιπο αποθηκεύεται ως ακέραιος αριθμός λεπτών ({@link Money}) ώστε η
+ * αριθμητική να είναι ακριβής, και ενημερώνεται ατομικά μέσω
+ * {@link #compareAndSetBalanceMinor(long, long)} χωρίς εξωτερικό κλείδωμα.
+ * Οι μέθοδοι {@link #getBalance()} και {@link #setBalance(double)} παραμένουν
+ * για συμβατότητα και μετατρέπουν από/προς μονάδες νομίσματος.
+ *
  * Παρέχει copy constructor για ασφαλή αντιγραφή αντικειμένων.
  */
 public class Account extends AbstractEntity{
+    /** VarHandle για ατομικές (CAS) ενημερώσεις του υπολοίπου. */
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String iban;
-    private User holder;
-    private double balance;
+
+    /** Ο κάτοχος, αμετάβλητος ώστε να μοιράζεται με τα αντίγραφα του λογαριασμού. */
+    private ImmutableUser holder;
+
+    /** Το υπόλοιπο σε λεπτά. */
+    private volatile long balance;
 
     /**
      * Default Constructor.
@@ -33,20 +56,21 @@ public class Account extends AbstractEntity{
      */
     public Account(String iban, User holder, double balance) {
         this.iban = iban;
-        this.holder = new User(holder);
-        this.balance = balance;
+        this.holder = ImmutableUser.of(holder);
+        this.balance = Money.toMinor(balance);
     }
 
     /**
      * Copy constructor.
      * Δημιουργεί ένα νέο Account αντιγράφοντας τα πεδία ενός άλλου Account.
+     * Ο κάτοχος και το αναγνωριστικό είναι αμετάβλητα, οπότε μοιράζονται χωρίς αντιγραφή.
      *
      * @param account ο λογαριασμός προς αντιγραφή
      */
     public Account(Account account) {
-        this.setUuid(account.getUuid());
+        super(account);
         this.iban = account.iban;
-        this.holder = new User(account.holder);
+        this.holder = account.holder;
         this.balance = account.balance;
     }
 
@@ -60,26 +84,59 @@ public class Account extends AbstractEntity{
         this.iban = iban;
     }
 
-    /** Επιστρέφει τον κάτοχο του λογαριασμού. */
+    /**
+     * Επιστρέφει αντίγραφο του κατόχου του λογαριασμού.
+     * Για αναγνώσεις χωρίς αντιγραφή χρησιμοποιείται το {@link #getHolderView()}.
+     */
     public User getHolder() {
-        return new User(holder);
+        return holder.toUser();
+    }
+
+    /** Επιστρέφει read-only όψη του κατόχου του λογαριασμού, χωρίς αντιγραφή. */
+    public UserView getHolderView() {
+        return holder;
     }
 
-    /** Θέτει τον κάτοχο του λογαριασμού. */
-    public void setHolder(User holder) {
-        this.holder = new User(holder);
+    /**
+     * Θέτει τον κάτοχο του λογαριασμού.
+     * Αν ο κάτοχος είναι ήδη {@link ImmutableUser} (π.χ. από {@link #getHolderView()}),
+     * μοιράζεται χωρίς αντιγραφή.
+     */
+    public void setHolder(UserView holder) {
+        this.holder = ImmutableUser.of(holder);
     }
 
-    /** Επιστρέφει το υπόλοιπο του λογαριασμού. */
+    /** Επιστρέφει το υπόλοιπο του λογαριασμού σε μονάδες νομίσματος. */
     public double getBalance() {
-        return balance;
+        return Money.toMajor(balance);
     }
 
-    /** Θέτει το υπόλοιπο του λογαριασμού. */
+    /** Θέτει το υπόλοιπο του λογαριασμού σε μονάδες νομίσματος. */
     public void setBalance(double balance) {
+        this.balance = Money.toMinor(balance);
+    }
+
+    /** Επιστρέφει το υπόλοιπο του λογαριασμού σε λεπτά. */
+    public long getBalanceMinor() {
+        return balance;
+    }
+
+    /** Θέτει το υπόλοιπο του λογαριασμού σε λεπτά. */
+    public void setBalanceMinor(long balance) {
         this.balance = balance;
     }
 
+    /**
+     * Ατομική ενημέρωση του υπολοίπου (compare-and-set).
+     *
+     * @param expected το αναμενόμενο τρέχον υπόλοιπο σε λεπτά
+     * @param newBalance το νέο υπόλοιπο σε λεπτά
+     * @return true αν το υπόλοιπο ήταν {@code expected} και ενημερώθηκε, false αλλιώς
+     */
+    public boolean compareAndSetBalanceMinor(long expected, long newBalance) {
+        return BALANCE.compareAndSet(this, expected, newBalance);
+    }
+
     /**
      * Ελέγχει αν δύο αντικείμενα Account είναι ίσα.
      * Σύγκριση γίνεται βάσει IBAN, holder και balance.
@@ -91,7 +148,7 @@ public class Account extends AbstractEntity{
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Account account = (Account) o;
-        return Double.compare(balance, account.balance) == 0 && Objects.equals(iban, account.iban) && Objects.equals(holder, account.holder);
+        return balance == account.balance && Objects.equals(iban, account.iban) && Objects.equals(holder, account.holder);
     }
 
     /**
@@ -114,7 +171,7 @@ public class Account extends AbstractEntity{
                 "uuid=" + getUuid() +
                 ". iban='" + iban + '\'' +
                 ", holder=" + holder +
-                ", balance=" + balance +
+                ", balance=" + getBalance() +
                 '}';
     }
 
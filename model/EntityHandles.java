@@ -0,0 +1,89 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+import java.util.Arrays;
+
+/**
+ * Κατανομή handles αναγνωριστικών ({@link EntityId}) για μία αποθήκη.
+ *
+ * Handle: πυκνός ακέραιος (0, 1, 2, ...) που δίνεται σε ένα αναγνωριστικό όσο βρίσκεται
+ * στην αποθήκη, ώστε η αποθήκη να χρησιμοποιεί θέσεις πίνακα αντί για hashing του
+ * κειμένου. Κάθε αποθήκη έχει τη δική της κατανομή, και τα handles που ελευθερώνονται
+ * με {@link #release(EntityId)} ξαναδίνονται, οπότε το μεγαλύτερο handle μένει κάτω από
+ * το μέγιστο πλήθος αναγνωριστικών που βρέθηκαν ταυτόχρονα στην αποθήκη.
+ *
+ * Το handle κρατιέται στο ίδιο το αναγνωριστικό, οπότε ένα αναγνωριστικό έχει handle
+ * από μία μόνο κατανομή κάθε φορά· οι άλλες αποθήκες το βρίσκουν με hashing.
+ * Δύο ίσα αναγνωριστικά που δημιουργήθηκαν ξεχωριστά (π.χ. από κείμενο) έχουν διαφορετικά
+ * handles, οπότε η αποθήκη πρέπει να επιβεβαιώνει με {@link EntityId#equals(Object)} το
+ * αναγνωριστικό που βρήκε.
+ *
+ * Η κλάση δεν συγχρονίζει η ίδια: οι {@link #acquire(EntityId)} και {@link #release(EntityId)}
+ * καλούνται με αποκλειστική πρόσβαση στην αποθήκη, ενώ η {@link #handleOf(EntityId)} μπορεί
+ * να καλείται ταυτόχρονα όσο δεν αλλάζει η δομή.
+ */
+public final class EntityHandles {
+    /** Το επόμενο handle που δεν έχει δοθεί ποτέ. */
+    private int next;
+
+    /** Στοίβα με τα handles που ελευθερώθηκαν. */
+    private int[] free = new int[16];
+    private int freeCount;
+
+    /**
+     * Δίνει handle στο αναγνωριστικό, ή επιστρέφει αυτό που έχει ήδη από αυτή την κατανομή.
+     *
+     * @param id το αναγνωριστικό
+     * @return το handle, ή -1 αν το αναγνωριστικό έχει handle από άλλη κατανομή
+     * @throws IllegalStateException αν εξαντληθούν τα handles
+     */
+    public int acquire(EntityId id) {
+        int current = handleOf(id);
+        if (current >= 0) return current;
+        if (!id.claimHandleOwner(this)) return -1;
+
+        int handle;
+        if (freeCount > 0) {
+            handle = free[--freeCount];
+        } else {
+            if (next == Integer.MAX_VALUE) {
+                id.releaseHandleOwner();
+                throw new IllegalStateException("Entity handles exhausted");
+            }
+            handle = next++;
+        }
+        id.setHandle(handle);
+        return handle;
+    }
+
+    /**
+     * Επιστρέφει το handle του αναγνωριστικού από αυτή την κατανομή, χωρίς να δώσει νέο.
+     *
+     * @param id το αναγνωριστικό
+     * @return το handle, ή -1 αν δεν έχει handle από αυτή την κατανομή
+     */
+    public int handleOf(EntityId id) {
+        return id.handleOwner() == this ? id.handle() : -1;
+    }
+
+    /**
+     * Ελευθερώνει το handle του αναγνωριστικού, ώστε να δοθεί σε επόμενο αναγνωριστικό.
+     * Αν το αναγνωριστικό δεν έχει handle από αυτή την κατανομή, δεν γίνεται τίποτα.
+     *
+     * @param id το αναγνωριστικό
+     */
+    public void release(EntityId id) {
+        int handle = handleOf(id);
+        if (handle < 0) return;
+
+        id.releaseHandleOwner();
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = handle;
+    }
+
+    /**
+     * Επιστρέφει ένα όριο για τα handles που έχουν δοθεί: όλα είναι μικρότερα από αυτό.
+     */
+    public int limit() {
+        return next;
+    }
+}
@@ -0,0 +1,197 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Αμετάβλητο αναγνωριστικό entity, σε μορφή UUID αποθηκευμένη ως δύο {@code long}.
+ *
+ * Η μορφή κειμένου (36 χαρακτήρες) δημιουργείται μόνο όταν ζητηθεί ({@link #toString()})
+ * και κρατιέται για τις επόμενες κλήσεις. Τα αντίγραφα ενός entity μοιράζονται το ίδιο
+ * {@code EntityId}, οπότε ούτε η μορφή κειμένου ούτε το handle υπολογίζονται ξανά.
+ *
+ * Κείμενο που δεν είναι UUID σε κανονική μορφή (πεζά hex) κρατιέται αυτούσιο, ώστε
+ * {@code EntityId.of(text).toString()} να επιστρέφει πάντα το ίδιο κείμενο.
+ *
+ * Το αναγνωριστικό κρατά επίσης το handle που του έδωσε μια αποθήκη μέσω της δικής της
+ * {@link EntityHandles}, όσο βρίσκεται σε αυτή.
+ */
+public final class EntityId implements Comparable<EntityId> {
+    /** VarHandle για την ατομική ανάθεση της κατανομής του handle. */
+    private static final VarHandle HANDLE_OWNER;
+
+    static {
+        try {
+            HANDLE_OWNER = MethodHandles.lookup().findVarHandle(EntityId.class, "handleOwner", EntityHandles.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int LENGTH = 36;
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    /** Το κείμενο, μόνο για αναγνωριστικά που δεν έχουν μορφή UUID. */
+    private final String opaque;
+
+    /** Η μορφή κειμένου, μετά την πρώτη κλήση του {@link #toString()}. */
+    private String text;
+
+    /** Η κατανομή που έδωσε το handle, ή null αν δεν έχει handle. */
+    private volatile EntityHandles handleOwner;
+
+    /** Το handle από την {@link #handleOwner}. */
+    private volatile int handle;
+
+    /**
+     * Δημιουργεί αναγνωριστικό από τα 128 bits ενός UUID.
+     *
+     * @param mostSignificantBits τα υψηλά 64 bits
+     * @param leastSignificantBits τα χαμηλά 64 bits
+     */
+    public EntityId(long mostSignificantBits, long leastSignificantBits) {
+        this(mostSignificantBits, leastSignificantBits, null);
+    }
+
+    private EntityId(long mostSignificantBits, long leastSignificantBits, String opaque) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.opaque = opaque;
+        this.text = opaque;
+    }
+
+    /**
+     * Δημιουργεί αναγνωριστικό από κείμενο. Ένα UUID σε κανονική μορφή
+     * ({@code xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx}, πεζά hex) αποθηκεύεται ως δύο {@code long}·
+     * οποιοδήποτε άλλο κείμενο κρατιέται αυτούσιο.
+     *
+     * @param text το αναγνωριστικό
+     * @return το αναγνωριστικό
+     */
+    public static EntityId of(String text) {
+        if (text.length() != LENGTH) return new EntityId(0, 0, text);
+
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int digits = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return new EntityId(0, 0, text);
+                continue;
+            }
+
+            int value = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+            if (value < 0) return new EntityId(0, 0, text);
+
+            if (digits++ < 16) {
+                mostSignificantBits = mostSignificantBits << 4 | value;
+            } else {
+                leastSignificantBits = leastSignificantBits << 4 | value;
+            }
+        }
+        return new EntityId(mostSignificantBits, leastSignificantBits);
+    }
+
+    /** Επιστρέφει τα υψηλά 64 bits (0 για αναγνωριστικό που δεν είναι UUID). */
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    /** Επιστρέφει τα χαμηλά 64 bits (0 για αναγνωριστικό που δεν είναι UUID). */
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /** Επιστρέφει την κατανομή που έδωσε το handle, ή null. */
+    EntityHandles handleOwner() {
+        return handleOwner;
+    }
+
+    /** Επιστρέφει το handle από την {@link #handleOwner()}. */
+    int handle() {
+        return handle;
+    }
+
+    /**
+     * Δεσμεύει το αναγνωριστικό για την κατανομή, αν δεν έχει handle από άλλη.
+     *
+     * @return true αν η κατανομή μπορεί να δώσει handle
+     */
+    boolean claimHandleOwner(EntityHandles owner) {
+        return HANDLE_OWNER.compareAndSet(this, null, owner) || handleOwner == owner;
+    }
+
+    /** Ορίζει το handle, αφού δεσμευτεί το αναγνωριστικό. */
+    void setHandle(int handle) {
+        this.handle = handle;
+    }
+
+    /** Αποδεσμεύει το αναγνωριστικό από την κατανομή του. */
+    void releaseHandleOwner() {
+        handleOwner = null;
+    }
+
+    /**
+     * Σύγκριση με τη σειρά της μορφής κειμένου: για UUIDs ανυπόγραφη σύγκριση των bits,
+     * χωρίς δημιουργία κειμένου.
+     */
+    @Override
+    public int compareTo(EntityId other) {
+        if (opaque != null || other.opaque != null) return toString().compareTo(other.toString());
+
+        int byHigh = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EntityId)) return false;
+
+        EntityId that = (EntityId) o;
+        if (opaque != null || that.opaque != null) return opaque != null && opaque.equals(that.opaque);
+        return mostSignificantBits == that.mostSignificantBits && leastSignificantBits == that.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        if (opaque != null) return opaque.hashCode();
+        return Long.hashCode(mostSignificantBits * 0x9E3779B97F4A7C15L ^ leastSignificantBits);
+    }
+
+    /**
+     * Επιστρέφει το αναγνωριστικό ως κείμενο (για UUID: 36 χαρακτήρες, πεζά hex).
+     */
+    @Override
+    public String toString() {
+        String current = text;
+        if (current != null) return current;
+
+        char[] chars = new char[LENGTH];
+        hex(chars, 0, mostSignificantBits >>> 32, 8);
+        chars[8] = '-';
+        hex(chars, 9, mostSignificantBits >>> 16, 4);
+        chars[13] = '-';
+        hex(chars, 14, mostSignificantBits, 4);
+        chars[18] = '-';
+        hex(chars, 19, leastSignificantBits >>> 48, 4);
+        chars[23] = '-';
+        hex(chars, 24, leastSignificantBits, 12);
+
+        current = new String(chars);
+        text = current;
+        return current;
+    }
+
+    /** Γράφει τα {@code digits} χαμηλότερα hex ψηφία της τιμής από τη θέση {@code offset}. */
+    private static void hex(char[] chars, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+}
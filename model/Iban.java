@@ -0,0 +1,74 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+/**
+ * Βοηθητική κλάση ελέγχου εγκυρότητας IBAN (ISO 13616).
+ *
+ * Ο έλεγχος ({@link #isValid(CharSequence)}) υπολογίζει το mod-97 checksum απευθείας
+ * από τους χαρακτήρες, χωρίς δημιουργία αντικειμένων. Τα DAOs κρατούν και αναζητούν
+ * τον IBAN ως {@code String}.
+ */
+public final class Iban {
+    /** Ελάχιστο μήκος IBAN (Νορβηγία). */
+    public static final int MIN_LENGTH = 15;
+
+    /** Μέγιστο μήκος IBAN. */
+    public static final int MAX_LENGTH = 34;
+
+    /**
+     * Private Constructor, δεν δημιουργούνται instances.
+     */
+    private Iban() {
+
+    }
+
+    /**
+     * Ελέγχει αν ένα κείμενο είναι έγκυρος IBAN σε ηλεκτρονική μορφή (χωρίς κενά, κεφαλαία):
+     * κωδικός χώρας δύο γραμμάτων, δύο ψηφία ελέγχου, BBAN από ψηφία/γράμματα, συνολικό μήκος
+     * {@value #MIN_LENGTH} έως {@value #MAX_LENGTH}, και mod-97 υπόλοιπο ίσο με 1.
+     *
+     * @param iban το κείμενο προς έλεγχο
+     * @return true αν είναι έγκυρος IBAN
+     */
+    public static boolean isValid(CharSequence iban) {
+        if (iban == null) return false;
+
+        int length = iban.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return false;
+        if (!isLetter(iban.charAt(0)) || !isLetter(iban.charAt(1))) return false;
+        if (!isDigit(iban.charAt(2)) || !isDigit(iban.charAt(3))) return false;
+
+        // Ο έλεγχος γίνεται στη μορφή BBAN + χώρα + ψηφία ελέγχου.
+        long remainder = mod97(iban, 4, length, 0);
+        return remainder >= 0 && mod97(iban, 0, 4, remainder) == 1;
+    }
+
+    /**
+     * Συνεχίζει τον υπολογισμό του mod 97 του αριθμού που σχηματίζουν οι χαρακτήρες
+     * {@code [from, to)}, με κάθε γράμμα ως δύο ψηφία (A = 10 ... Z = 35).
+     * Το mod υπολογίζεται μόνο όταν ο ενδιάμεσος αριθμός πλησιάζει το όριο του {@code long}.
+     *
+     * @return το υπόλοιπο (0 έως 96), ή -1 αν υπάρχει μη επιτρεπτός χαρακτήρας
+     */
+    private static long mod97(CharSequence text, int from, int to, long remainder) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                remainder = remainder * 10 + (c - '0');
+            } else if (isLetter(c)) {
+                remainder = remainder * 100 + (c - 'A' + 10);
+            } else {
+                return -1;
+            }
+            if (remainder >= 10_000_000_000_000_000L) remainder %= 97;
+        }
+        return remainder % 97;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
@@ -0,0 +1,19 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+/**
+ * Στρατηγική δημιουργίας αναγνωριστικών για τα entities.
+ *
+ * Η προεπιλογή είναι ο {@link TimeOrderedIdGenerator}· άλλη υλοποίηση ορίζεται με
+ * {@link AbstractEntity#setIdGenerator(IdGenerator)} (π.χ. ντετερμινιστική για benchmarks).
+ * Οι υλοποιήσεις πρέπει να είναι thread-safe.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Δημιουργεί νέο μοναδικό αναγνωριστικό.
+     *
+     * @return το αναγνωριστικό
+     */
+    EntityId next();
+}
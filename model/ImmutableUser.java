@@ -0,0 +1,111 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+import java.util.Objects;
+
+/**
+ * Αμετάβλητη αναπαράσταση των στοιχείων ενός χρήστη.
+ *
+ * Επειδή δεν αλλάζει, ένα instance μπορεί να μοιράζεται μεταξύ λογαριασμών και
+ * αντιγράφων τους χωρίς defensive copies. Το {@link Account} κρατά τον κάτοχό του
+ * σε αυτή τη μορφή.
+ *
+ * Η σύγκριση γίνεται βάσει firstname, lastname και ssn, όπως στο {@link User}.
+ */
+public final class ImmutableUser implements UserView {
+    private final String uuid;
+    private final String firstname;
+    private final String lastname;
+    private final String ssn;
+
+    /**
+     * Overloaded constructor.
+     * @param uuid  το UUID του χρήστη
+     * @param firstname το όνομα του χρήστη
+     * @param lastname το επώνυμο του χρήστη
+     * @param ssn   ο αριθμός κοινωνικής ασφάλισης του χρήστη
+     */
+    public ImmutableUser(String uuid, String firstname, String lastname, String ssn) {
+        this.uuid = uuid;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.ssn = ssn;
+    }
+
+    /**
+     * Επιστρέφει αμετάβλητη αναπαράσταση ενός χρήστη.
+     * Αν ο χρήστης είναι ήδη {@link ImmutableUser}, επιστρέφεται ο ίδιος χωρίς αντιγραφή.
+     *
+     * @param user ο χρήστης
+     * @return η αμετάβλητη αναπαράσταση
+     */
+    public static ImmutableUser of(UserView user) {
+        if (user instanceof ImmutableUser) return (ImmutableUser) user;
+        return new ImmutableUser(user.getUuid(), user.getFirstname(), user.getLastname(), user.getSsn());
+    }
+
+    /** Επιστρέφει το UUID του χρήστη. */
+    @Override
+    public String getUuid() {
+        return uuid;
+    }
+
+    /** Επιστρέφει το όνομα του χρήστη. */
+    @Override
+    public String getFirstname() {
+        return firstname;
+    }
+
+    /** Επιστρέφει το επώνυμο του χρήστη. */
+    @Override
+    public String getLastname() {
+        return lastname;
+    }
+
+    /** Επιστρέφει τον αριθμό κοινωνικής ασφάλισης (SSN). */
+    @Override
+    public String getSsn() {
+        return ssn;
+    }
+
+    /**
+     * Δημιουργεί μεταβλητό αντίγραφο ({@link User}) με τα ίδια στοιχεία.
+     *
+     * @return νέο {@link User}
+     */
+    public User toUser() {
+        User user = new User(firstname, lastname, ssn);
+        user.setUuid(uuid);
+        return user;
+    }
+
+    /**
+     * Επιστρέφει αναπαράσταση του χρήστη σε μορφή String, ίδια με του {@link User}.
+     */
+    @Override
+    public String toString() {
+        return "User{" +
+                ". firstname='" + firstname + '\'' +
+                ", lastname='" + lastname + '\'' +
+                ", ssn='" + ssn + '\'' +
+                '}';
+    }
+
+    /**
+     * Ελέγχει αν δύο αντικείμενα ImmutableUser είναι ίσα.
+     * Σύγκριση γίνεται βάσει firstname, lastname και ssn.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        ImmutableUser user = (ImmutableUser) o;
+        return Objects.equals(firstname, user.firstname) && Objects.equals(lastname, user.lastname) && Objects.equals(ssn, user.ssn);
+    }
+
+    /**
+     * Υπολογίζει τον hash code βασει firstname, lastname και ssn.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstname, lastname, ssn);
+    }
+}
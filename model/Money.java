@@ -0,0 +1,58 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+/**
+ * Βοηθητική κλάση μετατροπής ποσών μεταξύ {@code double} (μονάδες νομίσματος, π.χ. ευρώ)
+ * και {@code long} (υποδιαιρέσεις νομίσματος, π.χ. λεπτά).
+ *
+ * Τα υπόλοιπα αποθηκεύονται ως ακέραιος αριθμός λεπτών ώστε η αριθμητική να είναι
+ * ακριβής. Η μετατροπή σε {@code double} γίνεται μόνο στα όρια της εφαρμογής
+ * (DTOs, UI, exceptions).
+ */
+public final class Money {
+    /** Πλήθος υποδιαιρέσεων (λεπτών) ανά μονάδα νομίσματος. */
+    public static final long MINOR_UNITS_PER_MAJOR = 100L;
+
+    /** Μέγιστο ποσό (σε μονάδες) που χωράει σε long λεπτών. */
+    private static final double MAX_MAJOR = (double) Long.MAX_VALUE / MINOR_UNITS_PER_MAJOR;
+
+    /**
+     * Private Constructor, δεν δημιουργούνται instances.
+     */
+    private Money() {
+
+    }
+
+    /**
+     * Ελέγχει αν ένα ποσό σε μονάδες νομίσματος μπορεί να μετατραπεί σε λεπτά.
+     *
+     * @param amount το ποσό σε μονάδες νομίσματος
+     * @return true αν το ποσό είναι πεπερασμένο και χωράει σε long λεπτών
+     */
+    public static boolean isValid(double amount) {
+        return Double.isFinite(amount) && Math.abs(amount) <= MAX_MAJOR;
+    }
+
+    /**
+     * Μετατρέπει ποσό σε μονάδες νομίσματος σε λεπτά, με στρογγυλοποίηση στο πλησιέστερο λεπτό.
+     *
+     * @param amount το ποσό σε μονάδες νομίσματος
+     * @return το ποσό σε λεπτά
+     * @throws IllegalArgumentException αν το ποσό δεν είναι πεπερασμένο ή δεν χωράει σε long
+     */
+    public static long toMinor(double amount) {
+        if (!isValid(amount)) {
+            throw new IllegalArgumentException("Amount: " + amount + " is not a valid monetary amount.");
+        }
+        return Math.round(amount * MINOR_UNITS_PER_MAJOR);
+    }
+
+    /**
+     * Μετατρέπει ποσό σε λεπτά σε μονάδες νομίσματος.
+     *
+     * @param minor το ποσό σε λεπτά
+     * @return το ποσό σε μονάδες νομίσματος
+     */
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_UNITS_PER_MAJOR;
+    }
+}
@@ -0,0 +1,61 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Δημιουργεί χρονικά ταξινομημένα αναγνωριστικά στη μορφή UUID version 7 (RFC 9562):
+ * <pre>
+ * [48 bits χρόνος σε ms][4 bits version = 7][12 bits μετρητής][2 bits variant][62 bits τυχαία]
+ * </pre>
+ * Ο χρόνος και ο μετρητής αποτελούν μία τιμή που αυξάνεται με CAS, οπότε τα αναγνωριστικά
+ * είναι αυστηρά αύξοντα ακόμη και από πολλά threads ή αν το ρολόι γυρίσει πίσω· αν ο
+ * μετρητής εξαντληθεί μέσα στο ίδιο ms, δανείζεται από το επόμενο.
+ *
+ * Τα τυχαία bits προέρχονται από {@link ThreadLocalRandom} αντί για {@code SecureRandom}:
+ * τα αναγνωριστικά πρέπει να είναι μοναδικά, όχι απρόβλεπτα.
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final LongSupplier clock;
+
+    /** Η τελευταία τιμή χρόνου και μετρητή: {@code (ms << 12) | counter}. */
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Δημιουργεί generator με το ρολόι του συστήματος.
+     */
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Δημιουργεί generator με δοσμένο ρολόι.
+     *
+     * @param clock επιστρέφει τον τρέχοντα χρόνο σε ms από το epoch
+     */
+    public TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public EntityId next() {
+        long now = clock.getAsLong() << COUNTER_BITS;
+        long previous;
+        long current;
+        do {
+            previous = last.get();
+            current = Math.max(now, previous + 1);
+        } while (!last.compareAndSet(previous, current));
+
+        long mostSignificantBits = (current >>> COUNTER_BITS) << 16 | VERSION | current & COUNTER_MASK;
+        long leastSignificantBits = ThreadLocalRandom.current().nextLong() & RANDOM_MASK | VARIANT;
+        return new EntityId(mostSignificantBits, leastSignificantBits);
+    }
+}
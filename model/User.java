@@ -10,10 +10,13 @@ import java.util.Objects;
  * Περιέχει προσωπικά στοιχεία όπως όνομα, επώνυμο και SSN.
  * Παρέχει copy constructor για ασφαλή αντιγραφή αντικειμένων.
  *
+ * Η read-only όψη του ({@link UserView}) και η αμετάβλητη μορφή του ({@link ImmutableUser})
+ * χρησιμοποιούνται όπου δεν χρειάζεται αντιγραφή.
+ *
  * Υλοποιεί μεθόδους {@link #equals(Object)} και {@link #hashCode()}
  * για σωστή σύγκριση και χρήση σε συλλογές.
  */
-public class User extends AbstractEntity {
+public class User extends AbstractEntity implements UserView {
     private String firstname;
     private String lastname;
     private String ssn;
@@ -45,7 +48,7 @@ public class User extends AbstractEntity {
      * @param user το User προς αντιγραφή.
      */
     public User(User user) {
-        setUuid(user.getUuid());
+        super(user);
         this.firstname = user.firstname;
         this.lastname = user.lastname;
         this.ssn = user.ssn;
@@ -69,6 +72,7 @@ public class User extends AbstractEntity {
      * Επιστρέφει τό όνομα του χρήστη.
      * @return  το όνομα.
      */
+    @Override
     public String getFirstname() {
         return firstname;
     }
@@ -83,6 +87,7 @@ public class User extends AbstractEntity {
     /**
      * Επιστρέφει το επώνυμο του χρήστη.
      */
+    @Override
     public String getLastname() {
         return lastname;
     }
@@ -97,6 +102,7 @@ public class User extends AbstractEntity {
     /**
      * Επιστρέφει τον αριθμό κοινωνικής ασφάλισης (SSN).
      */
+    @Override
     public String getSsn() {
         return ssn;
     }
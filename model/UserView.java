@@ -0,0 +1,28 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+/**
+ * Read-only όψη των στοιχείων ενός χρήστη.
+ *
+ * Χρήση: Επιστρέφεται από το {@link Account#getHolderView()} ώστε αναζητήσεις,
+ * έλεγχοι (π.χ. SSN) και μετατροπές σε DTO να διαβάζουν τον κάτοχο χωρίς αντιγραφή.
+ */
+public interface UserView extends IdentifiableEntity {
+
+    /**
+     * Επιστρέφει το όνομα του χρήστη.
+     * @return το όνομα
+     */
+    String getFirstname();
+
+    /**
+     * Επιστρέφει το επώνυμο του χρήστη.
+     * @return το επώνυμο
+     */
+    String getLastname();
+
+    /**
+     * Επιστρέφει τον αριθμό κοινωνικής ασφάλισης (SSN).
+     * @return το SSN
+     */
+    String getSsn();
+}
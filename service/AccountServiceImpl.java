@@ -3,13 +3,24 @@ package gr.aueb.cf.ch18.bankapp.service;
 import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
 import gr.aueb.cf.ch18.bankapp.dto.AccountInsertDTO;
 import gr.aueb.cf.ch18.bankapp.dto.AccountUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionStatus;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionType;
 import gr.aueb.cf.ch18.bankapp.dto.UserInsertDTO;
 import gr.aueb.cf.ch18.bankapp.dto.UserUpdateDTO;
 import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.Iban;
+import gr.aueb.cf.ch18.bankapp.model.Money;
 import gr.aueb.cf.ch18.bankapp.model.User;
 import gr.aueb.cf.ch18.bankapp.service.exceptions.*;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
 
 /**
  * Υλοποίηση του {@link IAccountService} για διαχείριση λογαριασμών.
@@ -21,23 +32,54 @@ import java.util.List;
  *   <li>Διαγραφή λογαριασμών</li>
  *   <li>Αναζήτηση λογαριασμών</li>
  *   <li>Καταθέσεις και αναλήψεις</li>
+ *   <li>Μεταφορές μεταξύ λογαριασμών</li>
+ *   <li>Batch εκτέλεση κινήσεων ομαδοποιημένων ανά λογαριασμό</li>
  * </ul>
  *
  * Χρησιμοποιεί {@link AccountInsertDTO}, {@link AccountUpdateDTO},
  * {@link UserInsertDTO} και {@link UserUpdateDTO} για μεταφορά δεδομένων μεταξύ
  * UI και DAO.
+ *
+ * Οι καταθέσεις και αναλήψεις είναι lock-free: υπολογίζουν το νέο υπόλοιπο σε λεπτά
+ * και το εφαρμόζουν με compare-and-set μέσω του DAO, επαναλαμβάνοντας σε σύγκρουση.
+ * Οι ενημερώσεις λογαριασμών δεν αλλάζουν το υπόλοιπο ({@link IAccountDAO#update(String, Account)}),
+ * οπότε δεν αναιρούν ταυτόχρονες καταθέσεις και αναλήψεις, ούτε μεταβολές που γίνονται
+ * απευθείας στο DAO (π.χ. από το {@link gr.aueb.cf.ch18.bankapp.service.engine.RingBufferTransactionEngine}).
+ * Οι μεταφορές και τα batches κλειδώνουν τους λογαριασμούς τους από ένα {@link StripedLocks}
+ * (οι μεταφορές και τους δύο, με καθολική σειρά δείκτη stripe, ώστε να μην είναι δυνατό deadlock)
+ * και εφαρμόζουν επίσης τις μεταβολές με compare-and-set. Σε συνδυασμό με thread-safe DAO
+ * (π.χ. ConcurrentAccountDAOImpl) το service είναι ασφαλές για ταυτόχρονη χρήση από πολλά threads.
+ *
+ * Οι αναγνώσεις δεν κλειδώνουν, οπότε κατά τη διάρκεια μιας μεταφοράς μπορεί να φανεί η
+ * χρέωση πριν από την πίστωση. Οι εισαγωγές και οι ενημερώσεις κρατούν το lock του (νέου)
+ * IBAN από το ίδιο {@link StripedLocks} όσο ελέγχουν αν ο IBAN υπάρχει και γράφουν στο DAO,
+ * ώστε ο IBAN να μένει μοναδικός και με ταυτόχρονες εισαγωγές.
  */
 public class AccountServiceImpl implements IAccountService{
     /** DAO layer για διαχείριση των λογαριασμών. */
     private final IAccountDAO dao;
 
+    /** Striped locks ανά λογαριασμό (βάσει UUID) και ανά IBAN για τον έλεγχο μοναδικότητας. */
+    private final StripedLocks locks;
+
     /**
      * Constructor που δέχεται DAO για εξάρτηση (dependency injection).
      *
      * @param dao το DAO για διαχείριση λογαριασμών
      */
     public AccountServiceImpl(IAccountDAO dao) {
+        this(dao, new StripedLocks());
+    }
+
+    /**
+     * Constructor που δέχεται DAO και striped locks για εξάρτηση (dependency injection).
+     *
+     * @param dao το DAO για διαχείριση λογαριασμών
+     * @param locks τα locks ανά λογαριασμό
+     */
+    public AccountServiceImpl(IAccountDAO dao, StripedLocks locks) {
         this.dao = dao;
+        this.locks = locks;
     }
 
     /**
@@ -45,18 +87,34 @@ public class AccountServiceImpl implements IAccountService{
      */
     @Override
     public Account insertAccount(AccountInsertDTO dto)
-            throws DuplicateAccountException {
+            throws DuplicateAccountException, IbanAlreadyExistsException, InvalidIbanException {
         Account account;
 
         try {
+            if (!Iban.isValid(dto.getIban())) {
+                throw new InvalidIbanException(dto.getIban());
+            }
+
             account = mapAccountFromInsertDTO(dto);
 
             if (dao.uuidExists(account.getUuid())) {
                 throw new DuplicateAccountException(account);
             }
 
-            return dao.insert(account);
-        } catch (DuplicateAccountException e) {
+            // Ο έλεγχος και η εισαγωγή γίνονται με το lock του IBAN, ώστε δύο ταυτόχρονες
+            // εισαγωγές με τον ίδιο IBAN να μην περάσουν και οι δύο τον έλεγχο
+            Lock lock = locks.get(account.getIban());
+            lock.lock();
+            try {
+                if (dao.ibanExists(account.getIban())) {
+                    throw new IbanAlreadyExistsException(account.getIban());
+                }
+
+                return dao.insert(account);
+            } finally {
+                lock.unlock();
+            }
+        } catch (DuplicateAccountException | IbanAlreadyExistsException | InvalidIbanException e) {
             throw e;
         }
     }
@@ -66,10 +124,14 @@ public class AccountServiceImpl implements IAccountService{
      */
     @Override
     public Account updateAccount(String uuid, AccountUpdateDTO newDto)
-            throws AccountNotFoundException, DuplicateAccountException, IbanAlreadyExistsException {
+            throws AccountNotFoundException, DuplicateAccountException, IbanAlreadyExistsException, InvalidIbanException {
         Account account;
 
         try {
+            if (!Iban.isValid(newDto.getIban())) {
+                throw new InvalidIbanException(newDto.getIban());
+            }
+
             account = mapAccountFromUpdateDTO(newDto);
 
             if (!dao.uuidExists(uuid)) {
@@ -77,21 +139,31 @@ public class AccountServiceImpl implements IAccountService{
             }
 
             Account oldAccount = dao.get(uuid);
-
-            // Έλεγχος αν το νέο IBAN υπάρχει σε άλλο λογαριασμό
-            if (dao.ibanExists(account.getIban())
-                && (!oldAccount.getIban().equals(newDto.getIban()))) {
-                throw new IbanAlreadyExistsException();
-            }
-
-            // Έλεγχος για conflict UUID
-            if (dao.uuidExists(account.getUuid())
-                && (!oldAccount.getUuid().equals(newDto.getUuid()))) {
-                throw new DuplicateAccountException(uuid);
+            // Το υπόλοιπο δεν αλλάζει με ενημέρωση· κρατιέται το τρέχον και όχι αυτό του DTO
+            account.setBalanceMinor(oldAccount.getBalanceMinor());
+
+            // Το lock του νέου IBAN αποκλείει ταυτόχρονη εισαγωγή ή ενημέρωση με τον ίδιο IBAN
+            Lock lock = locks.get(account.getIban());
+            lock.lock();
+            try {
+                // Έλεγχος αν το νέο IBAN υπάρχει σε άλλο λογαριασμό
+                if (dao.ibanExists(account.getIban())
+                    && (!oldAccount.getIban().equals(newDto.getIban()))) {
+                    throw new IbanAlreadyExistsException();
+                }
+
+                // Έλεγχος για conflict UUID
+                if (dao.uuidExists(account.getUuid())
+                    && (!oldAccount.getUuid().equals(newDto.getUuid()))) {
+                    throw new DuplicateAccountException(uuid);
+                }
+
+                return dao.update(uuid, account);
+            } finally {
+                lock.unlock();
             }
-
-            return dao.update(uuid, account);
-        } catch (AccountNotFoundException | DuplicateAccountException | IbanAlreadyExistsException e) {
+        } catch (AccountNotFoundException | DuplicateAccountException | IbanAlreadyExistsException |
+                 InvalidIbanException e) {
             throw e;
         }
     }
@@ -122,11 +194,7 @@ public class AccountServiceImpl implements IAccountService{
         Account account;
 
         try {
-            account = dao.getAll()
-                    .stream()
-                    .filter(acc -> acc.getIban().equals(iban))
-                    .findFirst()
-                    .orElse(null);
+            account = dao.getByIban(iban);
 
             if (account == null) {
                 throw new AccountNotFoundException(iban);
@@ -146,6 +214,24 @@ public class AccountServiceImpl implements IAccountService{
         return dao.getAll();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAccountsPage(String afterUuid, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Page limit must be positive: " + limit);
+
+        return dao.getPage(afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Account> streamAccounts() {
+        return dao.stream();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -155,16 +241,19 @@ public class AccountServiceImpl implements IAccountService{
         Account account;
         try {
             if (amount < 0) {
-                throw new NegativeAmountException(amount);
+                throw new NegativeAmountException(amount, false);
             }
 
+            long amountMinor = Money.toMinor(amount);
             account = dao.get(uuid);
 
             if (account == null) {
-                throw new AccountNotFoundException(uuid);
+                throw new AccountNotFoundException(uuid, false);
             }
 
-            account.setBalance(account.getBalance() + amount);
+            if (!credit(account, amountMinor).isOk()) {
+                throw new ArithmeticException("Balance overflow for amount: " + amount);
+            }
 
             return account;
         } catch (AccountNotFoundException | NegativeAmountException e) {
@@ -172,6 +261,20 @@ public class AccountServiceImpl implements IAccountService{
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransactionResult tryDeposit(String uuid, double amount) {
+        if (amount < 0) return TransactionResult.rejected(TransactionStatus.NEGATIVE_AMOUNT);
+        if (!Money.isValid(amount)) return TransactionResult.rejected(TransactionStatus.INVALID_AMOUNT);
+
+        Account account = dao.get(uuid);
+        if (account == null) return TransactionResult.rejected(TransactionStatus.ACCOUNT_NOT_FOUND);
+
+        return credit(account, Money.toMinor(amount));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -182,35 +285,272 @@ public class AccountServiceImpl implements IAccountService{
 
         try {
             if (amount < 0) {
-                throw new NegativeAmountException(amount);
+                throw new NegativeAmountException(amount, false);
             }
 
-            account = dao.getAll()
-                    .stream()
-                    .filter(acc -> acc.getIban().equals(iban))
-                    .findFirst()
-                    .orElse(null);
+            account = dao.getByIban(iban);
 
             if (account == null) {
-                throw new AccountNotFoundException(iban);
+                throw new AccountNotFoundException(iban, false);
             }
 
-            if (!account.getHolder().getSsn().equals(ssn)) {
-                throw new SsnNotValidException(ssn);
+            if (!account.getHolderView().getSsn().equals(ssn)) {
+                throw new SsnNotValidException(ssn, false);
             }
 
-            if (account.getBalance() < amount) {
-                throw new InsufficientBalanceException(account.getBalance(), amount);
+            TransactionResult result = debit(account, Money.toMinor(amount));
+            if (!result.isOk()) {
+                throw new InsufficientBalanceException(result.getBalance(), amount, false);
             }
 
-            account.setBalance(account.getBalance() - amount);
-
             return account;
         } catch (NegativeAmountException | AccountNotFoundException | SsnNotValidException | InsufficientBalanceException e) {
             throw e;
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransactionResult tryWithdraw(String iban, String ssn, double amount) {
+        if (amount < 0) return TransactionResult.rejected(TransactionStatus.NEGATIVE_AMOUNT);
+        if (!Money.isValid(amount)) return TransactionResult.rejected(TransactionStatus.INVALID_AMOUNT);
+
+        Account account = dao.getByIban(iban);
+        if (account == null) return TransactionResult.rejected(TransactionStatus.ACCOUNT_NOT_FOUND);
+
+        if (!account.getHolderView().getSsn().equals(ssn)) {
+            return TransactionResult.rejected(TransactionStatus.SSN_NOT_VALID);
+        }
+
+        return debit(account, Money.toMinor(amount));
+    }
+
+    /**
+     * Πιστώνει ατομικά (CAS) έναν λογαριασμό.
+     *
+     * @return {@link TransactionStatus#OK} με το νέο υπόλοιπο, ή {@link TransactionStatus#INVALID_AMOUNT}
+     *         με το τρέχον υπόλοιπο αν το υπόλοιπο θα υπερχείλιζε
+     */
+    private TransactionResult credit(Account account, long amountMinor) {
+        long current;
+        do {
+            current = account.getBalanceMinor();
+
+            if (current > Long.MAX_VALUE - amountMinor) {
+                return new TransactionResult(TransactionStatus.INVALID_AMOUNT, Money.toMajor(current));
+            }
+        } while (!dao.compareAndSetBalance(account, current, current + amountMinor));
+
+        return new TransactionResult(TransactionStatus.OK, Money.toMajor(current + amountMinor));
+    }
+
+    /**
+     * Χρεώνει ατομικά (CAS) έναν λογαριασμό.
+     *
+     * @return {@link TransactionStatus#OK} με το νέο υπόλοιπο, ή {@link TransactionStatus#INSUFFICIENT_BALANCE}
+     *         με το τρέχον υπόλοιπο
+     */
+    private TransactionResult debit(Account account, long amountMinor) {
+        long current;
+        do {
+            current = account.getBalanceMinor();
+
+            if (current < amountMinor) {
+                return new TransactionResult(TransactionStatus.INSUFFICIENT_BALANCE, Money.toMajor(current));
+            }
+        } while (!dao.compareAndSetBalance(account, current, current - amountMinor));
+
+        return new TransactionResult(TransactionStatus.OK, Money.toMajor(current - amountMinor));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account transfer(String fromIban, String toIban, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException {
+        Account from;
+        Account to;
+
+        try {
+            if (amount < 0) {
+                throw new NegativeAmountException(amount);
+            }
+
+            long amountMinor = Money.toMinor(amount);
+            from = dao.getByIban(fromIban);
+
+            if (from == null) {
+                throw new AccountNotFoundException(fromIban);
+            }
+
+            to = dao.getByIban(toIban);
+
+            if (to == null) {
+                throw new AccountNotFoundException(toIban);
+            }
+
+            // Σύγκριση με UUID: DAOs όπως το off-heap επιστρέφουν νέο αντίγραφο σε κάθε ανάγνωση
+            if (from.getUuid().equals(to.getUuid())) {
+                throw new IllegalArgumentException("Cannot transfer from iban: " + fromIban + " to itself.");
+            }
+
+            // Κλείδωμα με καθολική σειρά stripe ώστε να αποφεύγεται το deadlock
+            int fromStripe = locks.indexFor(from.getUuid());
+            int toStripe = locks.indexFor(to.getUuid());
+            Lock first = locks.getAt(Math.min(fromStripe, toStripe));
+            Lock second = locks.getAt(Math.max(fromStripe, toStripe));
+
+            first.lock();
+            try {
+                second.lock();
+                try {
+                    long current;
+                    do {
+                        current = from.getBalanceMinor();
+
+                        if (current < amountMinor) {
+                            throw new InsufficientBalanceException(Money.toMajor(current), amount);
+                        }
+                    } while (!dao.compareAndSetBalance(from, current, current - amountMinor));
+
+                    try {
+                        do {
+                            current = to.getBalanceMinor();
+                        } while (!dao.compareAndSetBalance(to, current, Math.addExact(current, amountMinor)));
+                    } catch (ArithmeticException e) {
+                        // Αναίρεση της χρέωσης ώστε η μεταφορά να μείνει all-or-nothing
+                        do {
+                            current = from.getBalanceMinor();
+                        } while (!dao.compareAndSetBalance(from, current, current + amountMinor));
+                        throw e;
+                    }
+                } finally {
+                    second.unlock();
+                }
+            } finally {
+                first.unlock();
+            }
+
+            return from;
+        } catch (AccountNotFoundException | NegativeAmountException | InsufficientBalanceException e) {
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TransactionResult> applyBatch(List<TransactionCommand> commands) {
+        TransactionResult[] results = new TransactionResult[commands.size()];
+
+        // Ομαδοποίηση κινήσεων ανά IBAN, με μία αναζήτηση λογαριασμού ανά IBAN
+        Map<String, BatchGroup> groups = new HashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            String iban = commands.get(i).getIban();
+            BatchGroup group = groups.get(iban);
+
+            if (group == null) {
+                group = new BatchGroup(dao.getByIban(iban));
+                groups.put(iban, group);
+            }
+            group.add(i);
+        }
+
+        for (BatchGroup group : groups.values()) {
+            if (group.account == null) {
+                for (int k = 0; k < group.size; k++) {
+                    results[group.indexes[k]] = TransactionResult.rejected(TransactionStatus.ACCOUNT_NOT_FOUND);
+                }
+                continue;
+            }
+
+            Lock lock = locks.get(group.account.getUuid());
+            lock.lock();
+            try {
+                long start;
+                long end;
+                do {
+                    start = group.account.getBalanceMinor();
+                    end = applyGroup(commands, group, start, results);
+                } while (!dao.compareAndSetBalance(group.account, start, end));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Εφαρμόζει διαδοχικά τις κινήσεις μιας ομάδας ξεκινώντας από το δοσμένο υπόλοιπο
+     * και καταγράφει το αποτέλεσμα κάθε κίνησης.
+     *
+     * @return το τελικό υπόλοιπο της ομάδας σε λεπτά
+     */
+    private long applyGroup(List<TransactionCommand> commands, BatchGroup group, long balance,
+                            TransactionResult[] results) {
+        String holderSsn = group.account.getHolderView().getSsn();
+
+        for (int k = 0; k < group.size; k++) {
+            int index = group.indexes[k];
+            TransactionCommand command = commands.get(index);
+            TransactionStatus status = TransactionStatus.OK;
+
+            if (command.getAmount() < 0) {
+                status = TransactionStatus.NEGATIVE_AMOUNT;
+            } else if (!Money.isValid(command.getAmount())) {
+                status = TransactionStatus.INVALID_AMOUNT;
+            } else {
+                long amountMinor = Money.toMinor(command.getAmount());
+
+                if (command.getType() == TransactionType.WITHDRAW) {
+                    if (!holderSsn.equals(command.getSsn())) {
+                        status = TransactionStatus.SSN_NOT_VALID;
+                    } else if (balance < amountMinor) {
+                        status = TransactionStatus.INSUFFICIENT_BALANCE;
+                    } else {
+                        balance -= amountMinor;
+                    }
+                } else {
+                    if (balance > Long.MAX_VALUE - amountMinor) {
+                        status = TransactionStatus.INVALID_AMOUNT;
+                    } else {
+                        balance += amountMinor;
+                    }
+                }
+            }
+
+            results[index] = new TransactionResult(status, Money.toMajor(balance));
+        }
+
+        return balance;
+    }
+
+    /**
+     * Ομάδα κινήσεων ενός batch που αφορούν τον ίδιο λογαριασμό.
+     * Κρατά τους δείκτες των κινήσεων με τη σειρά εμφάνισής τους.
+     */
+    private static final class BatchGroup {
+        private final Account account;
+        private int[] indexes = new int[4];
+        private int size;
+
+        private BatchGroup(Account account) {
+            this.account = account;
+        }
+
+        private void add(int index) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+    }
+
     /**
      * Χρησιμεύει για αντιστοίχιση {@link AccountInsertDTO } → {@link Account}.
      */
@@ -0,0 +1,215 @@
+package gr.aueb.cf.ch18.bankapp.service;
+
+import gr.aueb.cf.ch18.bankapp.dto.AccountInsertDTO;
+import gr.aueb.cf.ch18.bankapp.dto.AccountUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ασύγχρονη πρόσοψη (facade) ενός {@link IAccountService}: κάθε λειτουργία εκτελείται σε
+ * δικό της task και επιστρέφει αμέσως {@link CompletableFuture}.
+ *
+ * Τα exceptions του service (π.χ. {@code AccountNotFoundException}) ολοκληρώνουν το future
+ * εξαιρετικά με το ίδιο το exception, όπως θα το έριχνε η σύγχρονη κλήση.
+ *
+ * Ο προεπιλεγμένος executor ({@link #newTaskExecutor()}) δημιουργεί ένα virtual thread ανά
+ * task, όπου υποστηρίζεται (Java 21+): μια λειτουργία που μπλοκάρει (π.χ. fsync του journal)
+ * δεσμεύει μόνο το δικό της virtual thread, οπότε δεκάδες χιλιάδες λειτουργίες μπορούν να
+ * είναι σε εξέλιξη ταυτόχρονα. Σε παλαιότερες εκδόσεις χρησιμοποιείται pool σταθερού μεγέθους.
+ */
+public class AsyncAccountService implements AutoCloseable {
+    /** Μέγεθος του pool όταν δεν υποστηρίζονται virtual threads. */
+    static final int FALLBACK_THREADS = 256;
+
+    private final IAccountService delegate;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Constructor που δέχεται το service (dependency injection) και χρησιμοποιεί
+     * τον προεπιλεγμένο executor ({@link #newTaskExecutor()}), τον οποίο κλείνει το {@link #close()}.
+     *
+     * @param delegate το σύγχρονο service
+     */
+    public AsyncAccountService(IAccountService delegate) {
+        this(delegate, newTaskExecutor(), true);
+    }
+
+    /**
+     * Constructor που δέχεται το service και τον executor των λειτουργιών.
+     * Ο executor ανήκει στον καλούντα και δεν κλείνει από το {@link #close()}.
+     *
+     * @param delegate το σύγχρονο service
+     * @param executor ο executor
+     */
+    public AsyncAccountService(IAccountService delegate, ExecutorService executor) {
+        this(delegate, executor, false);
+    }
+
+    private AsyncAccountService(IAccountService delegate, ExecutorService executor, boolean ownsExecutor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Δημιουργεί executor με ένα virtual thread ανά task
+     * ({@code Executors.newVirtualThreadPerTaskExecutor()}), αν υποστηρίζεται από το JVM,
+     * αλλιώς pool {@value #FALLBACK_THREADS} daemon threads.
+     *
+     * @return ο executor
+     */
+    public static ExecutorService newTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, task -> {
+                Thread thread = new Thread(task, "account-service-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#insertAccount(AccountInsertDTO)}.
+     */
+    public CompletableFuture<Account> insertAccount(AccountInsertDTO dto) {
+        return submit(() -> delegate.insertAccount(dto));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#updateAccount(String, AccountUpdateDTO)}.
+     */
+    public CompletableFuture<Account> updateAccount(String uuid, AccountUpdateDTO dto) {
+        return submit(() -> delegate.updateAccount(uuid, dto));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#deleteAccount(String)}.
+     */
+    public CompletableFuture<Void> deleteAccount(String uuid) {
+        return submit(() -> {
+            delegate.deleteAccount(uuid);
+            return null;
+        });
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#getAccountByIban(String)}.
+     */
+    public CompletableFuture<Account> getAccountByIban(String iban) {
+        return submit(() -> delegate.getAccountByIban(iban));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#getAllAccounts()}.
+     */
+    public CompletableFuture<List<Account>> getAllAccounts() {
+        return submit(delegate::getAllAccounts);
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#getAccountsPage(String, int)}.
+     */
+    public CompletableFuture<List<Account>> getAccountsPage(String afterUuid, int limit) {
+        return submit(() -> delegate.getAccountsPage(afterUuid, limit));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#deposit(String, double)}.
+     */
+    public CompletableFuture<Account> deposit(String uuid, double amount) {
+        return submit(() -> delegate.deposit(uuid, amount));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#tryDeposit(String, double)}.
+     */
+    public CompletableFuture<TransactionResult> tryDeposit(String uuid, double amount) {
+        return submit(() -> delegate.tryDeposit(uuid, amount));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#withdraw(String, String, double)}.
+     */
+    public CompletableFuture<Account> withdraw(String iban, String ssn, double amount) {
+        return submit(() -> delegate.withdraw(iban, ssn, amount));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#tryWithdraw(String, String, double)}.
+     */
+    public CompletableFuture<TransactionResult> tryWithdraw(String iban, String ssn, double amount) {
+        return submit(() -> delegate.tryWithdraw(iban, ssn, amount));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#transfer(String, String, double)}.
+     */
+    public CompletableFuture<Account> transfer(String fromIban, String toIban, double amount) {
+        return submit(() -> delegate.transfer(fromIban, toIban, amount));
+    }
+
+    /**
+     * Ασύγχρονη εκδοχή του {@link IAccountService#applyBatch(List)}.
+     */
+    public CompletableFuture<List<TransactionResult>> applyBatch(List<TransactionCommand> commands) {
+        return submit(() -> delegate.applyBatch(commands));
+    }
+
+    /**
+     * Κλείνει τον executor, αν δημιουργήθηκε από αυτό το service, και περιμένει να
+     * ολοκληρωθούν οι λειτουργίες σε εξέλιξη. Αν το thread διακοπεί, η αναμονή σταματά
+     * και το interrupt status διατηρείται.
+     */
+    @Override
+    public void close() {
+        if (!ownsExecutor) return;
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Εκτελεί την κλήση στον executor και επιστρέφει future με το αποτέλεσμά της.
+     * Αν ο executor δεν δέχεται νέα tasks, το future ολοκληρώνεται εξαιρετικά.
+     */
+    private <T> CompletableFuture<T> submit(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Σύγχρονη κλήση του service που μπορεί να ρίξει checked exception.
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        T call() throws Exception;
+    }
+}
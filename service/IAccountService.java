@@ -2,10 +2,13 @@ package gr.aueb.cf.ch18.bankapp.service;
 
 import gr.aueb.cf.ch18.bankapp.dto.AccountInsertDTO;
 import gr.aueb.cf.ch18.bankapp.dto.AccountUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
 import gr.aueb.cf.ch18.bankapp.model.Account;
 import gr.aueb.cf.ch18.bankapp.service.exceptions.*;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface για τις υπηρεσίες διαχείρισης λογαριασμών (Accounts) στο BankApp.
@@ -16,6 +19,7 @@ import java.util.List;
  *   <li>{@link DuplicateAccountException}</li>
  *   <li>{@link AccountNotFoundException}</li>
  *   <li>{@link IbanAlreadyExistsException}</li>
+ *   <li>{@link InvalidIbanException}</li>
  *   <li>{@link NegativeAmountException}</li>
  *   <li>{@link InsufficientBalanceException}</li>
  *   <li>{@link SsnNotValidException}</li>
@@ -29,12 +33,15 @@ public interface IAccountService {
      * @param dto τα δεδομένα του λογαριασμού προς εισαγωγή
      * @return ο εισαχθείς λογαριασμός
      * @throws DuplicateAccountException αν ο λογαριασμός υπάρχει ήδη
+     * @throws IbanAlreadyExistsException αν ο IBAN υπάρχει ήδη σε άλλο λογαριασμό
+     * @throws InvalidIbanException αν ο IBAN δεν είναι έγκυρος
      */
     Account insertAccount(AccountInsertDTO dto)
-        throws DuplicateAccountException;
+        throws DuplicateAccountException, IbanAlreadyExistsException, InvalidIbanException;
 
     /**
      * Ενημερώνει έναν λογαριασμό με βάση το UUID του και τα δεδομένα του {@link AccountUpdateDTO}.
+     * Το υπόλοιπο του DTO αγνοείται: το υπόλοιπο αλλάζει μόνο με καταθέσεις, αναλήψεις και μεταφορές.
      *
      * @param uuid το UUID του λογαριασμού προς ενημέρωση
      * @param dto τα νέα δεδομένα του λογαριασμού
@@ -42,9 +49,10 @@ public interface IAccountService {
      * @throws AccountNotFoundException αν δεν βρεθεί ο λογαριασμός
      * @throws IbanAlreadyExistsException αν ο νέος IBAN υπάρχει ήδη σε άλλο λογαριασμό
      * @throws DuplicateAccountException αν υπάρξει διπλό UUID
+     * @throws InvalidIbanException αν ο νέος IBAN δεν είναι έγκυρος
      */
     Account updateAccount(String uuid, AccountUpdateDTO dto)
-        throws AccountNotFoundException, IbanAlreadyExistsException, DuplicateAccountException;
+        throws AccountNotFoundException, IbanAlreadyExistsException, DuplicateAccountException, InvalidIbanException;
 
     /**
      * Διαγράφει έναν λογαριασμό με βάση το UUID.
@@ -72,6 +80,25 @@ public interface IAccountService {
      */
     List<Account> getAllAccounts();
 
+    /**
+     * Επιστρέφει μια σελίδα λογαριασμών ταξινομημένων κατά UUID (keyset pagination).
+     * Η επόμενη σελίδα ζητείται με το UUID του τελευταίου λογαριασμού της τρέχουσας.
+     *
+     * @param afterUuid το UUID μετά το οποίο ξεκινά η σελίδα, ή null για την πρώτη σελίδα
+     * @param limit το μέγιστο πλήθος λογαριασμών
+     * @return λίστα έως {@code limit} λογαριασμών
+     * @throws IllegalArgumentException αν το limit δεν είναι θετικό
+     */
+    List<Account> getAccountsPage(String afterUuid, int limit);
+
+    /**
+     * Επιστρέφει lazy stream όλων των λογαριασμών, χωρίς αντιγραφή ολόκληρης της λίστας.
+     * Η σειρά δεν ορίζεται.
+     *
+     * @return stream των λογαριασμών
+     */
+    Stream<Account> streamAccounts();
+
     /**
      * Εκτελεί κατάθεση χρημάτων σε λογαριασμό με βάση το UUID.
      *
@@ -84,6 +111,17 @@ public interface IAccountService {
     Account deposit(String uuid, double amount)
         throws AccountNotFoundException, NegativeAmountException;
 
+    /**
+     * Εκτελεί κατάθεση όπως το {@link #deposit(String, double)}, αλλά οι απορρίψεις
+     * επιστρέφονται ως αποτέλεσμα αντί για exception, για ροές με μεγάλο ποσοστό απορρίψεων.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param amount το ποσό προς κατάθεση
+     * @return {@link gr.aueb.cf.ch18.bankapp.dto.TransactionStatus#OK} με το νέο υπόλοιπο, ή ο λόγος
+     *         της απόρριψης ({@code ACCOUNT_NOT_FOUND}, {@code NEGATIVE_AMOUNT}, {@code INVALID_AMOUNT})
+     */
+    TransactionResult tryDeposit(String uuid, double amount);
+
     /**
      * Εκτελεί ανάληψη χρημάτων από λογαριασμό με βάση IBAN και SSN κατόχου.
      *
@@ -98,4 +136,50 @@ public interface IAccountService {
      */
     Account withdraw(String iban, String ssn, double amount)
         throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException, SsnNotValidException;
+
+    /**
+     * Εκτελεί ανάληψη όπως το {@link #withdraw(String, String, double)}, αλλά οι απορρίψεις
+     * επιστρέφονται ως αποτέλεσμα αντί για exception, για ροές με μεγάλο ποσοστό απορρίψεων.
+     * Σε ανεπαρκές υπόλοιπο επιστρέφεται και το τρέχον υπόλοιπο· σε λάθος SSN όχι.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @param ssn το SSN του κατόχου
+     * @param amount το ποσό προς ανάληψη
+     * @return {@link gr.aueb.cf.ch18.bankapp.dto.TransactionStatus#OK} με το νέο υπόλοιπο, ή ο λόγος
+     *         της απόρριψης ({@code ACCOUNT_NOT_FOUND}, {@code NEGATIVE_AMOUNT}, {@code INVALID_AMOUNT},
+     *         {@code SSN_NOT_VALID}, {@code INSUFFICIENT_BALANCE})
+     */
+    TransactionResult tryWithdraw(String iban, String ssn, double amount);
+
+    /**
+     * Μεταφέρει χρήματα από έναν λογαριασμό σε άλλον με βάση τους IBAN.
+     *
+     * Η μεταφορά είναι all-or-nothing: είτε χρεώνεται ο λογαριασμός προέλευσης και
+     * πιστώνεται ο λογαριασμός προορισμού, είτε δεν αλλάζει κανένα υπόλοιπο. Δεν είναι
+     * απαραίτητα απομονωμένη: ανάμεσα στη χρέωση και την πίστωση μια ανάγνωση μπορεί να
+     * δει μόνο τη χρέωση. Οι υλοποιήσεις τεκμηριώνουν ποιες ταυτόχρονες κινήσεις αποκλείουν.
+     *
+     * @param fromIban ο IBAN του λογαριασμού προέλευσης
+     * @param toIban ο IBAN του λογαριασμού προορισμού
+     * @param amount το ποσό προς μεταφορά
+     * @return ο ενημερωμένος λογαριασμός προέλευσης
+     * @throws AccountNotFoundException αν δεν βρεθεί κάποιος από τους λογαριασμούς
+     * @throws NegativeAmountException αν το ποσό είναι αρνητικό
+     * @throws InsufficientBalanceException αν το υπόλοιπο του λογαριασμού προέλευσης είναι ανεπαρκές
+     */
+    Account transfer(String fromIban, String toIban, double amount)
+        throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException;
+
+    /**
+     * Εκτελεί ένα batch από κινήσεις (καταθέσεις και αναλήψεις) βάσει IBAN.
+     *
+     * Οι λογαριασμοί αναζητούνται μία φορά ανά IBAN και οι κινήσεις ομαδοποιούνται
+     * ανά λογαριασμό· κάθε ομάδα εφαρμόζεται με ένα μόνο κλείδωμα, με τη σειρά που
+     * εμφανίζονται οι κινήσεις στη λίστα. Οι απορρίψεις δεν προκαλούν exceptions αλλά
+     * επιστρέφονται ως {@link gr.aueb.cf.ch18.bankapp.dto.TransactionStatus}.
+     *
+     * @param commands οι κινήσεις προς εκτέλεση
+     * @return λίστα αποτελεσμάτων, ένα ανά κίνηση και με την ίδια σειρά
+     */
+    List<TransactionResult> applyBatch(List<TransactionCommand> commands);
 }
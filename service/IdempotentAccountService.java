@@ -0,0 +1,294 @@
+package gr.aueb.cf.ch18.bankapp.service;
+
+import gr.aueb.cf.ch18.bankapp.dto.AccountInsertDTO;
+import gr.aueb.cf.ch18.bankapp.dto.AccountUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.*;
+import gr.aueb.cf.ch18.bankapp.service.idempotency.IdempotencyCache;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountService} (decorator) που προσθέτει προαιρετικό κλειδί
+ * ιδεμποτικότητας (idempotency key) στις κινήσεις: καταθέσεις, αναλήψεις και μεταφορές.
+ *
+ * Η πρώτη κλήση με ένα κλειδί εκτελείται στο delegate· οι επαναλήψεις της (π.χ. retries του
+ * payment gateway μετά από timeout) επιστρέφουν το αρχικό αποτέλεσμα ή exception από το
+ * {@link IdempotencyCache}, χωρίς να αγγίξουν τον λογαριασμό. Οι μέθοδοι με κλειδί επιστρέφουν
+ * αντίγραφο του λογαριασμού τη στιγμή της κίνησης, ώστε μια επανάληψη να βλέπει το ίδιο
+ * αποτέλεσμα με την αρχική κλήση. Με κλειδί null, και στις μεθόδους του {@link IAccountService},
+ * οι κλήσεις περνούν απευθείας στο delegate.
+ */
+public class IdempotentAccountService implements IAccountService {
+    /** Το service που εκτελεί τις κινήσεις. */
+    private final IAccountService delegate;
+
+    private final IdempotencyCache cache;
+
+    /**
+     * Constructor με cache προεπιλεγμένων παραμέτρων.
+     *
+     * @param delegate το service
+     */
+    public IdempotentAccountService(IAccountService delegate) {
+        this(delegate, new IdempotencyCache());
+    }
+
+    /**
+     * Constructor που δέχεται το service και το cache των αποτελεσμάτων (dependency injection).
+     *
+     * @param delegate το service
+     * @param cache το cache των αποτελεσμάτων ανά κλειδί
+     */
+    public IdempotentAccountService(IAccountService delegate, IdempotencyCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Επιστρέφει το cache των αποτελεσμάτων.
+     *
+     * @return το cache
+     */
+    public IdempotencyCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Κατάθεση με κλειδί ιδεμποτικότητας· βλ. {@link IAccountService#deposit(String, double)}.
+     *
+     * @param idempotencyKey το κλειδί, ή null για κλήση χωρίς προστασία από επαναλήψεις
+     * @param uuid το UUID του λογαριασμού
+     * @param amount το ποσό προς κατάθεση
+     * @return αντίγραφο του λογαριασμού μετά την αρχική κατάθεση
+     * @throws AccountNotFoundException αν δεν βρεθεί ο λογαριασμός
+     * @throws NegativeAmountException αν το ποσό είναι αρνητικό
+     * @throws IllegalArgumentException αν το κλειδί χρησιμοποιήθηκε για διαφορετικό αίτημα
+     */
+    public Account deposit(String idempotencyKey, String uuid, double amount)
+            throws AccountNotFoundException, NegativeAmountException {
+        if (idempotencyKey == null) return delegate.deposit(uuid, amount);
+
+        try {
+            return cache.execute(idempotencyKey, "deposit|" + uuid + "|" + amount,
+                    () -> new Account(delegate.deposit(uuid, amount)));
+        } catch (AccountNotFoundException | NegativeAmountException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Κατάθεση με κλειδί ιδεμποτικότητας· βλ. {@link IAccountService#tryDeposit(String, double)}.
+     *
+     * @param idempotencyKey το κλειδί, ή null για κλήση χωρίς προστασία από επαναλήψεις
+     * @param uuid το UUID του λογαριασμού
+     * @param amount το ποσό προς κατάθεση
+     * @return το αποτέλεσμα της αρχικής κατάθεσης
+     * @throws IllegalArgumentException αν το κλειδί χρησιμοποιήθηκε για διαφορετικό αίτημα
+     */
+    public TransactionResult tryDeposit(String idempotencyKey, String uuid, double amount) {
+        if (idempotencyKey == null) return delegate.tryDeposit(uuid, amount);
+
+        try {
+            return cache.execute(idempotencyKey, "tryDeposit|" + uuid + "|" + amount,
+                    () -> delegate.tryDeposit(uuid, amount));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ανάληψη με κλειδί ιδεμποτικότητας· βλ. {@link IAccountService#withdraw(String, String, double)}.
+     *
+     * @param idempotencyKey το κλειδί, ή null για κλήση χωρίς προστασία από επαναλήψεις
+     * @param iban ο IBAN του λογαριασμού
+     * @param ssn το SSN του κατόχου
+     * @param amount το ποσό προς ανάληψη
+     * @return αντίγραφο του λογαριασμού μετά την αρχική ανάληψη
+     * @throws AccountNotFoundException αν δεν βρεθεί ο λογαριασμός
+     * @throws NegativeAmountException αν το ποσό είναι αρνητικό
+     * @throws InsufficientBalanceException αν το υπόλοιπο είναι ανεπαρκές
+     * @throws SsnNotValidException αν το SSN δεν ταιριάζει με τον κάτοχο
+     * @throws IllegalArgumentException αν το κλειδί χρησιμοποιήθηκε για διαφορετικό αίτημα
+     */
+    public Account withdraw(String idempotencyKey, String iban, String ssn, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException, SsnNotValidException {
+        if (idempotencyKey == null) return delegate.withdraw(iban, ssn, amount);
+
+        try {
+            return cache.execute(idempotencyKey, "withdraw|" + iban + "|" + ssn + "|" + amount,
+                    () -> new Account(delegate.withdraw(iban, ssn, amount)));
+        } catch (AccountNotFoundException | NegativeAmountException | InsufficientBalanceException
+                 | SsnNotValidException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ανάληψη με κλειδί ιδεμποτικότητας· βλ. {@link IAccountService#tryWithdraw(String, String, double)}.
+     *
+     * @param idempotencyKey το κλειδί, ή null για κλήση χωρίς προστασία από επαναλήψεις
+     * @param iban ο IBAN του λογαριασμού
+     * @param ssn το SSN του κατόχου
+     * @param amount το ποσό προς ανάληψη
+     * @return το αποτέλεσμα της αρχικής ανάληψης
+     * @throws IllegalArgumentException αν το κλειδί χρησιμοποιήθηκε για διαφορετικό αίτημα
+     */
+    public TransactionResult tryWithdraw(String idempotencyKey, String iban, String ssn, double amount) {
+        if (idempotencyKey == null) return delegate.tryWithdraw(iban, ssn, amount);
+
+        try {
+            return cache.execute(idempotencyKey, "tryWithdraw|" + iban + "|" + ssn + "|" + amount,
+                    () -> delegate.tryWithdraw(iban, ssn, amount));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Μεταφορά με κλειδί ιδεμποτικότητας· βλ. {@link IAccountService#transfer(String, String, double)}.
+     *
+     * @param idempotencyKey το κλειδί, ή null για κλήση χωρίς προστασία από επαναλήψεις
+     * @param fromIban ο IBAN του λογαριασμού προέλευσης
+     * @param toIban ο IBAN του λογαριασμού προορισμού
+     * @param amount το ποσό προς μεταφορά
+     * @return αντίγραφο του λογαριασμού προέλευσης μετά την αρχική μεταφορά
+     * @throws AccountNotFoundException αν δεν βρεθεί κάποιος από τους λογαριασμούς
+     * @throws NegativeAmountException αν το ποσό είναι αρνητικό
+     * @throws InsufficientBalanceException αν το υπόλοιπο του λογαριασμού προέλευσης είναι ανεπαρκές
+     * @throws IllegalArgumentException αν το κλειδί χρησιμοποιήθηκε για διαφορετικό αίτημα
+     */
+    public Account transfer(String idempotencyKey, String fromIban, String toIban, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException {
+        if (idempotencyKey == null) return delegate.transfer(fromIban, toIban, amount);
+
+        try {
+            return cache.execute(idempotencyKey, "transfer|" + fromIban + "|" + toIban + "|" + amount,
+                    () -> new Account(delegate.transfer(fromIban, toIban, amount)));
+        } catch (AccountNotFoundException | NegativeAmountException | InsufficientBalanceException
+                 | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account insertAccount(AccountInsertDTO dto)
+            throws DuplicateAccountException, IbanAlreadyExistsException, InvalidIbanException {
+        return delegate.insertAccount(dto);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account updateAccount(String uuid, AccountUpdateDTO dto)
+            throws AccountNotFoundException, IbanAlreadyExistsException, DuplicateAccountException, InvalidIbanException {
+        return delegate.updateAccount(uuid, dto);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAccount(String uuid) throws AccountNotFoundException {
+        delegate.deleteAccount(uuid);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account getAccountByIban(String iban) throws AccountNotFoundException {
+        return delegate.getAccountByIban(iban);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAllAccounts() {
+        return delegate.getAllAccounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAccountsPage(String afterUuid, int limit) {
+        return delegate.getAccountsPage(afterUuid, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Account> streamAccounts() {
+        return delegate.streamAccounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account deposit(String uuid, double amount) throws AccountNotFoundException, NegativeAmountException {
+        return delegate.deposit(uuid, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransactionResult tryDeposit(String uuid, double amount) {
+        return delegate.tryDeposit(uuid, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account withdraw(String iban, String ssn, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException, SsnNotValidException {
+        return delegate.withdraw(iban, ssn, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransactionResult tryWithdraw(String iban, String ssn, double amount) {
+        return delegate.tryWithdraw(iban, ssn, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account transfer(String fromIban, String toIban, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException {
+        return delegate.transfer(fromIban, toIban, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TransactionResult> applyBatch(List<TransactionCommand> commands) {
+        return delegate.applyBatch(commands);
+    }
+}
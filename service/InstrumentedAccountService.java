@@ -0,0 +1,290 @@
+package gr.aueb.cf.ch18.bankapp.service;
+
+import gr.aueb.cf.ch18.bankapp.dto.AccountInsertDTO;
+import gr.aueb.cf.ch18.bankapp.dto.AccountUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.*;
+import gr.aueb.cf.ch18.bankapp.service.metrics.OperationMetrics;
+import gr.aueb.cf.ch18.bankapp.service.metrics.ServiceMetrics;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Υλοποίηση του {@link IAccountService} (decorator) που μετρά κάθε κλήση προς ένα
+ * άλλο service: καθυστέρηση ανά λειτουργία (ιστόγραμμα), πλήθος κλήσεων, αποτυχιών
+ * και πλήθος ανά τύπο exception.
+ *
+ * Η καταγραφή κοστίζει δύο {@link System#nanoTime()} και ένα atomic increment ανά κλήση,
+ * χωρίς κλείδωμα και χωρίς δεσμεύσεις μνήμης. Οι μετρήσεις διαβάζονται μέσω
+ * {@link #getMetrics()} (JMX ή κείμενο).
+ */
+public class InstrumentedAccountService implements IAccountService {
+    /** Το service που μετράται. */
+    private final IAccountService delegate;
+
+    private final ServiceMetrics metrics = new ServiceMetrics();
+
+    private final OperationMetrics insertAccount = metrics.operation("insertAccount");
+    private final OperationMetrics updateAccount = metrics.operation("updateAccount");
+    private final OperationMetrics deleteAccount = metrics.operation("deleteAccount");
+    private final OperationMetrics getAccountByIban = metrics.operation("getAccountByIban");
+    private final OperationMetrics getAllAccounts = metrics.operation("getAllAccounts");
+    private final OperationMetrics getAccountsPage = metrics.operation("getAccountsPage");
+    private final OperationMetrics streamAccounts = metrics.operation("streamAccounts");
+    private final OperationMetrics deposit = metrics.operation("deposit");
+    private final OperationMetrics withdraw = metrics.operation("withdraw");
+    private final OperationMetrics tryDeposit = metrics.operation("tryDeposit");
+    private final OperationMetrics tryWithdraw = metrics.operation("tryWithdraw");
+    private final OperationMetrics transfer = metrics.operation("transfer");
+    private final OperationMetrics applyBatch = metrics.operation("applyBatch");
+
+    /**
+     * Constructor που δέχεται το service προς μέτρηση (dependency injection).
+     *
+     * @param delegate το service
+     */
+    public InstrumentedAccountService(IAccountService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Επιστρέφει τις μετρήσεις του service.
+     *
+     * @return οι μετρήσεις
+     */
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account insertAccount(AccountInsertDTO dto)
+            throws DuplicateAccountException, IbanAlreadyExistsException, InvalidIbanException {
+        long start = System.nanoTime();
+        try {
+            return delegate.insertAccount(dto);
+        } catch (Exception e) {
+            failed(insertAccount, e);
+            throw e;
+        } finally {
+            insertAccount.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account updateAccount(String uuid, AccountUpdateDTO dto)
+            throws AccountNotFoundException, IbanAlreadyExistsException, DuplicateAccountException,
+            InvalidIbanException {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateAccount(uuid, dto);
+        } catch (Exception e) {
+            failed(updateAccount, e);
+            throw e;
+        } finally {
+            updateAccount.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAccount(String uuid) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAccount(uuid);
+        } catch (Exception e) {
+            failed(deleteAccount, e);
+            throw e;
+        } finally {
+            deleteAccount.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account getAccountByIban(String iban) throws AccountNotFoundException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAccountByIban(iban);
+        } catch (Exception e) {
+            failed(getAccountByIban, e);
+            throw e;
+        } finally {
+            getAccountByIban.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAllAccounts() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllAccounts();
+        } catch (RuntimeException e) {
+            failed(getAllAccounts, e);
+            throw e;
+        } finally {
+            getAllAccounts.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Account> getAccountsPage(String afterUuid, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAccountsPage(afterUuid, limit);
+        } catch (RuntimeException e) {
+            failed(getAccountsPage, e);
+            throw e;
+        } finally {
+            getAccountsPage.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Μετράται μόνο η δημιουργία του stream· η διάσχισή του γίνεται από τον καλούντα.
+     */
+    @Override
+    public Stream<Account> streamAccounts() {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamAccounts();
+        } catch (RuntimeException e) {
+            failed(streamAccounts, e);
+            throw e;
+        } finally {
+            streamAccounts.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account deposit(String uuid, double amount) throws AccountNotFoundException, NegativeAmountException {
+        long start = System.nanoTime();
+        try {
+            return delegate.deposit(uuid, amount);
+        } catch (Exception e) {
+            failed(deposit, e);
+            throw e;
+        } finally {
+            deposit.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account withdraw(String iban, String ssn, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException, SsnNotValidException {
+        long start = System.nanoTime();
+        try {
+            return delegate.withdraw(iban, ssn, amount);
+        } catch (Exception e) {
+            failed(withdraw, e);
+            throw e;
+        } finally {
+            withdraw.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Οι απορρίψεις καταγράφονται ως αποτυχημένες κλήσεις.
+     */
+    @Override
+    public TransactionResult tryDeposit(String uuid, double amount) {
+        long start = System.nanoTime();
+        try {
+            TransactionResult result = delegate.tryDeposit(uuid, amount);
+            if (!result.isOk()) tryDeposit.recordError();
+            return result;
+        } catch (RuntimeException e) {
+            failed(tryDeposit, e);
+            throw e;
+        } finally {
+            tryDeposit.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Οι απορρίψεις καταγράφονται ως αποτυχημένες κλήσεις.
+     */
+    @Override
+    public TransactionResult tryWithdraw(String iban, String ssn, double amount) {
+        long start = System.nanoTime();
+        try {
+            TransactionResult result = delegate.tryWithdraw(iban, ssn, amount);
+            if (!result.isOk()) tryWithdraw.recordError();
+            return result;
+        } catch (RuntimeException e) {
+            failed(tryWithdraw, e);
+            throw e;
+        } finally {
+            tryWithdraw.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Account transfer(String fromIban, String toIban, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException {
+        long start = System.nanoTime();
+        try {
+            return delegate.transfer(fromIban, toIban, amount);
+        } catch (Exception e) {
+            failed(transfer, e);
+            throw e;
+        } finally {
+            transfer.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TransactionResult> applyBatch(List<TransactionCommand> commands) {
+        long start = System.nanoTime();
+        try {
+            return delegate.applyBatch(commands);
+        } catch (RuntimeException e) {
+            failed(applyBatch, e);
+            throw e;
+        } finally {
+            applyBatch.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Καταγράφει μια αποτυχημένη κλήση και τον τύπο του exception.
+     */
+    private void failed(OperationMetrics operation, Exception e) {
+        operation.recordError();
+        metrics.recordException(e);
+    }
+}
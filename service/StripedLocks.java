@@ -0,0 +1,84 @@
+package gr.aueb.cf.ch18.bankapp.service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Σταθερό σύνολο από locks (lock striping) για συγχρονισμό ανά λογαριασμό.
+ *
+ * Κάθε κλειδί (π.χ. UUID λογαριασμού) αντιστοιχίζεται σε ένα από τα stripes
+ * βάσει hash, ώστε λειτουργίες σε διαφορετικούς λογαριασμούς να εκτελούνται
+ * παράλληλα χωρίς να δημιουργείται ένα lock ανά λογαριασμό.
+ */
+public class StripedLocks {
+    /** Προεπιλεγμένος αριθμός stripes. */
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * Default Constructor με {@link #DEFAULT_STRIPES} stripes.
+     */
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param stripes ο ελάχιστος αριθμός stripes (στρογγυλοποιείται σε δύναμη του 2)
+     */
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+        int size = (stripes == 1) ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Επιστρέφει τον δείκτη του stripe που αντιστοιχεί στο κλειδί.
+     * Χρησιμοποιείται και για καθολική σειρά κλειδώματος πολλών κλειδιών.
+     *
+     * @param key το κλειδί (π.χ. UUID λογαριασμού)
+     * @return ο δείκτης του stripe
+     */
+    public int indexFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h & mask;
+    }
+
+    /**
+     * Επιστρέφει το lock που αντιστοιχεί στο κλειδί.
+     *
+     * @param key το κλειδί (π.χ. UUID λογαριασμού)
+     * @return το lock του stripe
+     */
+    public Lock get(Object key) {
+        return locks[indexFor(key)];
+    }
+
+    /**
+     * Επιστρέφει το lock βάσει δείκτη stripe.
+     *
+     * @param index ο δείκτης του stripe
+     * @return το lock του stripe
+     */
+    public Lock getAt(int index) {
+        return locks[index];
+    }
+
+    /** Επιστρέφει τον αριθμό των stripes. */
+    public int size() {
+        return locks.length;
+    }
+}
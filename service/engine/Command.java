@@ -0,0 +1,37 @@
+package gr.aueb.cf.ch18.bankapp.service.engine;
+
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Θέση (slot) του {@link CommandRing} με μια κίνηση προς εκτέλεση.
+ *
+ * Τα αντικείμενα δημιουργούνται μία φορά μαζί με το ring και επαναχρησιμοποιούνται:
+ * ο producer γράφει τα πεδία πριν το publish και ο writer τα καθαρίζει μετά την εκτέλεση.
+ */
+final class Command {
+    static final int DEPOSIT = 0;
+    static final int WITHDRAW = 1;
+
+    /** Κίνηση που ακυρώθηκε πριν εκτελεστεί (το future έχει ήδη ολοκληρωθεί). */
+    static final int CANCELLED = 2;
+
+    int type;
+    Account account;
+    long amountMinor;
+    CompletableFuture<TransactionResult> future;
+
+    void set(int type, Account account, long amountMinor, CompletableFuture<TransactionResult> future) {
+        this.type = type;
+        this.account = account;
+        this.amountMinor = amountMinor;
+        this.future = future;
+    }
+
+    void clear() {
+        account = null;
+        future = null;
+    }
+}
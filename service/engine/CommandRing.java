@@ -0,0 +1,117 @@
+package gr.aueb.cf.ch18.bankapp.service.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Ring buffer σταθερού μεγέθους με πολλούς producers και έναν consumer (writer).
+ *
+ * Κάθε κίνηση παίρνει αύξοντα αριθμό (sequence) με ένα atomic increment ({@link #claim()}),
+ * γράφεται στο slot {@code sequence & mask} και δημοσιεύεται γράφοντας το sequence στον
+ * πίνακα {@code published} ({@link #publish(long)}). Ο writer διαβάζει τα slots με τη σειρά
+ * των sequences και τα απελευθερώνει κατά ομάδες ({@link #release(long)}). Δεν υπάρχουν locks·
+ * ο writer κοιμάται ({@link LockSupport#park()}) μόνο όταν το ring είναι άδειο, και ο producer
+ * που δημοσιεύει τον ξυπνά.
+ */
+final class CommandRing {
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /** Επαναλήψεις αναμονής με spin πριν ο writer κοιμηθεί. */
+    private static final int SPINS = 256;
+
+    private final Command[] slots;
+    private final long[] published;
+    private final int mask;
+
+    /** Το επόμενο sequence προς ανάθεση. */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** Τα sequences μικρότερα από αυτό έχουν εκτελεστεί και τα slots τους είναι ελεύθερα. */
+    private volatile long consumed;
+
+    /** Ο writer, όσο κοιμάται περιμένοντας νέα κίνηση, αλλιώς null. */
+    private volatile Thread sleepingWriter;
+
+    /**
+     * @param capacity το πλήθος των slots (δύναμη του 2)
+     */
+    CommandRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+
+        slots = new Command[capacity];
+        published = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Command();
+            published[i] = -1;
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Δεσμεύει το επόμενο sequence, περιμένοντας αν το ring είναι γεμάτο.
+     * Το sequence πρέπει να δημοσιευτεί οπωσδήποτε με {@link #publish(long)}.
+     *
+     * @param writerAlive ελέγχεται όσο το ring είναι γεμάτο· αν ο writer έχει σταματήσει,
+     *                    η αναμονή εγκαταλείπεται
+     * @return το sequence, ή -1 αν ο writer έχει σταματήσει και το ring είναι γεμάτο
+     */
+    long claim(BooleanSupplier writerAlive) {
+        long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= slots.length) {
+            if (!writerAlive.getAsBoolean()) return -1;
+            Thread.yield();
+        }
+        return sequence;
+    }
+
+    /** Επιστρέφει το slot ενός sequence. */
+    Command get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Δημοσιεύει το slot του sequence στον writer και τον ξυπνά αν κοιμάται.
+     */
+    void publish(long sequence) {
+        PUBLISHED.setVolatile(published, (int) sequence & mask, sequence);
+
+        Thread writer = sleepingWriter;
+        if (writer != null) LockSupport.unpark(writer);
+    }
+
+    /** Ελέγχει αν το slot του sequence έχει δημοσιευτεί. */
+    boolean isPublished(long sequence) {
+        return (long) PUBLISHED.getVolatile(published, (int) sequence & mask) == sequence;
+    }
+
+    /** Απελευθερώνει τα slots όλων των sequences μικρότερων του {@code sequence}. */
+    void release(long sequence) {
+        consumed = sequence;
+    }
+
+    /** Το πλήθος των sequences που έχουν δεσμευτεί. */
+    long claimedCount() {
+        return claimed.get();
+    }
+
+    /**
+     * Περιμένει (από τον writer) να δημοσιευτεί το sequence: πρώτα με spin και μετά κοιμάται.
+     * Μπορεί να επιστρέψει νωρίτερα (π.χ. από {@link LockSupport#unpark(Thread)} στο κλείσιμο),
+     * οπότε ο writer ελέγχει ξανά.
+     */
+    void await(long sequence) {
+        for (int i = 0; i < SPINS; i++) {
+            if (isPublished(sequence)) return;
+            Thread.onSpinWait();
+        }
+
+        sleepingWriter = Thread.currentThread();
+        if (!isPublished(sequence)) LockSupport.park(this);
+        sleepingWriter = null;
+    }
+}
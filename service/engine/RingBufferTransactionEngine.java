@@ -0,0 +1,252 @@
+package gr.aueb.cf.ch18.bankapp.service.engine;
+
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionStatus;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.Money;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Μηχανή εκτέλεσης καταθέσεων και αναλήψεων με έναν writer ανά partition (single writer),
+ * εναλλακτική του κλειδώματος ανά λογαριασμό του {@code AccountServiceImpl}.
+ *
+ * Οι λογαριασμοί μοιράζονται σε partitions βάσει hash του UUID. Κάθε partition έχει ένα
+ * προδεσμευμένο {@link CommandRing} και ένα δικό του thread (writer) που εκτελεί τις κινήσεις
+ * με τη σειρά δημοσίευσης. Αφού όλες οι κινήσεις ενός λογαριασμού περνούν από τον ίδιο writer,
+ * δεν χρειάζεται κλείδωμα και το CAS του υπολοίπου πετυχαίνει με την πρώτη προσπάθεια (εκτός
+ * αν ο λογαριασμός μεταβάλλεται παράλληλα και από άλλη διαδρομή, οπότε επαναλαμβάνεται).
+ *
+ * Οι producers (οι καλούντες) κάνουν μόνο τους ελέγχους που δεν εξαρτώνται από το υπόλοιπο
+ * (ποσό, ύπαρξη λογαριασμού, SSN) και δημοσιεύουν την κίνηση· το αποτέλεσμα επιστρέφεται
+ * ως {@link TransactionResult}, με τους ίδιους κωδικούς με το {@code tryDeposit}/{@code tryWithdraw}.
+ * Ο writer ολοκληρώνει τα futures κατά ομάδες, μετά την απελευθέρωση των slots τους
+ * (ένα exception του DAO ολοκληρώνει μόνο το future της κίνησης που το προκάλεσε)·
+ * εξαρτώμενες ενέργειες που δεν είναι {@code *Async} εκτελούνται στο thread του writer,
+ * οπότε πρέπει να είναι σύντομες.
+ *
+ * Η μηχανή δεν παίρνει τα striped locks του {@code AccountServiceImpl}: οι κινήσεις της
+ * εφαρμόζονται απευθείας στο DAO με compare-and-set και μπορούν να παρεμβληθούν σε μια
+ * μεταφορά ή ένα batch του service που βρίσκεται σε εξέλιξη. Δεν χάνεται καμία μεταβολή,
+ * αφού και το service εφαρμόζει τις δικές του με compare-and-set (επαναλαμβάνοντας σε
+ * σύγκρουση), αλλά ο έλεγχος υπολοίπου μιας μεταφοράς δεν αποκλείει ανάληψη από τη μηχανή
+ * πριν από τη χρέωση (η χρέωση τότε απορρίπτεται ως ανεπαρκές υπόλοιπο). Ούτε το
+ * {@code updateAccount} χρειάζεται αποκλεισμό, αφού δεν αλλάζει το υπόλοιπο.
+ */
+public class RingBufferTransactionEngine implements AutoCloseable {
+    /** Προεπιλεγμένο πλήθος slots ανά partition. */
+    public static final int DEFAULT_RING_SIZE = 1 << 16;
+
+    /** Μέγιστο πλήθος κινήσεων που εκτελούνται πριν ολοκληρωθούν τα futures τους. */
+    private static final int BATCH = 256;
+
+    private final IAccountDAO dao;
+    private final Partition[] partitions;
+    private volatile boolean closed;
+
+    /**
+     * Constructor με ένα partition ανά διαθέσιμο επεξεργαστή και {@link #DEFAULT_RING_SIZE} slots.
+     *
+     * @param dao το DAO των λογαριασμών
+     */
+    public RingBufferTransactionEngine(IAccountDAO dao) {
+        this(dao, Runtime.getRuntime().availableProcessors(), DEFAULT_RING_SIZE);
+    }
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param dao το DAO των λογαριασμών
+     * @param partitions το πλήθος των partitions (writer threads)
+     * @param ringSize το πλήθος των slots ανά partition (δύναμη του 2)
+     */
+    public RingBufferTransactionEngine(IAccountDAO dao, int partitions, int ringSize) {
+        if (partitions <= 0) throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+
+        this.dao = dao;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition(new CommandRing(ringSize), i);
+        }
+        for (Partition partition : this.partitions) {
+            partition.writer.start();
+        }
+    }
+
+    /**
+     * Κατάθεση σε λογαριασμό με βάση το UUID.
+     *
+     * @param uuid το UUID του λογαριασμού
+     * @param amount το ποσό προς κατάθεση
+     * @return future με {@code OK} και το νέο υπόλοιπο, ή τον λόγο απόρριψης
+     *         ({@code ACCOUNT_NOT_FOUND}, {@code NEGATIVE_AMOUNT}, {@code INVALID_AMOUNT})
+     */
+    public CompletableFuture<TransactionResult> deposit(String uuid, double amount) {
+        if (amount < 0) return rejected(TransactionStatus.NEGATIVE_AMOUNT);
+        if (!Money.isValid(amount)) return rejected(TransactionStatus.INVALID_AMOUNT);
+
+        Account account = dao.get(uuid);
+        if (account == null) return rejected(TransactionStatus.ACCOUNT_NOT_FOUND);
+
+        return submit(Command.DEPOSIT, account, Money.toMinor(amount));
+    }
+
+    /**
+     * Ανάληψη από λογαριασμό με βάση IBAN και SSN κατόχου.
+     *
+     * @param iban ο IBAN του λογαριασμού
+     * @param ssn το SSN του κατόχου
+     * @param amount το ποσό προς ανάληψη
+     * @return future με {@code OK} και το νέο υπόλοιπο, ή τον λόγο απόρριψης
+     *         ({@code ACCOUNT_NOT_FOUND}, {@code NEGATIVE_AMOUNT}, {@code INVALID_AMOUNT},
+     *         {@code SSN_NOT_VALID}, {@code INSUFFICIENT_BALANCE})
+     */
+    public CompletableFuture<TransactionResult> withdraw(String iban, String ssn, double amount) {
+        if (amount < 0) return rejected(TransactionStatus.NEGATIVE_AMOUNT);
+        if (!Money.isValid(amount)) return rejected(TransactionStatus.INVALID_AMOUNT);
+
+        Account account = dao.getByIban(iban);
+        if (account == null) return rejected(TransactionStatus.ACCOUNT_NOT_FOUND);
+        if (!account.getHolderView().getSsn().equals(ssn)) return rejected(TransactionStatus.SSN_NOT_VALID);
+
+        return submit(Command.WITHDRAW, account, Money.toMinor(amount));
+    }
+
+    /**
+     * Σταματά τη μηχανή: νέες κινήσεις απορρίπτονται ({@link RejectedExecutionException}),
+     * ενώ όσες έχουν ήδη δημοσιευτεί εκτελούνται πριν σταματήσουν οι writers.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.writer);
+        }
+
+        boolean interrupted = false;
+        for (Partition partition : partitions) {
+            while (partition.writer.isAlive()) {
+                try {
+                    partition.writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Δημοσιεύει μια κίνηση στο partition του λογαριασμού.
+     */
+    private CompletableFuture<TransactionResult> submit(int type, Account account, long amountMinor) {
+        CompletableFuture<TransactionResult> future = new CompletableFuture<>();
+        Partition partition = partitions[Math.floorMod(account.getUuid().hashCode(), partitions.length)];
+        CommandRing ring = partition.ring;
+
+        long sequence = ring.claim(partition.writer::isAlive);
+        if (sequence < 0) {
+            future.completeExceptionally(new RejectedExecutionException("Transaction engine is closed"));
+            return future;
+        }
+
+        Command command = ring.get(sequence);
+        if (closed) {
+            // Το sequence έχει ήδη δεσμευτεί, οπότε δημοσιεύεται ως ακυρωμένο
+            future.completeExceptionally(new RejectedExecutionException("Transaction engine is closed"));
+            command.set(Command.CANCELLED, null, 0, null);
+        } else {
+            command.set(type, account, amountMinor, future);
+        }
+        ring.publish(sequence);
+        return future;
+    }
+
+    /**
+     * Βρόχος του writer ενός partition: εκτελεί τις κινήσεις με τη σειρά, απελευθερώνει
+     * τα slots τους και ολοκληρώνει τα futures κατά ομάδες έως {@link #BATCH}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void runWriter(CommandRing ring) {
+        CompletableFuture<TransactionResult>[] futures = new CompletableFuture[BATCH];
+        TransactionResult[] results = new TransactionResult[BATCH];
+        long next = 0;
+
+        while (true) {
+            int count = 0;
+            while (count < BATCH && ring.isPublished(next)) {
+                Command command = ring.get(next++);
+                if (command.type != Command.CANCELLED) {
+                    try {
+                        results[count] = apply(command);
+                        futures[count++] = command.future;
+                    } catch (RuntimeException e) {
+                        command.future.completeExceptionally(e);
+                    }
+                }
+                command.clear();
+            }
+            ring.release(next);
+
+            for (int i = 0; i < count; i++) {
+                futures[i].complete(results[i]);
+                futures[i] = null;
+                results[i] = null;
+            }
+
+            if (count == 0 && !ring.isPublished(next)) {
+                if (closed && next == ring.claimedCount()) return;
+                ring.await(next);
+            }
+        }
+    }
+
+    /**
+     * Εκτελεί μια κίνηση στον λογαριασμό της.
+     */
+    private TransactionResult apply(Command command) {
+        Account account = command.account;
+        long amountMinor = command.amountMinor;
+
+        long current;
+        long updated;
+        do {
+            current = account.getBalanceMinor();
+
+            if (command.type == Command.DEPOSIT) {
+                if (current > Long.MAX_VALUE - amountMinor) {
+                    return new TransactionResult(TransactionStatus.INVALID_AMOUNT, Money.toMajor(current));
+                }
+                updated = current + amountMinor;
+            } else {
+                if (current < amountMinor) {
+                    return new TransactionResult(TransactionStatus.INSUFFICIENT_BALANCE, Money.toMajor(current));
+                }
+                updated = current - amountMinor;
+            }
+        } while (!dao.compareAndSetBalance(account, current, updated));
+
+        return new TransactionResult(TransactionStatus.OK, Money.toMajor(updated));
+    }
+
+    private static CompletableFuture<TransactionResult> rejected(TransactionStatus status) {
+        return CompletableFuture.completedFuture(TransactionResult.rejected(status));
+    }
+
+    /**
+     * Ένα partition: το ring του και ο writer του.
+     */
+    private final class Partition {
+        private final CommandRing ring;
+        private final Thread writer;
+
+        private Partition(CommandRing ring, int index) {
+            this.ring = ring;
+            this.writer = new Thread(() -> runWriter(ring), "transaction-engine-writer-" + index);
+            this.writer.setDaemon(true);
+        }
+    }
+}
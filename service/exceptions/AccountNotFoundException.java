@@ -21,6 +21,16 @@ import gr.aueb.cf.ch18.bankapp.model.Account;
         super("Account with iban: " + iban + " was not found.");
     }
 
+    /**
+     * Δημιουργεί εξαίρεση με βάση τον IBAN του λογαριασμού, προαιρετικά χωρίς stack trace.
+     *
+     * @param iban ο IBAN που δεν βρέθηκε
+     * @param writableStackTrace false για εξαίρεση χωρίς stack trace
+     */
+    public AccountNotFoundException(String iban, boolean writableStackTrace) {
+        super("Account with iban: " + iban + " was not found.", null, false, writableStackTrace);
+    }
+
     /**
      * Δημιουργεί εξαίρεση με βάση ένα αντικείμενο {@link Account}.
      *
@@ -19,4 +19,17 @@ package gr.aueb.cf.ch18.bankapp.service.exceptions;
     public InsufficientBalanceException(double balance, double amount) {
         super("Insufficient balance: " + balance + " for amount: " + amount);
     }
+
+    /**
+     * Δημιουργεί εξαίρεση με βάση το υπόλοιπο του λογαριασμού και το ποσό ανάληψης,
+     * προαιρετικά χωρίς stack trace (για απορρίψεις σε μεγάλο όγκο, όπου το stack trace
+     * κοστίζει περισσότερο από την ίδια τη λειτουργία).
+     *
+     * @param balance το τρέχον υπόλοιπο του λογαριασμού
+     * @param amount το ποσό που ζητείται για ανάληψη
+     * @param writableStackTrace false για εξαίρεση χωρίς stack trace
+     */
+    public InsufficientBalanceException(double balance, double amount, boolean writableStackTrace) {
+        super("Insufficient balance: " + balance + " for amount: " + amount, null, false, writableStackTrace);
+    }
 }
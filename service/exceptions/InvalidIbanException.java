@@ -0,0 +1,21 @@
+package gr.aueb.cf.ch18.bankapp.service.exceptions;
+
+/**
+ * Custom exception που δηλώνει ότι ένας IBAN δεν είναι έγκυρος (ISO 13616).
+ *
+ * Χρησιμοποιείται στο service layer κατά την εισαγωγή ή ενημέρωση λογαριασμών,
+ * ώστε λανθασμένοι IBAN να μη φτάνουν στην αποθήκευση.
+ */
+public class InvalidIbanException extends Exception {
+    /** Serial version UID για serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Δημιουργεί εξαίρεση με βάση τον μη έγκυρο IBAN.
+     *
+     * @param iban ο IBAN που δεν είναι έγκυρος
+     */
+    public InvalidIbanException(String iban) {
+        super("Iban: " + iban + " is not a valid IBAN.");
+    }
+}
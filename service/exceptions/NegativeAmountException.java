@@ -26,4 +26,14 @@ package gr.aueb.cf.ch18.bankapp.service.exceptions;
     public NegativeAmountException(double amount) {
         super("Amount: " + amount + " is negative.");
     }
+
+    /**
+     * Δημιουργεί εξαίρεση με βάση το αρνητικό ποσό, προαιρετικά χωρίς stack trace.
+     *
+     * @param amount το αρνητικό ποσό
+     * @param writableStackTrace false για εξαίρεση χωρίς stack trace
+     */
+    public NegativeAmountException(double amount, boolean writableStackTrace) {
+        super("Amount: " + amount + " is negative.", null, false, writableStackTrace);
+    }
 }
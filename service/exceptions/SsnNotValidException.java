@@ -19,4 +19,14 @@ package gr.aueb.cf.ch18.bankapp.service.exceptions;
     public SsnNotValidException(String ssn) {
         super("Ssn: " + ssn + " not valid");
     }
+
+    /**
+     * Δημιουργεί εξαίρεση με βάση τον μη έγκυρο SSN, προαιρετικά χωρίς stack trace.
+     *
+     * @param ssn ο μη έγκυρος αριθμός κοινωνικής ασφάλισης
+     * @param writableStackTrace false για εξαίρεση χωρίς stack trace
+     */
+    public SsnNotValidException(String ssn, boolean writableStackTrace) {
+        super("Ssn: " + ssn + " not valid", null, false, writableStackTrace);
+    }
 }
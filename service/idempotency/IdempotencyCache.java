@@ -0,0 +1,242 @@
+package gr.aueb.cf.ch18.bankapp.service.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache αποτελεσμάτων ανά κλειδί ιδεμποτικότητας (idempotency key), για την απόρριψη
+ * επαναλήψεων (retries) της ίδιας κλήσης.
+ *
+ * Η πρώτη κλήση με ένα κλειδί εκτελείται και το αποτέλεσμά της (τιμή ή checked exception)
+ * κρατιέται· κάθε επόμενη κλήση με το ίδιο κλειδί επιστρέφει το ίδιο αποτέλεσμα χωρίς να
+ * εκτελεστεί. Ταυτόχρονες κλήσεις με κλειδί που εκτελείται ακόμη περιμένουν την πρώτη.
+ * Ένα {@link RuntimeException} ή {@link Error} δεν κρατιέται (το κλειδί αφαιρείται), ώστε
+ * μια απρόβλεπτη αποτυχία να μπορεί να ξαναδοκιμαστεί. Το ίδιο κλειδί με διαφορετικό αίτημα
+ * απορρίπτεται.
+ *
+ * Τα κλειδιά μοιράζονται σε segments βάσει hash, το καθένα με δικό του lock και δικό του
+ * {@link LinkedHashMap} σε σειρά εισαγωγής, οπότε κλήσεις με διαφορετικά κλειδιά σπάνια
+ * ανταγωνίζονται και το lock κρατιέται μόνο για την αναζήτηση/εισαγωγή, όχι κατά την
+ * εκτέλεση. Κάθε segment αφαιρεί από την αρχή του τα ολοκληρωμένα κλειδιά που έληξαν (TTL)
+ * ή που ξεπερνούν το μέγιστο πλήθος του· κλειδιά σε εκτέλεση παρακάμπτονται και δεν
+ * αφαιρούνται ποτέ, οπότε το όριο πλήθους ξεπερνιέται μόνο κατά τις κλήσεις σε εκτέλεση.
+ */
+public class IdempotencyCache {
+    /** Προεπιλεγμένο μέγιστο πλήθος κλειδιών. */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+
+    /** Προεπιλεγμένη διάρκεια ζωής ενός αποτελέσματος. */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    /** Προεπιλεγμένο πλήθος segments. */
+    public static final int DEFAULT_SEGMENTS = 64;
+
+    private final Segment[] segments;
+    private final int maxEntriesPerSegment;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder replays = new LongAdder();
+
+    /**
+     * Constructor με τις προεπιλεγμένες παραμέτρους.
+     */
+    public IdempotencyCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, DEFAULT_SEGMENTS, System::nanoTime);
+    }
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param maxEntries το μέγιστο πλήθος κλειδιών (μοιράζεται ισόποσα στα segments)
+     * @param ttlMillis η διάρκεια ζωής ενός αποτελέσματος από την ολοκλήρωσή του
+     * @param segments το πλήθος των segments (στρογγυλοποιείται στην επόμενη δύναμη του 2)
+     * @param nanoClock το ρολόι σε nanoseconds (π.χ. {@link System#nanoTime()})
+     */
+    public IdempotencyCache(int maxEntries, long ttlMillis, int segments, LongSupplier nanoClock) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+        if (segments <= 0) throw new IllegalArgumentException("Segments must be positive: " + segments);
+
+        int count = Integer.highestOneBit(Math.min(segments, 1 << 16) * 2 - 1);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment();
+        }
+        this.maxEntriesPerSegment = Math.max(1, maxEntries / count);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Εκτελεί την κλήση μία φορά ανά κλειδί και επιστρέφει το αποτέλεσμά της.
+     *
+     * @param key το κλειδί ιδεμποτικότητας
+     * @param request περιγραφή του αιτήματος (λειτουργία και παράμετροι), για τον εντοπισμό
+     *                επαναχρησιμοποίησης του κλειδιού σε διαφορετικό αίτημα
+     * @param call η κλήση
+     * @param <T> ο τύπος του αποτελέσματος
+     * @return το αποτέλεσμα της πρώτης εκτέλεσης με αυτό το κλειδί
+     * @throws Exception το exception της πρώτης εκτέλεσης με αυτό το κλειδί
+     * @throws IllegalArgumentException αν το κλειδί χρησιμοποιήθηκε ήδη για διαφορετικό αίτημα
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String request, Call<T> call) throws Exception {
+        Segment segment = segmentFor(key);
+        Entry entry = null;
+        Entry existing;
+
+        synchronized (segment) {
+            existing = segment.entries.get(key);
+            if (existing != null && existing.isExpired(nanoClock.getAsLong(), ttlNanos)) {
+                segment.entries.remove(key);
+                existing = null;
+            }
+            if (existing == null) {
+                entry = new Entry(request);
+                segment.entries.put(key, entry);
+                evict(segment);
+            }
+        }
+
+        if (existing != null) {
+            if (!existing.request.equals(request)) {
+                throw new IllegalArgumentException("Idempotency key reused for a different request: " + key);
+            }
+            replays.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T value = call.call();
+            complete(segment, entry, value, null);
+            return value;
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                segment.entries.remove(key, entry);
+            }
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            complete(segment, entry, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των κλειδιών (μαζί με όσα έχουν λήξει αλλά δεν έχουν αφαιρεθεί ακόμη).
+     *
+     * @return το πλήθος των κλειδιών
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των κλήσεων που απαντήθηκαν από το cache χωρίς εκτέλεση.
+     *
+     * @return το πλήθος των επαναλήψεων
+     */
+    public long getReplays() {
+        return replays.sum();
+    }
+
+    /**
+     * Ολοκληρώνει μια εκτέλεση: ξεκινά το TTL της και ξυπνά όσους την περιμένουν.
+     */
+    private void complete(Segment segment, Entry entry, Object value, Exception failure) {
+        synchronized (segment) {
+            entry.completedAt = nanoClock.getAsLong();
+            entry.done = true;
+        }
+        if (failure == null) {
+            entry.outcome.complete(value);
+        } else {
+            entry.outcome.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Αφαιρεί, από τα παλαιότερα προς τα νεότερα, τα ολοκληρωμένα κλειδιά του segment που
+     * έληξαν ή περισσεύουν. Τα κλειδιά σε εκτέλεση παρακάμπτονται, ώστε μια κλήση που αργεί
+     * (ή κόλλησε) να μην εμποδίζει την απομάκρυνση των επόμενων. Καλείται με το lock του segment.
+     */
+    private void evict(Segment segment) {
+        long now = nanoClock.getAsLong();
+        Iterator<Entry> iterator = segment.entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (!eldest.done) continue;
+            if (segment.entries.size() <= maxEntriesPerSegment && !eldest.isExpired(now, ttlNanos)) return;
+
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Περιμένει το αποτέλεσμα μιας εκτέλεσης και το επιστρέφει ή ρίχνει το exception της.
+     */
+    private static Object await(Entry entry) throws Exception {
+        try {
+            return entry.outcome.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return segments[(hash ^ hash >>> 16) & (segments.length - 1)];
+    }
+
+    /**
+     * Κλήση που μπορεί να ρίξει checked exception.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Ένα segment: κλειδιά σε σειρά εισαγωγής, φρουρούμενα από το lock του ίδιου του segment.
+     */
+    private static final class Segment {
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+    }
+
+    /**
+     * Η εκτέλεση ενός κλειδιού: το αίτημα και το (μελλοντικό) αποτέλεσμά του.
+     */
+    private static final class Entry {
+        private final String request;
+        private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        /** Αν ολοκληρώθηκε η εκτέλεση (φρουρείται από το lock του segment). */
+        private boolean done;
+
+        /** Η στιγμή ολοκλήρωσης σε nanoseconds (φρουρείται από το lock του segment). */
+        private long completedAt;
+
+        private Entry(String request) {
+            this.request = request;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return done && now - completedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package gr.aueb.cf.ch18.bankapp.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ιστόγραμμα καθυστερήσεων (σε nanoseconds) με log-linear buckets, στο
+ * πνεύμα του HdrHistogram.
+ *
+ * Οι τιμές κάτω από {@value #SUB_BUCKETS} έχουν δικό τους bucket. Κάθε μεγαλύτερη
+ * δύναμη του 2 χωρίζεται σε {@value #SUB_BUCKETS} ίσα buckets, οπότε το σχετικό
+ * σφάλμα των percentiles είναι το πολύ 1/{@value #SUB_BUCKETS} (~3%) σε όλο το εύρος του {@code long}.
+ *
+ * Η καταγραφή είναι ένα atomic increment χωρίς κλείδωμα και χωρίς δεσμεύσεις μνήμης.
+ * Τα percentiles υπολογίζονται από στιγμιότυπο των μετρητών, οπότε είναι weakly
+ * consistent ως προς ταυτόχρονες καταγραφές.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Καταγράφει μια τιμή. Αρνητικές τιμές καταγράφονται ως 0.
+     *
+     * @param nanos η καθυστέρηση σε nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.getAndIncrement(indexOf(value));
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των καταγεγραμμένων τιμών.
+     *
+     * @return το πλήθος
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Επιστρέφει τη μέγιστη καταγεγραμμένη τιμή.
+     *
+     * @return η μέγιστη τιμή σε nanoseconds, ή 0 αν δεν υπάρχουν τιμές
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Επιστρέφει τη μέση τιμή, βάσει του μέσου κάθε bucket.
+     *
+     * @return η μέση τιμή σε nanoseconds, ή 0 αν δεν υπάρχουν τιμές
+     */
+    public double mean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count == 0) continue;
+
+            total += count;
+            sum += count * ((lowestValueAt(i) + (double) highestValueAt(i)) / 2);
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Επιστρέφει την τιμή στο δοσμένο percentile: το άνω όριο του bucket στο οποίο
+     * βρίσκεται το percentile, περιορισμένο από τη μέγιστη τιμή.
+     *
+     * @param percentile το percentile (0 έως 100)
+     * @return η τιμή σε nanoseconds, ή 0 αν δεν υπάρχουν τιμές
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(highestValueAt(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Μηδενίζει το ιστόγραμμα.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        return lowestValueAt(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,97 @@
+package gr.aueb.cf.ch18.bankapp.service.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Μετρήσεις μιας λειτουργίας του service: ιστόγραμμα καθυστερήσεων
+ * (το πλήθος του οποίου είναι και το πλήθος κλήσεων) και πλήθος αποτυχιών.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * @param name το όνομα της λειτουργίας
+     */
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Καταγράφει μια κλήση.
+     *
+     * @param nanos η διάρκεια της κλήσης σε nanoseconds
+     */
+    public void record(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * Καταγράφει μια κλήση που τερμάτισε με exception.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /** Επιστρέφει το ιστόγραμμα καθυστερήσεων. */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latency.mean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.valueAtPercentile(50);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.valueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latency.valueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.max();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+    }
+
+    /**
+     * Επιστρέφει τις μετρήσεις σε μία γραμμή κειμένου.
+     */
+    @Override
+    public String toString() {
+        return String.format("%-18s count=%d errors=%d mean=%.0fns p50=%dns p99=%dns p999=%dns max=%dns",
+                name, getCount(), getErrors(), getMeanNanos(), getP50Nanos(), getP99Nanos(), getP999Nanos(),
+                getMaxNanos());
+    }
+}
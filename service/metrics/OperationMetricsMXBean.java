@@ -0,0 +1,35 @@
+package gr.aueb.cf.ch18.bankapp.service.metrics;
+
+/**
+ * JMX interface με τις μετρήσεις μιας λειτουργίας του service.
+ * Οι χρόνοι είναι σε nanoseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    /** Επιστρέφει το όνομα της λειτουργίας. */
+    String getName();
+
+    /** Επιστρέφει το πλήθος των κλήσεων. */
+    long getCount();
+
+    /** Επιστρέφει το πλήθος των κλήσεων που τερμάτισαν με exception. */
+    long getErrors();
+
+    /** Επιστρέφει τη μέση καθυστέρηση. */
+    double getMeanNanos();
+
+    /** Επιστρέφει τη διάμεσο (p50) της καθυστέρησης. */
+    long getP50Nanos();
+
+    /** Επιστρέφει το p99 της καθυστέρησης. */
+    long getP99Nanos();
+
+    /** Επιστρέφει το p99.9 της καθυστέρησης. */
+    long getP999Nanos();
+
+    /** Επιστρέφει τη μέγιστη καθυστέρηση. */
+    long getMaxNanos();
+
+    /** Μηδενίζει τις μετρήσεις. */
+    void reset();
+}
@@ -0,0 +1,99 @@
+package gr.aueb.cf.ch18.bankapp.service.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Συλλογή μετρήσεων ενός service: μετρήσεις ανά λειτουργία ({@link OperationMetrics})
+ * και πλήθος ανά τύπο exception.
+ *
+ * Οι μετρήσεις εκτίθενται μέσω JMX ({@link #registerMBeans(String)}) και σε απλό
+ * κείμενο ({@link #dump()}).
+ */
+public class ServiceMetrics implements ServiceMetricsMXBean {
+    private static final String DOMAIN = "gr.aueb.cf.ch18.bankapp";
+
+    private final Map<String, OperationMetrics> operations = new LinkedHashMap<>();
+    private final Map<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+    /**
+     * Δημιουργεί (ή επιστρέφει) τις μετρήσεις μιας λειτουργίας.
+     * Οι λειτουργίες δημιουργούνται κατά την αρχικοποίηση, πριν ξεκινήσουν οι καταγραφές.
+     *
+     * @param name το όνομα της λειτουργίας
+     * @return οι μετρήσεις της λειτουργίας
+     */
+    public synchronized OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * Επιστρέφει τις μετρήσεις όλων των λειτουργιών.
+     *
+     * @return μη τροποποιήσιμη συλλογή
+     */
+    public synchronized Collection<OperationMetrics> getOperations() {
+        return Collections.unmodifiableCollection(operations.values());
+    }
+
+    /**
+     * Καταγράφει ένα exception που επέστρεψε στον καλούντα.
+     *
+     * @param e το exception
+     */
+    public void recordException(Throwable e) {
+        exceptions.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public Map<String, Long> getExceptionCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        exceptions.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (OperationMetrics operation : getOperations()) {
+            sb.append(operation).append(System.lineSeparator());
+        }
+        getExceptionCounts().forEach((type, count) ->
+                sb.append("exception ").append(type).append('=').append(count).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics operation : getOperations()) {
+            operation.reset();
+        }
+        exceptions.clear();
+    }
+
+    /**
+     * Καταχωρεί τις μετρήσεις ως MBeans στον platform MBean server:
+     * {@code gr.aueb.cf.ch18.bankapp:type=<service>,name=metrics} και ένα
+     * {@code gr.aueb.cf.ch18.bankapp:type=<service>,operation=<λειτουργία>} ανά λειτουργία.
+     *
+     * @param serviceName το όνομα του service (π.χ. AccountService)
+     * @throws JMException αν αποτύχει η καταχώρηση
+     */
+    public void registerMBeans(String serviceName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(DOMAIN + ":type=" + serviceName + ",name=metrics"));
+        for (OperationMetrics operation : getOperations()) {
+            server.registerMBean(operation,
+                    new ObjectName(DOMAIN + ":type=" + serviceName + ",operation=" + operation.getName()));
+        }
+    }
+}
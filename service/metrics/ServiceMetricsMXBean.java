@@ -0,0 +1,18 @@
+package gr.aueb.cf.ch18.bankapp.service.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX interface με τις συνολικές μετρήσεις του service.
+ */
+public interface ServiceMetricsMXBean {
+
+    /** Επιστρέφει το πλήθος ανά τύπο exception (απλό όνομα κλάσης). */
+    Map<String, Long> getExceptionCounts();
+
+    /** Επιστρέφει όλες τις μετρήσεις σε μορφή απλού κειμένου. */
+    String dump();
+
+    /** Μηδενίζει όλες τις μετρήσεις. */
+    void reset();
+}
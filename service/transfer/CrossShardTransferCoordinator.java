@@ -0,0 +1,343 @@
+package gr.aueb.cf.ch18.bankapp.service.transfer;
+
+import gr.aueb.cf.ch18.bankapp.dao.ITransferLegDAO;
+import gr.aueb.cf.ch18.bankapp.dao.sharded.ShardedAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.Money;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.AccountNotFoundException;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.InsufficientBalanceException;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.NegativeAmountException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Συντονιστής μεταφορών πάνω σε {@link ShardedAccountDAO}, με πρωτόκολλο δύο φάσεων
+ * για μεταφορές μεταξύ διαφορετικών shards.
+ *
+ * <ul>
+ *     <li>Ίδιο shard: χρέωση και πίστωση απευθείας με compare-and-set, όπως στο
+ *     {@code AccountServiceImpl.transfer}, χωρίς εγγραφές στο {@link TransferIntentLog}.</li>
+ *     <li>Διαφορετικά shards: η μεταφορά καταγράφεται durable ({@link TransferPhase#PREPARED})
+ *     και το ποσό δεσμεύεται με χρέωση του λογαριασμού προέλευσης· η δέσμευση καταγράφεται
+ *     durable ({@link TransferPhase#RESERVED}), το ποσό πιστώνεται στον λογαριασμό προορισμού
+ *     και η μεταφορά ολοκληρώνεται ({@link TransferPhase#COMMITTED}). Αν η πίστωση δεν μπορεί
+ *     να γίνει, η ακύρωση καταγράφεται durable ({@link TransferPhase#CANCELLING}), η δέσμευση
+ *     επιστρέφεται και η μεταφορά ακυρώνεται ({@link TransferPhase#ABORTED}).</li>
+ * </ul>
+ * Δεν κρατιούνται locks μεταξύ των φάσεων, οπότε δεν υπάρχει κίνδυνος deadlock· το CAS
+ * της χρέωσης εξασφαλίζει ότι το υπόλοιπο δεν γίνεται ποτέ αρνητικό.
+ *
+ * Κάθε φάση γίνεται durable πριν από τη μεταβολή υπολοίπου που ακολουθεί (write-ahead),
+ * και κάθε μεταβολή (χρέωση, πίστωση, επιστροφή) εφαρμόζεται ως σκέλος της μεταφοράς
+ * ({@link ITransferLegDAO}), που καταγράφεται στο shard του λογαριασμού μαζί με τη μεταβολή.
+ * Έτσι μετά από crash το {@link #recover()} ξέρει, για τη φάση στην οποία έμεινε κάθε
+ * μεταφορά, αν η μεταβολή που ακολουθούσε επιβίωσε, και συνεχίζει χωρίς να την επαναλάβει:
+ * μεταφορές που δεσμεύτηκαν ολοκληρώνονται (roll forward) και όσες δεν χρεώθηκαν ακυρώνονται.
+ * Αυτό προϋποθέτει shards που καταγράφουν σκέλη (π.χ. {@code JournaledAccountDAO})· τα
+ * in-memory shards χάνουν ούτως ή άλλως την κατάστασή τους σε επανεκκίνηση.
+ */
+public class CrossShardTransferCoordinator {
+    /** Σκέλος χρέωσης του λογαριασμού προέλευσης. */
+    private static final int DEBIT_LEG = 0;
+
+    /** Σκέλος πίστωσης του λογαριασμού προορισμού. */
+    private static final int CREDIT_LEG = 1;
+
+    /** Σκέλος επιστροφής της δέσμευσης στον λογαριασμό προέλευσης. */
+    private static final int REFUND_LEG = 2;
+
+    /** Κάθε πόσες μεταφορές ξεχνιούνται τα σκέλη των ολοκληρωμένων μεταφορών (δύναμη του 2). */
+    private static final int FORGET_INTERVAL = 1024;
+
+    private final ShardedAccountDAO dao;
+    private final TransferIntentLog log;
+
+    /**
+     * Constructor που δέχεται το sharded DAO και το log των προθέσεων (dependency injection).
+     *
+     * @param dao το sharded DAO των λογαριασμών
+     * @param log το log των μεταφορών μεταξύ shards
+     */
+    public CrossShardTransferCoordinator(ShardedAccountDAO dao, TransferIntentLog log) {
+        this.dao = dao;
+        this.log = log;
+    }
+
+    /**
+     * Μεταφορά ποσού μεταξύ δύο λογαριασμών. Μεταφορές μεταξύ shards ακολουθούν το πρωτόκολλο
+     * δύο φάσεων· μεταφορές μέσα στο ίδιο shard εκτελούνται απευθείας.
+     *
+     * @param fromIban ο IBAN του λογαριασμού προέλευσης
+     * @param toIban ο IBAN του λογαριασμού προορισμού
+     * @param amount το ποσό προς μεταφορά
+     * @return ο λογαριασμός προέλευσης μετά τη μεταφορά
+     * @throws AccountNotFoundException αν δεν βρεθεί κάποιος από τους λογαριασμούς
+     * @throws NegativeAmountException αν το ποσό είναι αρνητικό
+     * @throws InsufficientBalanceException αν το υπόλοιπο προέλευσης δεν επαρκεί
+     * @throws IllegalArgumentException αν οι δύο IBAN αφορούν τον ίδιο λογαριασμό
+     * @throws ArithmeticException αν η πίστωση υπερχειλίσει το υπόλοιπο προορισμού
+     */
+    public Account transfer(String fromIban, String toIban, double amount)
+            throws AccountNotFoundException, NegativeAmountException, InsufficientBalanceException {
+        Account from;
+        Account to;
+
+        try {
+            if (amount < 0) {
+                throw new NegativeAmountException(amount);
+            }
+
+            long amountMinor = Money.toMinor(amount);
+            from = dao.getByIban(fromIban);
+
+            if (from == null) {
+                throw new AccountNotFoundException(fromIban);
+            }
+
+            to = dao.getByIban(toIban);
+
+            if (to == null) {
+                throw new AccountNotFoundException(toIban);
+            }
+
+            // Σύγκριση με UUID: DAOs όπως το off-heap επιστρέφουν νέο αντίγραφο σε κάθε ανάγνωση
+            if (from.getUuid().equals(to.getUuid())) {
+                throw new IllegalArgumentException("Cannot transfer from iban: " + fromIban + " to itself.");
+            }
+
+            if (dao.shardIndexOf(from.getIban()) == dao.shardIndexOf(to.getIban())) {
+                transferWithinShard(from, to, amountMinor, amount);
+            } else {
+                transferAcrossShards(from, to, amountMinor, amount);
+            }
+            return from;
+        } catch (AccountNotFoundException | NegativeAmountException | InsufficientBalanceException e) {
+            throw e;
+        }
+    }
+
+    /**
+     * Ολοκληρώνει τις εκκρεμείς μεταφορές του log ({@link TransferIntentLog#inDoubt()}).
+     * Πρέπει να καλείται κατά την εκκίνηση, αφού επανέλθουν τα δεδομένα των shards και
+     * πριν ξεκινήσουν νέες μεταφορές.
+     *
+     * <ul>
+     *     <li>{@link TransferPhase#PREPARED}: αν η χρέωση επιβίωσε, η μεταφορά συνεχίζει όπως
+     *     από {@code RESERVED}· αλλιώς ακυρώνεται.</li>
+     *     <li>{@link TransferPhase#RESERVED}: η πίστωση γίνεται, αν δεν έχει ήδη γίνει, και η
+     *     μεταφορά ολοκληρώνεται· αν ο λογαριασμός προορισμού δεν υπάρχει πλέον, η δέσμευση
+     *     επιστρέφεται.</li>
+     *     <li>{@link TransferPhase#CANCELLING}: η δέσμευση επιστρέφεται, αν δεν έχει ήδη
+     *     επιστραφεί, και η μεταφορά ακυρώνεται.</li>
+     * </ul>
+     *
+     * @return το πλήθος των μεταφορών που ολοκληρώθηκαν ή ακυρώθηκαν· μεταφορές των οποίων η
+     *         δέσμευση πρέπει να επιστραφεί σε λογαριασμό που δεν υπάρχει πλέον παραμένουν εκκρεμείς
+     */
+    public int recover() {
+        int resolved = 0;
+
+        for (TransferIntent intent : log.inDoubt()) {
+            if (intent.getPhase() == TransferPhase.PREPARED) {
+                if (!dao.isLegApplied(intent.getFromIban(), legId(intent, DEBIT_LEG))) {
+                    log.record(intent, TransferPhase.ABORTED, true);
+                    resolved++;
+                    continue;
+                }
+                intent = log.record(intent, TransferPhase.RESERVED, true);
+            }
+
+            boolean done;
+            if (intent.getPhase() == TransferPhase.RESERVED) {
+                try {
+                    done = complete(intent, dao.getByIban(intent.getToIban()));
+                } catch (ArithmeticException e) {
+                    done = cancel(intent);
+                }
+            } else {
+                done = refund(intent);
+            }
+            if (done) resolved++;
+        }
+
+        forgetCompletedLegs();
+        return resolved;
+    }
+
+    /**
+     * Μεταφορά μέσα στο ίδιο shard: χρέωση και πίστωση με CAS, με αναίρεση της χρέωσης
+     * αν η πίστωση υπερχειλίσει.
+     */
+    private void transferWithinShard(Account from, Account to, long amountMinor, double amount)
+            throws InsufficientBalanceException {
+        debit(from, amountMinor, amount);
+
+        try {
+            credit(to, amountMinor);
+        } catch (ArithmeticException e) {
+            // Αναίρεση της χρέωσης ώστε η μεταφορά να μείνει all-or-nothing
+            credit(from, amountMinor);
+            throw e;
+        }
+    }
+
+    /**
+     * Μεταφορά μεταξύ shards με πρωτόκολλο δύο φάσεων (βλ. περιγραφή της κλάσης).
+     * Αν μια μεταβολή αποτύχει με σφάλμα που δεν δείχνει αν εφαρμόστηκε (π.χ. I/O του
+     * journal), η μεταφορά μένει εκκρεμής για το {@link #recover()}.
+     */
+    private void transferAcrossShards(Account from, Account to, long amountMinor, double amount)
+            throws InsufficientBalanceException {
+        TransferIntent intent = log.prepare(from.getIban(), to.getIban(), amountMinor);
+
+        // Φάση 1: δέσμευση του ποσού στο shard προέλευσης
+        try {
+            debit(from, amountMinor, amount, legId(intent, DEBIT_LEG));
+        } catch (InsufficientBalanceException e) {
+            log.record(intent, TransferPhase.ABORTED, false);
+            throw e;
+        }
+        intent = log.record(intent, TransferPhase.RESERVED, true);
+
+        // Φάση 2: πίστωση στο shard προορισμού και ολοκλήρωση ή ακύρωση
+        try {
+            complete(intent, to);
+        } catch (ArithmeticException e) {
+            cancel(intent);
+            throw e;
+        } finally {
+            if ((intent.getId() & (FORGET_INTERVAL - 1)) == 0) forgetCompletedLegs();
+        }
+    }
+
+    /**
+     * Πιστώνει τον λογαριασμό προορισμού (αν δεν έχει ήδη πιστωθεί) και ολοκληρώνει τη
+     * μεταφορά. Αν ο λογαριασμός δεν υπάρχει πλέον, η μεταφορά ακυρώνεται.
+     *
+     * @return true αν η μεταφορά έφτασε σε τελική φάση
+     * @throws ArithmeticException αν η πίστωση υπερχειλίσει· ο καλών ακυρώνει τη μεταφορά
+     */
+    private boolean complete(TransferIntent intent, Account to) {
+        long legId = legId(intent, CREDIT_LEG);
+
+        if (!dao.isLegApplied(intent.getToIban(), legId)) {
+            if (to == null) return cancel(intent);
+
+            credit(to, intent.getAmountMinor(), legId);
+        }
+
+        // Η πίστωση είναι ήδη καταγεγραμμένη ως σκέλος, οπότε η εγγραφή δεν χρειάζεται fsync
+        log.record(intent, TransferPhase.COMMITTED, false);
+        return true;
+    }
+
+    /**
+     * Καταγράφει durable την ακύρωση και επιστρέφει τη δέσμευση στον λογαριασμό προέλευσης.
+     *
+     * @return true αν η μεταφορά ακυρώθηκε
+     */
+    private boolean cancel(TransferIntent intent) {
+        return refund(log.record(intent, TransferPhase.CANCELLING, true));
+    }
+
+    /**
+     * Επιστρέφει τη δέσμευση στον λογαριασμό προέλευσης (αν δεν έχει ήδη επιστραφεί) και
+     * ακυρώνει τη μεταφορά.
+     *
+     * @return true αν η μεταφορά ακυρώθηκε, false αν ο λογαριασμός προέλευσης δεν υπάρχει πλέον
+     */
+    private boolean refund(TransferIntent intent) {
+        long legId = legId(intent, REFUND_LEG);
+
+        if (!dao.isLegApplied(intent.getFromIban(), legId)) {
+            Account from = dao.getByIban(intent.getFromIban());
+            if (from == null) return false;
+
+            credit(from, intent.getAmountMinor(), legId);
+        }
+        log.record(intent, TransferPhase.ABORTED, false);
+        return true;
+    }
+
+    /**
+     * Ξεχνά στα shards τα σκέλη των μεταφορών που έχουν φτάσει σε τελική φάση. Ο επόμενος
+     * αριθμός μεταφοράς διαβάζεται πριν από τις εκκρεμείς μεταφορές, ώστε μια μεταφορά που
+     * ξεκινά στο μεταξύ να μη θεωρηθεί ολοκληρωμένη. Οι τελικές φάσεις καταγράφονται χωρίς
+     * fsync, οπότε το log γίνεται durable πριν ξεχαστεί οποιοδήποτε σκέλος: αλλιώς μετά από
+     * crash μια μεταφορά θα μπορούσε να ξαναβρεθεί εκκρεμής χωρίς τα σκέλη της.
+     */
+    private void forgetCompletedLegs() {
+        long nextId = log.nextId();
+        Set<Long> pending = new HashSet<>();
+        for (TransferIntent intent : log.inDoubt()) {
+            pending.add(intent.getId());
+        }
+        log.sync();
+
+        dao.forgetLegs(legId -> {
+            long id = legId >>> 2;
+            return id < nextId && !pending.contains(id);
+        });
+    }
+
+    /**
+     * Το αναγνωριστικό ενός σκέλους της μεταφοράς.
+     */
+    private static long legId(TransferIntent intent, int leg) {
+        return intent.getId() << 2 | leg;
+    }
+
+    /**
+     * Χρεώνει τον λογαριασμό με CAS, αν το υπόλοιπο επαρκεί.
+     */
+    private void debit(Account account, long amountMinor, double amount) throws InsufficientBalanceException {
+        long current;
+        do {
+            current = account.getBalanceMinor();
+
+            if (current < amountMinor) {
+                throw new InsufficientBalanceException(Money.toMajor(current), amount);
+            }
+        } while (!dao.compareAndSetBalance(account, current, current - amountMinor));
+    }
+
+    /**
+     * Χρεώνει τον λογαριασμό με CAS ως σκέλος μεταφοράς, αν το υπόλοιπο επαρκεί.
+     */
+    private void debit(Account account, long amountMinor, double amount, long legId)
+            throws InsufficientBalanceException {
+        long current;
+        do {
+            current = account.getBalanceMinor();
+
+            if (current < amountMinor) {
+                throw new InsufficientBalanceException(Money.toMajor(current), amount);
+            }
+        } while (!dao.compareAndSetBalance(account, current, current - amountMinor, legId));
+    }
+
+    /**
+     * Πιστώνει τον λογαριασμό με CAS.
+     *
+     * @throws ArithmeticException αν το νέο υπόλοιπο υπερχειλίζει
+     */
+    private void credit(Account account, long amountMinor) {
+        long current;
+        do {
+            current = account.getBalanceMinor();
+        } while (!dao.compareAndSetBalance(account, current, Math.addExact(current, amountMinor)));
+    }
+
+    /**
+     * Πιστώνει τον λογαριασμό με CAS ως σκέλος μεταφοράς.
+     *
+     * @throws ArithmeticException αν το νέο υπόλοιπο υπερχειλίζει
+     */
+    private void credit(Account account, long amountMinor, long legId) {
+        long current;
+        do {
+            current = account.getBalanceMinor();
+        } while (!dao.compareAndSetBalance(account, current, Math.addExact(current, amountMinor), legId));
+    }
+}
@@ -0,0 +1,71 @@
+package gr.aueb.cf.ch18.bankapp.service.transfer;
+
+/**
+ * Αμετάβλητη εγγραφή πρόθεσης (intent) μιας μεταφοράς μεταξύ shards: ποια μεταφορά
+ * ζητήθηκε και σε ποια φάση βρίσκεται.
+ */
+public final class TransferIntent {
+    private final long id;
+    private final String fromIban;
+    private final String toIban;
+    private final long amountMinor;
+    private final TransferPhase phase;
+
+    /**
+     * Overloaded Constructor.
+     *
+     * @param id ο αύξων αριθμός της μεταφοράς
+     * @param fromIban ο IBAN προέλευσης
+     * @param toIban ο IBAN προορισμού
+     * @param amountMinor το ποσό σε λεπτά
+     * @param phase η φάση της μεταφοράς
+     */
+    public TransferIntent(long id, String fromIban, String toIban, long amountMinor, TransferPhase phase) {
+        this.id = id;
+        this.fromIban = fromIban;
+        this.toIban = toIban;
+        this.amountMinor = amountMinor;
+        this.phase = phase;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getFromIban() {
+        return fromIban;
+    }
+
+    public String getToIban() {
+        return toIban;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public TransferPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Επιστρέφει αντίγραφο της πρόθεσης στη νέα φάση.
+     *
+     * @param phase η νέα φάση
+     * @return η πρόθεση στη νέα φάση
+     */
+    public TransferIntent withPhase(TransferPhase phase) {
+        return new TransferIntent(id, fromIban, toIban, amountMinor, phase);
+    }
+
+    @Override
+    public String toString() {
+        return "TransferIntent{" +
+                "id=" + id +
+                ", fromIban='" + fromIban + '\'' +
+                ", toIban='" + toIban + '\'' +
+                ", amountMinor=" + amountMinor +
+                ", phase=" + phase +
+                '}';
+    }
+}
@@ -0,0 +1,451 @@
+package gr.aueb.cf.ch18.bankapp.service.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Αρχείο προθέσεων (intent log) των μεταφορών μεταξύ shards, σε δυαδικό αρχείο μέσω
+ * {@link FileChannel}, με την ίδια μορφή εγγραφών με το {@code AccountJournal}:
+ * {@code [int length][byte phase][long id][payload][int crc32]}.
+ *
+ * Κάθε αλλαγή φάσης μιας μεταφοράς ({@link TransferPhase}) γράφεται ως εγγραφή· μόνο η
+ * {@link TransferPhase#PREPARED} περιέχει τα στοιχεία της μεταφοράς (IBANs και ποσό).
+ * Οι φάσεις καταγράφονται πριν από τη μεταβολή υπολοίπου που ακολουθεί (write-ahead).
+ * Οι εγγραφές που πρέπει να γίνουν durable γράφονται με ένα write και ένα fsync για όλους
+ * τους writers που περιμένουν εκείνη τη στιγμή (group commit)· οι υπόλοιπες γράφονται μαζί
+ * με το επόμενο fsync. Αφού το αρχείο γράφεται σειριακά, μια durable εγγραφή συνεπάγεται
+ * ότι είναι durable και όλες οι προηγούμενες.
+ *
+ * Κατά το άνοιγμα, οι μεταφορές χωρίς τελική φάση είναι οι εκκρεμείς ({@link #inDoubt()}).
+ * Μια ημιτελής ή κατεστραμμένη εγγραφή στο τέλος του αρχείου αγνοείται και το αρχείο
+ * περικόπτεται στην τελευταία έγκυρη εγγραφή. Όταν το αρχείο μεγαλώσει και δεν υπάρχει
+ * καμία εκκρεμής μεταφορά, περικόπτεται στο header και σε μία εγγραφή που διατηρεί τον
+ * αριθμό της τελευταίας μεταφοράς, ώστε οι αριθμοί να μην επαναχρησιμοποιούνται.
+ *
+ * Αν αποτύχει ένα write ή fsync, το αρχείο περικόπτεται πίσω στο τέλος της τελευταίας
+ * επιτυχημένης εγγραφής, οι εγγραφές που δεν γράφτηκαν κρατιούνται στη μνήμη και το log
+ * μένει σε κατάσταση αποτυχίας: κάθε επόμενη καταγραφή ή αναμονή για εγγραφή που δεν έχει
+ * ήδη γίνει durable αποτυγχάνει με {@link UncheckedIOException}.
+ */
+public class TransferIntentLog implements Closeable {
+    private static final int MAGIC = 0x424B5831;  // "BKX1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_RECORD_SIZE = 1 << 17;
+
+    /** Μέγεθος αρχείου πάνω από το οποίο το log μηδενίζεται, όταν δεν υπάρχουν εκκρεμείς μεταφορές. */
+    private static final long COMPACT_SIZE = 64L << 20;
+
+    private static final TransferPhase[] PHASES = TransferPhase.values();
+
+    private final FileChannel channel;
+
+    /** Σειριοποιεί την προσθήκη εγγραφών στο {@link #active} buffer και τις εκκρεμείς μεταφορές. */
+    private final Object appendLock = new Object();
+
+    /** Σειριοποιεί τα writes/fsyncs στο αρχείο. Σειρά κλειδώματος: syncLock → appendLock. */
+    private final Object syncLock = new Object();
+
+    /** Οι μεταφορές χωρίς τελική φάση, με σειρά καταγραφής (φρουρείται από appendLock). */
+    private final Map<Long, TransferIntent> pending = new LinkedHashMap<>();
+
+    /** Buffer με εγγραφές που δεν έχουν γραφτεί ακόμα στο αρχείο (φρουρείται από appendLock). */
+    private ByteBuffer active = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Δεύτερος buffer για εναλλαγή κατά το write (φρουρείται από syncLock). */
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Ο αριθμός της επόμενης μεταφοράς (φρουρείται από appendLock). */
+    private long nextId = 1;
+
+    /** Αύξων αριθμός της τελευταίας εγγραφής που προστέθηκε (φρουρείται από appendLock). */
+    private long appendedSeq;
+
+    /** Αύξων αριθμός της τελευταίας εγγραφής που έγινε durable. */
+    private volatile long durableSeq;
+
+    /** Θέση στο αρχείο μετά την τελευταία εγγραφή που γράφτηκε επιτυχώς (φρουρείται από syncLock). */
+    private long writtenPosition = HEADER_SIZE;
+
+    /** Το σφάλμα που έθεσε το log σε κατάσταση αποτυχίας, ή null. */
+    private volatile IOException failure;
+
+    private volatile boolean closed;
+
+    /**
+     * Ανοίγει (ή δημιουργεί) το αρχείο και διαβάζει τις εκκρεμείς μεταφορές.
+     *
+     * @param path το αρχείο του log
+     * @throws IOException αν αποτύχει το άνοιγμα ή η ανάγνωση, ή το header δεν είναι έγκυρο
+     */
+    public TransferIntentLog(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                path);
+    }
+
+    /**
+     * Constructor πάνω σε ήδη ανοιχτό channel (π.χ. για έλεγχο της συμπεριφοράς σε σφάλματα I/O).
+     *
+     * @param channel το channel του αρχείου
+     * @param path το αρχείο του log, για τα μηνύματα σφάλματος
+     * @throws IOException αν αποτύχει η ανάγνωση ή το header δεν είναι έγκυρο
+     */
+    TransferIntentLog(FileChannel channel, Path path) throws IOException {
+        this.channel = channel;
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+                header.flip();
+                while (header.hasRemaining()) channel.write(header, header.position());
+                channel.force(true);
+                channel.position(HEADER_SIZE);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getShort() != VERSION) {
+                    throw new IOException("Not a valid transfer intent log: " + path);
+                }
+                load();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Καταγράφει μια νέα μεταφορά στη φάση {@link TransferPhase#PREPARED} και επιστρέφει
+     * αφού η εγγραφή γίνει durable, ώστε να προηγείται της χρέωσης που ακολουθεί.
+     *
+     * @param fromIban ο IBAN προέλευσης
+     * @param toIban ο IBAN προορισμού
+     * @param amountMinor το ποσό σε λεπτά
+     * @return η πρόθεση, με νέο αριθμό μεταφοράς
+     */
+    public TransferIntent prepare(String fromIban, String toIban, long amountMinor) {
+        byte[] from = fromIban.getBytes(StandardCharsets.UTF_8);
+        byte[] to = toIban.getBytes(StandardCharsets.UTF_8);
+        if (from.length > Short.MAX_VALUE || to.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("IBAN too long for the transfer intent log");
+        }
+
+        TransferIntent intent;
+        long seq;
+        synchronized (appendLock) {
+            intent = new TransferIntent(nextId++, fromIban, toIban, amountMinor, TransferPhase.PREPARED);
+
+            ByteBuffer record = ByteBuffer.allocate(1 + 8 + 8 + 2 + from.length + 2 + to.length);
+            record.put((byte) TransferPhase.PREPARED.ordinal()).putLong(intent.getId()).putLong(amountMinor);
+            record.putShort((short) from.length).put(from).putShort((short) to.length).put(to);
+            seq = append(record.array());
+
+            pending.put(intent.getId(), intent);
+        }
+
+        awaitDurable(seq);
+        return intent;
+    }
+
+    /**
+     * Καταγράφει την αλλαγή φάσης μιας μεταφοράς.
+     *
+     * @param intent η πρόθεση της μεταφοράς
+     * @param phase η νέα φάση
+     * @param durable true αν η μέθοδος επιστρέφει μόνο αφού η εγγραφή γίνει durable
+     * @return η πρόθεση στη νέα φάση
+     */
+    public TransferIntent record(TransferIntent intent, TransferPhase phase, boolean durable) {
+        if (phase == TransferPhase.PREPARED) {
+            throw new IllegalArgumentException("New transfers are recorded with prepare()");
+        }
+
+        TransferIntent updated = intent.withPhase(phase);
+        long seq;
+        synchronized (appendLock) {
+            byte[] record = ByteBuffer.allocate(1 + 8).put((byte) phase.ordinal()).putLong(intent.getId()).array();
+            seq = append(record);
+
+            if (phase.isTerminal()) {
+                pending.remove(intent.getId());
+            } else {
+                pending.put(intent.getId(), updated);
+            }
+        }
+
+        if (durable) awaitDurable(seq);
+        return updated;
+    }
+
+    /**
+     * Επιστρέφει τις μεταφορές χωρίς τελική φάση, με σειρά καταγραφής. Αμέσως μετά το άνοιγμα
+     * είναι οι μεταφορές που διακόπηκαν (π.χ. από crash) και πρέπει να ανακτηθούν.
+     *
+     * @return νέα λίστα με τις εκκρεμείς μεταφορές
+     */
+    public List<TransferIntent> inDoubt() {
+        synchronized (appendLock) {
+            return new ArrayList<>(pending.values());
+        }
+    }
+
+    /**
+     * Επιστρέφει τον αριθμό που θα πάρει η επόμενη μεταφορά· όλες οι μεταφορές με μικρότερο
+     * αριθμό έχουν ήδη καταγραφεί.
+     */
+    long nextId() {
+        synchronized (appendLock) {
+            return nextId;
+        }
+    }
+
+    /**
+     * Γράφει και κάνει fsync όλες τις εγγραφές που έχουν προστεθεί μέχρι τώρα.
+     */
+    public void sync() {
+        long seq;
+        synchronized (appendLock) {
+            seq = appendedSeq;
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Κάνει fsync ό,τι εκκρεμεί και κλείνει το αρχείο.
+     *
+     * @throws IOException αν αποτύχει το τελικό fsync ή το κλείσιμο
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Προσθέτει μια κωδικοποιημένη εγγραφή στον buffer. Καλείται με το appendLock.
+     *
+     * @return ο αύξων αριθμός της εγγραφής
+     */
+    private long append(byte[] record) {
+        if (failure != null) throw failed();
+        if (closed) {
+            throw new IllegalStateException("Transfer intent log is closed.");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        int needed = 4 + record.length + 4;
+        if (active.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + needed));
+            active.flip();
+            grown.put(active);
+            active = grown;
+        }
+        active.putInt(record.length).put(record).putInt((int) crc.getValue());
+        return ++appendedSeq;
+    }
+
+    /**
+     * Περιμένει μέχρι η εγγραφή με τον δοσμένο αύξοντα αριθμό να γίνει durable.
+     * Αν δεν την έχει καλύψει ήδη άλλο fsync, γράφει και κάνει fsync όλες τις
+     * εκκρεμείς εγγραφές (και των υπόλοιπων writers).
+     *
+     * @throws UncheckedIOException αν η εγγραφή δεν έγινε durable επειδή απέτυχε
+     *         (τώρα ή νωρίτερα) ένα write ή fsync
+     */
+    private void awaitDurable(long seq) {
+        if (durableSeq >= seq) return;
+
+        synchronized (syncLock) {
+            if (durableSeq >= seq) return;
+            if (failure != null) throw failed();
+
+            ByteBuffer toWrite;
+            long target;
+            synchronized (appendLock) {
+                toWrite = active;
+                active = spare;
+                target = appendedSeq;
+            }
+
+            toWrite.flip();
+            try {
+                while (toWrite.hasRemaining()) channel.write(toWrite);
+                channel.force(false);
+            } catch (IOException e) {
+                fail(e, toWrite);
+                throw failed();
+            }
+            writtenPosition += toWrite.limit();
+            toWrite.clear();
+            spare = toWrite;
+            durableSeq = target;
+
+            try {
+                compactIfIdle();
+            } catch (IOException e) {
+                fail(e, ByteBuffer.allocate(0));
+                throw failed();
+            }
+        }
+    }
+
+    /**
+     * Θέτει το log σε κατάσταση αποτυχίας μετά από σφάλμα write ή fsync: περικόπτει το
+     * αρχείο στο τέλος της τελευταίας επιτυχημένης εγγραφής (ώστε να μη μείνει ημιτελής
+     * εγγραφή) και κρατά τις εγγραφές που δεν γράφτηκαν μπροστά από όσες προστέθηκαν στο μεταξύ.
+     * Καλείται κρατώντας το syncLock.
+     */
+    private void fail(IOException cause, ByteBuffer unwritten) {
+        try {
+            channel.truncate(writtenPosition);
+            channel.position(writtenPosition);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+
+        unwritten.rewind();
+        synchronized (appendLock) {
+            failure = cause;
+            active.flip();
+            ByteBuffer kept = ByteBuffer.allocate(unwritten.remaining() + active.remaining());
+            kept.put(unwritten).put(active);
+            active = kept;
+        }
+        spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Δημιουργεί την εξαίρεση για λειτουργίες μετά από αποτυχία του log.
+     */
+    private UncheckedIOException failed() {
+        return new UncheckedIOException("Transfer intent log write failed; no further records are accepted.",
+                failure);
+    }
+
+    /**
+     * Αν το αρχείο ξεπέρασε το {@link #COMPACT_SIZE} και όλες οι μεταφορές του έχουν τελική
+     * φάση, το περικόπτει στο header: οι εγγραφές του δεν χρειάζονται πλέον για ανάκτηση.
+     * Γράφεται μόνο μια τελική εγγραφή για την τελευταία μεταφορά, ώστε μετά από επανεκκίνηση
+     * οι αριθμοί να συνεχίζουν από εκεί. Καλείται με το syncLock, μετά από fsync.
+     */
+    private void compactIfIdle() throws IOException {
+        if (channel.position() < COMPACT_SIZE) return;
+
+        synchronized (appendLock) {
+            if (!pending.isEmpty() || active.position() > 0) return;
+
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+            writtenPosition = HEADER_SIZE;
+
+            byte[] last = ByteBuffer.allocate(1 + 8).put((byte) TransferPhase.ABORTED.ordinal())
+                    .putLong(nextId - 1).array();
+            CRC32 crc = new CRC32();
+            crc.update(last);
+            ByteBuffer record = ByteBuffer.allocate(4 + last.length + 4);
+            record.putInt(last.length).put(last).putInt((int) crc.getValue());
+            record.flip();
+            while (record.hasRemaining()) channel.write(record);
+            channel.force(false);
+            writtenPosition += record.limit();
+        }
+    }
+
+    /**
+     * Διαβάζει όλες τις εγγραφές του αρχείου, κρατά τις μεταφορές χωρίς τελική φάση και
+     * περικόπτει μια ημιτελή εγγραφή στο τέλος.
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Transfer intent log too large: " + size + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size - HEADER_SIZE);
+        while (buffer.hasRemaining() && channel.read(buffer, HEADER_SIZE + buffer.position()) > 0) { }
+        buffer.flip();
+
+        CRC32 crc = new CRC32();
+        long recordPosition = HEADER_SIZE;
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt(buffer.position());
+            if (length < 1 + 8 || length > MAX_RECORD_SIZE || buffer.remaining() < 4 + length + 4) break;
+
+            buffer.getInt();
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != buffer.getInt()) break;
+
+            apply(record);
+            recordPosition += 4 + length + 4;
+        }
+
+        if (recordPosition < size) {
+            channel.truncate(recordPosition);
+        }
+        channel.position(recordPosition);
+        writtenPosition = recordPosition;
+    }
+
+    /**
+     * Εφαρμόζει μία εγγραφή στις εκκρεμείς μεταφορές.
+     */
+    private void apply(ByteBuffer record) throws IOException {
+        int ordinal = record.get();
+        if (ordinal < 0 || ordinal >= PHASES.length) {
+            throw new IOException("Unknown transfer intent phase: " + ordinal);
+        }
+
+        TransferPhase phase = PHASES[ordinal];
+        long id = record.getLong();
+        nextId = Math.max(nextId, id + 1);
+
+        if (phase == TransferPhase.PREPARED) {
+            long amountMinor = record.getLong();
+            String fromIban = readString(record);
+            String toIban = readString(record);
+            pending.put(id, new TransferIntent(id, fromIban, toIban, amountMinor, phase));
+        } else if (phase.isTerminal()) {
+            pending.remove(id);
+        } else {
+            pending.computeIfPresent(id, (key, intent) -> intent.withPhase(phase));
+        }
+    }
+
+    /**
+     * Διαβάζει ένα string της μορφής {@code [short length][UTF-8 bytes]}.
+     */
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
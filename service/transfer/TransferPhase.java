@@ -0,0 +1,26 @@
+package gr.aueb.cf.ch18.bankapp.service.transfer;
+
+/**
+ * Φάση μιας μεταφοράς μεταξύ shards, όπως καταγράφεται στο {@link TransferIntentLog}.
+ */
+public enum TransferPhase {
+    /** Η μεταφορά καταγράφηκε· ακολουθεί η χρέωση του λογαριασμού προέλευσης, που ίσως έχει γίνει. */
+    PREPARED,
+
+    /** Το ποσό χρεώθηκε (δεσμεύτηκε) στον λογαριασμό προέλευσης· ακολουθεί η πίστωση, που ίσως έχει γίνει. */
+    RESERVED,
+
+    /** Το ποσό πιστώθηκε στον λογαριασμό προορισμού· η μεταφορά ολοκληρώθηκε. */
+    COMMITTED,
+
+    /** Η μεταφορά ακυρώθηκε· όποια δέσμευση υπήρχε επιστράφηκε στον λογαριασμό προέλευσης. */
+    ABORTED,
+
+    /** Η πίστωση δεν μπορεί να γίνει· ακολουθεί η επιστροφή της δέσμευσης, που ίσως έχει γίνει. */
+    CANCELLING;
+
+    /** Επιστρέφει true αν η φάση είναι τελική (COMMITTED ή ABORTED). */
+    public boolean isTerminal() {
+        return this == COMMITTED || this == ABORTED;
+    }
+}
@@ -0,0 +1,168 @@
+package gr.aueb.cf.ch18.bankapp.dao;
+
+import gr.aueb.cf.ch18.bankapp.dao.columnar.ColumnarAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.ledger.LedgerAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.search.HolderSearchDAO;
+import gr.aueb.cf.ch18.bankapp.dao.sharded.ShardedAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Κοινό συμβόλαιο του {@link IAccountDAO} για όλες τις υλοποιήσεις και τους decorators.
+ */
+class AccountDAOContractTest {
+
+    static Stream<Arguments> daos() {
+        return Stream.of(
+                dao("list", AccountDAOImpl::new),
+                dao("indexed", IndexedAccountDAOImpl::new),
+                dao("concurrent", ConcurrentAccountDAOImpl::new),
+                dao("offheap", OffHeapAccountDAOImpl::new),
+                dao("columnar", () -> new ColumnarAccountDAO(new ConcurrentAccountDAOImpl())),
+                dao("sharded", () -> new ShardedAccountDAO(4)),
+                dao("search", () -> new HolderSearchDAO(new ConcurrentAccountDAOImpl())),
+                dao("ledger", () -> new LedgerAccountDAO(new ConcurrentAccountDAOImpl())));
+    }
+
+    private static Arguments dao(String name, Supplier<IAccountDAO> factory) {
+        return Arguments.of(name, factory);
+    }
+
+    private static Account account(int i, double balance) {
+        return new Account("GR" + i, new User("First" + i, "Last" + i, "SSN" + i), balance);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daos")
+    void insertedAccountIsFoundByUuidIbanAndSsn(String name, Supplier<IAccountDAO> factory) {
+        IAccountDAO dao = factory.get();
+        String uuid = dao.insert(account(1, 10)).getUuid();
+
+        assertEquals("GR1", dao.get(uuid).getIban());
+        assertEquals(uuid, dao.getByIban("GR1").getUuid());
+        assertEquals(10, dao.get(uuid).getBalance());
+        assertTrue(dao.uuidExists(uuid));
+        assertTrue(dao.ibanExists("GR1"));
+        assertTrue(dao.ssnExists("SSN1"));
+
+        assertNull(dao.get("missing"));
+        assertNull(dao.getByIban("GR2"));
+        assertFalse(dao.ibanExists("GR2"));
+        assertFalse(dao.ssnExists("SSN2"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daos")
+    void updateReplacesIbanKeepsBalanceAndReturnsOldAccount(String name, Supplier<IAccountDAO> factory) {
+        IAccountDAO dao = factory.get();
+        Account inserted = dao.insert(account(1, 10));
+        String uuid = inserted.getUuid();
+
+        Account changed = account(2, 20);
+        changed.setUuid(uuid);
+        Account old = dao.update(uuid, changed);
+
+        assertEquals("GR1", old.getIban());
+        assertEquals(10, old.getBalance());
+        assertFalse(dao.ibanExists("GR1"));
+        assertEquals(uuid, dao.getByIban("GR2").getUuid());
+        assertEquals(10, dao.get(uuid).getBalance());
+        assertNull(dao.update("missing", account(3, 0)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daos")
+    void compareAndSetBalanceAppliesOnlyOnExpectedBalance(String name, Supplier<IAccountDAO> factory) {
+        IAccountDAO dao = factory.get();
+        String uuid = dao.insert(account(1, 10)).getUuid();
+        Account account = dao.get(uuid);
+
+        assertTrue(dao.compareAndSetBalance(account, 1_000, 1_500));
+        assertEquals(1_500, dao.get(uuid).getBalanceMinor());
+
+        Account stale = dao.getByIban("GR1");
+        assertFalse(dao.compareAndSetBalance(stale, 1_000, 2_000));
+        assertEquals(1_500, stale.getBalanceMinor());
+        assertEquals(1_500, dao.get(uuid).getBalanceMinor());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daos")
+    void deleteRemovesAccountFromAllIndexes(String name, Supplier<IAccountDAO> factory) {
+        IAccountDAO dao = factory.get();
+        String first = dao.insert(account(1, 10)).getUuid();
+        String second = dao.insert(account(2, 20)).getUuid();
+
+        dao.delete(first);
+        dao.delete("missing");
+
+        assertNull(dao.get(first));
+        assertFalse(dao.uuidExists(first));
+        assertFalse(dao.ibanExists("GR1"));
+        assertFalse(dao.ssnExists("SSN1"));
+        assertEquals(1, dao.getAll().size());
+        assertEquals(second, dao.getAll().get(0).getUuid());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daos")
+    void pagesVisitEveryAccountOnceInUuidOrder(String name, Supplier<IAccountDAO> factory) {
+        IAccountDAO dao = factory.get();
+        Set<String> uuids = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            uuids.add(dao.insert(account(i, i)).getUuid());
+        }
+
+        List<String> visited = new ArrayList<>();
+        String after = null;
+        List<Account> page;
+        while (!(page = dao.getPage(after, 7)).isEmpty()) {
+            assertTrue(page.size() <= 7);
+            for (Account account : page) {
+                visited.add(account.getUuid());
+            }
+            after = page.get(page.size() - 1).getUuid();
+        }
+
+        List<String> sorted = new ArrayList<>(uuids);
+        sorted.sort(null);
+        assertEquals(sorted, visited);
+        assertEquals(25, dao.stream().count());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daos")
+    void exhaustedStreamIteratorStaysExhausted(String name, Supplier<IAccountDAO> factory) {
+        IAccountDAO dao = factory.get();
+        for (int i = 0; i < 3; i++) {
+            dao.insert(account(i, i));
+        }
+
+        Iterator<Account> iterator = dao.stream().iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+
+        assertEquals(3, count);
+        assertFalse(iterator.hasNext());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+}
@@ -0,0 +1,74 @@
+package gr.aueb.cf.ch18.bankapp.dao.journal;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedWriteIsNeverReportedDurable() throws Exception {
+        Path path = dir.resolve("accounts.journal");
+        FailingChannel channel = FailingChannel.open(path);
+        AccountJournal journal = new AccountJournal(channel, path, JournalDurability.PER_OPERATION,
+                AccountJournal.DEFAULT_BATCH_SIZE, AccountJournal.DEFAULT_INTERVAL_MILLIS);
+        journal.commit(journal.appendDelete("a"));
+        long good = Files.size(path);
+
+        long first = journal.appendDelete("b");
+        long second = journal.appendDelete("c");
+        channel.setFailing(true);
+        assertThrows(UncheckedIOException.class, () -> journal.commit(first));
+        assertEquals(good, Files.size(path));
+
+        channel.setFailing(false);
+        assertThrows(UncheckedIOException.class, () -> journal.commit(second));
+        assertThrows(UncheckedIOException.class, journal::sync);
+        assertThrows(UncheckedIOException.class, () -> journal.appendDelete("d"));
+        assertEquals(good, Files.size(path));
+        assertThrows(IOException.class, journal::close);
+    }
+
+    @Test
+    void journalStaysReplayableAfterFailedWrite() throws Exception {
+        Path path = dir.resolve("accounts.journal");
+        FailingChannel channel = FailingChannel.open(path);
+        JournaledAccountDAO dao = new JournaledAccountDAO(new ConcurrentAccountDAOImpl(),
+                new AccountJournal(channel, path, JournalDurability.PER_OPERATION,
+                        AccountJournal.DEFAULT_BATCH_SIZE, AccountJournal.DEFAULT_INTERVAL_MILLIS));
+        String kept = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+
+        channel.setFailing(true);
+        assertThrows(UncheckedIOException.class,
+                () -> dao.insert(new Account("GR2", new User("B", "B", "SSN2"), 20)));
+        channel.setFailing(false);
+        assertThrows(UncheckedIOException.class, () -> dao.compareAndSetBalance(dao.get(kept), 1_000, 1_500));
+        assertEquals(1_000, dao.get(kept).getBalanceMinor());
+        assertThrows(IOException.class, dao::close);
+
+        String added;
+        try (JournaledAccountDAO reopened = new JournaledAccountDAO(new ConcurrentAccountDAOImpl(),
+                new AccountJournal(path, JournalDurability.PER_OPERATION))) {
+            assertNotNull(reopened.get(kept));
+            assertFalse(reopened.ibanExists("GR2"));
+            added = reopened.insert(new Account("GR3", new User("C", "C", "SSN3"), 30)).getUuid();
+        }
+
+        IAccountDAO restored = new ConcurrentAccountDAOImpl();
+        new JournaledAccountDAO(restored, new AccountJournal(path, JournalDurability.PER_OPERATION)).close();
+        assertEquals(1_000, restored.get(kept).getBalanceMinor());
+        assertEquals(3_000, restored.get(added).getBalanceMinor());
+    }
+}
@@ -0,0 +1,135 @@
+package gr.aueb.cf.ch18.bankapp.dao.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Channel που, όσο είναι οπλισμένο, γράφει μόνο λίγα bytes και μετά αποτυγχάνει,
+ * αφήνοντας ημιτελή εγγραφή στο αρχείο.
+ */
+public class FailingChannel extends FileChannel {
+    private final FileChannel delegate;
+    private volatile boolean failing;
+
+    public FailingChannel(FileChannel delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Ανοίγει (ή δημιουργεί) το αρχείο για ανάγνωση και εγγραφή.
+     */
+    public static FailingChannel open(Path path) throws IOException {
+        return new FailingChannel(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Οπλίζει ή αφοπλίζει την αποτυχία των επόμενων writes και fsyncs.
+     */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!failing) return delegate.write(src);
+        if (src.remaining() > 5) {
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + 5);
+            int written = delegate.write(part);
+            src.position(src.position() + written);
+            return written;
+        }
+        throw new IOException("disk full");
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        if (failing) throw new IOException("disk full");
+        delegate.force(metaData);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return delegate.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        return delegate.read(dsts, offset, length);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        return delegate.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        delegate.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return delegate.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        delegate.truncate(size);
+        return this;
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        return delegate.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        return delegate.transferFrom(src, position, count);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return delegate.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        return delegate.write(src, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        return delegate.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return delegate.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return delegate.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,123 @@
+package gr.aueb.cf.ch18.bankapp.dao.journal;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledAccountDAOTest {
+    @TempDir
+    Path dir;
+
+    /** DAO που σταματά μετά από ένα επιτυχημένο CAS, πριν καταγραφεί, όσο είναι οπλισμένο. */
+    private static final class PausingDAO extends ConcurrentAccountDAOImpl {
+        volatile CountDownLatch entered;
+        volatile CountDownLatch release;
+
+        @Override
+        public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+            boolean applied = super.compareAndSetBalance(account, expectedMinor, newMinor);
+            CountDownLatch latch = release;
+            if (applied && latch != null) {
+                entered.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return applied;
+        }
+    }
+
+    @Test
+    void replayRestoresAccountsAndBalances() throws Exception {
+        Path path = dir.resolve("accounts.journal");
+        String kept;
+        String deleted;
+        try (JournaledAccountDAO dao = new JournaledAccountDAO(new ConcurrentAccountDAOImpl(),
+                new AccountJournal(path, JournalDurability.PER_OPERATION))) {
+            kept = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+            deleted = dao.insert(new Account("GR2", new User("B", "B", "SSN2"), 20)).getUuid();
+            assertTrue(dao.compareAndSetBalance(dao.get(kept), 1_000, 1_250));
+            dao.delete(deleted);
+        }
+
+        IAccountDAO restored = new ConcurrentAccountDAOImpl();
+        new JournaledAccountDAO(restored, new AccountJournal(path, JournalDurability.PER_OPERATION)).close();
+        assertEquals(1_250, restored.get(kept).getBalanceMinor());
+        assertNull(restored.get(deleted));
+    }
+
+    @Test
+    void balanceChangeIsNotJournaledAfterConcurrentUpdate() throws Exception {
+        Path path = dir.resolve("accounts.journal");
+        PausingDAO delegate = new PausingDAO();
+        long liveBalance;
+        String uuid;
+
+        try (JournaledAccountDAO dao = new JournaledAccountDAO(delegate,
+                new AccountJournal(path, JournalDurability.PER_OPERATION))) {
+            uuid = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+            Account changed = new Account("GR1", new User("A", "A", "SSN1"), 20);
+            changed.setUuid(uuid);
+
+            delegate.entered = new CountDownLatch(1);
+            delegate.release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<Boolean> deposit = executor.submit(() -> dao.compareAndSetBalance(dao.get(uuid), 1_000, 1_500));
+                delegate.entered.await();
+                Future<Account> update = executor.submit(() -> dao.update(uuid, changed));
+
+                Thread.sleep(50);
+                CountDownLatch release = delegate.release;
+                delegate.release = null;
+                release.countDown();
+
+                assertTrue(deposit.get());
+                assertNotNull(update.get());
+            } finally {
+                executor.shutdownNow();
+            }
+            liveBalance = dao.get(uuid).getBalanceMinor();
+        }
+
+        IAccountDAO restored = new ConcurrentAccountDAOImpl();
+        new JournaledAccountDAO(restored, new AccountJournal(path, JournalDurability.PER_OPERATION)).close();
+        assertEquals(liveBalance, restored.get(uuid).getBalanceMinor());
+    }
+
+    @Test
+    void transferLegsSurviveReplayAndCheckpoint() throws Exception {
+        Path path = dir.resolve("accounts.journal");
+        Path snapshot = dir.resolve("accounts.snapshot");
+        String uuid;
+        try (JournaledAccountDAO dao = new JournaledAccountDAO(new ConcurrentAccountDAOImpl(),
+                new AccountJournal(path, JournalDurability.PER_OPERATION))) {
+            uuid = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+            assertTrue(dao.compareAndSetBalance(dao.get(uuid), 1_000, 1_200, 41));
+            assertTrue(dao.compareAndSetBalance(dao.get(uuid), 1_200, 1_300, 42));
+            dao.forgetLegs(legId -> legId == 41);
+            dao.checkpoint(snapshot);
+        }
+
+        IAccountDAO restored = new ConcurrentAccountDAOImpl();
+        try (JournaledAccountDAO dao = new JournaledAccountDAO(restored,
+                new AccountJournal(path, JournalDurability.PER_OPERATION), snapshot)) {
+            assertEquals(1_300, restored.get(uuid).getBalanceMinor());
+            assertTrue(dao.isLegApplied("GR1", 42));
+            assertFalse(dao.isLegApplied("GR1", 41));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package gr.aueb.cf.ch18.bankapp.dao.ledger;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.journal.AccountJournal;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournalDurability;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournaledAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerAccountDAOTest {
+    @TempDir
+    Path dir;
+
+    private final long[] now = {1_000};
+
+    @Test
+    void historySurvivesRestart() throws Exception {
+        String kept;
+        String deleted;
+        try (JournaledAccountDAO accounts = openAccounts();
+             LedgerAccountDAO dao = openLedger(accounts)) {
+            kept = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+            deleted = dao.insert(new Account("GR2", new User("B", "B", "SSN2"), 20)).getUuid();
+            now[0] = 2_000;
+            assertTrue(dao.compareAndSetBalance(dao.get(kept), 1_000, 1_250));
+            dao.delete(deleted);
+        }
+
+        now[0] = 5_000;
+        try (JournaledAccountDAO accounts = openAccounts();
+             LedgerAccountDAO dao = openLedger(accounts)) {
+            List<LedgerEntry> entries = dao.getLastEntries(kept, 10);
+            assertEquals(2, entries.size());
+            assertEquals(PostingType.OPENING, entries.get(0).getType());
+            assertEquals(1_000, entries.get(0).getTimestampMillis());
+            assertEquals(PostingType.CREDIT, entries.get(1).getType());
+            assertEquals(2_000, entries.get(1).getTimestampMillis());
+            assertEquals(1_000, dao.getEntryAt(kept, 1_500).getBalanceAfterMinor());
+
+            assertEquals(PostingType.CLOSING, dao.getLastEntries(deleted, 1).get(0).getType());
+            assertEquals(2_000, dao.getEntryAt(deleted, 1_500).getBalanceAfterMinor());
+
+            assertTrue(dao.compareAndSetBalance(dao.get(kept), 1_250, 1_300));
+            assertTrue(dao.getLastEntries(kept, 1).get(0).getSequence() > entries.get(1).getSequence());
+        }
+    }
+
+    @Test
+    void restartRecordsChangesMadeWithoutTheLedger() throws Exception {
+        ConcurrentAccountDAOImpl accounts = new ConcurrentAccountDAOImpl();
+        String uuid;
+        try (LedgerAccountDAO dao = openLedger(accounts)) {
+            uuid = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+        }
+        assertTrue(accounts.compareAndSetBalance(accounts.get(uuid), 1_000, 700));
+
+        try (LedgerAccountDAO dao = openLedger(accounts)) {
+            List<LedgerEntry> entries = dao.getLastEntries(uuid, 10);
+            assertEquals(2, entries.size());
+            assertEquals(PostingType.ADJUSTMENT, entries.get(1).getType());
+            assertEquals(-300, entries.get(1).getAmountMinor());
+            assertEquals(700, entries.get(1).getBalanceAfterMinor());
+        }
+    }
+
+    @Test
+    void reinsertContinuesTheExistingLedger() {
+        LedgerAccountDAO dao = new LedgerAccountDAO(new ConcurrentAccountDAOImpl(), () -> now[0]++);
+        Account account = new Account("GR1", new User("A", "A", "SSN1"), 10);
+        dao.insert(account);
+        AccountLedger ledger = dao.getLedger(account.getUuid());
+        dao.delete(account.getUuid());
+
+        Account reinserted = new Account("GR1", new User("A", "A", "SSN1"), 30);
+        reinserted.setUuid(account.getUuid());
+        dao.insert(reinserted);
+
+        assertSame(ledger, dao.getLedger(account.getUuid()));
+        List<LedgerEntry> entries = dao.getLastEntries(account.getUuid(), 10);
+        assertEquals(List.of(PostingType.OPENING, PostingType.CLOSING, PostingType.OPENING),
+                entries.stream().map(LedgerEntry::getType).toList());
+        assertEquals(3_000, entries.stream().mapToLong(LedgerEntry::getAmountMinor).sum());
+    }
+
+    @Test
+    void balancesReportTheIbanInEffectAtTheTime() throws Exception {
+        String renamed;
+        String closed;
+        try (LedgerAccountDAO dao = openLedger(new ConcurrentAccountDAOImpl())) {
+            renamed = dao.insert(new Account("GR1", new User("A", "A", "SSN1"), 10)).getUuid();
+            closed = dao.insert(new Account("GR2", new User("B", "B", "SSN2"), 20)).getUuid();
+
+            now[0] = 2_000;
+            Account account = new Account(dao.get(renamed));
+            account.setIban("GR3");
+            dao.update(renamed, account);
+            dao.delete(closed);
+
+            BalanceExtract extract = new LedgerReports(dao).balancesAt(1_500);
+            assertEquals(2, extract.size());
+            for (int row = 0; row < extract.size(); row++) {
+                assertEquals(extract.getUuid(row).equals(renamed) ? "GR1" : "GR2", extract.getIban(row));
+            }
+            assertEquals("GR3", new LedgerReports(dao).balancesAt(2_000).getIban(0));
+        }
+
+        try (LedgerAccountDAO dao = openLedger(new ConcurrentAccountDAOImpl())) {
+            assertEquals("GR1", dao.getLedger(renamed).ibanAt(1_500));
+            assertEquals("GR3", dao.getLedger(renamed).ibanAt(2_000));
+            assertEquals("GR2", dao.getLedger(closed).ibanAt(1_500));
+        }
+    }
+
+    private JournaledAccountDAO openAccounts() throws IOException {
+        return new JournaledAccountDAO(new ConcurrentAccountDAOImpl(),
+                new AccountJournal(dir.resolve("accounts.journal"), JournalDurability.PER_OPERATION));
+    }
+
+    private LedgerAccountDAO openLedger(IAccountDAO accounts) throws IOException {
+        return new LedgerAccountDAO(accounts,
+                new LedgerJournal(dir.resolve("ledger.journal"), JournalDurability.PER_OPERATION), () -> now[0]);
+    }
+}
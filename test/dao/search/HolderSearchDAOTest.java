@@ -0,0 +1,78 @@
+package gr.aueb.cf.ch18.bankapp.dao.search;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolderSearchDAOTest {
+    private HolderSearchDAO dao;
+    private Account papadopoulos;
+    private Account papadakis;
+    private Account georgiou;
+
+    @BeforeEach
+    void setUp() {
+        dao = new HolderSearchDAO(new ConcurrentAccountDAOImpl());
+        papadopoulos = dao.insert(new Account("GR1", new User("Νίκος", "Παπαδόπουλος", "SSN1"), 0));
+        papadakis = dao.insert(new Account("GR2", new User("Μαρία", "Παπαδάκη", "SSN2"), 0));
+        georgiou = dao.insert(new Account("GR3", new User("Γιώργος", "Γεωργίου", "SSN3"), 0));
+    }
+
+    @Test
+    void prefixMatchesFirstnameOrLastnameInTermOrder() {
+        assertEquals(List.of(papadakis.getUuid(), papadopoulos.getUuid()), uuids(dao.searchByPrefix("παπαδ", 10)));
+        assertEquals(List.of(georgiou.getUuid()), uuids(dao.searchByPrefix("γιωρ", 10)));
+        assertEquals(List.of(papadakis.getUuid()), uuids(dao.searchByPrefix("παπαδ", 1)));
+        assertTrue(dao.searchByPrefix("ξ", 10).isEmpty());
+    }
+
+    @Test
+    void searchIgnoresAccentsCaseAndFinalSigma() {
+        assertEquals(List.of(papadopoulos.getUuid()), uuids(dao.searchByPrefix("ΠΑΠΑΔΌΠ", 10)));
+        assertEquals(List.of(georgiou.getUuid()), uuids(dao.searchByPrefix("  γιώργοσ", 10)));
+        assertEquals(papadopoulos.getUuid(), dao.searchFuzzy("ΠΑΠΑΔΟΠΟΥΛΟΣ", 10).get(0).getUuid());
+    }
+
+    @Test
+    void fuzzyToleratesTyposAndRanksBySimilarity() {
+        List<Account> found = dao.searchFuzzy("παπαδοπουλς", 10);
+        assertEquals(papadopoulos.getUuid(), found.get(0).getUuid());
+        assertFalse(uuids(found).contains(georgiou.getUuid()));
+
+        assertEquals(georgiou.getUuid(), dao.searchFuzzy("γεωργιυο", 10).get(0).getUuid());
+        assertTrue(dao.searchFuzzy("ξυλουργός", 10).isEmpty());
+        assertTrue(dao.searchFuzzy("", 10).isEmpty());
+    }
+
+    @Test
+    void indexFollowsUpdatesAndDeletes() {
+        Account renamed = new Account(papadopoulos);
+        renamed.setHolder(new User("Νίκος", "Αλεξίου", "SSN1"));
+        dao.update(papadopoulos.getUuid(), renamed);
+        dao.delete(papadakis.getUuid());
+
+        assertTrue(dao.searchByPrefix("παπαδ", 10).isEmpty());
+        assertTrue(dao.searchFuzzy("παπαδοπουλος", 10).isEmpty());
+        assertEquals(List.of(papadopoulos.getUuid()), uuids(dao.searchFuzzy("αλεξιοθ", 10)));
+
+        // Ο όρος που αφαιρέθηκε αφήνει id για επαναχρησιμοποίηση
+        Account added = dao.insert(new Account("GR4", new User("Ελένη", "Παπαδάκη", "SSN4"), 0));
+        assertEquals(List.of(added.getUuid()), uuids(dao.searchFuzzy("παπαδακι", 10)));
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> dao.searchByPrefix("π", 0));
+        assertThrows(IllegalArgumentException.class, () -> dao.searchFuzzy("π", 0, 10));
+    }
+
+    private static List<String> uuids(List<Account> accounts) {
+        return accounts.stream().map(Account::getUuid).toList();
+    }
+}
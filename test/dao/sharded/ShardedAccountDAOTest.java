@@ -0,0 +1,81 @@
+package gr.aueb.cf.ch18.bankapp.dao.sharded;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAccountDAOTest {
+
+    /** Εισαγωγή σε shard που περιμένει μέχρι να ανοίξει το latch, ενώ είναι οπλισμένη. */
+    private static final class BlockingShard extends ConcurrentAccountDAOImpl {
+        volatile CountDownLatch entered;
+        volatile CountDownLatch release;
+
+        @Override
+        public Account insert(Account account) {
+            CountDownLatch latch = release;
+            if (latch != null) {
+                entered.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.insert(account);
+        }
+    }
+
+    @Test
+    void deleteDuringMoveDoesNotResurrectAccount() throws Exception {
+        BlockingShard[] shards = new BlockingShard[2];
+        int[] created = {0};
+        ShardedAccountDAO dao = new ShardedAccountDAO(2, () -> shards[created[0]++] = new BlockingShard(),
+                ForkJoinPool.commonPool());
+
+        String source = "GR0";
+        String target = source;
+        for (int i = 1; dao.shardIndexOf(target) == dao.shardIndexOf(source); i++) {
+            target = "GR" + i;
+        }
+        String uuid = dao.insert(new Account(source, new User("A", "A", "SSN1"), 10)).getUuid();
+
+        BlockingShard targetShard = shards[dao.shardIndexOf(target)];
+        targetShard.entered = new CountDownLatch(1);
+        targetShard.release = new CountDownLatch(1);
+
+        Account moved = new Account(target, new User("A", "A", "SSN1"), 10);
+        moved.setUuid(uuid);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Account> update = executor.submit(() -> dao.update(uuid, moved));
+            targetShard.entered.await();
+            Future<?> delete = executor.submit(() -> dao.delete(uuid));
+
+            Thread.sleep(50);
+            CountDownLatch release = targetShard.release;
+            targetShard.release = null;
+            release.countDown();
+
+            assertEquals(source, update.get().getIban());
+            delete.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(dao.get(uuid));
+        assertFalse(dao.uuidExists(uuid));
+        assertFalse(dao.ibanExists(target));
+        assertTrue(dao.getAll().isEmpty());
+    }
+}
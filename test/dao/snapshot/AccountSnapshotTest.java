@@ -0,0 +1,69 @@
+package gr.aueb.cf.ch18.bankapp.dao.snapshot;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSnapshotTest {
+    @TempDir
+    Path dir;
+
+    private static List<Account> accounts(int count) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            accounts.add(new Account("GR" + i, new User("Όνομα" + i, "Last" + i, "SSN" + i), i));
+        }
+        return accounts;
+    }
+
+    @Test
+    void loadRestoresAccountsAndJournalPosition() throws IOException {
+        Path path = dir.resolve("accounts.snap");
+        List<Account> accounts = accounts(100);
+        AccountSnapshot.write(path, accounts, 1234);
+
+        IAccountDAO target = new ConcurrentAccountDAOImpl();
+        assertEquals(1234, AccountSnapshot.load(path, target));
+
+        assertEquals(100, target.getAll().size());
+        for (Account account : accounts) {
+            Account loaded = target.get(account.getUuid());
+            assertEquals(account.getIban(), loaded.getIban());
+            assertEquals(account.getBalanceMinor(), loaded.getBalanceMinor());
+            assertEquals(account.getHolderView().getFirstname(), loaded.getHolderView().getFirstname());
+            assertEquals(account.getHolderView().getSsn(), loaded.getHolderView().getSsn());
+        }
+    }
+
+    @Test
+    void corruptSnapshotLeavesTargetUntouched() throws IOException {
+        Path path = dir.resolve("accounts.snap");
+        AccountSnapshot.write(path, accounts(100), 0);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long middle = channel.size() / 2;
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, middle);
+            b.put(0, (byte) (b.get(0) ^ 0x5A));
+            b.rewind();
+            channel.write(b, middle);
+        }
+
+        IAccountDAO target = new ConcurrentAccountDAOImpl();
+        assertThrows(IOException.class, () -> AccountSnapshot.load(path, target));
+        assertTrue(target.getAll().isEmpty());
+    }
+}
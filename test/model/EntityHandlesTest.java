@@ -0,0 +1,61 @@
+package gr.aueb.cf.ch18.bankapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityHandlesTest {
+
+    private static EntityId id(long i) {
+        return new EntityId(i, i);
+    }
+
+    @Test
+    void handlesAreDenseAndStable() {
+        EntityHandles handles = new EntityHandles();
+        EntityId first = id(1);
+        EntityId second = id(2);
+
+        assertEquals(-1, handles.handleOf(first));
+        assertEquals(0, handles.acquire(first));
+        assertEquals(1, handles.acquire(second));
+        assertEquals(0, handles.acquire(first));
+        assertEquals(1, handles.handleOf(second));
+        assertEquals(2, handles.limit());
+    }
+
+    @Test
+    void releasedHandlesAreReused() {
+        EntityHandles handles = new EntityHandles();
+        for (int round = 0; round < 1_000; round++) {
+            EntityId[] ids = new EntityId[10];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = id(round * 10L + i);
+                handles.acquire(ids[i]);
+            }
+            for (EntityId id : ids) {
+                handles.release(id);
+                assertEquals(-1, handles.handleOf(id));
+            }
+        }
+        assertEquals(10, handles.limit());
+    }
+
+    @Test
+    void handlesAreAssignedPerStore() {
+        EntityHandles store = new EntityHandles();
+        EntityHandles other = new EntityHandles();
+        EntityId shared = id(1);
+
+        assertEquals(0, store.acquire(id(2)));
+        assertEquals(0, other.acquire(shared));
+        assertEquals(-1, store.acquire(shared));
+        assertEquals(-1, store.handleOf(shared));
+
+        store.release(shared);
+        assertEquals(0, other.handleOf(shared));
+
+        other.release(shared);
+        assertEquals(1, store.acquire(shared));
+    }
+}
@@ -0,0 +1,306 @@
+package gr.aueb.cf.ch18.bankapp.service;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dto.AccountInsertDTO;
+import gr.aueb.cf.ch18.bankapp.dto.AccountUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionCommand;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionStatus;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionType;
+import gr.aueb.cf.ch18.bankapp.dto.UserInsertDTO;
+import gr.aueb.cf.ch18.bankapp.dto.UserUpdateDTO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import gr.aueb.cf.ch18.bankapp.service.exceptions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountServiceImplTest {
+    /** Έγκυροι IBAN (mod-97). */
+    static final String IBAN_1 = "GR1601101250000000012300695";
+    static final String IBAN_2 = "DE89370400440532013000";
+
+    private IAccountDAO dao;
+    private IAccountService service;
+    private Account first;
+    private Account second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dao = new ConcurrentAccountDAOImpl();
+        service = new AccountServiceImpl(dao);
+        first = service.insertAccount(new AccountInsertDTO(IBAN_1, new UserInsertDTO("A", "A", "SSN1"), 100));
+        second = service.insertAccount(new AccountInsertDTO(IBAN_2, new UserInsertDTO("B", "B", "SSN2"), 50));
+    }
+
+    @Test
+    void insertRejectsInvalidIban() {
+        assertThrows(InvalidIbanException.class, () ->
+                service.insertAccount(new AccountInsertDTO("GR00", new UserInsertDTO("C", "C", "SSN3"), 0)));
+    }
+
+    @Test
+    void insertRejectsDuplicateIban() {
+        assertThrows(IbanAlreadyExistsException.class, () ->
+                service.insertAccount(new AccountInsertDTO(IBAN_1, new UserInsertDTO("C", "C", "SSN3"), 0)));
+        assertEquals(first.getUuid(), dao.getByIban(IBAN_1).getUuid());
+        assertEquals(2, dao.getAll().size());
+    }
+
+    @Test
+    void depositAndWithdrawChangeBalance() throws Exception {
+        assertEquals(110.5, service.deposit(first.getUuid(), 10.5).getBalance());
+        assertEquals(90.5, service.withdraw(IBAN_1, "SSN1", 20).getBalance());
+        assertEquals(90.5, dao.get(first.getUuid()).getBalance());
+    }
+
+    @Test
+    void withdrawChecksSsnBalanceAndAmount() {
+        assertThrows(SsnNotValidException.class, () -> service.withdraw(IBAN_1, "SSN2", 1));
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw(IBAN_1, "SSN1", 101));
+        assertThrows(NegativeAmountException.class, () -> service.withdraw(IBAN_1, "SSN1", -1));
+        assertThrows(AccountNotFoundException.class, () -> service.withdraw("GR0", "SSN1", 1));
+        assertEquals(100, dao.get(first.getUuid()).getBalance());
+    }
+
+    @Test
+    void concurrentDepositsAndWithdrawalsLeaveExactBalances() throws Exception {
+        int threads = 8;
+        int operations = 1_000;
+        List<Account> own = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            own.add(dao.insert(new Account("GR" + t, new User("C", "C", "SSN-T" + t), 0)));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Account mine = own.get(t);
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < operations; i++) {
+                        // Κοινοί λογαριασμοί: όλα τα threads· ξεχωριστός: μόνο αυτό το thread
+                        service.deposit(first.getUuid(), 0.03);
+                        service.withdraw(IBAN_1, "SSN1", 0.01);
+                        service.deposit(second.getUuid(), 0.01);
+                        service.deposit(mine.getUuid(), 0.07);
+                        service.withdraw(mine.getIban(), mine.getHolderView().getSsn(), 0.02);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = (long) threads * operations;
+        assertEquals(10_000 + total * 2, dao.get(first.getUuid()).getBalanceMinor());
+        assertEquals(5_000 + total, dao.get(second.getUuid()).getBalanceMinor());
+        for (Account mine : own) {
+            assertEquals(operations * 5L, dao.get(mine.getUuid()).getBalanceMinor());
+        }
+    }
+
+    @Test
+    void tryOperationsReturnRejections() {
+        assertEquals(TransactionStatus.ACCOUNT_NOT_FOUND, service.tryDeposit("missing", 1).getStatus());
+        assertEquals(TransactionStatus.INSUFFICIENT_BALANCE, service.tryWithdraw(IBAN_2, "SSN2", 51).getStatus());
+        assertEquals(TransactionStatus.OK, service.tryWithdraw(IBAN_2, "SSN2", 50).getStatus());
+        assertEquals(0, dao.get(second.getUuid()).getBalance());
+    }
+
+    @Test
+    void updateDoesNotOverwriteConcurrentDeposit() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IAccountDAO slowDao = new ConcurrentAccountDAOImpl() {
+            @Override
+            public Account update(String uuid, Account account) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.update(uuid, account);
+            }
+        };
+        IAccountService slowService = new AccountServiceImpl(slowDao);
+        Account account = slowService.insertAccount(new AccountInsertDTO(IBAN_1, new UserInsertDTO("A", "A", "SSN1"), 100));
+        AccountUpdateDTO rename = new AccountUpdateDTO(account.getUuid(), IBAN_1,
+                new UserUpdateDTO(account.getHolderView().getUuid(), "B", "B", "SSN1"), 100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Account> update = executor.submit(() -> slowService.updateAccount(account.getUuid(), rename));
+            entered.await();
+            Future<Account> deposit = executor.submit(() -> slowService.deposit(account.getUuid(), 10));
+
+            Thread.sleep(50);
+            release.countDown();
+            update.get();
+            deposit.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(110, slowDao.get(account.getUuid()).getBalance());
+        assertEquals("B", slowDao.get(account.getUuid()).getHolderView().getFirstname());
+    }
+
+    @Test
+    void concurrentInsertsWithTheSameIbanLetOnlyOneThrough() throws Exception {
+        CyclicBarrier bothChecking = new CyclicBarrier(2);
+        IAccountDAO racingDao = new ConcurrentAccountDAOImpl() {
+            @Override
+            public boolean ibanExists(String iban) {
+                boolean exists = super.ibanExists(iban);
+                try {
+                    // Χωρίς αποκλεισμό, και τα δύο threads ελέγχουν πριν εισαχθεί ο λογαριασμός
+                    bothChecking.await(200, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | BrokenBarrierException e) {
+                    // Το άλλο thread περιμένει το lock
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return exists;
+            }
+        };
+        IAccountService racingService = new AccountServiceImpl(racingDao);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Account>> inserts = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                String ssn = "SSN" + i;
+                inserts.add(executor.submit(() ->
+                        racingService.insertAccount(new AccountInsertDTO(IBAN_1, new UserInsertDTO("A", "A", ssn), 10))));
+            }
+
+            Account winner = null;
+            int rejected = 0;
+            for (Future<Account> insert : inserts) {
+                try {
+                    winner = insert.get();
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IbanAlreadyExistsException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            assertEquals(1, rejected);
+            assertEquals(1, racingDao.getAll().size());
+            assertEquals(winner.getUuid(), racingDao.getByIban(IBAN_1).getUuid());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateKeepsTheLiveBalance() throws Exception {
+        AccountUpdateDTO rename = new AccountUpdateDTO(first.getUuid(), IBAN_1,
+                new UserUpdateDTO(first.getHolderView().getUuid(), "B", "B", "SSN1"), 500);
+
+        service.updateAccount(first.getUuid(), rename);
+
+        assertEquals(100, dao.get(first.getUuid()).getBalance());
+        assertEquals("B", dao.get(first.getUuid()).getHolderView().getFirstname());
+    }
+
+    @Test
+    void transferMovesMoneyAllOrNothing() throws Exception {
+        service.transfer(IBAN_1, IBAN_2, 30);
+        assertEquals(70, dao.get(first.getUuid()).getBalance());
+        assertEquals(80, dao.get(second.getUuid()).getBalance());
+
+        assertThrows(InsufficientBalanceException.class, () -> service.transfer(IBAN_1, IBAN_2, 71));
+        assertEquals(70, dao.get(first.getUuid()).getBalance());
+        assertEquals(80, dao.get(second.getUuid()).getBalance());
+    }
+
+    @Test
+    void transferToTheSameAccountIsRejectedEvenWithCopyingDao() throws Exception {
+        IAccountDAO offHeap = new OffHeapAccountDAOImpl();
+        IAccountService offHeapService = new AccountServiceImpl(offHeap);
+        Account account = offHeapService.insertAccount(
+                new AccountInsertDTO(IBAN_1, new UserInsertDTO("A", "A", "SSN1"), 100));
+
+        assertThrows(IllegalArgumentException.class, () -> offHeapService.transfer(IBAN_1, IBAN_1, 30));
+        assertEquals(100, offHeap.get(account.getUuid()).getBalance());
+    }
+
+    @Test
+    void depositDuringTransferIsNotLost() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IAccountDAO slowDao = new ConcurrentAccountDAOImpl() {
+            @Override
+            public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+                if (IBAN_2.equals(account.getIban()) && entered.getCount() > 0) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.compareAndSetBalance(account, expectedMinor, newMinor);
+            }
+        };
+        IAccountService slowService = new AccountServiceImpl(slowDao);
+        Account from = slowService.insertAccount(new AccountInsertDTO(IBAN_1, new UserInsertDTO("A", "A", "SSN1"), 100));
+        slowService.insertAccount(new AccountInsertDTO(IBAN_2, new UserInsertDTO("B", "B", "SSN2"), 0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Account> transfer = executor.submit(() -> slowService.transfer(IBAN_1, IBAN_2, 30));
+            entered.await();
+            Future<Account> deposit = executor.submit(() -> slowService.deposit(from.getUuid(), 10));
+
+            assertEquals(80, deposit.get().getBalance());
+
+            release.countDown();
+            transfer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(80, slowDao.getByIban(IBAN_1).getBalance());
+        assertEquals(30, slowDao.getByIban(IBAN_2).getBalance());
+    }
+
+    @Test
+    void batchAppliesCommandsInOrderPerAccount() {
+        List<TransactionResult> results = service.applyBatch(List.of(
+                new TransactionCommand(TransactionType.WITHDRAW, IBAN_2, "SSN2", 60),
+                new TransactionCommand(TransactionType.DEPOSIT, IBAN_2, null, 20),
+                new TransactionCommand(TransactionType.WITHDRAW, IBAN_2, "SSN2", 60),
+                new TransactionCommand(TransactionType.DEPOSIT, "GR0", null, 1)));
+
+        assertEquals(TransactionStatus.INSUFFICIENT_BALANCE, results.get(0).getStatus());
+        assertEquals(TransactionStatus.OK, results.get(1).getStatus());
+        assertEquals(TransactionStatus.OK, results.get(2).getStatus());
+        assertEquals(TransactionStatus.ACCOUNT_NOT_FOUND, results.get(3).getStatus());
+        assertEquals(10, dao.get(second.getUuid()).getBalance());
+    }
+}
@@ -0,0 +1,53 @@
+package gr.aueb.cf.ch18.bankapp.service.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandRingTest {
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandRing(0));
+        assertThrows(IllegalArgumentException.class, () -> new CommandRing(3));
+    }
+
+    @Test
+    void publishedSlotIsSeenOnlyForItsOwnSequence() {
+        CommandRing ring = new CommandRing(4);
+
+        assertEquals(0, ring.claim(() -> true));
+        assertFalse(ring.isPublished(0));
+        ring.publish(0);
+        assertTrue(ring.isPublished(0));
+        // Το ίδιο slot στον επόμενο γύρο δεν έχει δημοσιευτεί
+        assertFalse(ring.isPublished(4));
+        assertSame(ring.get(0), ring.get(4));
+    }
+
+    @Test
+    void claimWaitsWhileTheRingIsFull() throws Exception {
+        CommandRing ring = new CommandRing(2);
+        assertEquals(0, ring.claim(() -> true));
+        assertEquals(1, ring.claim(() -> true));
+
+        CompletableFuture<Long> third = CompletableFuture.supplyAsync(() -> ring.claim(() -> true));
+        assertThrows(TimeoutException.class, () -> third.get(100, TimeUnit.MILLISECONDS));
+
+        ring.release(1);
+        assertEquals(2, third.get(5, TimeUnit.SECONDS));
+        assertEquals(3, ring.claimedCount());
+    }
+
+    @Test
+    void claimGivesUpWhenTheWriterHasStopped() {
+        CommandRing ring = new CommandRing(1);
+        assertEquals(0, ring.claim(() -> true));
+
+        assertEquals(-1, ring.claim(() -> false));
+    }
+}
@@ -0,0 +1,183 @@
+package gr.aueb.cf.ch18.bankapp.service.engine;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionResult;
+import gr.aueb.cf.ch18.bankapp.dto.TransactionStatus;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTransactionEngineTest {
+    private final IAccountDAO dao = new ConcurrentAccountDAOImpl();
+
+    @Test
+    void manyProducersLeaveExactBalances() throws Exception {
+        int producers = 8;
+        int operations = 2_000;
+        List<Account> accounts = insert(4, 10_000);
+
+        // Μικρό ring ώστε οι producers να περιμένουν και να γίνονται πολλοί γύροι
+        try (RingBufferTransactionEngine engine = new RingBufferTransactionEngine(dao, 2, 64)) {
+            ExecutorService executor = Executors.newFixedThreadPool(producers);
+            try {
+                List<Future<List<CompletableFuture<TransactionResult>>>> submitted = new ArrayList<>();
+                for (int p = 0; p < producers; p++) {
+                    submitted.add(executor.submit(() -> {
+                        List<CompletableFuture<TransactionResult>> results = new ArrayList<>();
+                        for (int i = 0; i < operations; i++) {
+                            Account account = accounts.get(i % accounts.size());
+                            results.add(i / accounts.size() % 2 == 0
+                                    ? engine.deposit(account.getUuid(), 3)
+                                    : engine.withdraw(account.getIban(), account.getHolderView().getSsn(), 1));
+                        }
+                        return results;
+                    }));
+                }
+                for (Future<List<CompletableFuture<TransactionResult>>> producer : submitted) {
+                    for (CompletableFuture<TransactionResult> result : producer.get()) {
+                        assertTrue(result.get(10, TimeUnit.SECONDS).isOk());
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Κάθε λογαριασμός: producers * operations / 4 κινήσεις, οι μισές +3 και οι μισές -1
+        // (το αρχικό υπόλοιπο καλύπτει όλες τις αναλήψεις σε οποιαδήποτε σειρά)
+        long perAccount = (long) producers * operations / accounts.size() / 2;
+        for (Account account : accounts) {
+            assertEquals(10_000 + perAccount * 2, dao.get(account.getUuid()).getBalance());
+        }
+    }
+
+    @Test
+    void commandsOfAPartitionRunInPublicationOrder() throws Exception {
+        List<Account> accounts = insert(2, 0);
+        List<CompletableFuture<TransactionResult>> results = new ArrayList<>();
+
+        try (RingBufferTransactionEngine engine = new RingBufferTransactionEngine(dao, 1, 8)) {
+            Account account = accounts.get(0);
+            Account other = accounts.get(1);
+            for (int i = 0; i < 100; i++) {
+                results.add(engine.deposit(account.getUuid(), 1));
+                results.add(engine.deposit(other.getUuid(), 1));
+            }
+            // Η ανάληψη εκτελείται μετά από όλες τις καταθέσεις που δημοσιεύτηκαν πριν από αυτή
+            results.add(engine.withdraw(account.getIban(), account.getHolderView().getSsn(), 100));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i / 2 + 1, results.get(i).get().getBalance());
+        }
+        assertEquals(TransactionStatus.OK, results.get(200).get().getStatus());
+        assertEquals(0, results.get(200).get().getBalance());
+    }
+
+    @Test
+    void closeCompletesCommandsAlreadyPublished() throws Exception {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IAccountDAO blocking = new ConcurrentAccountDAOImpl() {
+            @Override
+            public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+                writerBlocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.compareAndSetBalance(account, expectedMinor, newMinor);
+            }
+        };
+        Account account = insert(blocking, 1, 0).get(0);
+
+        RingBufferTransactionEngine engine = new RingBufferTransactionEngine(blocking, 1, 64);
+        List<CompletableFuture<TransactionResult>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(engine.deposit(account.getUuid(), 1));
+        }
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> closing = CompletableFuture.runAsync(engine::close);
+        assertFalse(results.get(49).isDone());
+        release.countDown();
+        closing.get(5, TimeUnit.SECONDS);
+
+        for (CompletableFuture<TransactionResult> result : results) {
+            assertTrue(result.isDone());
+            assertTrue(result.get().isOk());
+        }
+        assertEquals(50, blocking.get(account.getUuid()).getBalance());
+    }
+
+    @Test
+    void commandsAfterCloseAreRejected() {
+        Account account = insert(1, 10).get(0);
+        RingBufferTransactionEngine engine = new RingBufferTransactionEngine(dao, 2, 8);
+        engine.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> engine.deposit(account.getUuid(), 1).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        e = assertThrows(ExecutionException.class,
+                () -> engine.withdraw(account.getIban(), account.getHolderView().getSsn(), 1).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(10, dao.get(account.getUuid()).getBalance());
+    }
+
+    @Test
+    void daoExceptionFailsOnlyItsOwnCommand() throws Exception {
+        IllegalStateException failure = new IllegalStateException("disk full");
+        IAccountDAO flaky = new ConcurrentAccountDAOImpl() {
+            @Override
+            public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor) {
+                if (account.getIban().equals("GR0")) throw failure;
+                return super.compareAndSetBalance(account, expectedMinor, newMinor);
+            }
+        };
+        List<Account> accounts = insert(flaky, 2, 0);
+        Account failing = accounts.get(0);
+        Account healthy = accounts.get(1);
+
+        List<CompletableFuture<TransactionResult>> healthyResults = new ArrayList<>();
+        CompletableFuture<TransactionResult> failed;
+        try (RingBufferTransactionEngine engine = new RingBufferTransactionEngine(flaky, 1, 8)) {
+            healthyResults.add(engine.deposit(healthy.getUuid(), 1));
+            failed = engine.deposit(failing.getUuid(), 1);
+            healthyResults.add(engine.deposit(healthy.getUuid(), 1));
+        }
+
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertSame(failure, e.getCause());
+        assertEquals(1, healthyResults.get(0).get().getBalance());
+        assertEquals(2, healthyResults.get(1).get().getBalance());
+        assertEquals(0, flaky.get(failing.getUuid()).getBalance());
+    }
+
+    private List<Account> insert(int count, double balance) {
+        return insert(dao, count, balance);
+    }
+
+    private static List<Account> insert(IAccountDAO dao, int count, double balance) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            accounts.add(dao.insert(new Account("GR" + i, new User("A" + i, "A" + i, "SSN" + i), balance)));
+        }
+        return accounts;
+    }
+}
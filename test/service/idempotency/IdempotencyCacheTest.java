@@ -0,0 +1,126 @@
+package gr.aueb.cf.ch18.bankapp.service.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+    private final long[] now = {0};
+
+    /** Cache με ένα segment και ρολόι που ελέγχει το test. */
+    private IdempotencyCache cache(int maxEntries, long ttlMillis) {
+        return new IdempotencyCache(maxEntries, ttlMillis, 1, () -> now[0]);
+    }
+
+    @Test
+    void replayReturnsFirstValueWithoutCalling() throws Exception {
+        IdempotencyCache cache = cache(10, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, (int) cache.execute("k", "r", calls::incrementAndGet));
+        assertEquals(1, (int) cache.execute("k", "r", calls::incrementAndGet));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getReplays());
+    }
+
+    @Test
+    void checkedExceptionIsReplayedAndRuntimeExceptionIsNot() throws Exception {
+        IdempotencyCache cache = cache(10, 1_000);
+        IOException failure = new IOException("declined");
+
+        assertSame(failure, assertThrows(IOException.class, () -> cache.execute("a", "r", () -> { throw failure; })));
+        assertSame(failure, assertThrows(IOException.class, () -> cache.execute("a", "r", () -> "ok")));
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("b", "r", () -> { throw new IllegalStateException(); }));
+        assertEquals("ok", cache.execute("b", "r", () -> "ok"));
+    }
+
+    @Test
+    void keyReuseForDifferentRequestIsRejected() throws Exception {
+        IdempotencyCache cache = cache(10, 1_000);
+        cache.execute("k", "deposit|1", () -> 1);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.execute("k", "deposit|2", () -> 2));
+    }
+
+    @Test
+    void expiredAndSurplusKeysAreEvicted() throws Exception {
+        IdempotencyCache cache = cache(3, 1_000);
+        for (int i = 0; i < 5; i++) {
+            cache.execute("k" + i, "r", () -> 0);
+        }
+        assertEquals(3, cache.size());
+
+        now[0] = TimeUnit.SECONDS.toNanos(2);
+        cache.execute("fresh", "r", () -> 0);
+        assertEquals(1, cache.size());
+        assertEquals(7, (int) cache.execute("k4", "r", () -> 7));
+    }
+
+    @Test
+    void inFlightHeadDoesNotBlockEviction() throws Exception {
+        IdempotencyCache cache = cache(3, 1_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> stuck = executor.submit(() -> cache.execute("stuck", "r", () -> {
+                started.countDown();
+                release.await();
+                return 1;
+            }));
+            started.await();
+
+            for (int i = 0; i < 100; i++) {
+                cache.execute("k" + i, "r", () -> 0);
+            }
+            assertEquals(3, cache.size());
+
+            now[0] = TimeUnit.SECONDS.toNanos(2);
+            cache.execute("fresh", "r", () -> 0);
+            assertEquals(2, cache.size());
+
+            release.countDown();
+            assertEquals(1, (int) stuck.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForFirstCall() throws Exception {
+        IdempotencyCache cache = cache(10, 1_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.execute("k", "r", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return 42;
+            }));
+            started.await();
+            Future<Integer> duplicate = executor.submit(() -> cache.execute("k", "r", () -> calls.incrementAndGet()));
+
+            Thread.sleep(50);
+            assertFalse(duplicate.isDone());
+            release.countDown();
+
+            assertEquals(42, (int) first.get());
+            assertEquals(42, (int) duplicate.get());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
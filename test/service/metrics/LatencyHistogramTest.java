@@ -0,0 +1,104 @@
+package gr.aueb.cf.ch18.bankapp.service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void valuesBelowThirtyTwoHaveTheirOwnBucket() {
+        for (long value = 0; value < 32; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertEquals(value, index);
+            assertEquals(value, LatencyHistogram.lowestValueAt(index));
+            assertEquals(value, LatencyHistogram.highestValueAt(index));
+        }
+    }
+
+    @Test
+    void powersOfTwoStartANewBucket() {
+        for (int exponent = 5; exponent < 63; exponent++) {
+            long value = 1L << exponent;
+            int index = LatencyHistogram.indexOf(value);
+            assertEquals(value, LatencyHistogram.lowestValueAt(index));
+            assertEquals(value - 1, LatencyHistogram.highestValueAt(index - 1));
+        }
+    }
+
+    @Test
+    void longMaxValueFallsInTheLastBucket() {
+        int index = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueAt(index));
+        assertEquals(63L << 57, LatencyHistogram.lowestValueAt(index));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void bucketsBoundEachValueWithinThreePercent() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+            int index = LatencyHistogram.indexOf(value);
+            long lowest = LatencyHistogram.lowestValueAt(index);
+            long highest = LatencyHistogram.highestValueAt(index);
+
+            assertTrue(lowest <= value && value <= highest, () -> "value " + value);
+            assertTrue(highest - lowest <= lowest / 32, () -> "value " + value);
+        }
+    }
+
+    @Test
+    void percentilesOfAUniformRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100, histogram.count());
+        assertEquals(100, histogram.max());
+        assertEquals(50, histogram.valueAtPercentile(50));
+        // Το 99 μοιράζεται το bucket [98, 99]
+        assertEquals(99, histogram.valueAtPercentile(99));
+        assertEquals(100, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void percentilesOfLargeValuesStayWithinTheErrorBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertWithinBound(5_000_000, histogram.valueAtPercentile(50));
+        assertWithinBound(9_900_000, histogram.valueAtPercentile(99));
+        assertEquals(10_000_000, histogram.valueAtPercentile(100));
+        assertEquals(5_000_500, histogram.mean(), 5_000_500 / 32.0);
+    }
+
+    @Test
+    void emptyAndResetHistogramsReportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(99));
+        assertEquals(0, histogram.mean());
+
+        histogram.record(-5);
+        assertEquals(1, histogram.count());
+        assertEquals(0, histogram.valueAtPercentile(100));
+
+        histogram.record(1_000);
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+
+    private static void assertWithinBound(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 32,
+                () -> "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,203 @@
+package gr.aueb.cf.ch18.bankapp.service.transfer;
+
+import gr.aueb.cf.ch18.bankapp.dao.ConcurrentAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.IAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.journal.AccountJournal;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournalDurability;
+import gr.aueb.cf.ch18.bankapp.dao.journal.JournaledAccountDAO;
+import gr.aueb.cf.ch18.bankapp.dao.offheap.OffHeapAccountDAOImpl;
+import gr.aueb.cf.ch18.bankapp.dao.sharded.ShardedAccountDAO;
+import gr.aueb.cf.ch18.bankapp.model.Account;
+import gr.aueb.cf.ch18.bankapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossShardTransferCoordinatorTest {
+    @TempDir
+    Path dir;
+
+    private final List<CrashingShard> shards = new ArrayList<>();
+    private ShardedAccountDAO dao;
+    private TransferIntentLog log;
+
+    /** Shard που "καταρρέει" αμέσως μετά από ένα σκέλος μεταφοράς, όσο είναι οπλισμένο. */
+    private static final class CrashingShard extends JournaledAccountDAO {
+        volatile boolean crashBefore;
+        volatile boolean crashAfter;
+
+        CrashingShard(IAccountDAO delegate, AccountJournal journal, Path snapshot) {
+            super(delegate, journal, snapshot);
+        }
+
+        @Override
+        public boolean compareAndSetBalance(Account account, long expectedMinor, long newMinor, long legId) {
+            if (crashBefore) throw new IllegalStateException("crash");
+            boolean applied = super.compareAndSetBalance(account, expectedMinor, newMinor, legId);
+            if (applied && crashAfter) throw new IllegalStateException("crash");
+            return applied;
+        }
+    }
+
+    @Test
+    void crashAfterCreditCommitsWithoutCreditingTwice() throws Exception {
+        start();
+        String[] ibans = ibansOnDifferentShards();
+        dao.insert(new Account(ibans[0], new User("A", "A", "SSN1"), 100));
+        dao.insert(new Account(ibans[1], new User("B", "B", "SSN2"), 0));
+
+        shards.get(dao.shardIndexOf(ibans[1])).crashAfter = true;
+        CrossShardTransferCoordinator coordinator = new CrossShardTransferCoordinator(dao, log);
+        assertThrows(IllegalStateException.class, () -> coordinator.transfer(ibans[0], ibans[1], 30));
+        restart();
+
+        assertEquals(TransferPhase.RESERVED, log.inDoubt().get(0).getPhase());
+        assertEquals(1, new CrossShardTransferCoordinator(dao, log).recover());
+        assertTrue(log.inDoubt().isEmpty());
+        assertEquals(70, dao.getByIban(ibans[0]).getBalance());
+        assertEquals(30, dao.getByIban(ibans[1]).getBalance());
+    }
+
+    @Test
+    void crashAfterDebitRollsForward() throws Exception {
+        start();
+        String[] ibans = ibansOnDifferentShards();
+        dao.insert(new Account(ibans[0], new User("A", "A", "SSN1"), 100));
+        dao.insert(new Account(ibans[1], new User("B", "B", "SSN2"), 0));
+
+        shards.get(dao.shardIndexOf(ibans[0])).crashAfter = true;
+        CrossShardTransferCoordinator coordinator = new CrossShardTransferCoordinator(dao, log);
+        assertThrows(IllegalStateException.class, () -> coordinator.transfer(ibans[0], ibans[1], 30));
+        restart();
+
+        assertEquals(TransferPhase.PREPARED, log.inDoubt().get(0).getPhase());
+        assertEquals(1, new CrossShardTransferCoordinator(dao, log).recover());
+        assertTrue(log.inDoubt().isEmpty());
+        assertEquals(70, dao.getByIban(ibans[0]).getBalance());
+        assertEquals(30, dao.getByIban(ibans[1]).getBalance());
+    }
+
+    @Test
+    void crashBeforeDebitAborts() throws Exception {
+        start();
+        String[] ibans = ibansOnDifferentShards();
+        dao.insert(new Account(ibans[0], new User("A", "A", "SSN1"), 100));
+        dao.insert(new Account(ibans[1], new User("B", "B", "SSN2"), 0));
+
+        shards.get(dao.shardIndexOf(ibans[0])).crashBefore = true;
+        CrossShardTransferCoordinator coordinator = new CrossShardTransferCoordinator(dao, log);
+        assertThrows(IllegalStateException.class, () -> coordinator.transfer(ibans[0], ibans[1], 30));
+        restart();
+
+        assertEquals(1, new CrossShardTransferCoordinator(dao, log).recover());
+        assertTrue(log.inDoubt().isEmpty());
+        assertEquals(100, dao.getByIban(ibans[0]).getBalance());
+        assertEquals(0, dao.getByIban(ibans[1]).getBalance());
+    }
+
+    @Test
+    void transfersAcrossShardsMoveMoney() throws Exception {
+        start();
+        String[] ibans = ibansOnDifferentShards();
+        dao.insert(new Account(ibans[0], new User("A", "A", "SSN1"), 100));
+        dao.insert(new Account(ibans[1], new User("B", "B", "SSN2"), 0));
+
+        CrossShardTransferCoordinator coordinator = new CrossShardTransferCoordinator(dao, log);
+        coordinator.transfer(ibans[0], ibans[1], 30);
+        restart();
+
+        assertTrue(log.inDoubt().isEmpty());
+        assertEquals(70, dao.getByIban(ibans[0]).getBalance());
+        assertEquals(30, dao.getByIban(ibans[1]).getBalance());
+    }
+
+    @Test
+    void transferToTheSameAccountIsRejectedEvenWithCopyingShards() throws Exception {
+        ShardedAccountDAO offHeap = new ShardedAccountDAO(2, OffHeapAccountDAOImpl::new, ForkJoinPool.commonPool());
+        String uuid = offHeap.insert(new Account("GR1", new User("A", "A", "SSN1"), 100)).getUuid();
+
+        try (TransferIntentLog intents = new TransferIntentLog(dir.resolve("offheap.log"))) {
+            CrossShardTransferCoordinator coordinator = new CrossShardTransferCoordinator(offHeap, intents);
+            assertThrows(IllegalArgumentException.class, () -> coordinator.transfer("GR1", "GR1", 30));
+            assertTrue(intents.inDoubt().isEmpty());
+        }
+        assertEquals(100, offHeap.get(uuid).getBalance());
+    }
+
+    @Test
+    void legsAreForgottenOnlyOnceTheTransferIsDurablyComplete() throws Exception {
+        start();
+        String[] ibans = ibansOnDifferentShards();
+        dao.insert(new Account(ibans[0], new User("A", "A", "SSN1"), 100));
+        dao.insert(new Account(ibans[1], new User("B", "B", "SSN2"), 0));
+
+        CrossShardTransferCoordinator coordinator = new CrossShardTransferCoordinator(dao, log);
+        coordinator.transfer(ibans[0], ibans[1], 30);
+        coordinator.recover();
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).checkpoint(snapshot(i));
+        }
+
+        // Crash: τα shards είναι durable, το log δεν κλείνει (ούτε γίνεται fsync)
+        for (CrashingShard shard : shards) {
+            shard.close();
+        }
+        start();
+
+        new CrossShardTransferCoordinator(dao, log).recover();
+        assertTrue(log.inDoubt().isEmpty());
+        assertEquals(70, dao.getByIban(ibans[0]).getBalance());
+        assertEquals(30, dao.getByIban(ibans[1]).getBalance());
+    }
+
+    /**
+     * Ανοίγει τα shards και το log από τα αρχεία τους (με αναπαραγωγή των journals).
+     */
+    private void start() throws IOException {
+        shards.clear();
+        dao = new ShardedAccountDAO(2, () -> {
+            try {
+                CrashingShard shard = new CrashingShard(new ConcurrentAccountDAOImpl(), new AccountJournal(
+                        dir.resolve("shard" + shards.size() + ".journal"), JournalDurability.PER_OPERATION),
+                        snapshot(shards.size()));
+                shards.add(shard);
+                return shard;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ForkJoinPool.commonPool());
+        log = new TransferIntentLog(dir.resolve("transfers.log"));
+    }
+
+    /**
+     * Κλείνει τα αρχεία (ό,τι καταγράφηκε μέχρι το crash) και τα ξανανοίγει.
+     */
+    private void restart() throws IOException {
+        for (CrashingShard shard : shards) {
+            shard.close();
+        }
+        log.close();
+        start();
+    }
+
+    private Path snapshot(int shard) {
+        return dir.resolve("shard" + shard + ".snapshot");
+    }
+
+    private String[] ibansOnDifferentShards() {
+        String source = "GR0";
+        String target = source;
+        for (int i = 1; dao.shardIndexOf(target) == dao.shardIndexOf(source); i++) {
+            target = "GR" + i;
+        }
+        return new String[] {source, target};
+    }
+}
@@ -0,0 +1,52 @@
+package gr.aueb.cf.ch18.bankapp.service.transfer;
+
+import gr.aueb.cf.ch18.bankapp.dao.journal.FailingChannel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferIntentLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedWriteKeepsEarlierIntentsAndIsNeverReportedDurable() throws Exception {
+        Path path = dir.resolve("transfers.log");
+        FailingChannel channel = FailingChannel.open(path);
+        TransferIntentLog log = new TransferIntentLog(channel, path);
+        TransferIntent kept = log.prepare("GR1", "GR2", 100);
+        long good = Files.size(path);
+
+        log.record(kept, TransferPhase.RESERVED, false);
+        channel.setFailing(true);
+        assertThrows(UncheckedIOException.class, () -> log.prepare("GR3", "GR4", 50));
+        assertEquals(good, Files.size(path));
+
+        channel.setFailing(false);
+        assertThrows(UncheckedIOException.class, log::sync);
+        assertThrows(UncheckedIOException.class, () -> log.record(kept, TransferPhase.COMMITTED, true));
+        assertEquals(good, Files.size(path));
+        assertThrows(IOException.class, log::close);
+
+        TransferIntent added;
+        try (TransferIntentLog reopened = new TransferIntentLog(path)) {
+            List<TransferIntent> inDoubt = reopened.inDoubt();
+            assertEquals(1, inDoubt.size());
+            assertEquals(kept.getId(), inDoubt.get(0).getId());
+            assertEquals(TransferPhase.PREPARED, inDoubt.get(0).getPhase());
+            added = reopened.prepare("GR5", "GR6", 25);
+        }
+
+        try (TransferIntentLog reopened = new TransferIntentLog(path)) {
+            assertEquals(List.of(kept.getId(), added.getId()),
+                    reopened.inDoubt().stream().map(TransferIntent::getId).toList());
+        }
+    }
+}